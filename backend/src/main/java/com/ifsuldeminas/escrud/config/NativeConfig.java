@@ -0,0 +1,94 @@
+package com.ifsuldeminas.escrud.config;
+
+import com.ifsuldeminas.escrud.entities.PooledSequenceGenerator;
+import net.ttddyy.dsproxy.proxy.ProxyJdbcObject;
+import org.springframework.aot.hint.BindingReflectionHintsRegistrar;
+import org.springframework.aot.hint.MemberCategory;
+import org.springframework.aot.hint.RuntimeHints;
+import org.springframework.aot.hint.RuntimeHintsRegistrar;
+import org.springframework.beans.factory.config.BeanDefinition;
+import org.springframework.context.annotation.ClassPathScanningCandidateComponentProvider;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.ImportRuntimeHints;
+import org.springframework.util.ClassUtils;
+
+import javax.sql.DataSource;
+import java.sql.CallableStatement;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.util.List;
+
+// Metadados de alcance para a imagem nativa (mvn -Pnative package) além do que o AOT do Spring já gera
+// sozinho (entidades JPA, controllers, proxies de beans). Na JVM não tem efeito.
+@Configuration
+@ImportRuntimeHints(NativeConfig.Hints.class)
+public class NativeConfig {
+
+    // O jjwt-api carrega a implementação pelo nome da classe (Jwts.builder(), Jwts.SIG, Keys...)
+    private static final List<String> JJWT_IMPL = List.of(
+            "io.jsonwebtoken.impl.DefaultClaimsBuilder",
+            "io.jsonwebtoken.impl.DefaultJwtBuilder",
+            "io.jsonwebtoken.impl.DefaultJwtHeaderBuilder",
+            "io.jsonwebtoken.impl.DefaultJwtParserBuilder",
+            "io.jsonwebtoken.impl.io.StandardCompressionAlgorithms",
+            "io.jsonwebtoken.impl.security.DefaultDynamicJwkBuilder",
+            "io.jsonwebtoken.impl.security.DefaultJwkParserBuilder",
+            "io.jsonwebtoken.impl.security.DefaultJwkSetBuilder",
+            "io.jsonwebtoken.impl.security.DefaultJwkSetParserBuilder",
+            "io.jsonwebtoken.impl.security.DefaultKeyOperationBuilder",
+            "io.jsonwebtoken.impl.security.DefaultKeyOperationPolicyBuilder",
+            "io.jsonwebtoken.impl.security.JwksBridge",
+            "io.jsonwebtoken.impl.security.KeysBridge",
+            "io.jsonwebtoken.impl.security.StandardCurves",
+            "io.jsonwebtoken.impl.security.StandardEncryptionAlgorithms",
+            "io.jsonwebtoken.impl.security.StandardHashAlgorithms",
+            "io.jsonwebtoken.impl.security.StandardKeyAlgorithms",
+            "io.jsonwebtoken.impl.security.StandardKeyOperations",
+            "io.jsonwebtoken.impl.security.StandardSecureDigestAlgorithms");
+
+    // Proxies JDK que o datasource-proxy monta em volta do pool (SqlTracing)
+    private static final List<Class<?>> PROXIED_JDBC = List.of(
+            DataSource.class, Connection.class, Statement.class, PreparedStatement.class,
+            CallableStatement.class, ResultSet.class);
+
+    static final String DTO_PACKAGE = "com.ifsuldeminas.escrud.dto";
+
+    static class Hints implements RuntimeHintsRegistrar {
+
+        @Override
+        public void registerHints(RuntimeHints hints, ClassLoader classLoader) {
+            for (String type : JJWT_IMPL) {
+                hints.reflection().registerTypeIfPresent(classLoader, type,
+                        MemberCategory.INVOKE_DECLARED_CONSTRUCTORS, MemberCategory.INVOKE_PUBLIC_METHODS);
+            }
+            for (Class<?> type : PROXIED_JDBC) {
+                hints.proxies().registerJdkProxy(ProxyJdbcObject.class, type);
+            }
+
+            // Hibernate instancia o gerador do @PooledSequence passando a anotação no construtor
+            hints.reflection().registerType(PooledSequenceGenerator.class, MemberCategory.INVOKE_PUBLIC_CONSTRUCTORS);
+
+            // DTOs: construtores para o "SELECT new" do JPQL e acessores para o Jackson, inclusive os que
+            // só passam pelo PayloadCache e não aparecem na assinatura de nenhum controller
+            BindingReflectionHintsRegistrar binding = new BindingReflectionHintsRegistrar();
+            for (Class<?> type : dtoTypes(classLoader)) {
+                hints.reflection().registerType(type, MemberCategory.INVOKE_PUBLIC_CONSTRUCTORS);
+                binding.registerReflectionHints(hints.reflection(), type);
+            }
+
+            // Migrações por banco (spring.flyway.locations do prod); db/migration o Spring Boot já inclui
+            hints.resources().registerPattern("db/vendor/*/*.sql");
+        }
+
+        static List<Class<?>> dtoTypes(ClassLoader classLoader) {
+            ClassPathScanningCandidateComponentProvider scanner = new ClassPathScanningCandidateComponentProvider(false);
+            scanner.addIncludeFilter((reader, factory) -> true);
+            return scanner.findCandidateComponents(DTO_PACKAGE).stream()
+                    .map(BeanDefinition::getBeanClassName)
+                    .<Class<?>>map(name -> ClassUtils.resolveClassName(name, classLoader))
+                    .toList();
+        }
+    }
+}
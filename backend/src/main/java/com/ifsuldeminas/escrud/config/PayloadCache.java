@@ -0,0 +1,114 @@
+package com.ifsuldeminas.escrud.config;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.WebRequest;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Supplier;
+import java.util.zip.GZIPOutputStream;
+
+// Respostas grandes e repetidas (listas de referência, dashboard) guardadas já serializadas e já
+// compactadas, por chave + versão dos dados. Enquanto a versão não muda, servir é devolver os bytes.
+@Component
+@RequiredArgsConstructor
+public class PayloadCache {
+
+    private final ObjectMapper objectMapper;
+
+    @Value("${payload-cache.max-entries:512}")
+    private int maxEntries;
+
+    @Value("${payload-cache.min-gzip-bytes:1024}")
+    private int minGzipBytes;
+
+    private final Map<String, Payload> entries = new LinkedHashMap<>(64, 0.75f, true);
+
+    public ResponseEntity<?> respond(String key, String version, WebRequest request, Supplier<?> loader) {
+        // Cliente que não aceita JSON (ex.: CBOR do coletor) segue pela negociação normal
+        if (!acceptsJson(request.getHeader(HttpHeaders.ACCEPT))) {
+            return ResponseEntity.ok(loader.get());
+        }
+        if (request.checkNotModified("W/\"" + version + "\"")) {
+            return null;
+        }
+
+        Payload payload = get(key, version);
+        if (payload == null) {
+            payload = serialize(version, loader.get());
+            put(key, payload);
+        }
+
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .header(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        if (payload.gzip() != null && acceptsGzip(request.getHeader(HttpHeaders.ACCEPT_ENCODING))) {
+            return response.header(HttpHeaders.CONTENT_ENCODING, "gzip").body(payload.gzip());
+        }
+        return response.body(payload.json());
+    }
+
+    private synchronized Payload get(String key, String version) {
+        Payload payload = entries.get(key);
+        return (payload != null && payload.version().equals(version)) ? payload : null;
+    }
+
+    private synchronized void put(String key, Payload payload) {
+        entries.put(key, payload);
+        if (entries.size() > maxEntries) {
+            entries.remove(entries.keySet().iterator().next());
+        }
+    }
+
+    private Payload serialize(String version, Object body) {
+        try {
+            byte[] json = objectMapper.writeValueAsBytes(body);
+            return new Payload(version, json, json.length >= minGzipBytes ? gzip(json) : null);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not serialize response", e);
+        }
+    }
+
+    private static byte[] gzip(byte[] json) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(json.length / 4);
+        try (GZIPOutputStream gzip = new GZIPOutputStream(out)) {
+            gzip.write(json);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return out.toByteArray();
+    }
+
+    private static boolean acceptsJson(String accept) {
+        if (accept == null || accept.isBlank()) {
+            return true;
+        }
+        return MediaType.parseMediaTypes(accept).stream()
+                .anyMatch(type -> type.isCompatibleWith(MediaType.APPLICATION_JSON) && type.getQualityValue() > 0);
+    }
+
+    private static boolean acceptsGzip(String acceptEncoding) {
+        if (acceptEncoding == null) {
+            return false;
+        }
+        for (String coding : acceptEncoding.split(",")) {
+            String[] parts = coding.trim().split(";");
+            if (parts[0].trim().equalsIgnoreCase("gzip")) {
+                return parts.length == 1 || !parts[1].replace(" ", "").matches("q=0(\\.0*)?");
+            }
+        }
+        return false;
+    }
+
+    private record Payload(String version, byte[] json, byte[] gzip) {}
+}
@@ -0,0 +1,15 @@
+package com.ifsuldeminas.escrud.config;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+// Máximo de statements SQL que o endpoint pode executar numa requisição. Estourar vira WARN no log e,
+// com sql.budget.enforce=true (testes), erro — assim um N+1 novo quebra o build em vez de ir para produção.
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface SqlBudget {
+
+    int value();
+}
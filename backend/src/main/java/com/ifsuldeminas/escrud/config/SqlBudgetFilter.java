@@ -0,0 +1,53 @@
+package com.ifsuldeminas.escrud.config;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.lang.NonNull;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.io.IOException;
+
+// Abre o SqlStats de cada requisição. Em DEBUG loga quantos statements e quanto tempo de banco ela custou;
+// se o handler declarou @SqlBudget e passou do limite, avisa (ou falha, com sql.budget.enforce=true).
+@Slf4j
+@Component
+public class SqlBudgetFilter extends OncePerRequestFilter {
+
+    @Value("${sql.budget.enforce:false}")
+    private boolean enforce;
+
+    @Override
+    protected void doFilterInternal(@NonNull HttpServletRequest request,
+                                    @NonNull HttpServletResponse response,
+                                    @NonNull FilterChain filterChain) throws ServletException, IOException {
+        SqlStats stats = SqlStats.open();
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            SqlStats.close();
+        }
+
+        log.debug("{} {}: {} SQL statements, {} ms", request.getMethod(), request.getRequestURI(),
+                stats.statements(), stats.millis());
+
+        // O DispatcherServlet deixa o handler escolhido na requisição
+        if (request.getAttribute(HandlerMapping.BEST_MATCHING_HANDLER_ATTRIBUTE) instanceof HandlerMethod handler) {
+            SqlBudget budget = handler.getMethodAnnotation(SqlBudget.class);
+            if (budget != null && stats.statements() > budget.value()) {
+                String message = String.format("%s %s ran %d SQL statements, budget is %d",
+                        request.getMethod(), request.getRequestURI(), stats.statements(), budget.value());
+                if (enforce) {
+                    throw new IllegalStateException(message);
+                }
+                log.warn(message);
+            }
+        }
+    }
+}
@@ -0,0 +1,40 @@
+package com.ifsuldeminas.escrud.config;
+
+// Statements e tempo de banco da requisição corrente. O SqlBudgetFilter abre e fecha, o SqlTracing soma;
+// SQL fora de requisição (jobs, workers de escrita) não tem escopo e não é contado aqui.
+public final class SqlStats {
+
+    private static final ThreadLocal<SqlStats> CURRENT = new ThreadLocal<>();
+
+    private int statements;
+    private long millis;
+
+    private SqlStats() {
+    }
+
+    static SqlStats open() {
+        SqlStats stats = new SqlStats();
+        CURRENT.set(stats);
+        return stats;
+    }
+
+    static void close() {
+        CURRENT.remove();
+    }
+
+    static void record(long elapsedMillis) {
+        SqlStats stats = CURRENT.get();
+        if (stats != null) {
+            stats.statements++;
+            stats.millis += elapsedMillis;
+        }
+    }
+
+    public int statements() {
+        return statements;
+    }
+
+    public long millis() {
+        return millis;
+    }
+}
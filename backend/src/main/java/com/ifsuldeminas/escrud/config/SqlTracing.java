@@ -0,0 +1,98 @@
+package com.ifsuldeminas.escrud.config;
+
+import io.micrometer.observation.Observation;
+import io.micrometer.observation.ObservationRegistry;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import net.ttddyy.dsproxy.ExecutionInfo;
+import net.ttddyy.dsproxy.QueryInfo;
+import net.ttddyy.dsproxy.listener.QueryExecutionListener;
+import net.ttddyy.dsproxy.listener.logging.DefaultQueryLogEntryCreator;
+import net.ttddyy.dsproxy.support.ProxyDataSource;
+import net.ttddyy.dsproxy.support.ProxyDataSourceBuilder;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.util.List;
+import java.util.stream.Collectors;
+
+// Envolve o DataSource com o datasource-proxy no lugar do show-sql: cada statement soma no SqlStats da
+// requisição e só as consultas acima de sql.slow-query-ms vão para o log, com os parâmetros e o método
+// da aplicação que as disparou. A pilha só é percorrida para as lentas. Cada statement também vira um span
+// (observação "escrud.jdbc"), filho do método de serviço que estiver aberto.
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class SqlTracing implements BeanPostProcessor {
+
+    private static final String APP_PACKAGE = "com.ifsuldeminas.escrud.";
+    private static final String CONFIG_PACKAGE = APP_PACKAGE + "config.";
+    private static final String OBSERVATION = "observation";
+
+    // Provider: o registry ainda não existe quando o DataSource é criado
+    private final ObjectProvider<ObservationRegistry> observationRegistry;
+
+    @Value("${sql.tracing.enabled:true}")
+    private boolean enabled;
+
+    @Value("${sql.slow-query-ms:200}")
+    private long slowQueryMs;
+
+    private final DefaultQueryLogEntryCreator entryCreator = new DefaultQueryLogEntryCreator();
+
+    @Override
+    public Object postProcessAfterInitialization(Object bean, String beanName) {
+        if (!enabled || !(bean instanceof DataSource dataSource) || bean instanceof ProxyDataSource) {
+            return bean;
+        }
+        return ProxyDataSourceBuilder.create(dataSource)
+                .name(beanName)
+                .listener(new Listener())
+                .build();
+    }
+
+    private class Listener implements QueryExecutionListener {
+
+        @Override
+        public void beforeQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+            ObservationRegistry registry = observationRegistry.getIfAvailable(() -> ObservationRegistry.NOOP);
+            Observation observation = Observation.createNotStarted("escrud.jdbc", registry)
+                    .contextualName("jdbc " + (execInfo.isBatch() ? "batch" : "query"))
+                    .lowCardinalityKeyValue("batch", String.valueOf(execInfo.isBatch()))
+                    .highCardinalityKeyValue("db.statement", queryInfoList.stream()
+                            .map(QueryInfo::getQuery).collect(Collectors.joining("; ")))
+                    .start();
+            execInfo.addCustomValue(OBSERVATION, observation);
+        }
+
+        @Override
+        public void afterQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+            Observation observation = execInfo.getCustomValue(OBSERVATION, Observation.class);
+            if (observation != null) {
+                if (execInfo.getThrowable() != null) {
+                    observation.error(execInfo.getThrowable());
+                }
+                observation.stop();
+            }
+            SqlStats.record(execInfo.getElapsedTime());
+            if (execInfo.getElapsedTime() >= slowQueryMs && log.isWarnEnabled()) {
+                log.warn("Slow query from {}: {}", caller(),
+                        entryCreator.getLogEntry(execInfo, queryInfoList, false, false, false));
+            }
+        }
+    }
+
+    // Primeiro frame da aplicação fora deste pacote e fora de proxy: o serviço (ou repositório custom) que consultou
+    private static String caller() {
+        return StackWalker.getInstance().walk(frames -> frames
+                .filter(f -> f.getClassName().startsWith(APP_PACKAGE)
+                        && !f.getClassName().startsWith(CONFIG_PACKAGE)
+                        && !f.getClassName().contains("$$"))
+                .findFirst()
+                .map(f -> f.getClassName().substring(f.getClassName().lastIndexOf('.') + 1) + "." + f.getMethodName())
+                .orElse("unknown"));
+    }
+}
@@ -0,0 +1,31 @@
+package com.ifsuldeminas.escrud.config;
+
+import jakarta.annotation.PostConstruct;
+import org.springframework.boot.LazyInitializationExcludeFilter;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.annotation.AnnotatedElementUtils;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.util.ReflectionUtils;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+
+// Com spring.main.lazy-initialization=true (perfil startup) os beans nascem no primeiro uso. Ficam de fora
+// os que trabalham sozinhos: @Scheduled só é registrado quando o bean é criado, e o @PostConstruct dos modos
+// em fila reaplica o journal e sobe os workers antes da primeira requisição.
+@Configuration
+public class StartupConfig {
+
+    @Bean
+    static LazyInitializationExcludeFilter selfStartingBeans() {
+        return (beanName, beanDefinition, beanType) -> beanType != null && isSelfStarting(beanType);
+    }
+
+    static boolean isSelfStarting(Class<?> beanType) {
+        AtomicBoolean found = new AtomicBoolean();
+        ReflectionUtils.doWithMethods(beanType, method -> found.set(true),
+                method -> !found.get() && (AnnotatedElementUtils.hasAnnotation(method, Scheduled.class)
+                        || method.isAnnotationPresent(PostConstruct.class)));
+        return found.get();
+    }
+}
@@ -0,0 +1,19 @@
+package com.ifsuldeminas.escrud.config;
+
+import io.opentelemetry.exporter.logging.otlp.OtlpJsonLoggingSpanExporter;
+import io.opentelemetry.sdk.trace.export.SpanExporter;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+// Os spans vão para o coletor OTLP (management.otlp.tracing.endpoint). Com tracing.log-spans=true também
+// saem no log, uma linha JSON OTLP por lote, para testes e diagnóstico local sem coletor.
+@Configuration
+public class TracingConfig {
+
+    @Bean
+    @ConditionalOnProperty(name = "tracing.log-spans", havingValue = "true")
+    public SpanExporter loggingSpanExporter() {
+        return OtlpJsonLoggingSpanExporter.create();
+    }
+}
@@ -7,9 +7,12 @@ import com.ifsuldeminas.escrud.entities.User;
 import com.ifsuldeminas.escrud.repositories.UserRepository;
 import com.ifsuldeminas.escrud.service.JwtService;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
@@ -21,6 +24,8 @@ import org.springframework.web.bind.annotation.RestController;
 @RequiredArgsConstructor
 public class AuthController {
 
+    private static final String ADMIN = "ADMIN";
+
     private final AuthenticationManager authenticationManager;
     private final JwtService jwtService;
     private final UserRepository userRepository;
@@ -56,6 +61,10 @@ public class AuthController {
         if (this.userRepository.findByLogin(registerRequest.login()).isPresent()) {
             return ResponseEntity.badRequest().build();
         }
+        // O cadastro é público: só um ADMIN autenticado cria outro ADMIN
+        if (ADMIN.equals(registerRequest.role()) && !isAdmin()) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
+        }
 
         User newUser = new User();
         newUser.setName(registerRequest.name());
@@ -76,4 +85,10 @@ public class AuthController {
 
         return ResponseEntity.ok(response);
     }
+
+    private static boolean isAdmin() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        return authentication != null && authentication.getAuthorities().stream()
+                .anyMatch(authority -> ADMIN.equals(authority.getAuthority()));
+    }
 }
\ No newline at end of file
@@ -1,6 +1,9 @@
 package com.ifsuldeminas.escrud.controllers;
+import com.ifsuldeminas.escrud.config.PayloadCache;
 import com.ifsuldeminas.escrud.dto.CategoryRequestDTO;
 import com.ifsuldeminas.escrud.dto.CategoryResponseDTO;
+import com.ifsuldeminas.escrud.service.DataVersions;
+import com.ifsuldeminas.escrud.service.DataVersions.DataSet;
 import com.ifsuldeminas.escrud.service.CategoryService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.Page;
@@ -8,14 +11,16 @@ import org.springframework.data.domain.Pageable;
 import org.springframework.data.web.PageableDefault;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
 import java.net.URI;
-import java.util.List;
 @RestController
 @RequestMapping("/api/categories")
 @RequiredArgsConstructor
 public class CategoryController {
     private final CategoryService service;
+    private final PayloadCache payloadCache;
+    private final DataVersions dataVersions;
 
     @GetMapping
     public ResponseEntity<Page<CategoryResponseDTO>> findAll(
@@ -25,8 +30,9 @@ public class CategoryController {
     }
 
     @GetMapping("/active")
-    public ResponseEntity<List<CategoryResponseDTO>> findAllActive() {
-        return ResponseEntity.ok(service.findAllActive());
+    public ResponseEntity<?> findAllActive(WebRequest request) {
+        return payloadCache.respond("category:active", dataVersions.tag(DataSet.CATEGORIES), request,
+                service::findAllActive);
     }
 
     @GetMapping("/{id}")
@@ -1,6 +1,9 @@
 package com.ifsuldeminas.escrud.controllers;
+import com.ifsuldeminas.escrud.config.PayloadCache;
 import com.ifsuldeminas.escrud.dto.DepartmentRequestDTO;
 import com.ifsuldeminas.escrud.dto.DepartmentResponseDTO;
+import com.ifsuldeminas.escrud.service.DataVersions;
+import com.ifsuldeminas.escrud.service.DataVersions.DataSet;
 import com.ifsuldeminas.escrud.service.DepartmentService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.Page;
@@ -8,15 +11,17 @@ import org.springframework.data.domain.Pageable;
 import org.springframework.data.web.PageableDefault;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
 import java.net.URI;
-import java.util.List;
 @RestController
 @RequestMapping("/api/departments")
 @RequiredArgsConstructor
 public class DepartmentController {
 
     private final DepartmentService service;
+    private final PayloadCache payloadCache;
+    private final DataVersions dataVersions;
 
     @GetMapping
     public ResponseEntity<Page<DepartmentResponseDTO>> findAll(
@@ -26,8 +31,9 @@ public class DepartmentController {
     }
 
     @GetMapping("/active")
-    public ResponseEntity<List<DepartmentResponseDTO>> findAllActive() {
-        return ResponseEntity.ok(service.findAllActive());
+    public ResponseEntity<?> findAllActive(WebRequest request) {
+        return payloadCache.respond("department:active", dataVersions.tag(DataSet.DEPARTMENTS), request,
+                service::findAllActive);
     }
 
     @GetMapping("/{id}")
@@ -1,7 +1,14 @@
 package com.ifsuldeminas.escrud.controllers;
-import com.ifsuldeminas.escrud.dto.ProductMinDTO;
+import com.ifsuldeminas.escrud.config.PayloadCache;
+import com.ifsuldeminas.escrud.config.SqlBudget;
+import com.ifsuldeminas.escrud.dto.ProductFacetSearchDTO;
 import com.ifsuldeminas.escrud.dto.ProductRequestDTO;
 import com.ifsuldeminas.escrud.dto.ProductResponseDTO;
+import com.ifsuldeminas.escrud.dto.ProductScanDTO;
+import com.ifsuldeminas.escrud.entities.AbcClass;
+import com.ifsuldeminas.escrud.entities.StockStatus;
+import com.ifsuldeminas.escrud.service.DataVersions;
+import com.ifsuldeminas.escrud.service.DataVersions.DataSet;
 import com.ifsuldeminas.escrud.service.ProductService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.Page;
@@ -9,6 +16,7 @@ import org.springframework.data.domain.Pageable;
 import org.springframework.data.web.PageableDefault;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
 import java.net.URI;
 import java.util.List;
@@ -18,19 +26,51 @@ import java.util.List;
 public class ProductController {
 
     private final ProductService service;
+    private final PayloadCache payloadCache;
+    private final DataVersions dataVersions;
 
+    // Página + count; mais que isso é N+1 no mapToDTO
+    @SqlBudget(2)
     @GetMapping
-    public ResponseEntity<Page<ProductResponseDTO>> findAll(
+    public ResponseEntity<?> findAll(
             @PageableDefault(size = 20, sort = "name") Pageable pageable,
             @RequestParam(required = false) String name,
             @RequestParam(required = false) String sku,
-            @RequestParam(required = false) Boolean active) {
-        return ResponseEntity.ok(service.findAll(pageable, name, sku, active));
+            @RequestParam(required = false) Boolean active,
+            @RequestParam(required = false) AbcClass abcClass,
+            @RequestParam(required = false) List<String> fields,
+            WebRequest request) {
+        boolean sparse = fields != null && !fields.isEmpty();
+        String key = "products:" + pageable + ":" + name + ":" + sku + ":" + active + ":" + abcClass + ":" + fields;
+        String version = dataVersions.tag(DataSet.PRODUCTS, DataSet.STOCK, DataSet.ANALYTICS,
+                DataSet.CATEGORIES, DataSet.SUPPLIERS);
+        return payloadCache.respond(key, version, request, () -> sparse
+                ? service.findFields(fields, pageable, name, sku, active, abcClass)
+                : service.findAll(pageable, name, sku, active, abcClass));
     }
 
     @GetMapping("/all")
-    public ResponseEntity<List<ProductMinDTO>> findAllActiveList() {
-        return ResponseEntity.ok(service.findAllActiveList());
+    public ResponseEntity<?> findAllActiveList(WebRequest request) {
+        return payloadCache.respond("products:all", dataVersions.tag(DataSet.PRODUCTS), request,
+                service::findAllActiveList);
+    }
+
+    @GetMapping("/facets")
+    public ResponseEntity<ProductFacetSearchDTO> searchFacets(
+            @RequestParam(required = false) Integer categoryId,
+            @RequestParam(required = false) Long supplierId,
+            @RequestParam(required = false) String location,
+            @RequestParam(required = false) StockStatus stockStatus,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "20") int size) {
+        int pageSize = Math.max(1, Math.min(size, 200));
+        return ResponseEntity.ok(service.searchFacets(categoryId, supplierId, location, stockStatus,
+                Math.max(page, 0), pageSize));
+    }
+
+    @GetMapping("/sku/{sku}")
+    public ResponseEntity<ProductScanDTO> findBySku(@PathVariable String sku) {
+        return ResponseEntity.ok(service.findBySku(sku));
     }
 
     @GetMapping("/{id}")
@@ -60,4 +100,4 @@ public class ProductController {
         service.delete(id);
         return ResponseEntity.noContent().build();
     }
-}
\ No newline at end of file
+}
\ No newline at end of file
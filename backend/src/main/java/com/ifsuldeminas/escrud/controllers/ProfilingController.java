@@ -0,0 +1,57 @@
+package com.ifsuldeminas.escrud.controllers;
+
+import com.ifsuldeminas.escrud.dto.RecordingFileDTO;
+import com.ifsuldeminas.escrud.service.FlightRecorderService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
+
+import java.net.URI;
+import java.nio.file.Path;
+import java.util.List;
+
+// Só ADMIN (SecurityConfig). Inicia uma gravação JFR com duração, para antes se preciso e baixa os arquivos .jfr
+@RestController
+@RequestMapping("/api/admin/profiling")
+@RequiredArgsConstructor
+public class ProfilingController {
+
+    private final FlightRecorderService service;
+
+    @PostMapping("/recordings")
+    public ResponseEntity<Void> start(@RequestParam(defaultValue = "60") long durationSeconds) {
+        String name = service.start(durationSeconds);
+        URI uri = ServletUriComponentsBuilder.fromCurrentRequest()
+                .replaceQuery(null)
+                .path("/{name}")
+                .buildAndExpand(name)
+                .toUri();
+        return ResponseEntity.accepted().location(uri).build();
+    }
+
+    @PostMapping("/recordings/stop")
+    public ResponseEntity<RecordingFileDTO> stop() {
+        return ResponseEntity.ok(service.stop());
+    }
+
+    @GetMapping("/recordings")
+    public ResponseEntity<List<RecordingFileDTO>> list() {
+        return ResponseEntity.ok(service.list());
+    }
+
+    @GetMapping("/recordings/{name}")
+    public ResponseEntity<Resource> download(@PathVariable String name) {
+        Path file = service.resolve(name);
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_OCTET_STREAM)
+                .header(HttpHeaders.CONTENT_DISPOSITION,
+                        ContentDisposition.attachment().filename(name).build().toString())
+                .body(new FileSystemResource(file));
+    }
+}
@@ -0,0 +1,28 @@
+package com.ifsuldeminas.escrud.controllers;
+
+import com.ifsuldeminas.escrud.dto.PurchaseOrderDraftDTO;
+import com.ifsuldeminas.escrud.service.ReplenishmentService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/reposicao")
+@RequiredArgsConstructor
+public class ReplenishmentController {
+
+    private final ReplenishmentService service;
+
+    @GetMapping("/pedidos")
+    public ResponseEntity<List<PurchaseOrderDraftDTO>> getPurchaseOrderDrafts() {
+        return ResponseEntity.ok(service.getPurchaseOrderDrafts());
+    }
+
+    @PostMapping("/executar")
+    public ResponseEntity<List<PurchaseOrderDraftDTO>> run() {
+        service.run();
+        return ResponseEntity.ok(service.getPurchaseOrderDrafts());
+    }
+}
@@ -0,0 +1,35 @@
+package com.ifsuldeminas.escrud.controllers;
+
+import com.ifsuldeminas.escrud.service.DemandForecastService;
+import com.ifsuldeminas.escrud.service.InventoryAnalyticsService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+// Só ADMIN (SecurityConfig). Recalcula fora do agendamento o que os relatórios leem pronto; a requisição só
+// dispara a execução (202) e quem consulta vê o resultado quando ela terminar
+@RestController
+@RequestMapping("/api/admin/relatorios")
+@RequiredArgsConstructor
+public class ReportAdminController {
+
+    private final DemandForecastService forecastService;
+    private final InventoryAnalyticsService analyticsService;
+
+    @PostMapping("/previsao-demanda/atualizar")
+    public ResponseEntity<Void> refreshDemandForecast() {
+        if (!forecastService.refreshInBackground()) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).build();
+        }
+        return ResponseEntity.accepted().build();
+    }
+
+    @PostMapping("/curva-abc/atualizar")
+    public ResponseEntity<Void> refreshAbcAnalysis() {
+        if (!analyticsService.refreshInBackground()) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).build();
+        }
+        return ResponseEntity.accepted().build();
+    }
+}
@@ -1,11 +1,30 @@
 package com.ifsuldeminas.escrud.controllers;
 
-import com.ifsuldeminas.escrud.dto.DashboardResponseDTO;
+import com.ifsuldeminas.escrud.config.PayloadCache;
+import com.ifsuldeminas.escrud.dto.DemandForecastDTO;
 import com.ifsuldeminas.escrud.dto.DepartmentConsumptionDTO;
+import com.ifsuldeminas.escrud.dto.LowStockItemDTO;
+import com.ifsuldeminas.escrud.dto.ProductAnalyticsDTO;
+import com.ifsuldeminas.escrud.dto.TopProductDTO;
+import com.ifsuldeminas.escrud.dto.TopProductMetric;
+import com.ifsuldeminas.escrud.dto.TrendPointDTO;
+import com.ifsuldeminas.escrud.entities.AbcClass;
+import com.ifsuldeminas.escrud.entities.MovementType;
+import com.ifsuldeminas.escrud.service.DataVersions;
+import com.ifsuldeminas.escrud.service.DataVersions.DataSet;
+import com.ifsuldeminas.escrud.service.DemandForecastService;
+import com.ifsuldeminas.escrud.service.InventoryAnalyticsService;
 import com.ifsuldeminas.escrud.service.ReportService;
 import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.web.PageableDefault;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 import java.time.LocalDate;
 import java.util.List;
@@ -16,10 +35,26 @@ import java.util.List;
 public class ReportController {
 
     private final ReportService service;
+    private final DemandForecastService forecastService;
+    private final InventoryAnalyticsService analyticsService;
+    private final PayloadCache payloadCache;
+    private final DataVersions dataVersions;
 
     @GetMapping("/dashboard")
-    public ResponseEntity<DashboardResponseDTO> getDashboard() {
-        return ResponseEntity.ok(service.getDashboardData());
+    public ResponseEntity<?> getDashboard(
+            @RequestParam(required = false) AbcClass classeAbc,
+            WebRequest request) {
+        String version = dataVersions.tag(DataSet.PRODUCTS, DataSet.STOCK, DataSet.ANALYTICS,
+                DataSet.DEPARTMENTS, DataSet.SUPPLIERS);
+        return payloadCache.respond("dashboard:" + classeAbc, version, request,
+                () -> service.getDashboardData(classeAbc));
+    }
+
+    @GetMapping("/estoque-baixo")
+    public ResponseEntity<Page<LowStockItemDTO>> getLowStock(
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "20") int size) {
+        return ResponseEntity.ok(service.getLowStock(Math.max(page, 0), Math.max(1, Math.min(size, 200))));
     }
 
     @GetMapping("/consumo-departamento")
@@ -28,4 +63,52 @@ public class ReportController {
             @RequestParam LocalDate dataFim) {
         return ResponseEntity.ok(service.getConsumptionByDepartment(dataInicio, dataFim));
     }
-}
\ No newline at end of file
+
+    @GetMapping("/maiores-consumidores")
+    public ResponseEntity<List<DepartmentConsumptionDTO.DepartmentConsumptionResponse>> getTopConsumers(
+            @RequestParam LocalDate dataInicio,
+            @RequestParam LocalDate dataFim,
+            @RequestParam(defaultValue = "10") int limite) {
+        return ResponseEntity.ok(service.getTopConsumers(dataInicio, dataFim, limite));
+    }
+
+    @GetMapping("/top-produtos")
+    public ResponseEntity<List<TopProductDTO>> getTopProducts(
+            @RequestParam LocalDate dataInicio,
+            @RequestParam LocalDate dataFim,
+            @RequestParam(defaultValue = "QUANTIDADE") TopProductMetric criterio,
+            @RequestParam(defaultValue = "10") int limite,
+            @RequestParam(required = false) MovementType tipo,
+            @RequestParam(required = false) Integer departamentoId,
+            @RequestParam(required = false) Integer categoriaId) {
+        if (!service.isTopProductsAvailable()) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).header(HttpHeaders.RETRY_AFTER, "5").build();
+        }
+        return ResponseEntity.ok(service.getTopProducts(dataInicio, dataFim, criterio,
+                Math.max(1, Math.min(limite, 200)), tipo, departamentoId, categoriaId));
+    }
+
+    @GetMapping("/tendencia")
+    public ResponseEntity<List<TrendPointDTO>> getTrend(
+            @RequestParam LocalDate dataInicio,
+            @RequestParam LocalDate dataFim,
+            @RequestParam(required = false) MovementType tipo,
+            @RequestParam(required = false) Long produtoId,
+            @RequestParam(required = false) Integer departamentoId) {
+        return ResponseEntity.ok(service.getTrend(dataInicio, dataFim, tipo, produtoId, departamentoId));
+    }
+
+    @GetMapping("/previsao-demanda")
+    public ResponseEntity<List<DemandForecastDTO>> getDemandForecast(
+            @RequestParam(required = false) Long produtoId,
+            @RequestParam(required = false) Integer departamentoId) {
+        return ResponseEntity.ok(forecastService.findForecasts(produtoId, departamentoId));
+    }
+
+    @GetMapping("/curva-abc")
+    public ResponseEntity<Page<ProductAnalyticsDTO>> getAbcAnalysis(
+            @PageableDefault(size = 20, sort = "consumptionValue", direction = Sort.Direction.DESC) Pageable pageable,
+            @RequestParam(required = false) AbcClass classe) {
+        return ResponseEntity.ok(analyticsService.findAll(classe, pageable));
+    }
+}
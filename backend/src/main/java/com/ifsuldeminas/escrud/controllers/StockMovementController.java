@@ -0,0 +1,226 @@
+package com.ifsuldeminas.escrud.controllers;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.ifsuldeminas.escrud.config.SqlBudget;
+import com.ifsuldeminas.escrud.dto.CursorPageDTO;
+import com.ifsuldeminas.escrud.dto.MovementHistoryStampDTO;
+import com.ifsuldeminas.escrud.dto.StockMovementRequestDTO;
+import com.ifsuldeminas.escrud.dto.StockMovementResponseDTO;
+import com.ifsuldeminas.escrud.entities.MovementType;
+import com.ifsuldeminas.escrud.service.MovementArchiveService;
+import com.ifsuldeminas.escrud.service.MovementDurability;
+import com.ifsuldeminas.escrud.service.IdempotencyStore;
+import com.ifsuldeminas.escrud.service.MovementGroupCommitter;
+import com.ifsuldeminas.escrud.service.MovementWriteShards;
+import com.ifsuldeminas.escrud.service.StockMovementService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.web.PageableDefault;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
+import org.springframework.web.util.UriComponentsBuilder;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+@RestController
+@RequestMapping("/api/stock-movements")
+@RequiredArgsConstructor
+public class StockMovementController {
+
+    private static final String IDEMPOTENCY_KEY = "Idempotency-Key";
+    private static final int MAX_CURSOR_SIZE = 500;
+    private static final String PREFER = "Prefer";
+    private static final String PREFERENCE_APPLIED = "Preference-Applied";
+    private static final String RETURN_MINIMAL = "return=minimal";
+
+    private final StockMovementService service;
+    private final MovementWriteShards writeShards;
+    private final MovementGroupCommitter groupCommitter;
+    private final MovementArchiveService archiveService;
+    private final ObjectMapper objectMapper;
+
+    // Página + count; mais que isso é N+1 no mapToDTO
+    @SqlBudget(2)
+    @GetMapping
+    public ResponseEntity<Page<?>> findAll(
+            @PageableDefault(size = 20, sort = "dateTime", direction = Sort.Direction.DESC) Pageable pageable,
+            @RequestParam(required = false) Long productId,
+            @RequestParam(required = false) Integer departmentId,
+            @RequestParam(required = false) MovementType type,
+            @RequestParam(required = false) LocalDate startDate,
+            @RequestParam(required = false) LocalDate endDate,
+            @RequestParam(required = false) List<String> fields) {
+        if (fields != null && !fields.isEmpty()) {
+            return ResponseEntity.ok(service.findFields(fields, pageable, productId, departmentId, type, startDate, endDate));
+        }
+        return ResponseEntity.ok(service.findAll(pageable, productId, departmentId, type, startDate, endDate));
+    }
+
+    @GetMapping("/cursor")
+    public ResponseEntity<CursorPageDTO<StockMovementResponseDTO>> findByCursor(
+            @RequestParam(required = false) Long cursor,
+            @RequestParam(defaultValue = "50") int size,
+            @RequestParam(required = false) Long productId,
+            @RequestParam(required = false) Integer departmentId,
+            @RequestParam(required = false) MovementType type,
+            @RequestParam(required = false) LocalDate startDate,
+            @RequestParam(required = false) LocalDate endDate) {
+        int pageSize = Math.max(1, Math.min(size, MAX_CURSOR_SIZE));
+        return ResponseEntity.ok(service.findByCursor(cursor, pageSize, productId, departmentId, type, startDate, endDate));
+    }
+
+    @GetMapping(value = "/stream", produces = "application/x-ndjson")
+    public ResponseEntity<StreamingResponseBody> stream(
+            @RequestParam(required = false) Long productId,
+            @RequestParam(required = false) Integer departmentId,
+            @RequestParam(required = false) MovementType type,
+            @RequestParam(required = false) LocalDate startDate,
+            @RequestParam(required = false) LocalDate endDate) {
+        StreamingResponseBody body = out -> service.stream(productId, departmentId, type, startDate, endDate,
+                movement -> writeLine(out, movement));
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType("application/x-ndjson"))
+                .body(body);
+    }
+
+    // Movimentações fora da retenção (arquivo compactado): mais lento, sempre das mais recentes para as antigas
+    @GetMapping("/archive")
+    public ResponseEntity<Page<StockMovementResponseDTO>> findArchived(
+            @PageableDefault(size = 20) Pageable pageable,
+            @RequestParam(required = false) Long productId,
+            @RequestParam(required = false) Integer departmentId,
+            @RequestParam(required = false) MovementType type,
+            @RequestParam(required = false) LocalDate startDate,
+            @RequestParam(required = false) LocalDate endDate) {
+        // Cada busca descompacta os blocos do período inteiro: só com início e fim, até MAX_SEARCH_DAYS
+        if (!MovementArchiveService.isSearchable(startDate, endDate)) {
+            return ResponseEntity.badRequest().build();
+        }
+        return ResponseEntity.ok(archiveService.search(productId, departmentId, type, startDate, endDate, pageable));
+    }
+
+    // Movimentações são imutáveis: (quantidade, último id) identifica a versão do histórico
+    @GetMapping("/product/{productId}")
+    public ResponseEntity<Page<StockMovementResponseDTO>> findByProduct(
+            @PathVariable Long productId,
+            @PageableDefault(size = 20, sort = "dateTime", direction = Sort.Direction.DESC) Pageable pageable,
+            WebRequest request) {
+        MovementHistoryStampDTO stamp = service.getHistoryStamp(productId);
+        String etag = "\"" + productId + "-" + stamp.count() + "-" + stamp.lastId() + "-"
+                + pageable.getPageNumber() + "-" + pageable.getPageSize() + "-" + pageable.getSort().hashCode() + "\"";
+        long lastModified = (stamp.lastDateTime() != null)
+                ? stamp.lastDateTime().atZone(ZoneId.systemDefault()).toInstant().toEpochMilli()
+                : -1;
+
+        if (request.checkNotModified(etag, lastModified)) {
+            return null;
+        }
+        return ResponseEntity.ok(service.findByProduct(productId, pageable));
+    }
+
+    @PostMapping
+    public CompletableFuture<ResponseEntity<?>> create(
+            @RequestHeader(value = IDEMPOTENCY_KEY, required = false) String idempotencyKey,
+            @RequestHeader(value = PREFER, required = false) String prefer,
+            @RequestBody StockMovementRequestDTO dto) {
+        if (!fitsKey(idempotencyKey)) {
+            return CompletableFuture.completedFuture(ResponseEntity.badRequest().build());
+        }
+        // ASYNC confirma só o aceite (gravado no journal); a movimentação ainda não tem id
+        if (groupCommitter.getDurability() == MovementDurability.ASYNC) {
+            return CompletableFuture.completedFuture(
+                    ResponseEntity.accepted().body(groupCommitter.enqueue(dto, idempotencyKey)));
+        }
+
+        // Montado ainda na thread da requisição; nos modos em fila a resposta sai de outra thread
+        UriComponentsBuilder location = ServletUriComponentsBuilder.fromCurrentRequest().path("/{id}");
+        CompletableFuture<StockMovementResponseDTO> saved;
+        if (groupCommitter.isEnabled()) {
+            saved = groupCommitter.submit(dto, idempotencyKey);
+        } else if (writeShards.isEnabled()) {
+            saved = writeShards.submit(dto, idempotencyKey);
+        } else {
+            saved = CompletableFuture.completedFuture(createNow(dto, idempotencyKey));
+        }
+        boolean minimal = prefersMinimal(prefer);
+        return saved.<ResponseEntity<?>>thenApply(movement -> {
+            URI uri = location.buildAndExpand(movement.id()).toUri();
+            return minimal
+                    ? ResponseEntity.created(uri).header(PREFERENCE_APPLIED, RETURN_MINIMAL).build()
+                    : ResponseEntity.created(uri).body(movement);
+        });
+    }
+
+    @PostMapping("/batch")
+    public ResponseEntity<?> createBatch(
+            @RequestHeader(value = IDEMPOTENCY_KEY, required = false) String idempotencyKey,
+            @RequestHeader(value = PREFER, required = false) String prefer,
+            @RequestBody List<StockMovementRequestDTO> dtos) {
+        // Cada item grava "chave:índice"
+        if (idempotencyKey != null && !fitsKey(idempotencyKey + ":" + Math.max(dtos.size() - 1, 0))) {
+            return ResponseEntity.badRequest().build();
+        }
+        List<StockMovementResponseDTO> saved;
+        try {
+            saved = service.createBatch(dtos, idempotencyKey);
+        } catch (DataIntegrityViolationException e) {
+            if (idempotencyKey == null) {
+                throw e;
+            }
+            saved = service.createBatch(dtos, idempotencyKey);
+        }
+        if (prefersMinimal(prefer)) {
+            return ResponseEntity.status(HttpStatus.CREATED)
+                    .header(PREFERENCE_APPLIED, RETURN_MINIMAL)
+                    .body(saved.stream().map(StockMovementResponseDTO::id).toList());
+        }
+        return ResponseEntity.status(HttpStatus.CREATED).body(saved);
+    }
+
+    private static boolean fitsKey(String idempotencyKey) {
+        return idempotencyKey == null
+                || idempotencyKey.getBytes(StandardCharsets.UTF_8).length <= IdempotencyStore.MAX_KEY_BYTES;
+    }
+
+    // Prefer: return=minimal (RFC 7240): o coletor só precisa do id, que já vai no Location
+    private static boolean prefersMinimal(String prefer) {
+        return prefer != null && prefer.replace(" ", "").toLowerCase().contains(RETURN_MINIMAL);
+    }
+
+    private StockMovementResponseDTO createNow(StockMovementRequestDTO dto, String idempotencyKey) {
+        try {
+            return service.create(dto, idempotencyKey);
+        } catch (DataIntegrityViolationException e) {
+            // Outro envio com a mesma chave confirmou primeiro: a nova tentativa devolve a resposta dele
+            if (idempotencyKey == null) {
+                throw e;
+            }
+            return service.create(dto, idempotencyKey);
+        }
+    }
+
+    private void writeLine(OutputStream out, StockMovementResponseDTO movement) {
+        try {
+            out.write(objectMapper.writeValueAsBytes(movement));
+            out.write('\n');
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -1,6 +1,9 @@
 package com.ifsuldeminas.escrud.controllers;
+import com.ifsuldeminas.escrud.config.PayloadCache;
 import com.ifsuldeminas.escrud.dto.SupplierRequestDTO;
 import com.ifsuldeminas.escrud.dto.SupplierResponseDTO;
+import com.ifsuldeminas.escrud.service.DataVersions;
+import com.ifsuldeminas.escrud.service.DataVersions.DataSet;
 import com.ifsuldeminas.escrud.service.SupplierService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.Page;
@@ -8,9 +11,9 @@ import org.springframework.data.domain.Pageable;
 import org.springframework.data.web.PageableDefault;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
 import java.net.URI;
-import java.util.List;
 
 @RestController
 @RequestMapping("/api/suppliers")
@@ -18,6 +21,8 @@ import java.util.List;
 public class SupplierController {
 
     private final SupplierService service;
+    private final PayloadCache payloadCache;
+    private final DataVersions dataVersions;
 
     @GetMapping
     public ResponseEntity<Page<SupplierResponseDTO>> findAll(
@@ -27,8 +32,9 @@ public class SupplierController {
     }
 
     @GetMapping("/active")
-    public ResponseEntity<List<SupplierResponseDTO>> findAllActive() {
-        return ResponseEntity.ok(service.findAllActive());
+    public ResponseEntity<?> findAllActive(WebRequest request) {
+        return payloadCache.respond("supplier:active", dataVersions.tag(DataSet.SUPPLIERS), request,
+                service::findAllActive);
     }
 
     @GetMapping("/{id}")
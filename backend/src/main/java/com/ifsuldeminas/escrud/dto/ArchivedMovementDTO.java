@@ -0,0 +1,28 @@
+package com.ifsuldeminas.escrud.dto;
+
+import com.ifsuldeminas.escrud.entities.MovementType;
+
+import java.time.LocalDateTime;
+
+// Linha do arquivo de movimentações: ids para filtrar e os nomes como estavam na hora do arquivamento
+public record ArchivedMovementDTO(
+        Long id,
+        LocalDateTime dateTime,
+        MovementType type,
+        int quantity,
+        String reason,
+        Long productId,
+        Integer departmentId,
+        Long supplierId,
+        Integer userId,
+        String productName,
+        String departmentName,
+        String supplierName,
+        String userName
+) {
+
+    public StockMovementResponseDTO toResponse() {
+        return new StockMovementResponseDTO(id, dateTime, type, quantity, reason, productName, departmentName,
+                supplierName, (userName != null) ? userName : "Unknown");
+    }
+}
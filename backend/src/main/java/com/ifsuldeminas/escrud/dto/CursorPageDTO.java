@@ -0,0 +1,9 @@
+package com.ifsuldeminas.escrud.dto;
+
+import java.util.List;
+
+public record CursorPageDTO<T>(
+        List<T> content,
+        Long nextCursor,
+        boolean hasNext
+) {}
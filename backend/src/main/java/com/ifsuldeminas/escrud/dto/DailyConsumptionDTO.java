@@ -0,0 +1,10 @@
+package com.ifsuldeminas.escrud.dto;
+
+import java.time.LocalDate;
+
+public record DailyConsumptionDTO(
+        Long productId,
+        Integer departmentId,
+        LocalDate day,
+        Long quantity
+) {}
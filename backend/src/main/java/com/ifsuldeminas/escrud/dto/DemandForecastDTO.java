@@ -0,0 +1,18 @@
+package com.ifsuldeminas.escrud.dto;
+
+import com.ifsuldeminas.escrud.entities.ForecastModel;
+
+import java.time.LocalDateTime;
+
+public record DemandForecastDTO(
+        Long productId,
+        String productName,
+        Integer departmentId,
+        String departmentName,
+        ForecastModel model,
+        double dailyForecast,
+        int horizonDays,
+        double horizonTotal,
+        double meanAbsoluteError,
+        LocalDateTime generatedAt
+) {}
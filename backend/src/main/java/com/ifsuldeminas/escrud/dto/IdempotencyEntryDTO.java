@@ -0,0 +1,6 @@
+package com.ifsuldeminas.escrud.dto;
+
+import java.time.LocalDateTime;
+
+public record IdempotencyEntryDTO(Long movementId, LocalDateTime expiresAt) {
+}
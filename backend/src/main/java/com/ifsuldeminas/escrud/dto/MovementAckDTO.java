@@ -0,0 +1,4 @@
+package com.ifsuldeminas.escrud.dto;
+
+public record MovementAckDTO(String idempotencyKey, long journalSequence) {
+}
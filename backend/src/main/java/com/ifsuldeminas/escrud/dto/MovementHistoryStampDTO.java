@@ -0,0 +1,9 @@
+package com.ifsuldeminas.escrud.dto;
+
+import java.time.LocalDateTime;
+
+public record MovementHistoryStampDTO(
+        Long count,
+        Long lastId,
+        LocalDateTime lastDateTime
+) {}
@@ -0,0 +1,16 @@
+package com.ifsuldeminas.escrud.dto;
+
+import com.ifsuldeminas.escrud.entities.MovementType;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+public record MovementRowDTO(
+        Long id,
+        LocalDateTime dateTime,
+        Long productId,
+        BigDecimal productCostPrice,
+        Integer departmentId,
+        MovementType type,
+        int quantity
+) {}
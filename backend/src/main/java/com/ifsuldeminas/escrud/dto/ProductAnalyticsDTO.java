@@ -0,0 +1,18 @@
+package com.ifsuldeminas.escrud.dto;
+
+import com.ifsuldeminas.escrud.entities.AbcClass;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+public record ProductAnalyticsDTO(
+        Long productId,
+        String sku,
+        String name,
+        AbcClass abcClass,
+        BigDecimal consumptionValue,
+        long consumptionQuantity,
+        double turnover,
+        Double daysOfSupply,
+        LocalDate calculatedOn
+) {}
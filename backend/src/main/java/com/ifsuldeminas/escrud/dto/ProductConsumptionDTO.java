@@ -0,0 +1,6 @@
+package com.ifsuldeminas.escrud.dto;
+
+public record ProductConsumptionDTO(
+        Long productId,
+        Long totalQuantity
+) {}
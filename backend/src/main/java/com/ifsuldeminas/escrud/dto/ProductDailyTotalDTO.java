@@ -0,0 +1,11 @@
+package com.ifsuldeminas.escrud.dto;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+public record ProductDailyTotalDTO(
+        Long productId,
+        LocalDate day,
+        Long quantity,
+        BigDecimal value
+) {}
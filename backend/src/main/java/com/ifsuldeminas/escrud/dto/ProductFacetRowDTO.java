@@ -0,0 +1,11 @@
+package com.ifsuldeminas.escrud.dto;
+
+public record ProductFacetRowDTO(
+        Long id,
+        Integer categoryId,
+        Long supplierId,
+        String location,
+        int quantityInStock,
+        int minStock,
+        boolean active
+) {}
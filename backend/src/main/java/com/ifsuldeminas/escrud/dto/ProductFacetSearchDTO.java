@@ -0,0 +1,12 @@
+package com.ifsuldeminas.escrud.dto;
+
+import java.util.List;
+import java.util.Map;
+
+public record ProductFacetSearchDTO(
+        List<ProductResponseDTO> content,
+        int page,
+        int size,
+        long totalElements,
+        Map<String, List<FacetCountDTO>> facets
+) {}
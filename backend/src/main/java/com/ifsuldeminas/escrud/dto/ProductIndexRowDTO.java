@@ -0,0 +1,13 @@
+package com.ifsuldeminas.escrud.dto;
+
+public record ProductIndexRowDTO(
+        Long id,
+        String sku,
+        String name,
+        Integer categoryId,
+        Long supplierId,
+        String location,
+        int quantityInStock,
+        int minStock,
+        boolean active
+) {}
@@ -0,0 +1,10 @@
+package com.ifsuldeminas.escrud.dto;
+
+import java.math.BigDecimal;
+
+public record ProductMovementTotalDTO(
+        Long productId,
+        long quantity,
+        BigDecimal costPrice,
+        int quantityInStock
+) {}
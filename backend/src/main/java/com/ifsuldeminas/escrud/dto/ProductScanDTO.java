@@ -0,0 +1,9 @@
+package com.ifsuldeminas.escrud.dto;
+
+public record ProductScanDTO(
+        Long id,
+        String sku,
+        String name,
+        int quantityInStock,
+        boolean active
+) {}
@@ -0,0 +1,6 @@
+package com.ifsuldeminas.escrud.dto;
+
+public record ProductStockDTO(
+        Long id,
+        int quantityInStock
+) {}
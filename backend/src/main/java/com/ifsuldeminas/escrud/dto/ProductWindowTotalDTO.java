@@ -0,0 +1,9 @@
+package com.ifsuldeminas.escrud.dto;
+
+import java.math.BigDecimal;
+
+public record ProductWindowTotalDTO(
+        Long productId,
+        Long quantity,
+        BigDecimal value
+) {}
@@ -0,0 +1,11 @@
+package com.ifsuldeminas.escrud.dto;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+public record PurchaseOrderDraftDTO(
+        Long supplierId,
+        String supplierName,
+        List<ReplenishmentSuggestionDTO> items,
+        BigDecimal totalCost
+) {}
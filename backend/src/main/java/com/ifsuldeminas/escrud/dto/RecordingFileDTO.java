@@ -0,0 +1,9 @@
+package com.ifsuldeminas.escrud.dto;
+
+import java.time.Instant;
+
+public record RecordingFileDTO(
+        String name,
+        long sizeBytes,
+        Instant modifiedAt
+) {}
@@ -0,0 +1,15 @@
+package com.ifsuldeminas.escrud.dto;
+
+import java.math.BigDecimal;
+
+public record ReplenishmentSuggestionDTO(
+        Long productId,
+        String sku,
+        String name,
+        int quantityInStock,
+        int minStock,
+        double dailyConsumption,
+        int reorderPoint,
+        int suggestedQuantity,
+        BigDecimal estimatedCost
+) {}
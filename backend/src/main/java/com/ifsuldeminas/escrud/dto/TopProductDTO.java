@@ -0,0 +1,12 @@
+package com.ifsuldeminas.escrud.dto;
+
+import java.math.BigDecimal;
+
+public record TopProductDTO(
+        Long productId,
+        String sku,
+        String name,
+        long quantityMoved,
+        BigDecimal valueMoved,
+        double turnover
+) {}
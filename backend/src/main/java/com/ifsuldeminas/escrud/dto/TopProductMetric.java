@@ -0,0 +1,7 @@
+package com.ifsuldeminas.escrud.dto;
+
+public enum TopProductMetric {
+    QUANTIDADE,
+    VALOR,
+    GIRO
+}
@@ -0,0 +1,10 @@
+package com.ifsuldeminas.escrud.dto;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+public record TrendPointDTO(
+        LocalDate date,
+        Long quantity,
+        BigDecimal value
+) {}
@@ -0,0 +1,7 @@
+package com.ifsuldeminas.escrud.entities;
+
+public enum AbcClass {
+    A,
+    B,
+    C
+}
@@ -14,7 +14,7 @@ import java.util.Set;
 public class Category {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @PooledSequence("categories_seq")
     private int id;
 
     @Column(nullable = false, unique = true)
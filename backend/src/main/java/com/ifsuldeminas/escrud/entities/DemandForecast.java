@@ -0,0 +1,47 @@
+package com.ifsuldeminas.escrud.entities;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@Entity
+@Table(name = "demand_forecasts")
+public class DemandForecast {
+
+    @Id
+    @PooledSequence("demand_forecasts_seq")
+    private Long id;
+
+    @ManyToOne
+    @JoinColumn(name = "product_id", nullable = false)
+    private Product product;
+
+    @ManyToOne
+    @JoinColumn(name = "department_id")
+    private Department department;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private ForecastModel model;
+
+    @Column(name = "daily_forecast", nullable = false)
+    private double dailyForecast;
+
+    @Column(name = "horizon_days", nullable = false)
+    private int horizonDays;
+
+    @Column(name = "horizon_total", nullable = false)
+    private double horizonTotal;
+
+    @Column(name = "mean_absolute_error", nullable = false)
+    private double meanAbsoluteError;
+
+    @Column(name = "generated_at", nullable = false)
+    private LocalDateTime generatedAt;
+}
@@ -14,7 +14,7 @@ import java.util.Set;
 public class Department {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @PooledSequence("departments_seq")
     private int id;
 
     @Column(nullable = false, unique = true)
@@ -0,0 +1,6 @@
+package com.ifsuldeminas.escrud.entities;
+
+public enum ForecastModel {
+    EXPONENTIAL_SMOOTHING,
+    SEASONAL_NAIVE
+}
@@ -0,0 +1,56 @@
+package com.ifsuldeminas.escrud.entities;
+
+import jakarta.persistence.*;
+import lombok.*;
+import org.springframework.data.domain.Persistable;
+
+import java.time.LocalDateTime;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@Entity
+@Table(name = "idempotency_keys",
+        indexes = @Index(name = "idx_idempotency_expires_at", columnList = "expires_at"))
+public class IdempotencyRecord implements Persistable<String> {
+
+    @Id
+    @Column(name = "idempotency_key", length = 128)
+    private String key;
+
+    @Column(name = "movement_id", nullable = false)
+    private Long movementId;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+
+    @Column(name = "expires_at", nullable = false)
+    private LocalDateTime expiresAt;
+
+    // Sempre INSERT: uma chave repetida tem de falhar na PK, nunca virar UPDATE via merge
+    @Transient
+    private boolean isNew = true;
+
+    public IdempotencyRecord(String key, Long movementId, LocalDateTime createdAt, LocalDateTime expiresAt) {
+        this.key = key;
+        this.movementId = movementId;
+        this.createdAt = createdAt;
+        this.expiresAt = expiresAt;
+    }
+
+    @Override
+    public String getId() {
+        return key;
+    }
+
+    @Override
+    public boolean isNew() {
+        return isNew;
+    }
+
+    @PostLoad
+    @PostPersist
+    void markNotNew() {
+        this.isNew = false;
+    }
+}
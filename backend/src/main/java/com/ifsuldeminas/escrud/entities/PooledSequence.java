@@ -0,0 +1,22 @@
+package com.ifsuldeminas.escrud.entities;
+
+import org.hibernate.annotations.IdGeneratorType;
+
+import java.lang.annotation.Retention;
+import java.lang.annotation.Target;
+
+import static java.lang.annotation.ElementType.FIELD;
+import static java.lang.annotation.ElementType.METHOD;
+import static java.lang.annotation.RetentionPolicy.RUNTIME;
+
+// Id por sequência com otimizador pooled: um nextval reserva um bloco de ids, então o INSERT não precisa
+// ir ao banco na hora do persist e entra no batch do JDBC. O tamanho do bloco é escrud.id.allocation_size
+// e o otimizador (pooled ou pooled-lo) é o hibernate.id.optimizer.pooled.preferred.
+@IdGeneratorType(PooledSequenceGenerator.class)
+@Retention(RUNTIME)
+@Target({FIELD, METHOD})
+public @interface PooledSequence {
+
+    // Nome da sequência no banco
+    String value();
+}
@@ -11,7 +11,7 @@ import java.math.BigDecimal;
 @Table(name = "products")
 public class Product {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @PooledSequence("products_seq")
     private Long id;
     @Column(nullable = false, unique = true)
     private String sku;
@@ -0,0 +1,45 @@
+package com.ifsuldeminas.escrud.entities;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@Entity
+@Table(name = "product_analytics",
+        indexes = @Index(name = "idx_product_analytics_class", columnList = "abc_class"))
+public class ProductAnalytics {
+
+    @Id
+    @PooledSequence("product_analytics_seq")
+    private Long id;
+
+    @OneToOne
+    @JoinColumn(name = "product_id", nullable = false, unique = true)
+    private Product product;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "abc_class", nullable = false)
+    private AbcClass abcClass;
+
+    @Column(name = "consumption_value", nullable = false)
+    private BigDecimal consumptionValue;
+
+    @Column(name = "consumption_quantity", nullable = false)
+    private long consumptionQuantity;
+
+    @Column(nullable = false)
+    private double turnover;
+
+    @Column(name = "days_of_supply")
+    private Double daysOfSupply;
+
+    @Column(name = "calculated_on", nullable = false)
+    private LocalDate calculatedOn;
+}
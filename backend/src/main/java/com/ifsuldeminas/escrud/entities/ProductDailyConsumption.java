@@ -0,0 +1,34 @@
+package com.ifsuldeminas.escrud.entities;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@Entity
+@Table(name = "product_daily_consumption",
+        indexes = @Index(name = "idx_daily_consumption_day", columnList = "consumption_day"))
+public class ProductDailyConsumption {
+
+    @Id
+    @PooledSequence("product_daily_consumption_seq")
+    private Long id;
+
+    @Column(name = "product_id", nullable = false)
+    private Long productId;
+
+    @Column(name = "consumption_day", nullable = false)
+    private LocalDate day;
+
+    @Column(nullable = false)
+    private long quantity;
+
+    @Column(name = "consumed_value", nullable = false)
+    private BigDecimal value;
+}
@@ -15,7 +15,7 @@ import java.time.LocalDateTime;
 public class StockMovement {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @PooledSequence("stock_movements_seq")
     private Long id;
 
     @Column(nullable = false)
@@ -0,0 +1,42 @@
+package com.ifsuldeminas.escrud.entities;
+
+import jakarta.persistence.*;
+import lombok.*;
+import org.hibernate.annotations.JdbcTypeCode;
+import org.hibernate.type.SqlTypes;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+// Bloco compactado de movimentações já arquivadas, sempre de um único mês. O intervalo de data/hora fica
+// em colunas para a consulta ao arquivo descartar blocos sem descompactar.
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@Entity
+@Table(name = "stock_movement_archive")
+public class StockMovementArchive {
+
+    @Id
+    @PooledSequence("stock_movement_archive_seq")
+    private Long id;
+
+    @Column(nullable = false)
+    private LocalDate monthStart;
+
+    @Column(nullable = false)
+    private LocalDateTime firstDateTime;
+
+    @Column(nullable = false)
+    private LocalDateTime lastDateTime;
+
+    @Column(nullable = false)
+    private int rowCount;
+
+    // GZIP das linhas (MovementArchiveService.encode); bytea no PostgreSQL, sem large object
+    @JdbcTypeCode(SqlTypes.VARBINARY)
+    @Column(nullable = false, length = 100_000_000)
+    private byte[] payload;
+}
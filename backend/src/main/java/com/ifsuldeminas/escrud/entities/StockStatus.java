@@ -0,0 +1,15 @@
+package com.ifsuldeminas.escrud.entities;
+
+public enum StockStatus {
+    ZERO,
+    BELOW_MIN,
+    OK;
+
+    // Mesmo critério do dashboard: no mínimo ou abaixo dele já conta como baixo
+    public static StockStatus of(int quantityInStock, int minStock) {
+        if (quantityInStock <= 0) {
+            return ZERO;
+        }
+        return (quantityInStock <= minStock) ? BELOW_MIN : OK;
+    }
+}
@@ -14,7 +14,7 @@ import java.util.Set;
 public class Supplier {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @PooledSequence("suppliers_seq")
     private Long id;
 
     @Column(nullable = false)
@@ -0,0 +1,27 @@
+package com.ifsuldeminas.escrud.repositories;
+
+import com.ifsuldeminas.escrud.entities.DemandForecast;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.Collection;
+import java.util.List;
+
+public interface DemandForecastRepository extends JpaRepository<DemandForecast, Long> {
+
+    @Query("SELECT f FROM DemandForecast f WHERE " +
+            "(:productId IS NULL OR f.product.id = :productId) AND " +
+            "(:departmentId IS NULL OR f.department.id = :departmentId) " +
+            "ORDER BY f.horizonTotal DESC")
+    List<DemandForecast> search(@Param("productId") Long productId,
+                                @Param("departmentId") Integer departmentId);
+
+    @Query("SELECT DISTINCT f.product.id FROM DemandForecast f")
+    List<Long> findForecastedProductIds();
+
+    @Modifying
+    @Query("DELETE FROM DemandForecast f WHERE f.product.id IN :productIds")
+    void deleteByProductIds(@Param("productIds") Collection<Long> productIds);
+}
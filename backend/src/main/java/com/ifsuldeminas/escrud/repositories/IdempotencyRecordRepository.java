@@ -0,0 +1,27 @@
+package com.ifsuldeminas.escrud.repositories;
+
+import com.ifsuldeminas.escrud.dto.IdempotencyEntryDTO;
+import com.ifsuldeminas.escrud.entities.IdempotencyRecord;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+public interface IdempotencyRecordRepository extends JpaRepository<IdempotencyRecord, String> {
+
+    // Projeção em vez da entidade: a chave não fica gerenciada na sessão da escrita
+    @Query("SELECT new com.ifsuldeminas.escrud.dto.IdempotencyEntryDTO(r.movementId, r.expiresAt) " +
+            "FROM IdempotencyRecord r WHERE r.key = :key AND r.expiresAt > :now")
+    Optional<IdempotencyEntryDTO> findActive(@Param("key") String key, @Param("now") LocalDateTime now);
+
+    @Modifying
+    @Query("DELETE FROM IdempotencyRecord r WHERE r.expiresAt <= :now")
+    int deleteExpired(@Param("now") LocalDateTime now);
+
+    @Modifying
+    @Query("DELETE FROM IdempotencyRecord r WHERE r.key = :key AND r.expiresAt <= :now")
+    int deleteExpiredKey(@Param("key") String key, @Param("now") LocalDateTime now);
+}
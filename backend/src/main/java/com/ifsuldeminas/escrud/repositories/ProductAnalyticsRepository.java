@@ -0,0 +1,37 @@
+package com.ifsuldeminas.escrud.repositories;
+
+import com.ifsuldeminas.escrud.dto.ProductAnalyticsDTO;
+import com.ifsuldeminas.escrud.entities.AbcClass;
+import com.ifsuldeminas.escrud.entities.ProductAnalytics;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.Collection;
+import java.util.List;
+
+public interface ProductAnalyticsRepository extends JpaRepository<ProductAnalytics, Long> {
+
+    @Query(value = "SELECT new com.ifsuldeminas.escrud.dto.ProductAnalyticsDTO(" +
+            "p.id, p.sku, p.name, a.abcClass, a.consumptionValue, a.consumptionQuantity, " +
+            "a.turnover, a.daysOfSupply, a.calculatedOn) " +
+            "FROM ProductAnalytics a JOIN a.product p " +
+            "WHERE (:abcClass IS NULL OR a.abcClass = :abcClass)",
+            countQuery = "SELECT COUNT(a) FROM ProductAnalytics a " +
+                    "WHERE (:abcClass IS NULL OR a.abcClass = :abcClass)")
+    Page<ProductAnalyticsDTO> search(@Param("abcClass") AbcClass abcClass, Pageable pageable);
+
+    List<ProductAnalytics> findByProductIdIn(Collection<Long> productIds);
+
+    // Produto inativado sai da curva; os ativos são regravados no lugar pelo refresh
+    @Modifying
+    @Query("DELETE FROM ProductAnalytics a WHERE a.product.id IN (SELECT p.id FROM Product p WHERE p.active = false)")
+    int deleteForInactiveProducts();
+
+    @Query("SELECT a.product.id FROM ProductAnalytics a WHERE a.product.id IN :productIds AND a.abcClass = :abcClass")
+    List<Long> findProductIdsByAbcClass(@Param("productIds") Collection<Long> productIds,
+                                        @Param("abcClass") AbcClass abcClass);
+}
@@ -0,0 +1,29 @@
+package com.ifsuldeminas.escrud.repositories;
+
+import com.ifsuldeminas.escrud.dto.ProductWindowTotalDTO;
+import com.ifsuldeminas.escrud.entities.ProductDailyConsumption;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDate;
+import java.util.List;
+
+public interface ProductDailyConsumptionRepository extends JpaRepository<ProductDailyConsumption, Long> {
+
+    @Query("SELECT MAX(d.day) FROM ProductDailyConsumption d")
+    LocalDate findLastDay();
+
+    @Query("SELECT new com.ifsuldeminas.escrud.dto.ProductWindowTotalDTO(d.productId, SUM(d.quantity), SUM(d.value)) " +
+            "FROM ProductDailyConsumption d WHERE d.day >= :since GROUP BY d.productId")
+    List<ProductWindowTotalDTO> sumSince(@Param("since") LocalDate since);
+
+    @Modifying
+    @Query("DELETE FROM ProductDailyConsumption d WHERE d.day < :day")
+    void deleteOlderThan(@Param("day") LocalDate day);
+
+    @Modifying
+    @Query("DELETE FROM ProductDailyConsumption d WHERE d.day >= :day")
+    void deleteFrom(@Param("day") LocalDate day);
+}
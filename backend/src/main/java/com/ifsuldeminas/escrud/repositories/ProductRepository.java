@@ -1,23 +1,39 @@
 package com.ifsuldeminas.escrud.repositories;
 import com.ifsuldeminas.escrud.dto.LowStockItemDTO;
+import com.ifsuldeminas.escrud.dto.ProductFacetRowDTO;
+import com.ifsuldeminas.escrud.dto.ProductIndexRowDTO;
+import com.ifsuldeminas.escrud.dto.ProductScanDTO;
+import com.ifsuldeminas.escrud.dto.ProductStockDTO;
+import com.ifsuldeminas.escrud.entities.AbcClass;
 import com.ifsuldeminas.escrud.entities.Product;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 
 import java.math.BigDecimal;
+import java.util.Collection;
 import java.util.List;
-public interface ProductRepository extends JpaRepository<Product, Long> {
+import java.util.Optional;
+public interface ProductRepository extends JpaRepository<Product, Long>, ProductRepositoryCustom {
 
+    // Categoria e fornecedor no mesmo SELECT: sem o grafo, o mapToDTO disparava um SELECT por associação
+    @EntityGraph(attributePaths = {"category", "defaultSupplier"})
     @Query("SELECT p FROM Product p WHERE " +
-            "(:name IS NULL OR LOWER(p.name) LIKE LOWER(CONCAT('%', :name, '%'))) AND " + "(:sku IS NULL OR LOWER(p.sku) LIKE LOWER(CONCAT('%', :sku, '%'))) AND " + "(:active IS NULL OR p.active = :active)")
+            "(:name IS NULL OR LOWER(p.name) LIKE LOWER(CONCAT('%', :name, '%'))) AND " + "(:sku IS NULL OR LOWER(p.sku) LIKE LOWER(CONCAT('%', :sku, '%'))) AND " + "(:active IS NULL OR p.active = :active) AND " +
+            "(:abcClass IS NULL OR EXISTS (SELECT a.id FROM ProductAnalytics a WHERE a.product = p AND a.abcClass = :abcClass))")
     Page<Product> search(@Param("name") String name,
                          @Param("sku") String sku,
                          @Param("active") Boolean active,
+                         @Param("abcClass") AbcClass abcClass,
                          Pageable pageable);
     boolean existsBySku(String sku);
+
+    @Query("SELECT new com.ifsuldeminas.escrud.dto.ProductScanDTO(p.id, p.sku, p.name, p.quantityInStock, p.active) " +
+            "FROM Product p WHERE p.sku = :sku")
+    Optional<ProductScanDTO> findScanBySku(@Param("sku") String sku);
     List<Product> findByActiveTrue();
 
     @Query("SELECT SUM(p.costPrice * p.quantityInStock) FROM Product p WHERE p.active = true")
@@ -27,4 +43,24 @@ public interface ProductRepository extends JpaRepository<Product, Long> {
             "FROM Product p WHERE p.active = true AND p.quantityInStock <= p.minStock")
     List<LowStockItemDTO> findLowStockItems();
 
-}
\ No newline at end of file
+
+    @Query("SELECT new com.ifsuldeminas.escrud.dto.LowStockItemDTO(p.id, p.sku, p.name, p.quantityInStock, p.minStock) " +
+            "FROM Product p WHERE p.active = true AND p.quantityInStock <= p.minStock " +
+            "AND EXISTS (SELECT a.id FROM ProductAnalytics a WHERE a.product = p AND a.abcClass = :abcClass)")
+    List<LowStockItemDTO> findLowStockItemsByAbcClass(@Param("abcClass") AbcClass abcClass);
+
+    @Query("SELECT new com.ifsuldeminas.escrud.dto.ProductStockDTO(p.id, p.quantityInStock) FROM Product p WHERE p.active = true")
+    List<ProductStockDTO> findActiveStock();
+
+    @Query("SELECT new com.ifsuldeminas.escrud.dto.ProductFacetRowDTO(" +
+            "p.id, c.id, s.id, p.location, p.quantityInStock, p.minStock, p.active) " +
+            "FROM Product p JOIN p.category c LEFT JOIN p.defaultSupplier s " +
+            "WHERE p.id > :afterId ORDER BY p.id")
+    List<ProductFacetRowDTO> findFacetRowsAfter(@Param("afterId") Long afterId, Pageable pageable);
+
+    // Linha atual de cada produto gravado, para os índices em memória (ProductRefresher)
+    @Query("SELECT new com.ifsuldeminas.escrud.dto.ProductIndexRowDTO(" +
+            "p.id, p.sku, p.name, c.id, s.id, p.location, p.quantityInStock, p.minStock, p.active) " +
+            "FROM Product p LEFT JOIN p.category c LEFT JOIN p.defaultSupplier s WHERE p.id IN :ids")
+    List<ProductIndexRowDTO> findIndexRows(@Param("ids") Collection<Long> ids);
+}
@@ -0,0 +1,14 @@
+package com.ifsuldeminas.escrud.repositories;
+
+import com.ifsuldeminas.escrud.entities.AbcClass;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+
+import java.util.List;
+import java.util.Map;
+
+public interface ProductRepositoryCustom {
+
+    Page<Map<String, Object>> searchFields(List<String> fields, String name, String sku, Boolean active,
+                                           AbcClass abcClass, Pageable pageable);
+}
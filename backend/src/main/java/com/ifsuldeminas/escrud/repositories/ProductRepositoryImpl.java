@@ -0,0 +1,62 @@
+package com.ifsuldeminas.escrud.repositories;
+
+import com.ifsuldeminas.escrud.entities.AbcClass;
+import com.ifsuldeminas.escrud.entities.Product;
+import com.ifsuldeminas.escrud.entities.ProductAnalytics;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Subquery;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+// Mesmos filtros de ProductRepository.search, com projeção só dos campos pedidos
+public class ProductRepositoryImpl implements ProductRepositoryCustom {
+
+    private static final SparseFieldQuery<Product> QUERY = new SparseFieldQuery<>(Product.class, Map.ofEntries(
+            Map.entry("id", "id"),
+            Map.entry("sku", "sku"),
+            Map.entry("name", "name"),
+            Map.entry("description", "description"),
+            Map.entry("quantityInStock", "quantityInStock"),
+            Map.entry("minStock", "minStock"),
+            Map.entry("costPrice", "costPrice"),
+            Map.entry("location", "location"),
+            Map.entry("active", "active"),
+            Map.entry("categoryName", "category.name"),
+            Map.entry("supplierName", "defaultSupplier.name")));
+
+    @PersistenceContext
+    private EntityManager em;
+
+    @Override
+    public Page<Map<String, Object>> searchFields(List<String> fields, String name, String sku, Boolean active,
+                                                  AbcClass abcClass, Pageable pageable) {
+        Specification<Product> filter = (root, query, cb) -> {
+            List<Predicate> predicates = new ArrayList<>();
+            if (name != null) {
+                predicates.add(cb.like(cb.lower(root.get("name")), "%" + name.toLowerCase() + "%"));
+            }
+            if (sku != null) {
+                predicates.add(cb.like(cb.lower(root.get("sku")), "%" + sku.toLowerCase() + "%"));
+            }
+            if (active != null) {
+                predicates.add(cb.equal(root.get("active"), active));
+            }
+            if (abcClass != null) {
+                Subquery<Long> analytics = query.subquery(Long.class);
+                var a = analytics.from(ProductAnalytics.class);
+                analytics.select(a.get("id"))
+                        .where(cb.equal(a.get("product"), root), cb.equal(a.get("abcClass"), abcClass));
+                predicates.add(cb.exists(analytics));
+            }
+            return cb.and(predicates.toArray(Predicate[]::new));
+        };
+        return QUERY.find(em, fields, filter, pageable);
+    }
+}
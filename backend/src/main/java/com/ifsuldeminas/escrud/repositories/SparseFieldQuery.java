@@ -0,0 +1,99 @@
+package com.ifsuldeminas.escrud.repositories;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.Tuple;
+import jakarta.persistence.TupleElement;
+import jakarta.persistence.criteria.*;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.jpa.repository.query.QueryUtils;
+import org.springframework.data.support.PageableExecutionUtils;
+
+import java.util.*;
+
+// Consulta por tupla só com as colunas pedidas em fields=. Cada campo público aponta para um atributo
+// ("sku") ou para um atributo de associação ("category.name"); a associação só entra no FROM, como
+// LEFT JOIN, se algum campo pedido precisar dela. O id vai sempre, é a chave da linha na grade.
+final class SparseFieldQuery<T> {
+
+    private final Class<T> type;
+    private final Map<String, String> paths;
+
+    SparseFieldQuery(Class<T> type, Map<String, String> paths) {
+        this.type = type;
+        this.paths = paths;
+    }
+
+    Page<Map<String, Object>> find(EntityManager em, List<String> fields, Specification<T> filter, Pageable pageable) {
+        Set<String> selected = resolve(fields);
+        CriteriaBuilder cb = em.getCriteriaBuilder();
+
+        CriteriaQuery<Tuple> query = cb.createTupleQuery();
+        Root<T> root = query.from(type);
+        Map<String, Join<T, ?>> joins = new HashMap<>();
+        List<Selection<?>> selections = new ArrayList<>(selected.size());
+        for (String field : selected) {
+            selections.add(path(root, joins, paths.get(field)).alias(field));
+        }
+        query.multiselect(selections);
+        Predicate where = filter.toPredicate(root, query, cb);
+        if (where != null) {
+            query.where(where);
+        }
+        query.orderBy(QueryUtils.toOrders(pageable.getSort(), root, cb));
+
+        var typed = em.createQuery(query);
+        if (pageable.isPaged()) {
+            typed.setFirstResult((int) pageable.getOffset());
+            typed.setMaxResults(pageable.getPageSize());
+        }
+        List<Map<String, Object>> content = typed.getResultList().stream().map(SparseFieldQuery::toMap).toList();
+
+        return PageableExecutionUtils.getPage(content, pageable, () -> count(em, filter));
+    }
+
+    private Set<String> resolve(List<String> fields) {
+        Set<String> selected = new LinkedHashSet<>();
+        selected.add("id");
+        for (String field : fields) {
+            String name = field.trim();
+            if (name.isEmpty()) {
+                continue;
+            }
+            if (!paths.containsKey(name)) {
+                throw new IllegalArgumentException("Unknown field: " + name);
+            }
+            selected.add(name);
+        }
+        return selected;
+    }
+
+    private Path<?> path(Root<T> root, Map<String, Join<T, ?>> joins, String path) {
+        int dot = path.indexOf('.');
+        if (dot < 0) {
+            return root.get(path);
+        }
+        String association = path.substring(0, dot);
+        return joins.computeIfAbsent(association, a -> root.join(a, JoinType.LEFT)).get(path.substring(dot + 1));
+    }
+
+    private long count(EntityManager em, Specification<T> filter) {
+        CriteriaBuilder cb = em.getCriteriaBuilder();
+        CriteriaQuery<Long> query = cb.createQuery(Long.class);
+        Root<T> root = query.from(type);
+        Predicate where = filter.toPredicate(root, query, cb);
+        if (where != null) {
+            query.where(where);
+        }
+        return em.createQuery(query.select(cb.count(root))).getSingleResult();
+    }
+
+    private static Map<String, Object> toMap(Tuple tuple) {
+        Map<String, Object> row = new LinkedHashMap<>();
+        for (TupleElement<?> element : tuple.getElements()) {
+            row.put(element.getAlias(), tuple.get(element));
+        }
+        return row;
+    }
+}
@@ -0,0 +1,22 @@
+package com.ifsuldeminas.escrud.repositories;
+
+import com.ifsuldeminas.escrud.entities.StockMovementArchive;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+public interface StockMovementArchiveRepository extends JpaRepository<StockMovementArchive, Long> {
+
+    @Query("SELECT a.id FROM StockMovementArchive a " +
+            "WHERE a.lastDateTime >= :startDate AND a.firstDateTime <= :endDate " +
+            "ORDER BY a.firstDateTime DESC")
+    List<Long> findOverlappingIds(@Param("startDate") LocalDateTime startDate,
+                                  @Param("endDate") LocalDateTime endDate);
+
+    // Só o bloco compactado, fora do contexto de persistência: a busca carrega um bloco por vez
+    @Query("SELECT a.payload FROM StockMovementArchive a WHERE a.id = :id")
+    byte[] findPayload(@Param("id") Long id);
+}
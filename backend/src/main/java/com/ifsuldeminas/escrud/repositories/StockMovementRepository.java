@@ -1,25 +1,43 @@
 package com.ifsuldeminas.escrud.repositories;
 
+import com.ifsuldeminas.escrud.dto.ArchivedMovementDTO;
+import com.ifsuldeminas.escrud.dto.DailyConsumptionDTO;
 import com.ifsuldeminas.escrud.dto.DepartmentConsumptionDTO;
+import com.ifsuldeminas.escrud.dto.MovementHistoryStampDTO;
+import com.ifsuldeminas.escrud.dto.MovementRowDTO;
+import com.ifsuldeminas.escrud.dto.ProductDailyTotalDTO;
+import com.ifsuldeminas.escrud.dto.ProductMovementTotalDTO;
+import com.ifsuldeminas.escrud.dto.StockMovementResponseDTO;
+import com.ifsuldeminas.escrud.dto.TrendPointDTO;
+import com.ifsuldeminas.escrud.dto.ProductConsumptionDTO;
 import com.ifsuldeminas.escrud.entities.MovementType;
 import com.ifsuldeminas.escrud.entities.StockMovement;
+import jakarta.persistence.QueryHint;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
 
-public interface StockMovementRepository extends JpaRepository<StockMovement, Long> {
+public interface StockMovementRepository extends JpaRepository<StockMovement, Long>, StockMovementRepositoryCustom {
 
+    // Associações do mapToDTO no mesmo SELECT, em vez de um SELECT por linha. Período sempre informado
+    // (o service completa os limites): faixa direta em date_time é o que o PostgreSQL usa para podar partições.
+    @EntityGraph(attributePaths = {"product", "product.category", "product.defaultSupplier", "department", "supplier", "user"})
     @Query("SELECT m FROM StockMovement m WHERE " +
             "(:productId IS NULL OR m.product.id = :productId) AND " +
             "(:departmentId IS NULL OR m.department.id = :departmentId) AND " +
             "(:type IS NULL OR m.type = :type) AND " +
-            "(:startDate IS NULL OR m.dateTime >= :startDate) AND " +
-            "(:endDate IS NULL OR m.dateTime <= :endDate)")
+            "m.dateTime >= :startDate AND m.dateTime <= :endDate")
     Page<StockMovement> search(
             @Param("productId") Long productId,
             @Param("departmentId") Integer departmentId,
@@ -28,6 +46,7 @@ public interface StockMovementRepository extends JpaRepository<StockMovement, Lo
             @Param("endDate") LocalDateTime endDate,
             Pageable pageable);
 
+    @EntityGraph(attributePaths = {"product", "product.category", "product.defaultSupplier", "department", "supplier", "user"})
     Page<StockMovement> findByProductId(Long productId, Pageable pageable);
 
     List<StockMovement> findTop10ByOrderByDateTimeDesc();
@@ -46,4 +65,154 @@ public interface StockMovementRepository extends JpaRepository<StockMovement, Lo
             @Param("endDate") LocalDateTime endDate,
             @Param("tipoMovimento") MovementType tipoMovimento
     );
-}
\ No newline at end of file
+
+    @Query("SELECT new com.ifsuldeminas.escrud.dto.ProductConsumptionDTO(m.product.id, SUM(ABS(m.quantity))) " +
+            "FROM StockMovement m " +
+            "WHERE m.type = :tipoMovimento " +
+            "AND m.dateTime >= :since " +
+            "AND m.product.id IN :productIds " +
+            "GROUP BY m.product.id")
+    List<ProductConsumptionDTO> getProductConsumption(
+            @Param("productIds") Collection<Long> productIds,
+            @Param("since") LocalDateTime since,
+            @Param("tipoMovimento") MovementType tipoMovimento
+    );
+
+    // Produtos com movimentação desde a última execução (reposição incremental)
+    @Query("SELECT DISTINCT m.product.id FROM StockMovement m WHERE m.dateTime >= :since")
+    List<Long> findProductIdsMovedSince(@Param("since") LocalDateTime since);
+
+    @Query("SELECT new com.ifsuldeminas.escrud.dto.DailyConsumptionDTO(" +
+            "m.product.id, m.department.id, CAST(m.dateTime AS LocalDate), SUM(ABS(m.quantity))) " +
+            "FROM StockMovement m " +
+            "WHERE m.type = :tipoMovimento " +
+            "AND m.dateTime >= :startDate AND m.dateTime < :endDate " +
+            "AND m.product.id IN :productIds " +
+            "GROUP BY m.product.id, m.department.id, CAST(m.dateTime AS LocalDate)")
+    List<DailyConsumptionDTO> getDailyConsumption(
+            @Param("productIds") Collection<Long> productIds,
+            @Param("startDate") LocalDateTime startDate,
+            @Param("endDate") LocalDateTime endDate,
+            @Param("tipoMovimento") MovementType tipoMovimento
+    );
+
+    // Leitura por keyset para carregar o armazenamento colunar sem OFFSET
+    @Query("SELECT new com.ifsuldeminas.escrud.dto.MovementRowDTO(" +
+            "m.id, m.dateTime, p.id, p.costPrice, d.id, m.type, m.quantity) " +
+            "FROM StockMovement m JOIN m.product p LEFT JOIN m.department d " +
+            "WHERE m.id > :afterId ORDER BY m.id")
+    List<MovementRowDTO> findRowsAfter(@Param("afterId") Long afterId, Pageable pageable);
+
+    // Janela recente por data: fecha a carga por id, que perde ids alocados antes e gravados depois
+    @Query("SELECT new com.ifsuldeminas.escrud.dto.MovementRowDTO(" +
+            "m.id, m.dateTime, p.id, p.costPrice, d.id, m.type, m.quantity) " +
+            "FROM StockMovement m JOIN m.product p LEFT JOIN m.department d " +
+            "WHERE m.dateTime >= :since ORDER BY m.id")
+    List<MovementRowDTO> findRowsSince(@Param("since") LocalDateTime since);
+
+    @Query("SELECT new com.ifsuldeminas.escrud.dto.TrendPointDTO(" +
+            "CAST(m.dateTime AS LocalDate), SUM(ABS(m.quantity)), SUM(ABS(m.quantity) * m.product.costPrice)) " +
+            "FROM StockMovement m " +
+            "WHERE m.type = :tipoMovimento " +
+            "AND m.dateTime BETWEEN :startDate AND :endDate " +
+            "AND (:productId IS NULL OR m.product.id = :productId) " +
+            "AND (:departmentId IS NULL OR m.department.id = :departmentId) " +
+            "GROUP BY CAST(m.dateTime AS LocalDate) " +
+            "ORDER BY CAST(m.dateTime AS LocalDate)")
+    List<TrendPointDTO> getDailyTrend(
+            @Param("startDate") LocalDateTime startDate,
+            @Param("endDate") LocalDateTime endDate,
+            @Param("tipoMovimento") MovementType tipoMovimento,
+            @Param("productId") Long productId,
+            @Param("departmentId") Integer departmentId
+    );
+
+    // Total por produto agregado no banco: volta uma linha por produto movimentado, não uma por movimentação
+    @Query("SELECT new com.ifsuldeminas.escrud.dto.ProductMovementTotalDTO(" +
+            "p.id, SUM(ABS(m.quantity)), p.costPrice, p.quantityInStock) " +
+            "FROM StockMovement m JOIN m.product p LEFT JOIN m.department d " +
+            "WHERE m.dateTime BETWEEN :startDate AND :endDate " +
+            "AND (:type IS NULL OR m.type = :type) " +
+            "AND (:departmentId IS NULL OR d.id = :departmentId) " +
+            "AND (:categoryId IS NULL OR p.category.id = :categoryId) " +
+            "GROUP BY p.id, p.costPrice, p.quantityInStock")
+    List<ProductMovementTotalDTO> sumByProduct(
+            @Param("startDate") LocalDateTime startDate,
+            @Param("endDate") LocalDateTime endDate,
+            @Param("type") MovementType type,
+            @Param("departmentId") Integer departmentId,
+            @Param("categoryId") Integer categoryId
+    );
+
+    @Query("SELECT new com.ifsuldeminas.escrud.dto.ProductDailyTotalDTO(" +
+            "m.product.id, CAST(m.dateTime AS LocalDate), SUM(ABS(m.quantity)), SUM(ABS(m.quantity) * m.product.costPrice)) " +
+            "FROM StockMovement m " +
+            "WHERE m.type = :tipoMovimento " +
+            "AND m.dateTime >= :startDate AND m.dateTime < :endDate " +
+            "GROUP BY m.product.id, CAST(m.dateTime AS LocalDate)")
+    List<ProductDailyTotalDTO> getProductDailyTotals(
+            @Param("startDate") LocalDateTime startDate,
+            @Param("endDate") LocalDateTime endDate,
+            @Param("tipoMovimento") MovementType tipoMovimento
+    );
+
+    String RESPONSE_PROJECTION = "SELECT new com.ifsuldeminas.escrud.dto.StockMovementResponseDTO(" +
+            "m.id, m.dateTime, m.type, m.quantity, m.reason, p.name, d.name, s.name, COALESCE(u.name, 'Unknown')) " +
+            "FROM StockMovement m JOIN m.product p LEFT JOIN m.department d " +
+            "LEFT JOIN m.supplier s LEFT JOIN m.user u ";
+
+    String RESPONSE_FILTER = "(:productId IS NULL OR p.id = :productId) AND " +
+            "(:departmentId IS NULL OR d.id = :departmentId) AND " +
+            "(:type IS NULL OR m.type = :type) AND " +
+            "m.dateTime >= :startDate AND m.dateTime <= :endDate";
+
+    // Paginação por keyset (id decrescente): custo constante por página, sem OFFSET
+    @Query(RESPONSE_PROJECTION + "WHERE (:beforeId IS NULL OR m.id < :beforeId) AND " + RESPONSE_FILTER +
+            " ORDER BY m.id DESC")
+    List<StockMovementResponseDTO> searchBefore(
+            @Param("beforeId") Long beforeId,
+            @Param("productId") Long productId,
+            @Param("departmentId") Integer departmentId,
+            @Param("type") MovementType type,
+            @Param("startDate") LocalDateTime startDate,
+            @Param("endDate") LocalDateTime endDate,
+            Pageable pageable);
+
+    @Query(RESPONSE_PROJECTION + "WHERE m.id = :id")
+    Optional<StockMovementResponseDTO> findResponseById(@Param("id") Long id);
+
+    @QueryHints({
+            @QueryHint(name = "org.hibernate.fetchSize", value = "500"),
+            @QueryHint(name = "org.hibernate.readOnly", value = "true")
+    })
+    @Query(RESPONSE_PROJECTION + "WHERE " + RESPONSE_FILTER + " ORDER BY m.id")
+    Stream<StockMovementResponseDTO> streamResponses(
+            @Param("productId") Long productId,
+            @Param("departmentId") Integer departmentId,
+            @Param("type") MovementType type,
+            @Param("startDate") LocalDateTime startDate,
+            @Param("endDate") LocalDateTime endDate);
+
+    // Arquivamento: linhas completas de um mês por keyset, com os nomes que vão junto para o arquivo
+    @Query("SELECT new com.ifsuldeminas.escrud.dto.ArchivedMovementDTO(" +
+            "m.id, m.dateTime, m.type, m.quantity, m.reason, p.id, d.id, s.id, u.id, p.name, d.name, s.name, u.name) " +
+            "FROM StockMovement m JOIN m.product p LEFT JOIN m.department d " +
+            "LEFT JOIN m.supplier s LEFT JOIN m.user u " +
+            "WHERE m.dateTime >= :startDate AND m.dateTime < :endDate AND m.id > :afterId ORDER BY m.id")
+    List<ArchivedMovementDTO> findArchiveRows(
+            @Param("startDate") LocalDateTime startDate,
+            @Param("endDate") LocalDateTime endDate,
+            @Param("afterId") Long afterId,
+            Pageable pageable);
+
+    @Query("SELECT MIN(m.dateTime) FROM StockMovement m")
+    Optional<LocalDateTime> findOldestDateTime();
+
+    @Modifying
+    @Query("DELETE FROM StockMovement m WHERE m.dateTime >= :startDate AND m.dateTime < :endDate")
+    int deleteByDateTimeRange(@Param("startDate") LocalDateTime startDate, @Param("endDate") LocalDateTime endDate);
+
+    @Query("SELECT new com.ifsuldeminas.escrud.dto.MovementHistoryStampDTO(COUNT(m), MAX(m.id), MAX(m.dateTime)) " +
+            "FROM StockMovement m WHERE m.product.id = :productId")
+    MovementHistoryStampDTO getHistoryStamp(@Param("productId") Long productId);
+}
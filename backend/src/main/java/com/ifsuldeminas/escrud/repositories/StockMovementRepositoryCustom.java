@@ -0,0 +1,16 @@
+package com.ifsuldeminas.escrud.repositories;
+
+import com.ifsuldeminas.escrud.entities.MovementType;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+public interface StockMovementRepositoryCustom {
+
+    Page<Map<String, Object>> searchFields(List<String> fields, Long productId, Integer departmentId,
+                                           MovementType type, LocalDateTime startDate, LocalDateTime endDate,
+                                           Pageable pageable);
+}
@@ -0,0 +1,59 @@
+package com.ifsuldeminas.escrud.repositories;
+
+import com.ifsuldeminas.escrud.entities.MovementType;
+import com.ifsuldeminas.escrud.entities.StockMovement;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.criteria.Predicate;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+// Mesmos filtros de StockMovementRepository.search, com projeção só dos campos pedidos
+public class StockMovementRepositoryImpl implements StockMovementRepositoryCustom {
+
+    private static final SparseFieldQuery<StockMovement> QUERY = new SparseFieldQuery<>(StockMovement.class, Map.of(
+            "id", "id",
+            "dateTime", "dateTime",
+            "type", "type",
+            "quantity", "quantity",
+            "reason", "reason",
+            "productName", "product.name",
+            "departmentName", "department.name",
+            "supplierName", "supplier.name",
+            "userName", "user.name"));
+
+    @PersistenceContext
+    private EntityManager em;
+
+    @Override
+    public Page<Map<String, Object>> searchFields(List<String> fields, Long productId, Integer departmentId,
+                                                  MovementType type, LocalDateTime startDate, LocalDateTime endDate,
+                                                  Pageable pageable) {
+        Specification<StockMovement> filter = (root, query, cb) -> {
+            List<Predicate> predicates = new ArrayList<>();
+            if (productId != null) {
+                predicates.add(cb.equal(root.get("product").get("id"), productId));
+            }
+            if (departmentId != null) {
+                predicates.add(cb.equal(root.get("department").get("id"), departmentId));
+            }
+            if (type != null) {
+                predicates.add(cb.equal(root.get("type"), type));
+            }
+            if (startDate != null) {
+                predicates.add(cb.greaterThanOrEqualTo(root.get("dateTime"), startDate));
+            }
+            if (endDate != null) {
+                predicates.add(cb.lessThanOrEqualTo(root.get("dateTime"), endDate));
+            }
+            return cb.and(predicates.toArray(Predicate[]::new));
+        };
+        return QUERY.find(em, fields, filter, pageable);
+    }
+}
@@ -3,16 +3,20 @@ import com.ifsuldeminas.escrud.dto.CategoryRequestDTO;
 import com.ifsuldeminas.escrud.dto.CategoryResponseDTO;
 import com.ifsuldeminas.escrud.entities.Category;
 import com.ifsuldeminas.escrud.repositories.CategoryRepository;
+import com.ifsuldeminas.escrud.service.DataVersions.DataSet;
+import io.micrometer.observation.annotation.Observed;
 import jakarta.persistence.EntityNotFoundException;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import java.util.List;
+@Observed(name = "escrud.service")
 @Service
 @RequiredArgsConstructor
 public class CategoryService {
     private final CategoryRepository repository;
+    private final DataVersions dataVersions;
     // Listar todos (paginado)
     public Page<CategoryResponseDTO> findAll(Pageable pageable, String name) {
         Page<Category> page;
@@ -42,7 +46,9 @@ public class CategoryService {
         Category entity = new Category();
         entity.setName(dto.name());
         entity.setActive(true); // Padrão
-        return mapToDTO(repository.save(entity));
+        CategoryResponseDTO saved = mapToDTO(repository.save(entity));
+        dataVersions.bump(DataSet.CATEGORIES);
+        return saved;
     }
     public CategoryResponseDTO update(int id, CategoryRequestDTO dto) {
         Category entity = repository.findById(id)
@@ -53,7 +59,9 @@ public class CategoryService {
             throw new IllegalArgumentException("Category name already exists");
         }
         entity.setName(dto.name());
-        return mapToDTO(repository.save(entity));
+        CategoryResponseDTO saved = mapToDTO(repository.save(entity));
+        dataVersions.bump(DataSet.CATEGORIES);
+        return saved;
     }
     // Exclusão Lógica (Soft Delete)
     public void delete(int id) {
@@ -61,6 +69,7 @@ public class CategoryService {
                 .orElseThrow(() -> new EntityNotFoundException("Category not found"));
         entity.setActive(false);
         repository.save(entity);
+        dataVersions.bump(DataSet.CATEGORIES);
     }
     private CategoryResponseDTO mapToDTO(Category entity) {
         return new CategoryResponseDTO(entity.getId(), entity.getName(), entity.isActive());
@@ -0,0 +1,51 @@
+package com.ifsuldeminas.escrud.service;
+
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Versão de cada conjunto de dados: quem grava incrementa, as respostas em cache são chaveadas por ela.
+// Dentro de transação o incremento só acontece no commit, senão um leitor poderia guardar o dado antigo
+// já com a versão nova.
+@Component
+public class DataVersions {
+
+    public enum DataSet { PRODUCTS, STOCK, ANALYTICS, CATEGORIES, DEPARTMENTS, SUPPLIERS }
+
+    private final Map<DataSet, AtomicLong> versions = new EnumMap<>(DataSet.class);
+
+    public DataVersions() {
+        for (DataSet set : DataSet.values()) {
+            versions.put(set, new AtomicLong());
+        }
+    }
+
+    public void bump(DataSet set) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    versions.get(set).incrementAndGet();
+                }
+            });
+        } else {
+            versions.get(set).incrementAndGet();
+        }
+    }
+
+    // Ex.: tag(PRODUCTS, STOCK) -> "3.17"
+    public String tag(DataSet... sets) {
+        StringBuilder tag = new StringBuilder();
+        for (DataSet set : sets) {
+            if (!tag.isEmpty()) {
+                tag.append('.');
+            }
+            tag.append(versions.get(set).get());
+        }
+        return tag.toString();
+    }
+}
@@ -0,0 +1,210 @@
+package com.ifsuldeminas.escrud.service;
+
+import com.ifsuldeminas.escrud.dto.DailyConsumptionDTO;
+import com.ifsuldeminas.escrud.dto.DemandForecastDTO;
+import com.ifsuldeminas.escrud.entities.DemandForecast;
+import com.ifsuldeminas.escrud.entities.ForecastModel;
+import com.ifsuldeminas.escrud.entities.MovementType;
+import com.ifsuldeminas.escrud.repositories.DemandForecastRepository;
+import com.ifsuldeminas.escrud.repositories.DepartmentRepository;
+import com.ifsuldeminas.escrud.repositories.ProductRepository;
+import com.ifsuldeminas.escrud.repositories.StockMovementRepository;
+import io.micrometer.observation.annotation.Observed;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.*;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+@Slf4j
+@Observed(name = "escrud.service")
+@Service
+@RequiredArgsConstructor
+public class DemandForecastService {
+
+    private static final int BATCH_SIZE = 1000;
+    private static final int SEASON_LENGTH = 7;
+
+    private final StockMovementRepository movementRepository;
+    private final DemandForecastRepository forecastRepository;
+    private final ProductRepository productRepository;
+    private final DepartmentRepository departmentRepository;
+    private final TransactionTemplate transactionTemplate;
+
+    @Value("${forecast.history-days:90}")
+    private int historyDays;
+
+    @Value("${forecast.horizon-days:30}")
+    private int horizonDays;
+
+    @Value("${forecast.smoothing-alpha:0.3}")
+    private double alpha;
+
+    @Value("${forecast.parallelism:0}")
+    private int parallelism;
+
+    private volatile LocalDateTime lastRun;
+    private ForkJoinPool pool;
+    private final AtomicBoolean manualRun = new AtomicBoolean();
+
+    public List<DemandForecastDTO> findForecasts(Long productId, Integer departmentId) {
+        return forecastRepository.search(productId, departmentId).stream()
+                .map(this::mapToDTO)
+                .toList();
+    }
+
+    // Disparo manual (admin): roda fora da requisição; false se outro disparo manual ainda não terminou
+    public boolean refreshInBackground() {
+        if (!manualRun.compareAndSet(false, true)) {
+            return false;
+        }
+        Thread.ofVirtual().name("forecast-refresh").start(() -> {
+            try {
+                refresh();
+            } catch (RuntimeException e) {
+                log.warn("Demand forecast refresh failed", e);
+            } finally {
+                manualRun.set(false);
+            }
+        });
+        return true;
+    }
+
+    // Cada lote numa transação própria: uma execução longa não segura conexão nem locks do começo ao fim, e
+    // uma falha no meio perde só o lote corrente (a próxima execução refaz tudo, lastRun não anda)
+    @Scheduled(cron = "${forecast.cron:0 0 2 * * *}")
+    public synchronized void refresh() {
+        LocalDateTime now = LocalDateTime.now();
+        LocalDate today = now.toLocalDate();
+        LocalDate start = today.minusDays(historyDays);
+
+        // Incremental: os produtos movimentados desde a última execução, mais os que já têm previsão, cuja
+        // janela andou mesmo sem consumo novo (quem parou de sair perde a previsão em vez de ficar com a antiga)
+        LocalDateTime since = (lastRun != null) ? lastRun : start.atStartOfDay();
+        Set<Long> toRefit = new LinkedHashSet<>(movementRepository.findProductIdsMovedSince(since));
+        toRefit.addAll(forecastRepository.findForecastedProductIds());
+        List<Long> productIds = new ArrayList<>(toRefit);
+
+        if (pool == null) {
+            pool = new ForkJoinPool(parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors());
+        }
+        for (int i = 0; i < productIds.size(); i += BATCH_SIZE) {
+            List<Long> batch = productIds.subList(i, Math.min(i + BATCH_SIZE, productIds.size()));
+            transactionTemplate.executeWithoutResult(status -> refreshBatch(batch, start, today, now));
+        }
+        lastRun = now;
+    }
+
+    @PreDestroy
+    public synchronized void stop() {
+        if (pool != null) {
+            pool.shutdown();
+        }
+    }
+
+    private void refreshBatch(List<Long> productIds, LocalDate start, LocalDate today, LocalDateTime now) {
+        int days = (int) ChronoUnit.DAYS.between(start, today);
+        Map<SeriesKey, double[]> series = new HashMap<>();
+        for (DailyConsumptionDTO row : movementRepository.getDailyConsumption(
+                productIds, start.atStartOfDay(), today.atStartOfDay(), MovementType.SAIDA_REQUISICAO)) {
+            double[] values = series.computeIfAbsent(
+                    new SeriesKey(row.productId(), row.departmentId()), k -> new double[days]);
+            values[(int) ChronoUnit.DAYS.between(start, row.day())] += row.quantity();
+        }
+
+        List<Fit> fits;
+        try {
+            fits = pool.submit(() -> series.entrySet().parallelStream()
+                    .map(e -> fit(e.getKey(), e.getValue()))
+                    .toList()).get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Forecast refresh interrupted", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Forecast refresh failed", e.getCause());
+        }
+
+        forecastRepository.deleteByProductIds(productIds);
+        forecastRepository.saveAll(fits.stream()
+                .map(f -> DemandForecast.builder()
+                        .product(productRepository.getReferenceById(f.key().productId()))
+                        .department(f.key().departmentId() != null
+                                ? departmentRepository.getReferenceById(f.key().departmentId())
+                                : null)
+                        .model(f.model())
+                        .dailyForecast(f.dailyForecast())
+                        .horizonDays(horizonDays)
+                        .horizonTotal(f.horizonTotal())
+                        .meanAbsoluteError(f.meanAbsoluteError())
+                        .generatedAt(now)
+                        .build())
+                .toList());
+    }
+
+    // Ajusta os dois modelos e fica com o de menor erro absoluto médio um passo à frente
+    Fit fit(SeriesKey key, double[] y) {
+        Fit smoothing = exponentialSmoothing(key, y);
+        if (y.length < 2 * SEASON_LENGTH) {
+            return smoothing;
+        }
+        Fit seasonal = seasonalNaive(key, y);
+        return seasonal.meanAbsoluteError() < smoothing.meanAbsoluteError() ? seasonal : smoothing;
+    }
+
+    private Fit exponentialSmoothing(SeriesKey key, double[] y) {
+        if (y.length == 0) {
+            return new Fit(key, ForecastModel.EXPONENTIAL_SMOOTHING, 0, 0, 0);
+        }
+        double level = y[0];
+        double error = 0;
+        for (int t = 1; t < y.length; t++) {
+            error += Math.abs(y[t] - level);
+            level = alpha * y[t] + (1 - alpha) * level;
+        }
+        double mae = y.length > 1 ? error / (y.length - 1) : 0;
+        return new Fit(key, ForecastModel.EXPONENTIAL_SMOOTHING, level, level * horizonDays, mae);
+    }
+
+    private Fit seasonalNaive(SeriesKey key, double[] y) {
+        int n = y.length;
+        double error = 0;
+        for (int t = SEASON_LENGTH; t < n; t++) {
+            error += Math.abs(y[t] - y[t - SEASON_LENGTH]);
+        }
+        double total = 0;
+        for (int h = 0; h < horizonDays; h++) {
+            total += y[n - SEASON_LENGTH + (h % SEASON_LENGTH)];
+        }
+        return new Fit(key, ForecastModel.SEASONAL_NAIVE, y[n - SEASON_LENGTH], total,
+                error / (n - SEASON_LENGTH));
+    }
+
+    private DemandForecastDTO mapToDTO(DemandForecast entity) {
+        return new DemandForecastDTO(
+                entity.getProduct().getId(),
+                entity.getProduct().getName(),
+                entity.getDepartment() != null ? entity.getDepartment().getId() : null,
+                entity.getDepartment() != null ? entity.getDepartment().getName() : null,
+                entity.getModel(),
+                entity.getDailyForecast(),
+                entity.getHorizonDays(),
+                entity.getHorizonTotal(),
+                entity.getMeanAbsoluteError(),
+                entity.getGeneratedAt()
+        );
+    }
+
+    record SeriesKey(Long productId, Integer departmentId) {}
+
+    record Fit(SeriesKey key, ForecastModel model, double dailyForecast, double horizonTotal, double meanAbsoluteError) {}
+}
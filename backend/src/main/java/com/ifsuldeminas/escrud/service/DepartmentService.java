@@ -3,16 +3,20 @@ import com.ifsuldeminas.escrud.dto.DepartmentRequestDTO;
 import com.ifsuldeminas.escrud.dto.DepartmentResponseDTO;
 import com.ifsuldeminas.escrud.entities.Department;
 import com.ifsuldeminas.escrud.repositories.DepartmentRepository;
+import com.ifsuldeminas.escrud.service.DataVersions.DataSet;
+import io.micrometer.observation.annotation.Observed;
 import jakarta.persistence.EntityNotFoundException;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import java.util.List;
+@Observed(name = "escrud.service")
 @Service
 @RequiredArgsConstructor
 public class DepartmentService {
     private final DepartmentRepository repository;
+    private final DataVersions dataVersions;
     public Page<DepartmentResponseDTO> findAll(Pageable pageable, String name) {
         Page<Department> page;
         if (name != null && !name.isBlank()) {
@@ -40,7 +44,9 @@ public class DepartmentService {
         Department entity = new Department();
         entity.setName(dto.name());
         entity.setActive(true);
-        return mapToDTO(repository.save(entity));
+        DepartmentResponseDTO saved = mapToDTO(repository.save(entity));
+        dataVersions.bump(DataSet.DEPARTMENTS);
+        return saved;
     }
     public DepartmentResponseDTO update(Integer id, DepartmentRequestDTO dto) {
         Department entity = repository.findById(id)
@@ -50,13 +56,16 @@ public class DepartmentService {
             throw new IllegalArgumentException("Department name already exists");
         }
         entity.setName(dto.name());
-        return mapToDTO(repository.save(entity));
+        DepartmentResponseDTO saved = mapToDTO(repository.save(entity));
+        dataVersions.bump(DataSet.DEPARTMENTS);
+        return saved;
     }
     public void delete(Integer id) {
         Department entity = repository.findById(id)
                 .orElseThrow(() -> new EntityNotFoundException("Department not found"));
         entity.setActive(false);
         repository.save(entity);
+        dataVersions.bump(DataSet.DEPARTMENTS);
     }
     private DepartmentResponseDTO mapToDTO(Department entity) {
         return new DepartmentResponseDTO(entity.getId(), entity.getName(), entity.isActive());
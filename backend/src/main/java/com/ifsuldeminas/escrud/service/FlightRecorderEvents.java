@@ -0,0 +1,53 @@
+package com.ifsuldeminas.escrud.service;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+// Eventos JFR da aplicação. Sem gravação ativa o begin/commit custa um teste de flag; com gravação, a duração
+// de cada evento aparece no JMC junto das amostras de CPU e alocação do mesmo intervalo.
+public final class FlightRecorderEvents {
+
+    private FlightRecorderEvents() {
+    }
+
+    @Name("escrud.StockMovementCreate")
+    @Label("Stock Movement Create")
+    @Category("Escrud")
+    @Description("Validation, stock update and insert of one stock movement")
+    public static class StockMovementCreate extends Event {
+
+        @Label("Product Id")
+        long productId;
+
+        @Label("Quantity")
+        int quantity;
+
+        @Label("Movement Type")
+        String type;
+    }
+
+    @Name("escrud.ReportQuery")
+    @Label("Report Query")
+    @Category("Escrud")
+    public static class ReportQuery extends Event {
+
+        @Label("Report")
+        String report;
+
+        @Label("Failed")
+        boolean failed;
+    }
+
+    @Name("escrud.JwtVerification")
+    @Label("JWT Verification")
+    @Category("Escrud")
+    @Description("Token parsing and user lookup in JwtAuthenticationFilter")
+    public static class JwtVerification extends Event {
+
+        @Label("Failed")
+        boolean failed;
+    }
+}
@@ -0,0 +1,59 @@
+package com.ifsuldeminas.escrud.service;
+
+import io.micrometer.common.KeyValue;
+import io.micrometer.observation.Observation;
+import io.micrometer.observation.ObservationHandler;
+import jdk.jfr.Event;
+import org.springframework.stereotype.Component;
+
+// Reaproveita as observações que já existem (tracing) para emitir eventos JFR: consultas do ReportService
+// (@Observed "escrud.service") e a verificação do JWT ("escrud.auth.jwt"), sem instrumentar método a método.
+@Component
+public class FlightRecorderObservationHandler implements ObservationHandler<Observation.Context> {
+
+    private static final String JWT = "escrud.auth.jwt";
+    private static final String SERVICE = "escrud.service";
+    private static final String REPORT_SERVICE = ReportService.class.getName();
+
+    // Chamado na criação da observação, antes das tags: aqui só dá para filtrar pelo nome
+    @Override
+    public boolean supportsContext(Observation.Context context) {
+        return JWT.equals(context.getName()) || SERVICE.equals(context.getName());
+    }
+
+    @Override
+    public void onStart(Observation.Context context) {
+        Event event;
+        if (JWT.equals(context.getName())) {
+            event = new FlightRecorderEvents.JwtVerification();
+        } else if (REPORT_SERVICE.equals(value(context, "class"))) {
+            FlightRecorderEvents.ReportQuery query = new FlightRecorderEvents.ReportQuery();
+            query.report = value(context, "method");
+            event = query;
+        } else {
+            return;
+        }
+        event.begin();
+        context.put(Event.class, event);
+    }
+
+    @Override
+    public void onStop(Observation.Context context) {
+        Event event = context.get(Event.class);
+        if (event == null || !event.shouldCommit()) {
+            return;
+        }
+        boolean failed = context.getError() != null;
+        if (event instanceof FlightRecorderEvents.ReportQuery query) {
+            query.failed = failed;
+        } else if (event instanceof FlightRecorderEvents.JwtVerification jwt) {
+            jwt.failed = failed;
+        }
+        event.commit();
+    }
+
+    private static String value(Observation.Context context, String key) {
+        KeyValue keyValue = context.getLowCardinalityKeyValue(key);
+        return (keyValue != null) ? keyValue.getValue() : null;
+    }
+}
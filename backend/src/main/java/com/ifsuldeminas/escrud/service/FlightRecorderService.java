@@ -0,0 +1,222 @@
+package com.ifsuldeminas.escrud.service;
+
+import com.ifsuldeminas.escrud.dto.RecordingFileDTO;
+import jakarta.annotation.PreDestroy;
+import jakarta.persistence.EntityNotFoundException;
+import jdk.jfr.Configuration;
+import jdk.jfr.Recording;
+import jdk.jfr.RecordingState;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.text.ParseException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.*;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+// Gravações do JDK Flight Recorder sem reiniciar a JVM. Dois modos:
+// - sob demanda (endpoint de admin): uma gravação por vez, com duração, gravada num arquivo ao parar;
+// - contínuo (profiling.continuous.enabled): gravação circular limitada por idade e tamanho, despejada em
+//   arquivo a cada profiling.continuous.dump-interval-ms.
+// Os dois usam o perfil "profile" do JDK com amostragem mais espaçada, e o diretório guarda só os
+// profiling.max-files arquivos mais recentes.
+@Slf4j
+@Service
+public class FlightRecorderService {
+
+    private static final Pattern FILE_NAME = Pattern.compile("[\\w.-]+\\.jfr");
+    private static final DateTimeFormatter STAMP = DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss");
+
+    // Ajustes sobre o "profile": metade da amostragem de CPU e de alocação, e os eventos da aplicação sem limiar.
+    // Variáveis de ambiente e propriedades de sistema ficam fora: levariam DB_PASSWORD e o segredo do JWT ao arquivo
+    private static final Map<String, String> TUNING = Map.of(
+            "jdk.InitialEnvironmentVariable#enabled", "false",
+            "jdk.InitialSystemProperty#enabled", "false",
+            "jdk.ExecutionSample#period", "20 ms",
+            "jdk.NativeMethodSample#period", "40 ms",
+            "jdk.ObjectAllocationSample#throttle", "150/s",
+            "escrud.StockMovementCreate#threshold", "0 ms",
+            "escrud.ReportQuery#threshold", "0 ms",
+            "escrud.JwtVerification#threshold", "0 ms");
+
+    @Value("${profiling.directory:${java.io.tmpdir}/escrud-jfr}")
+    private String directory;
+
+    @Value("${profiling.max-files:10}")
+    private int maxFiles;
+
+    @Value("${profiling.max-duration-seconds:600}")
+    private long maxDurationSeconds;
+
+    @Value("${profiling.continuous.enabled:false}")
+    private boolean continuousEnabled;
+
+    @Value("${profiling.continuous.max-age-minutes:30}")
+    private long continuousMaxAgeMinutes;
+
+    @Value("${profiling.continuous.max-size-mb:200}")
+    private long continuousMaxSizeMb;
+
+    private Recording onDemand;
+    private Path onDemandFile;
+    private Recording continuous;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void startContinuous() {
+        if (!continuousEnabled || continuous != null) {
+            return;
+        }
+        continuous = new Recording(settings());
+        continuous.setName("escrud-continuous");
+        continuous.setToDisk(true);
+        continuous.setMaxAge(Duration.ofMinutes(continuousMaxAgeMinutes));
+        continuous.setMaxSize(continuousMaxSizeMb * 1024 * 1024);
+        continuous.start();
+        log.info("Continuous JFR recording started (max age {} min, max size {} MB)",
+                continuousMaxAgeMinutes, continuousMaxSizeMb);
+    }
+
+    @Scheduled(initialDelayString = "${profiling.continuous.dump-interval-ms:600000}",
+            fixedDelayString = "${profiling.continuous.dump-interval-ms:600000}")
+    public synchronized void dumpContinuous() {
+        if (continuous == null || continuous.getState() != RecordingState.RUNNING) {
+            return;
+        }
+        try {
+            continuous.dump(newFile("continuous"));
+            rotate();
+        } catch (IOException e) {
+            log.warn("Could not dump continuous JFR recording", e);
+        }
+    }
+
+    public synchronized String start(long durationSeconds) {
+        if (onDemand != null && onDemand.getState() == RecordingState.RUNNING) {
+            throw new IllegalStateException("A recording is already running: " + onDemandFile.getFileName());
+        }
+        if (durationSeconds <= 0 || durationSeconds > maxDurationSeconds) {
+            throw new IllegalArgumentException("Duration must be between 1 and " + maxDurationSeconds + " seconds");
+        }
+        Path file = newFile("on-demand");
+        Recording recording = new Recording(settings());
+        recording.setName("escrud-on-demand");
+        recording.setToDisk(true);
+        recording.setDuration(Duration.ofSeconds(durationSeconds));
+        try {
+            // Com destino e duração, a JVM grava o arquivo sozinha quando a duração acaba
+            recording.setDestination(file);
+        } catch (IOException e) {
+            recording.close();
+            throw new UncheckedIOException(e);
+        }
+        recording.start();
+        closePrevious();
+        rotate();
+        onDemand = recording;
+        onDemandFile = file;
+        return file.getFileName().toString();
+    }
+
+    public synchronized RecordingFileDTO stop() {
+        if (onDemand == null || onDemand.getState() != RecordingState.RUNNING) {
+            throw new IllegalStateException("No recording is running");
+        }
+        onDemand.stop();
+        closePrevious();
+        rotate();
+        return describe(onDemandFile);
+    }
+
+    public List<RecordingFileDTO> list() {
+        Path dir = Paths.get(directory);
+        if (!Files.isDirectory(dir)) {
+            return List.of();
+        }
+        try (Stream<Path> files = Files.list(dir)) {
+            return files.filter(f -> FILE_NAME.matcher(f.getFileName().toString()).matches())
+                    .map(this::describe)
+                    .sorted(Comparator.comparing(RecordingFileDTO::modifiedAt).reversed())
+                    .toList();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    // Só nomes simples de arquivos .jfr dentro do diretório: nada de caminho vindo da URL
+    public Path resolve(String name) {
+        Path file = Paths.get(directory).resolve(name);
+        if (!FILE_NAME.matcher(name).matches() || !Files.isRegularFile(file)
+                || (onDemand != null && onDemand.getState() == RecordingState.RUNNING && file.equals(onDemandFile))) {
+            throw new EntityNotFoundException("Recording not found");
+        }
+        return file;
+    }
+
+    @PreDestroy
+    public synchronized void close() {
+        if (onDemand != null) {
+            onDemand.close();
+        }
+        if (continuous != null) {
+            continuous.close();
+        }
+    }
+
+    private Map<String, String> settings() {
+        try {
+            Map<String, String> settings = new HashMap<>(Configuration.getConfiguration("profile").getSettings());
+            settings.putAll(TUNING);
+            return settings;
+        } catch (IOException | ParseException e) {
+            throw new IllegalStateException("JFR profile configuration is not available", e);
+        }
+    }
+
+    private Path newFile(String kind) {
+        try {
+            Path dir = Files.createDirectories(Paths.get(directory));
+            return dir.resolve("escrud-" + kind + "-" + LocalDateTime.now().format(STAMP) + ".jfr");
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    // Recording parado continua segurando o repositório temporário até o close
+    private void closePrevious() {
+        if (onDemand != null && onDemand.getState() == RecordingState.STOPPED) {
+            onDemand.close();
+        }
+    }
+
+    private void rotate() {
+        List<RecordingFileDTO> files = list();
+        for (RecordingFileDTO old : files.subList(Math.min(maxFiles, files.size()), files.size())) {
+            try {
+                Files.deleteIfExists(Paths.get(directory).resolve(old.name()));
+            } catch (IOException e) {
+                log.warn("Could not delete old JFR recording {}", old.name(), e);
+            }
+        }
+    }
+
+    private RecordingFileDTO describe(Path file) {
+        try {
+            return new RecordingFileDTO(file.getFileName().toString(), Files.size(file),
+                    Files.getLastModifiedTime(file).toInstant());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,100 @@
+package com.ifsuldeminas.escrud.service;
+
+import com.ifsuldeminas.escrud.entities.IdempotencyRecord;
+import com.ifsuldeminas.escrud.repositories.IdempotencyRecordRepository;
+import jakarta.transaction.Transactional;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Idempotency-Key -> id da movimentação criada, com validade. A tabela é a fonte da verdade
+// (sobrevive a reinícios e vale entre instâncias); o índice em memória evita ida ao banco nos reenvios.
+@Component
+@RequiredArgsConstructor
+public class IdempotencyStore {
+
+    // idempotency_key VARCHAR(128); chaves maiores são recusadas na entrada, em qualquer modo de escrita
+    public static final int MAX_KEY_BYTES = 128;
+
+    private final IdempotencyRecordRepository repository;
+
+    @Value("${idempotency.ttl-hours:24}")
+    private long ttlHours;
+
+    @Value("${idempotency.max-cached-keys:100000}")
+    private int maxCachedKeys;
+
+    private final Map<String, Entry> index = new ConcurrentHashMap<>();
+
+    public Long findMovementId(String key) {
+        if (key == null) {
+            return null;
+        }
+        long now = System.currentTimeMillis();
+        Entry cached = index.get(key);
+        if (cached != null) {
+            if (cached.expiresAt() > now) {
+                return cached.movementId();
+            }
+            index.remove(key);
+        }
+        return repository.findActive(key, LocalDateTime.now())
+                .map(e -> {
+                    cache(key, e.movementId(), toEpochMilli(e.expiresAt()));
+                    return e.movementId();
+                })
+                .orElse(null);
+    }
+
+    // Grava na mesma transação da movimentação; a PK faz o reenvio concorrente falhar e ser desfeito
+    public void register(String key, Long movementId) {
+        if (key == null) {
+            return;
+        }
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime expiresAt = now.plusHours(ttlHours);
+        repository.deleteExpiredKey(key, now);
+        repository.saveAndFlush(new IdempotencyRecord(key, movementId, now, expiresAt));
+
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    cache(key, movementId, toEpochMilli(expiresAt));
+                }
+            });
+        } else {
+            cache(key, movementId, toEpochMilli(expiresAt));
+        }
+    }
+
+    @Scheduled(initialDelayString = "${idempotency.purge-interval-ms:3600000}",
+            fixedDelayString = "${idempotency.purge-interval-ms:3600000}")
+    @Transactional
+    public void purgeExpired() {
+        long now = System.currentTimeMillis();
+        index.values().removeIf(e -> e.expiresAt() <= now);
+        repository.deleteExpired(LocalDateTime.now());
+    }
+
+    // Índice cheio: a chave continua valendo pela tabela, só não fica em memória
+    private void cache(String key, Long movementId, long expiresAt) {
+        if (index.size() < maxCachedKeys || index.containsKey(key)) {
+            index.put(key, new Entry(movementId, expiresAt));
+        }
+    }
+
+    private static long toEpochMilli(LocalDateTime dateTime) {
+        return dateTime.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+
+    private record Entry(long movementId, long expiresAt) {}
+}
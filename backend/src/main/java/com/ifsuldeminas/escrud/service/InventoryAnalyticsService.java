@@ -0,0 +1,191 @@
+package com.ifsuldeminas.escrud.service;
+
+import com.ifsuldeminas.escrud.dto.ProductAnalyticsDTO;
+import com.ifsuldeminas.escrud.dto.ProductStockDTO;
+import com.ifsuldeminas.escrud.dto.ProductWindowTotalDTO;
+import com.ifsuldeminas.escrud.entities.AbcClass;
+import com.ifsuldeminas.escrud.entities.MovementType;
+import com.ifsuldeminas.escrud.entities.ProductAnalytics;
+import com.ifsuldeminas.escrud.entities.ProductDailyConsumption;
+import com.ifsuldeminas.escrud.repositories.ProductAnalyticsRepository;
+import com.ifsuldeminas.escrud.repositories.ProductDailyConsumptionRepository;
+import com.ifsuldeminas.escrud.repositories.ProductRepository;
+import com.ifsuldeminas.escrud.repositories.StockMovementRepository;
+import com.ifsuldeminas.escrud.service.DataVersions.DataSet;
+import io.micrometer.observation.annotation.Observed;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+@Slf4j
+@Observed(name = "escrud.service")
+@Service
+@RequiredArgsConstructor
+public class InventoryAnalyticsService {
+
+    private static final int PARTITION_SIZE = 10_000;
+
+    private final StockMovementRepository movementRepository;
+    private final ProductRepository productRepository;
+    private final ProductDailyConsumptionRepository dailyRepository;
+    private final ProductAnalyticsRepository analyticsRepository;
+    private final DataVersions dataVersions;
+    private final TransactionTemplate transactionTemplate;
+
+    @Value("${analytics.abc.window-days:90}")
+    private int windowDays;
+
+    @Value("${analytics.abc.a-share:0.8}")
+    private double aShare;
+
+    @Value("${analytics.abc.b-share:0.95}")
+    private double bShare;
+
+    // Dias já consolidados que são agregados de novo a cada execução: movimentações do modo GROUP/ASYNC
+    // chegam ao banco depois da data que carregam
+    @Value("${analytics.abc.recompute-days:3}")
+    private int recomputeDays;
+
+    private final AtomicBoolean manualRun = new AtomicBoolean();
+
+    public Page<ProductAnalyticsDTO> findAll(AbcClass abcClass, Pageable pageable) {
+        return analyticsRepository.search(abcClass, pageable);
+    }
+
+    // Disparo manual (admin), no mesmo formato do DemandForecastService.refreshInBackground
+    public boolean refreshInBackground() {
+        if (!manualRun.compareAndSet(false, true)) {
+            return false;
+        }
+        Thread.ofVirtual().name("abc-refresh").start(() -> {
+            try {
+                refresh();
+            } catch (RuntimeException e) {
+                log.warn("ABC analysis refresh failed", e);
+            } finally {
+                manualRun.set(false);
+            }
+        });
+        return true;
+    }
+
+    // A tabela não é esvaziada: cada partição de PARTITION_SIZE produtos é regravada no lugar numa transação
+    // própria, então a curva continua legível durante a execução (com classes antigas até a partição passar)
+    @Scheduled(cron = "${analytics.abc.cron:0 30 2 * * *}")
+    public synchronized void refresh() {
+        LocalDate today = LocalDate.now();
+        LocalDate windowStart = today.minusDays(windowDays);
+
+        Map<Long, ProductWindowTotalDTO> totals = transactionTemplate.execute(status -> {
+            rollUpDailyConsumption(windowStart, today);
+            return dailyRepository.sumSince(windowStart).stream()
+                    .collect(Collectors.toMap(ProductWindowTotalDTO::productId, Function.identity()));
+        });
+
+        // A curva ABC precisa da ordenação global; as métricas por produto são aritmética simples
+        List<Metrics> metrics = productRepository.findActiveStock().stream()
+                .map(p -> computeMetrics(p, totals.get(p.id())))
+                .sorted(Comparator.comparing(Metrics::value).reversed())
+                .toList();
+
+        BigDecimal total = metrics.stream().map(Metrics::value).reduce(BigDecimal.ZERO, BigDecimal::add);
+        Map<Long, AbcClass> classes = new HashMap<>(metrics.size() * 2);
+        BigDecimal cumulative = BigDecimal.ZERO;
+        for (Metrics m : metrics) {
+            classes.put(m.productId(), classify(m.value(), cumulative, total));
+            cumulative = cumulative.add(m.value());
+        }
+
+        for (int i = 0; i < metrics.size(); i += PARTITION_SIZE) {
+            List<Metrics> partition = metrics.subList(i, Math.min(i + PARTITION_SIZE, metrics.size()));
+            transactionTemplate.executeWithoutResult(status -> save(partition, classes, today));
+        }
+        transactionTemplate.executeWithoutResult(status -> analyticsRepository.deleteForInactiveProducts());
+        dataVersions.bump(DataSet.ANALYTICS);
+    }
+
+    private void save(List<Metrics> partition, Map<Long, AbcClass> classes, LocalDate today) {
+        Map<Long, ProductAnalytics> existing = analyticsRepository.findByProductIdIn(
+                        partition.stream().map(Metrics::productId).toList())
+                .stream()
+                .collect(Collectors.toMap(a -> a.getProduct().getId(), Function.identity()));
+        List<ProductAnalytics> results = new ArrayList<>(partition.size());
+        for (Metrics m : partition) {
+            ProductAnalytics analytics = existing.get(m.productId());
+            if (analytics == null) {
+                analytics = ProductAnalytics.builder()
+                        .product(productRepository.getReferenceById(m.productId()))
+                        .build();
+            }
+            analytics.setAbcClass(classes.get(m.productId()));
+            analytics.setConsumptionValue(m.value());
+            analytics.setConsumptionQuantity(m.quantity());
+            analytics.setTurnover(m.turnover());
+            analytics.setDaysOfSupply(m.daysOfSupply());
+            analytics.setCalculatedOn(today);
+            results.add(analytics);
+        }
+        analyticsRepository.saveAll(results);
+    }
+
+    // Incremental por dia: agrega os dias fechados ainda não consolidados e refaz os últimos recomputeDays
+    private void rollUpDailyConsumption(LocalDate windowStart, LocalDate today) {
+        LocalDate lastDay = dailyRepository.findLastDay();
+        LocalDate from = (lastDay != null && !lastDay.isBefore(windowStart)) ? lastDay.plusDays(1) : windowStart;
+        LocalDate trailing = today.minusDays(recomputeDays);
+        if (trailing.isBefore(from)) {
+            from = trailing.isBefore(windowStart) ? windowStart : trailing;
+        }
+
+        if (from.isBefore(today)) {
+            dailyRepository.deleteFrom(from);
+            dailyRepository.saveAll(movementRepository.getProductDailyTotals(
+                            from.atStartOfDay(), today.atStartOfDay(), MovementType.SAIDA_REQUISICAO)
+                    .stream()
+                    .map(t -> ProductDailyConsumption.builder()
+                            .productId(t.productId())
+                            .day(t.day())
+                            .quantity(t.quantity())
+                            .value(t.value())
+                            .build())
+                    .toList());
+        }
+        dailyRepository.deleteOlderThan(windowStart);
+    }
+
+    private Metrics computeMetrics(ProductStockDTO product, ProductWindowTotalDTO total) {
+        long quantity = (total != null && total.quantity() != null) ? total.quantity() : 0;
+        BigDecimal value = (total != null && total.value() != null) ? total.value() : BigDecimal.ZERO;
+        int stock = Math.max(product.quantityInStock(), 0);
+
+        double turnover = (double) quantity / Math.max(stock, 1);
+        double dailyConsumption = (double) quantity / windowDays;
+        Double daysOfSupply = dailyConsumption > 0 ? stock / dailyConsumption : null;
+        return new Metrics(product.id(), quantity, value, turnover, daysOfSupply);
+    }
+
+    private AbcClass classify(BigDecimal value, BigDecimal cumulativeBefore, BigDecimal total) {
+        if (value.signum() <= 0 || total.signum() <= 0) {
+            return AbcClass.C;
+        }
+        double shareBefore = cumulativeBefore.doubleValue() / total.doubleValue();
+        if (shareBefore < aShare) {
+            return AbcClass.A;
+        }
+        return shareBefore < bShare ? AbcClass.B : AbcClass.C;
+    }
+
+    private record Metrics(Long productId, long quantity, BigDecimal value, double turnover, Double daysOfSupply) {}
+}
@@ -0,0 +1,75 @@
+package com.ifsuldeminas.escrud.service;
+
+import com.ifsuldeminas.escrud.entities.MovementType;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.EnumMap;
+import java.util.Map;
+
+// Contadores de negócio do estoque. Movimentações e cruzamentos do mínimo só contam no commit, para um
+// rollback não inflar a série; rejeições contam na hora, já que nunca chegam a gravar.
+@Component
+public class InventoryMetrics {
+
+    private final Map<MovementType, Counter> movements = new EnumMap<>(MovementType.class);
+    private final Counter insufficientStock;
+    private final Counter enteredLowStock;
+    private final Counter leftLowStock;
+
+    public InventoryMetrics(MeterRegistry registry) {
+        for (MovementType type : MovementType.values()) {
+            movements.put(type, Counter.builder("escrud.stock.movements")
+                    .description("Stock movements committed, by type")
+                    .tag("type", type.name())
+                    .register(registry));
+        }
+        insufficientStock = Counter.builder("escrud.stock.rejections")
+                .description("Movements rejected by validation")
+                .tag("reason", "insufficient_stock")
+                .register(registry);
+        enteredLowStock = Counter.builder("escrud.stock.low_stock_crossings")
+                .description("Products whose stock crossed the minimum")
+                .tag("direction", "entered")
+                .register(registry);
+        leftLowStock = Counter.builder("escrud.stock.low_stock_crossings")
+                .description("Products whose stock crossed the minimum")
+                .tag("direction", "left")
+                .register(registry);
+    }
+
+    public void movementSaved(MovementType type) {
+        afterCommit(movements.get(type)::increment);
+    }
+
+    public void insufficientStock() {
+        insufficientStock.increment();
+    }
+
+    // Saldo mudou de before para after com o mesmo mínimo: conta só a virada de lado
+    public void stockChanged(int before, int after, int minStock) {
+        boolean wasLow = before <= minStock;
+        boolean isLow = after <= minStock;
+        if (!wasLow && isLow) {
+            afterCommit(enteredLowStock::increment);
+        } else if (wasLow && !isLow) {
+            afterCommit(leftLowStock::increment);
+        }
+    }
+
+    private void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+}
@@ -0,0 +1,188 @@
+package com.ifsuldeminas.escrud.service;
+
+import com.ifsuldeminas.escrud.dto.LowStockItemDTO;
+import com.ifsuldeminas.escrud.dto.ProductIndexRowDTO;
+import com.ifsuldeminas.escrud.repositories.ProductRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.util.*;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+// Só os produtos ativos com saldo <= mínimo, ordenados pelo déficit (saldo - mínimo, mais crítico
+// primeiro). Mantido a cada gravação de saldo ou mínimo, então o dashboard lê só os itens baixos
+// em vez de varrer o catálogo. A varredura completa acontece uma vez, na carga.
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class LowStockIndex {
+
+    static final Comparator<LowStockItemDTO> MOST_CRITICAL_FIRST =
+            Comparator.comparingInt((LowStockItemDTO i) -> i.quantityInStock() - i.minStock())
+                    .thenComparingInt(LowStockItemDTO::quantityInStock)
+                    .thenComparing(LowStockItemDTO::id);
+
+    private final ProductRepository productRepository;
+
+    @Value("${products.low-stock-index.enabled:true}")
+    private boolean enabled;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final NavigableSet<LowStockItemDTO> items = new TreeSet<>(MOST_CRITICAL_FIRST);
+    private final Map<Long, LowStockItemDTO> byProduct = new HashMap<>();
+
+    // Mesmo cuidado do ProductFacetIndex: o que foi gravado durante a carga não é sobrescrito por ela
+    private final Set<Long> updatedWhileLoading = new HashSet<>();
+    private boolean loading;
+    private boolean stale;
+    private volatile boolean ready;
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    boolean isEnabled() {
+        return enabled;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        if (!enabled) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            if (ready || loading) {
+                return;
+            }
+            loading = true;
+            items.clear();
+            byProduct.clear();
+        } finally {
+            lock.writeLock().unlock();
+        }
+
+        List<LowStockItemDTO> rows = null;
+        boolean again;
+        try {
+            rows = productRepository.findLowStockItems();
+        } finally {
+            lock.writeLock().lock();
+            try {
+                if (rows != null) {
+                    for (LowStockItemDTO row : rows) {
+                        if (!updatedWhileLoading.contains(row.id())) {
+                            put(row.id(), row);
+                        }
+                    }
+                }
+                updatedWhileLoading.clear();
+                loading = false;
+                again = rows != null && stale;
+                stale = false;
+                ready = rows != null && !again;
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+        if (again) {
+            load();
+        }
+    }
+
+    // Mesmo contrato do ProductFacetIndex.invalidate; enquanto isso os relatórios consultam o banco
+    void invalidate() {
+        if (!enabled) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            ready = false;
+            if (loading) {
+                stale = true;
+                return;
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+        Thread.ofVirtual().name("low-stock-index-reload").start(() -> {
+            try {
+                load();
+            } catch (RuntimeException e) {
+                log.warn("Low stock index reload failed", e);
+            }
+        });
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return items.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public List<LowStockItemDTO> page(int offset, int limit) {
+        lock.readLock().lock();
+        try {
+            List<LowStockItemDTO> page = new ArrayList<>(Math.min(limit, items.size()));
+            Iterator<LowStockItemDTO> it = items.iterator();
+            for (int i = 0; it.hasNext() && page.size() < limit; i++) {
+                LowStockItemDTO item = it.next();
+                if (i >= offset) {
+                    page.add(item);
+                }
+            }
+            return page;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public List<LowStockItemDTO> all() {
+        return page(0, Integer.MAX_VALUE);
+    }
+
+    // Linhas relidas depois do commit pelo ProductRefresher. Quem não está entre elas, ou não está mais
+    // baixo, sai do índice (foi inativado, reposto ou excluído)
+    void apply(Collection<Long> ids, List<ProductIndexRowDTO> rows) {
+        if (!enabled) {
+            return;
+        }
+        Map<Long, LowStockItemDTO> low = new HashMap<>();
+        for (ProductIndexRowDTO row : rows) {
+            if (row.active() && row.quantityInStock() <= row.minStock()) {
+                low.put(row.id(), new LowStockItemDTO(row.id(), row.sku(), row.name(), row.quantityInStock(),
+                        row.minStock()));
+            }
+        }
+        lock.writeLock().lock();
+        try {
+            for (Long id : ids) {
+                if (loading) {
+                    updatedWhileLoading.add(id);
+                }
+                put(id, low.get(id));
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // item nulo: o produto saiu do estoque baixo (ou foi inativado)
+    private void put(Long id, LowStockItemDTO item) {
+        LowStockItemDTO previous = (item != null) ? byProduct.put(id, item) : byProduct.remove(id);
+        if (previous != null) {
+            items.remove(previous);
+        }
+        if (item != null) {
+            items.add(item);
+        }
+    }
+}
@@ -0,0 +1,275 @@
+package com.ifsuldeminas.escrud.service;
+
+import com.ifsuldeminas.escrud.dto.ArchivedMovementDTO;
+import com.ifsuldeminas.escrud.dto.StockMovementResponseDTO;
+import com.ifsuldeminas.escrud.entities.MovementType;
+import com.ifsuldeminas.escrud.entities.StockMovementArchive;
+import com.ifsuldeminas.escrud.repositories.StockMovementArchiveRepository;
+import com.ifsuldeminas.escrud.repositories.StockMovementRepository;
+import com.ifsuldeminas.escrud.service.DataVersions.DataSet;
+import io.micrometer.observation.annotation.Observed;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.*;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.time.ZoneOffset;
+import java.time.temporal.ChronoUnit;
+import java.util.*;
+import java.util.function.Consumer;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+// Arquivamento frio: movimentações de meses inteiros fora da retenção saem de stock_movements e viram blocos
+// GZIP em stock_movement_archive. O que fica quente é só a janela de retenção (mais o mês corrente dela),
+// então buscas, relatórios e Top 10 não passam pelo histórico antigo. O arquivo continua consultável em
+// search(), mais lento: descompacta os blocos do período e filtra em memória, por isso só com período fechado.
+@Slf4j
+@Observed(name = "escrud.service")
+@Service
+@RequiredArgsConstructor
+public class MovementArchiveService {
+
+    public static final int MAX_SEARCH_DAYS = 366;
+
+    private static final int FORMAT_VERSION = 1;
+    private static final int NONE = -1;
+    private static final MovementType[] TYPES = MovementType.values();
+    private static final Comparator<ArchivedMovementDTO> NEWEST_FIRST =
+            Comparator.comparing(ArchivedMovementDTO::dateTime).thenComparing(ArchivedMovementDTO::id).reversed();
+
+    private final StockMovementRepository movementRepository;
+    private final StockMovementArchiveRepository archiveRepository;
+    private final StockMovementPartitions partitions;
+    private final DataVersions dataVersions;
+    private final MovementColumnStore columnStore;
+    private final TransactionTemplate transactionTemplate;
+
+    @Value("${movements.archive.enabled:false}")
+    private boolean enabled;
+
+    @Value("${movements.archive.retention-days:365}")
+    private int retentionDays;
+
+    @Value("${movements.archive.chunk-size:5000}")
+    private int chunkSize;
+
+    @Scheduled(cron = "${movements.archive.cron:0 0 3 * * *}")
+    public void archiveExpired() {
+        if (!enabled) {
+            return;
+        }
+        YearMonth cutoff = YearMonth.from(LocalDate.now().minusDays(retentionDays));
+        int archived = archiveBefore(cutoff);
+        if (archived > 0) {
+            log.info("Archived {} stock movements before {}", archived, cutoff);
+        }
+    }
+
+    // Mês a mês, do mais antigo até cutoff (exclusive); cada mês numa transação, cópia e remoção juntas
+    public synchronized int archiveBefore(YearMonth cutoff) {
+        int total = 0;
+        YearMonth archivedUntil = null;
+        Optional<LocalDateTime> oldest;
+        while ((oldest = movementRepository.findOldestDateTime()).isPresent()) {
+            YearMonth month = YearMonth.from(oldest.get());
+            if (!month.isBefore(cutoff)) {
+                break;
+            }
+            Integer archived = transactionTemplate.execute(status -> archiveMonth(month));
+            if (archived == null || archived == 0) {
+                break;
+            }
+            total += archived;
+            archivedUntil = month.plusMonths(1);
+        }
+        if (total > 0) {
+            // Relatórios em memória também deixam de contar os meses arquivados
+            columnStore.evictBefore(archivedUntil.atDay(1).atStartOfDay());
+            dataVersions.bump(DataSet.STOCK);
+        }
+        return total;
+    }
+
+    public static boolean isSearchable(LocalDate start, LocalDate end) {
+        return start != null && end != null && !end.isBefore(start)
+                && ChronoUnit.DAYS.between(start, end) < MAX_SEARCH_DAYS;
+    }
+
+    // Um bloco descompactado por vez; das que passam no filtro só as offset + size mais novas ficam em memória
+    public Page<StockMovementResponseDTO> search(Long productId, Integer departmentId, MovementType type,
+                                                 LocalDate start, LocalDate end, Pageable pageable) {
+        if (!isSearchable(start, end)) {
+            throw new IllegalArgumentException("Archive search needs a date range of at most "
+                    + MAX_SEARCH_DAYS + " days");
+        }
+        LocalDateTime from = start.atStartOfDay();
+        LocalDateTime to = end.atTime(23, 59, 59);
+
+        NewestRows newest = new NewestRows((int) Math.min(pageable.getOffset() + pageable.getPageSize(),
+                Integer.MAX_VALUE));
+        for (Long chunkId : archiveRepository.findOverlappingIds(from, to)) {
+            decode(archiveRepository.findPayload(chunkId), row -> {
+                if (!row.dateTime().isBefore(from) && !row.dateTime().isAfter(to)
+                        && (productId == null || productId.equals(row.productId()))
+                        && (departmentId == null || departmentId.equals(row.departmentId()))
+                        && (type == null || type == row.type())) {
+                    newest.offer(row);
+                }
+            });
+        }
+
+        List<ArchivedMovementDTO> kept = newest.sorted();
+        int first = (int) Math.min(pageable.getOffset(), kept.size());
+        List<StockMovementResponseDTO> content = kept.subList(first, kept.size()).stream()
+                .map(ArchivedMovementDTO::toResponse)
+                .toList();
+        return new PageImpl<>(content, pageable, newest.total);
+    }
+
+    private int archiveMonth(YearMonth month) {
+        LocalDateTime start = month.atDay(1).atStartOfDay();
+        LocalDateTime end = month.plusMonths(1).atDay(1).atStartOfDay();
+        int count = 0;
+        long afterId = 0;
+        List<ArchivedMovementDTO> rows;
+        do {
+            rows = movementRepository.findArchiveRows(start, end, afterId, PageRequest.of(0, chunkSize));
+            if (!rows.isEmpty()) {
+                archiveRepository.save(chunk(month, rows));
+                afterId = rows.get(rows.size() - 1).id();
+                count += rows.size();
+            }
+        } while (rows.size() == chunkSize);
+
+        // Partição do mês sai inteira; o DELETE pega o que estiver na DEFAULT (ou tudo, sem particionamento)
+        partitions.dropMonth(month);
+        movementRepository.deleteByDateTimeRange(start, end);
+        return count;
+    }
+
+    private static StockMovementArchive chunk(YearMonth month, List<ArchivedMovementDTO> rows) {
+        LocalDateTime first = rows.get(0).dateTime();
+        LocalDateTime last = first;
+        for (ArchivedMovementDTO row : rows) {
+            first = row.dateTime().isBefore(first) ? row.dateTime() : first;
+            last = row.dateTime().isAfter(last) ? row.dateTime() : last;
+        }
+        return StockMovementArchive.builder()
+                .monthStart(month.atDay(1))
+                .firstDateTime(first)
+                .lastDateTime(last)
+                .rowCount(rows.size())
+                .payload(encode(rows))
+                .build();
+    }
+
+    static byte[] encode(List<ArchivedMovementDTO> rows) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (DataOutputStream out = new DataOutputStream(new GZIPOutputStream(bytes))) {
+            out.writeInt(FORMAT_VERSION);
+            out.writeInt(rows.size());
+            for (ArchivedMovementDTO row : rows) {
+                out.writeLong(row.id());
+                out.writeLong(row.dateTime().toEpochSecond(ZoneOffset.UTC));
+                out.writeInt(row.dateTime().getNano());
+                out.writeByte(row.type().ordinal());
+                out.writeInt(row.quantity());
+                out.writeLong(row.productId());
+                out.writeInt(row.departmentId() != null ? row.departmentId() : NONE);
+                out.writeLong(row.supplierId() != null ? row.supplierId() : NONE);
+                out.writeInt(row.userId() != null ? row.userId() : NONE);
+                writeString(out, row.reason());
+                writeString(out, row.productName());
+                writeString(out, row.departmentName());
+                writeString(out, row.supplierName());
+                writeString(out, row.userName());
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return bytes.toByteArray();
+    }
+
+    static List<ArchivedMovementDTO> decode(byte[] payload) {
+        List<ArchivedMovementDTO> rows = new ArrayList<>();
+        decode(payload, rows::add);
+        return rows;
+    }
+
+    static void decode(byte[] payload, Consumer<ArchivedMovementDTO> rows) {
+        try (DataInputStream in = new DataInputStream(new GZIPInputStream(new ByteArrayInputStream(payload)))) {
+            int version = in.readInt();
+            if (version != FORMAT_VERSION) {
+                throw new IllegalStateException("Unsupported archive format version " + version);
+            }
+            int count = in.readInt();
+            for (int i = 0; i < count; i++) {
+                long id = in.readLong();
+                LocalDateTime dateTime = LocalDateTime.ofEpochSecond(in.readLong(), in.readInt(), ZoneOffset.UTC);
+                MovementType type = TYPES[in.readByte()];
+                int quantity = in.readInt();
+                long productId = in.readLong();
+                int departmentId = in.readInt();
+                long supplierId = in.readLong();
+                int userId = in.readInt();
+                rows.accept(new ArchivedMovementDTO(id, dateTime, type, quantity, readString(in), productId,
+                        departmentId != NONE ? departmentId : null,
+                        supplierId != NONE ? supplierId : null,
+                        userId != NONE ? userId : null,
+                        readString(in), readString(in), readString(in), readString(in)));
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        out.writeBoolean(value != null);
+        if (value != null) {
+            out.writeUTF(value);
+        }
+    }
+
+    private static String readString(DataInputStream in) throws IOException {
+        return in.readBoolean() ? in.readUTF() : null;
+    }
+
+    // Heap com a mais antiga das guardadas no topo: sai quando chega uma mais nova e o heap está cheio
+    private static final class NewestRows {
+
+        private final int limit;
+        private final PriorityQueue<ArchivedMovementDTO> heap = new PriorityQueue<>(NEWEST_FIRST.reversed());
+        private long total;
+
+        private NewestRows(int limit) {
+            this.limit = limit;
+        }
+
+        private void offer(ArchivedMovementDTO row) {
+            total++;
+            if (heap.size() < limit) {
+                heap.add(row);
+            } else if (NEWEST_FIRST.compare(row, heap.peek()) < 0) {
+                heap.poll();
+                heap.add(row);
+            }
+        }
+
+        private List<ArchivedMovementDTO> sorted() {
+            List<ArchivedMovementDTO> rows = new ArrayList<>(heap);
+            rows.sort(NEWEST_FIRST);
+            return rows;
+        }
+    }
+}
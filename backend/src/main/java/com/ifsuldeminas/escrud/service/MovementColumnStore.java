@@ -0,0 +1,459 @@
+package com.ifsuldeminas.escrud.service;
+
+import com.ifsuldeminas.escrud.dto.MovementRowDTO;
+import com.ifsuldeminas.escrud.entities.MovementType;
+import com.ifsuldeminas.escrud.entities.StockMovement;
+import com.ifsuldeminas.escrud.repositories.StockMovementRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.*;
+import java.util.stream.IntStream;
+
+// Cópia colunar das movimentações em arrays primitivos para os relatórios agregados.
+// Escritas são serializadas; leituras usam um snapshot (colunas + tamanho) sem lock.
+@Component
+@RequiredArgsConstructor
+public class MovementColumnStore {
+
+    static final int SEGMENT_SIZE = 1 << 16;
+    private static final int LOAD_BATCH_SIZE = 10_000;
+    private static final int NO_DEPARTMENT = -1;
+
+    private final StockMovementRepository movementRepository;
+
+    @Value("${analytics.column-store.enabled:true}")
+    private boolean enabled;
+
+    // Margem da releitura por data no fim da carga; cobre a espera das escritas em grupo, ASYNC e por shard
+    @Value("${analytics.column-store.overlap-seconds:600}")
+    private int overlapSeconds;
+
+    private final Map<Long, Integer> productIndex = new HashMap<>();
+    private final Map<Integer, Integer> departmentIndex = new HashMap<>();
+
+    // Ids da janela recente já aplicados pela carga: a releitura e o afterCommit que chegar depois de ready
+    // não aplicam de novo
+    private final Set<Long> recentIds = new HashSet<>();
+    private LocalDateTime watermark;
+
+    private volatile Columns columns = new Columns(1024);
+    private volatile double[] productCost = new double[256];
+    private volatile long[] productIds = new long[256];
+    private volatile int[] departmentIds = new int[64];
+    private volatile int size;
+    private volatile boolean ready;
+    private volatile long lastLoadedId;
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        if (!enabled) {
+            return;
+        }
+        watermark = LocalDateTime.now().minusSeconds(overlapSeconds);
+        List<MovementRowDTO> rows;
+        do {
+            rows = movementRepository.findRowsAfter(lastLoadedId, PageRequest.of(0, LOAD_BATCH_SIZE));
+            synchronized (this) {
+                for (MovementRowDTO row : rows) {
+                    apply(row);
+                    lastLoadedId = row.id();
+                }
+            }
+        } while (rows.size() == LOAD_BATCH_SIZE);
+
+        synchronized (this) {
+            // Com ids alocados em pool (@PooledSequence) um id menor pode ser gravado depois que a carga passou
+            // por ele: relê por data o que entrou desde a marca d'água e aplica o que faltou antes de liberar
+            // as consultas
+            for (MovementRowDTO row : movementRepository.findRowsSince(watermark)) {
+                if (!recentIds.contains(row.id())) {
+                    apply(row);
+                }
+            }
+            ready = true;
+        }
+    }
+
+    private void apply(MovementRowDTO row) {
+        append(row.dateTime(), row.productId(), row.productCostPrice(),
+                row.departmentId(), row.type(), row.quantity());
+        if (!row.dateTime().isBefore(watermark)) {
+            recentIds.add(row.id());
+        }
+    }
+
+    // Chamado no caminho de escrita; só aplica depois do commit para não expor movimentações desfeitas
+    public void onMovementSaved(StockMovement movement) {
+        if (!enabled) {
+            return;
+        }
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    appendMovement(movement);
+                }
+            });
+        } else {
+            appendMovement(movement);
+        }
+    }
+
+    public synchronized void updateCost(Long productId, BigDecimal costPrice) {
+        Integer idx = productIndex.get(productId);
+        if (idx != null && costPrice != null) {
+            productCost[idx] = costPrice.doubleValue();
+        }
+    }
+
+    private synchronized void appendMovement(StockMovement m) {
+        if (!ready || m.getId() == null || recentIds.contains(m.getId())) {
+            return;
+        }
+        append(m.getDateTime(), m.getProduct().getId(), m.getProduct().getCostPrice(),
+                m.getDepartment() != null ? m.getDepartment().getId() : null, m.getType(), m.getQuantity());
+    }
+
+    private void append(LocalDateTime dateTime, Long productId, BigDecimal cost,
+                        Integer departmentId, MovementType type, int quantity) {
+        Integer pIdx = productIndex.get(productId);
+        if (pIdx == null) {
+            pIdx = productIndex.size();
+            productIndex.put(productId, pIdx);
+            if (pIdx == productCost.length) {
+                productCost = Arrays.copyOf(productCost, pIdx * 2);
+                productIds = Arrays.copyOf(productIds, pIdx * 2);
+            }
+            productIds[pIdx] = productId;
+        }
+        productCost[pIdx] = cost != null ? cost.doubleValue() : 0;
+
+        int dIdx = NO_DEPARTMENT;
+        if (departmentId != null) {
+            Integer known = departmentIndex.get(departmentId);
+            if (known == null) {
+                known = departmentIndex.size();
+                departmentIndex.put(departmentId, known);
+                if (known == departmentIds.length) {
+                    departmentIds = Arrays.copyOf(departmentIds, known * 2);
+                }
+                departmentIds[known] = departmentId;
+            }
+            dIdx = known;
+        }
+
+        Columns c = columns;
+        int n = size;
+        if (n == c.epoch.length) {
+            c = new Columns(c, n * 2);
+            columns = c;
+        }
+
+        long epoch = dateTime.toEpochSecond(ZoneOffset.UTC);
+        c.epoch[n] = epoch;
+        c.product[n] = pIdx;
+        c.department[n] = dIdx;
+        c.type[n] = (byte) type.ordinal();
+        c.quantity[n] = quantity;
+
+        int seg = n / SEGMENT_SIZE;
+        if (n % SEGMENT_SIZE == 0) {
+            c.segmentMin[seg] = epoch;
+            c.segmentMax[seg] = epoch;
+        } else {
+            c.segmentMin[seg] = Math.min(c.segmentMin[seg], epoch);
+            c.segmentMax[seg] = Math.max(c.segmentMax[seg], epoch);
+        }
+        size = n + 1;
+    }
+
+    // Tira as movimentações arquivadas (dateTime < cutoff). Segmento inteiro antes do corte (pelo máximo)
+    // cai sem ser lido; nos demais cada linha é testada, já que escritas atrasadas podem trazer datas antigas
+    public synchronized int evictBefore(LocalDateTime cutoff) {
+        int n = size;
+        Columns c = columns;
+        long limit = cutoff.toEpochSecond(ZoneOffset.UTC);
+        // Mesma capacidade: quem leu o tamanho antigo antes da troca vê zeros no fim (epoch 0), que nenhum
+        // filtro por data aceita
+        Columns kept = new Columns(c.epoch.length);
+        int m = 0;
+        for (int seg = 0; seg * SEGMENT_SIZE < n; seg++) {
+            if (c.segmentMax[seg] < limit) {
+                continue;
+            }
+            int from = seg * SEGMENT_SIZE;
+            int to = Math.min(from + SEGMENT_SIZE, n);
+            for (int i = from; i < to; i++) {
+                if (c.epoch[i] >= limit) {
+                    kept.copy(m++, c, i);
+                }
+            }
+        }
+        if (m == n) {
+            return 0;
+        }
+        columns = kept;
+        size = m;
+        return n - m;
+    }
+
+    public List<DepartmentTotal> sumByDepartment(LocalDateTime start, LocalDateTime end, MovementType type) {
+        int n = size;
+        Columns c = columns;
+        long lo = start.toEpochSecond(ZoneOffset.UTC);
+        long hi = end.toEpochSecond(ZoneOffset.UTC);
+        byte typeOrdinal = (byte) type.ordinal();
+        double[] cost = productCost;
+        int[] deptIds = departmentIds;
+        int departments = deptIds.length;
+
+        Totals totals = segments(n)
+                .mapToObj(seg -> {
+                    Totals partial = new Totals(departments);
+                    if (c.segmentMax[seg] < lo || c.segmentMin[seg] > hi) {
+                        return partial;
+                    }
+                    int from = seg * SEGMENT_SIZE;
+                    int to = Math.min(from + SEGMENT_SIZE, n);
+                    for (int i = from; i < to; i++) {
+                        long t = c.epoch[i];
+                        int d = c.department[i];
+                        if (t >= lo & t <= hi & c.type[i] == typeOrdinal & d >= 0) {
+                            int q = Math.abs(c.quantity[i]);
+                            partial.quantity[d] += q;
+                            partial.value[d] += q * cost[c.product[i]];
+                        }
+                    }
+                    return partial;
+                })
+                .reduce(new Totals(departments), Totals::merge);
+
+        List<DepartmentTotal> result = new ArrayList<>();
+        for (int d = 0; d < departments; d++) {
+            if (totals.quantity[d] > 0) {
+                result.add(new DepartmentTotal(deptIds[d], totals.quantity[d], totals.value[d]));
+            }
+        }
+        return result;
+    }
+
+    // Quantidade absoluta por produto no intervalo (top-N de produtos); tipo e departamento opcionais
+    public List<ProductTotal> sumByProduct(LocalDateTime start, LocalDateTime end, MovementType type,
+                                           Integer departmentId) {
+        int n = size;
+        Columns c = columns;
+        long lo = start.toEpochSecond(ZoneOffset.UTC);
+        long hi = end.toEpochSecond(ZoneOffset.UTC);
+        int typeFilter = (type != null) ? type.ordinal() : -1;
+        double[] cost = productCost;
+        long[] ids = productIds;
+        int products = ids.length;
+
+        int departmentFilter = -1;
+        if (departmentId != null) {
+            Integer idx = departmentIndex(departmentId);
+            if (idx == null) {
+                return List.of();
+            }
+            departmentFilter = idx;
+        }
+
+        int df = departmentFilter;
+        long[] quantity = segments(n)
+                .mapToObj(seg -> {
+                    long[] partial = new long[products];
+                    if (c.segmentMax[seg] < lo || c.segmentMin[seg] > hi) {
+                        return partial;
+                    }
+                    int from = seg * SEGMENT_SIZE;
+                    int to = Math.min(from + SEGMENT_SIZE, n);
+                    for (int i = from; i < to; i++) {
+                        long t = c.epoch[i];
+                        if (t >= lo & t <= hi & (typeFilter < 0 | c.type[i] == typeFilter)
+                                & (df < 0 | c.department[i] == df)) {
+                            partial[c.product[i]] += Math.abs(c.quantity[i]);
+                        }
+                    }
+                    return partial;
+                })
+                .reduce(new long[products], (a, b) -> {
+                    long[] r = new long[products];
+                    for (int p = 0; p < products; p++) {
+                        r[p] = a[p] + b[p];
+                    }
+                    return r;
+                });
+
+        List<ProductTotal> result = new ArrayList<>();
+        for (int p = 0; p < products; p++) {
+            if (quantity[p] > 0) {
+                result.add(new ProductTotal(ids[p], quantity[p], cost[p]));
+            }
+        }
+        return result;
+    }
+
+    // Totais diários (quantidade absoluta e valor) a partir de start, filtros opcionais por produto/departamento
+    public Totals dailyTotals(LocalDateTime start, int days, MovementType type, Long productId, Integer departmentId) {
+        int n = size;
+        Columns c = columns;
+        long lo = start.toEpochSecond(ZoneOffset.UTC);
+        long hi = lo + days * 86_400L - 1;
+        byte typeOrdinal = (byte) type.ordinal();
+        double[] cost = productCost;
+
+        int productFilter = -1;
+        if (productId != null) {
+            Integer idx = productIndex(productId);
+            if (idx == null) {
+                return new Totals(days);
+            }
+            productFilter = idx;
+        }
+        int departmentFilter = -1;
+        if (departmentId != null) {
+            Integer idx = departmentIndex(departmentId);
+            if (idx == null) {
+                return new Totals(days);
+            }
+            departmentFilter = idx;
+        }
+
+        int pf = productFilter;
+        int df = departmentFilter;
+        return segments(n)
+                .mapToObj(seg -> {
+                    Totals partial = new Totals(days);
+                    if (c.segmentMax[seg] < lo || c.segmentMin[seg] > hi) {
+                        return partial;
+                    }
+                    int from = seg * SEGMENT_SIZE;
+                    int to = Math.min(from + SEGMENT_SIZE, n);
+                    for (int i = from; i < to; i++) {
+                        long t = c.epoch[i];
+                        if (t >= lo & t <= hi & c.type[i] == typeOrdinal
+                                & (pf < 0 | c.product[i] == pf) & (df < 0 | c.department[i] == df)) {
+                            int day = (int) ((t - lo) / 86_400L);
+                            int q = Math.abs(c.quantity[i]);
+                            partial.quantity[day] += q;
+                            partial.value[day] += q * cost[c.product[i]];
+                        }
+                    }
+                    return partial;
+                })
+                .reduce(new Totals(days), Totals::merge);
+    }
+
+    private synchronized Integer productIndex(Long productId) {
+        return productIndex.get(productId);
+    }
+
+    private synchronized Integer departmentIndex(Integer departmentId) {
+        return departmentIndex.get(departmentId);
+    }
+
+    private static IntStream segments(int n) {
+        return IntStream.range(0, (n + SEGMENT_SIZE - 1) / SEGMENT_SIZE).parallel();
+    }
+
+    public record DepartmentTotal(int departmentId, long quantity, double value) {}
+
+    public record ProductTotal(long productId, long quantity, double costPrice) {}
+
+    public static final class Totals {
+        final long[] quantity;
+        final double[] value;
+
+        Totals(int buckets) {
+            this.quantity = new long[buckets];
+            this.value = new double[buckets];
+        }
+
+        public long[] quantity() {
+            return quantity;
+        }
+
+        public double[] value() {
+            return value;
+        }
+
+        static Totals merge(Totals a, Totals b) {
+            Totals r = new Totals(a.quantity.length);
+            for (int i = 0; i < r.quantity.length; i++) {
+                r.quantity[i] = a.quantity[i] + b.quantity[i];
+                r.value[i] = a.value[i] + b.value[i];
+            }
+            return r;
+        }
+    }
+
+    private static final class Columns {
+        final long[] epoch;
+        final int[] product;
+        final int[] department;
+        final byte[] type;
+        final int[] quantity;
+        final long[] segmentMin;
+        final long[] segmentMax;
+
+        Columns(int capacity) {
+            epoch = new long[capacity];
+            product = new int[capacity];
+            department = new int[capacity];
+            type = new byte[capacity];
+            quantity = new int[capacity];
+            segmentMin = new long[segmentsFor(capacity)];
+            segmentMax = new long[segmentsFor(capacity)];
+        }
+
+        Columns(Columns src, int capacity) {
+            epoch = Arrays.copyOf(src.epoch, capacity);
+            product = Arrays.copyOf(src.product, capacity);
+            department = Arrays.copyOf(src.department, capacity);
+            type = Arrays.copyOf(src.type, capacity);
+            quantity = Arrays.copyOf(src.quantity, capacity);
+            segmentMin = Arrays.copyOf(src.segmentMin, segmentsFor(capacity));
+            segmentMax = Arrays.copyOf(src.segmentMax, segmentsFor(capacity));
+        }
+
+        // Linha i de src na posição j, mantendo o mínimo e o máximo do segmento de destino
+        void copy(int j, Columns src, int i) {
+            long t = src.epoch[i];
+            epoch[j] = t;
+            product[j] = src.product[i];
+            department[j] = src.department[i];
+            type[j] = src.type[i];
+            quantity[j] = src.quantity[i];
+            int seg = j / SEGMENT_SIZE;
+            if (j % SEGMENT_SIZE == 0) {
+                segmentMin[seg] = t;
+                segmentMax[seg] = t;
+            } else {
+                segmentMin[seg] = Math.min(segmentMin[seg], t);
+                segmentMax[seg] = Math.max(segmentMax[seg], t);
+            }
+        }
+
+        private static int segmentsFor(int capacity) {
+            return (capacity + SEGMENT_SIZE - 1) / SEGMENT_SIZE;
+        }
+    }
+}
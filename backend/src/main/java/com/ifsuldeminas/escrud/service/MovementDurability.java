@@ -0,0 +1,10 @@
+package com.ifsuldeminas.escrud.service;
+
+public enum MovementDurability {
+    // Uma transação por movimentação (comportamento original)
+    SYNC,
+    // Agrupa as escritas numa janela curta e confirma ao cliente depois do commit compartilhado
+    GROUP,
+    // Confirma ao cliente depois de gravar no journal local; o banco recebe no próximo group commit
+    ASYNC
+}
@@ -0,0 +1,252 @@
+package com.ifsuldeminas.escrud.service;
+
+import com.ifsuldeminas.escrud.dto.MovementAckDTO;
+import com.ifsuldeminas.escrud.dto.StockMovementRequestDTO;
+import com.ifsuldeminas.escrud.dto.StockMovementResponseDTO;
+import com.ifsuldeminas.escrud.service.MovementJournal.JournaledWrite;
+import com.ifsuldeminas.escrud.service.StockMovementService.QueuedWrite;
+import com.ifsuldeminas.escrud.service.StockMovementService.WriteResult;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.BlockingDeque;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.TimeUnit;
+
+// Group commit das movimentações: o que chega dentro da janela (ou até encher o lote) vai numa única
+// transação, dividindo o custo do commit entre os escritores concorrentes.
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class MovementGroupCommitter {
+
+    private final StockMovementService movementService;
+    private final MovementJournal journal;
+
+    @Value("${movements.durability:SYNC}")
+    private MovementDurability durability;
+
+    @Value("${movements.group-commit.window-ms:5}")
+    private long windowMs;
+
+    @Value("${movements.group-commit.max-batch:128}")
+    private int maxBatch;
+
+    @Value("${movements.group-commit.retry-backoff-ms:1000}")
+    private long retryBackoffMs;
+
+    private final BlockingDeque<Pending> queue = new LinkedBlockingDeque<>();
+    private Thread flusher;
+    private volatile boolean running;
+
+    public MovementDurability getDurability() {
+        return durability;
+    }
+
+    public boolean isEnabled() {
+        return durability != MovementDurability.SYNC;
+    }
+
+    @PostConstruct
+    public void start() {
+        // Reaplica o que foi confirmado ao cliente mas não chegou ao banco; as chaves evitam duplicar.
+        // Vale também para quem voltou ao SYNC depois de cair em ASYNC: o journal antigo continua lá
+        if (!isEnabled()) {
+            if (journal.exists()) {
+                replay(journal.recover());
+            }
+            return;
+        }
+        for (JournaledWrite w : journal.recover()) {
+            queue.add(new Pending(w.write(), null, w.sequence()));
+        }
+        running = true;
+        flusher = new Thread(this::run, "movement-group-commit");
+        flusher.setDaemon(true);
+        flusher.start();
+    }
+
+    // SYNC não tem flusher: aplica aqui, em lotes; se o banco recusar, não sobe com escritas pendentes
+    private void replay(List<JournaledWrite> pending) {
+        try {
+            for (int i = 0; i < pending.size(); i += maxBatch) {
+                commit(pending.subList(i, Math.min(i + maxBatch, pending.size())).stream()
+                        .map(w -> new Pending(w.write(), null, w.sequence()))
+                        .toList());
+                if (!queue.isEmpty()) {
+                    throw new IllegalStateException("Could not replay movement journal: "
+                            + (pending.size() - i) + " journaled movements pending");
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Movement journal replay interrupted", e);
+        }
+    }
+
+    @PreDestroy
+    public void stop() {
+        running = false;
+        if (flusher != null) {
+            flusher.interrupt();
+        }
+        IllegalStateException stopped = new IllegalStateException("Movement writer stopped");
+        // Os ASYNC continuam no journal e voltam no próximo startup
+        queue.forEach(p -> {
+            if (p.future() != null) {
+                p.future().completeExceptionally(stopped);
+            }
+        });
+        queue.clear();
+    }
+
+    public CompletableFuture<StockMovementResponseDTO> submit(StockMovementRequestDTO dto, String idempotencyKey) {
+        ensureRunning();
+        Pending pending = new Pending(queued(dto, idempotencyKey), new CompletableFuture<>(), 0);
+        queue.add(pending);
+        return pending.future();
+    }
+
+    // ASYNC: sem chave do cliente, gera uma para que a reaplicação do journal seja idempotente
+    public MovementAckDTO enqueue(StockMovementRequestDTO dto, String idempotencyKey) {
+        ensureRunning();
+        String key = (idempotencyKey != null) ? idempotencyKey : "journal-" + UUID.randomUUID();
+        QueuedWrite write = queued(dto, key);
+        long sequence;
+        // Journal e fila na mesma ordem: o commit() avança o checkpoint até a maior sequência do lote, o que
+        // só vale se nenhuma sequência menor ainda estiver atrás na fila
+        synchronized (queue) {
+            sequence = journal.append(write);
+            queue.add(new Pending(write, null, sequence));
+        }
+        return new MovementAckDTO(key, sequence);
+    }
+
+    private QueuedWrite queued(StockMovementRequestDTO dto, String idempotencyKey) {
+        return new QueuedWrite(dto, idempotencyKey, movementService.currentUserId(), LocalDateTime.now());
+    }
+
+    private void ensureRunning() {
+        if (!running) {
+            throw new IllegalStateException("Movement writer is not running");
+        }
+    }
+
+    private void run() {
+        List<Pending> batch = new ArrayList<>(maxBatch);
+        while (running) {
+            try {
+                batch.add(queue.take());
+                long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(windowMs);
+                while (batch.size() < maxBatch) {
+                    long remaining = deadline - System.nanoTime();
+                    Pending next = (remaining > 0) ? queue.poll(remaining, TimeUnit.NANOSECONDS) : queue.poll();
+                    if (next == null) {
+                        break;
+                    }
+                    batch.add(next);
+                }
+                commit(batch);
+                batch.clear();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+
+    void commit(List<Pending> batch) throws InterruptedException {
+        List<QueuedWrite> writes = batch.stream().map(Pending::write).toList();
+        List<WriteResult> results;
+        try {
+            results = movementService.createGroup(writes);
+        } catch (DataIntegrityViolationException e) {
+            // Chave repetida entre produtos do lote ou confirmada em paralelo: isola item a item
+            results = new ArrayList<>(writes.size());
+            for (QueuedWrite write : writes) {
+                try {
+                    results.add(commitAlone(write));
+                } catch (RuntimeException down) {
+                    // Banco fora ou pool esgotado não é recusa: o checkpoint para antes deste item, que volta
+                    // para a fila com o resto do lote
+                    resolve(batch.subList(0, results.size()), results);
+                    failBatch(batch.subList(results.size(), batch.size()), down);
+                    return;
+                }
+            }
+        } catch (RuntimeException e) {
+            failBatch(batch, e);
+            return;
+        }
+        resolve(batch, results);
+    }
+
+    // Só itens aplicados ou recusados pela validação chegam aqui; o checkpoint vai até o maior deles
+    private void resolve(List<Pending> batch, List<WriteResult> results) {
+        long committed = 0;
+        for (int i = 0; i < batch.size(); i++) {
+            Pending pending = batch.get(i);
+            WriteResult result = results.get(i);
+            committed = Math.max(committed, pending.sequence());
+            if (pending.future() == null) {
+                if (result.error() != null) {
+                    log.warn("Async stock movement {} rejected: {}", pending.write().idempotencyKey(),
+                            result.error().getMessage());
+                }
+            } else if (result.error() != null) {
+                pending.future().completeExceptionally(result.error());
+            } else {
+                pending.future().complete(result.response());
+            }
+        }
+        if (committed > 0) {
+            journal.markCommitted(committed);
+        }
+    }
+
+    // Erros de validação já vêm no WriteResult; exceção aqui é do banco e sobe para o commit()
+    private WriteResult commitAlone(QueuedWrite write) {
+        try {
+            return movementService.createGroup(List.of(write)).get(0);
+        } catch (DataIntegrityViolationException e) {
+            // A outra escrita com a mesma chave já confirmou: a nova passada devolve a resposta dela.
+            // Violação de novo, sozinho, é o próprio item que o banco recusa
+            try {
+                return movementService.createGroup(List.of(write)).get(0);
+            } catch (DataIntegrityViolationException again) {
+                return WriteResult.failed(again);
+            }
+        }
+    }
+
+    // Falha de infraestrutura: quem espera recebe o erro; os ASYNC voltam para a frente da fila, na ordem
+    private void failBatch(List<Pending> batch, RuntimeException error) throws InterruptedException {
+        List<Pending> retry = new ArrayList<>();
+        for (Pending pending : batch) {
+            if (pending.future() != null) {
+                pending.future().completeExceptionally(error);
+            } else {
+                retry.add(pending);
+            }
+        }
+        if (!retry.isEmpty()) {
+            log.warn("Group commit failed, retrying {} journaled movements", retry.size(), error);
+            for (int i = retry.size() - 1; i >= 0; i--) {
+                queue.addFirst(retry.get(i));
+            }
+            Thread.sleep(retryBackoffMs);
+        }
+    }
+
+    record Pending(QueuedWrite write, CompletableFuture<StockMovementResponseDTO> future, long sequence) {}
+}
@@ -0,0 +1,297 @@
+package com.ifsuldeminas.escrud.service;
+
+import com.ifsuldeminas.escrud.dto.StockMovementRequestDTO;
+import com.ifsuldeminas.escrud.entities.MovementType;
+import com.ifsuldeminas.escrud.service.StockMovementService.QueuedWrite;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.TreeMap;
+import java.util.stream.Stream;
+import java.util.zip.CRC32C;
+
+// Journal da durabilidade ASYNC: segmentos mapeados em memória com registros binários de tamanho fixo
+// e CRC. A escrita é confirmada ao cliente depois de gravada aqui; o MovementGroupCommitter aplica no
+// banco em lotes e avança o checkpoint. Segmentos já aplicados são apagados (compactação) e, no startup,
+// tudo depois do checkpoint é reaplicado.
+@Component
+public class MovementJournal {
+
+    // Cabe a maior chave aceita (IdempotencyStore) e o motivo do tamanho da coluna; 512 divide a página de 4 KB
+    static final int RECORD_SIZE = 512;
+    static final int MAX_KEY_BYTES = IdempotencyStore.MAX_KEY_BYTES;
+    static final int MAX_REASON_BYTES = 255;
+
+    // sequence, productId, departmentId, supplierId, userId, type, quantity, epochMillis, chave, motivo, crc
+    private static final int KEY_OFFSET = 8 + 8 + 4 + 8 + 4 + 1 + 4 + 8;
+    private static final int REASON_OFFSET = KEY_OFFSET + 2 + MAX_KEY_BYTES;
+    private static final int CRC_OFFSET = REASON_OFFSET + 2 + MAX_REASON_BYTES;
+    private static final int NONE = -1;
+    private static final MovementType[] TYPES = MovementType.values();
+
+    @Value("${movements.journal.dir:data/journal}")
+    private String dir;
+
+    @Value("${movements.journal.segment-records:65536}")
+    private int segmentRecords;
+
+    @Value("${movements.journal.fsync:true}")
+    private boolean fsync;
+
+    // Primeira sequência de cada segmento -> arquivo
+    private final TreeMap<Long, Path> segments = new TreeMap<>();
+    private MappedByteBuffer active;
+    private long activeBase;
+    private FileChannel checkpointChannel;
+    private long lastSequence;
+    private long committedSequence;
+
+    // Diretório deixado por uma execução com journal (ASYNC), mesmo que o modo atual não use
+    public boolean exists() {
+        return Files.isDirectory(Path.of(dir));
+    }
+
+    public synchronized List<JournaledWrite> recover() {
+        try {
+            Path root = Path.of(dir);
+            Files.createDirectories(root);
+            checkpointChannel = FileChannel.open(root.resolve("checkpoint"),
+                    StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            committedSequence = readCheckpoint();
+            lastSequence = committedSequence;
+
+            try (Stream<Path> files = Files.list(root)) {
+                files.filter(f -> f.getFileName().toString().startsWith("segment-"))
+                        .forEach(f -> segments.put(baseOf(f), f));
+            }
+
+            // Varre todos os slots: sem fsync o kernel pode gravar páginas fora de ordem, então um buraco
+            // (registro zerado ou cortado) não significa que os seguintes não valham
+            List<JournaledWrite> pending = new ArrayList<>();
+            for (var segment : segments.entrySet()) {
+                readSegment(segment.getKey(), segment.getValue(), pending);
+            }
+            if (!segments.isEmpty()) {
+                activeBase = segments.lastKey();
+                active = map(segments.lastEntry().getValue());
+            }
+            compact();
+            return pending;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not open movement journal " + dir, e);
+        }
+    }
+
+    public synchronized long append(QueuedWrite write) {
+        if (checkpointChannel == null) {
+            throw new IllegalStateException("Movement journal is not open");
+        }
+        long sequence = lastSequence + 1;
+        ByteBuffer record = encode(sequence, write);
+        MappedByteBuffer segment = segmentFor(sequence);
+        int offset = (int) (sequence - activeBase) * RECORD_SIZE;
+        segment.put(offset, record, 0, RECORD_SIZE);
+        if (fsync) {
+            segment.force(offset, RECORD_SIZE);
+        }
+        lastSequence = sequence;
+        return sequence;
+    }
+
+    // Tudo até sequence já está no banco
+    public synchronized void markCommitted(long sequence) {
+        if (sequence <= committedSequence) {
+            return;
+        }
+        committedSequence = sequence;
+        try {
+            ByteBuffer checkpoint = ByteBuffer.allocate(16).putLong(sequence).putLong(crc(sequence)).flip();
+            checkpointChannel.write(checkpoint, 0);
+            if (fsync) {
+                checkpointChannel.force(false);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        compact();
+    }
+
+    @PreDestroy
+    public synchronized void close() throws IOException {
+        active = null;
+        if (checkpointChannel != null) {
+            checkpointChannel.close();
+            checkpointChannel = null;
+        }
+    }
+
+    private MappedByteBuffer segmentFor(long sequence) {
+        if (active != null && sequence >= activeBase && sequence < activeBase + segmentRecords) {
+            return active;
+        }
+        Long base = segments.floorKey(sequence);
+        if (base == null || sequence >= base + segmentRecords) {
+            // Rolagem: o segmento novo começa na própria sequência, que vai no nome do arquivo
+            base = sequence;
+        }
+        Path file = segments.computeIfAbsent(base, b -> Path.of(dir).resolve(String.format("segment-%020d.log", b)));
+        active = map(file);
+        activeBase = base;
+        return active;
+    }
+
+    private MappedByteBuffer map(Path file) {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE,
+                StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            return channel.map(FileChannel.MapMode.READ_WRITE, 0, (long) segmentRecords * RECORD_SIZE);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private void readSegment(long base, Path file, List<JournaledWrite> pending) {
+        MappedByteBuffer segment = map(file);
+        for (int i = 0; i < segmentRecords; i++) {
+            long sequence = base + i;
+            ByteBuffer record = segment.slice(i * RECORD_SIZE, RECORD_SIZE);
+            if (!isValid(record, sequence)) {
+                continue;
+            }
+            lastSequence = Math.max(lastSequence, sequence);
+            if (sequence > committedSequence) {
+                pending.add(new JournaledWrite(sequence, decode(record)));
+            }
+        }
+    }
+
+    // Apaga os segmentos inteiramente aplicados, menos o que está recebendo escritas
+    private void compact() {
+        while (segments.size() > 1) {
+            var oldest = segments.firstEntry();
+            long lastInSegment = oldest.getKey() + segmentRecords - 1;
+            if (oldest.getKey() == activeBase || lastInSegment > committedSequence) {
+                return;
+            }
+            try {
+                Files.deleteIfExists(oldest.getValue());
+            } catch (IOException e) {
+                return;
+            }
+            segments.pollFirstEntry();
+        }
+    }
+
+    private long readCheckpoint() throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(16);
+        if (checkpointChannel.read(buffer, 0) < 16) {
+            return 0;
+        }
+        buffer.flip();
+        long sequence = buffer.getLong();
+        return buffer.getLong() == crc(sequence) ? sequence : 0;
+    }
+
+    static ByteBuffer encode(long sequence, QueuedWrite write) {
+        StockMovementRequestDTO dto = write.request();
+        if (dto.productId() == null || dto.type() == null) {
+            throw new IllegalArgumentException("Product and type are required");
+        }
+        byte[] key = bytes(write.idempotencyKey(), MAX_KEY_BYTES, "Idempotency key");
+        byte[] reason = bytes(dto.reason(), MAX_REASON_BYTES, "Reason");
+        LocalDateTime acceptedAt = (write.acceptedAt() != null) ? write.acceptedAt() : LocalDateTime.now();
+
+        ByteBuffer record = ByteBuffer.allocate(RECORD_SIZE);
+        record.putLong(sequence)
+                .putLong(dto.productId())
+                .putInt(dto.departmentId() != null ? dto.departmentId() : NONE)
+                .putLong(dto.supplierId() != null ? dto.supplierId() : NONE)
+                .putInt(write.userId() != null ? write.userId() : NONE)
+                .put((byte) dto.type().ordinal())
+                .putInt(dto.quantity())
+                .putLong(acceptedAt.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli());
+        record.putShort(KEY_OFFSET, (short) (write.idempotencyKey() != null ? key.length : NONE));
+        record.put(KEY_OFFSET + 2, key);
+        record.putShort(REASON_OFFSET, (short) (dto.reason() != null ? reason.length : NONE));
+        record.put(REASON_OFFSET + 2, reason);
+        record.putInt(CRC_OFFSET, crc(record));
+        return record;
+    }
+
+    static QueuedWrite decode(ByteBuffer record) {
+        long productId = record.getLong(8);
+        int departmentId = record.getInt(16);
+        long supplierId = record.getLong(20);
+        int userId = record.getInt(28);
+        MovementType type = TYPES[record.get(32)];
+        int quantity = record.getInt(33);
+        LocalDateTime acceptedAt = LocalDateTime.ofInstant(Instant.ofEpochMilli(record.getLong(37)), ZoneId.systemDefault());
+        String key = string(record, KEY_OFFSET + 2, record.getShort(KEY_OFFSET));
+        String reason = string(record, REASON_OFFSET + 2, record.getShort(REASON_OFFSET));
+
+        StockMovementRequestDTO dto = new StockMovementRequestDTO(productId, quantity, type,
+                departmentId != NONE ? departmentId : null,
+                supplierId != NONE ? supplierId : null,
+                reason);
+        return new QueuedWrite(dto, key, userId != NONE ? userId : null, acceptedAt);
+    }
+
+    private static boolean isValid(ByteBuffer record, long expectedSequence) {
+        return record.getLong(0) == expectedSequence
+                && record.getInt(CRC_OFFSET) == crc(record)
+                && record.get(32) >= 0 && record.get(32) < TYPES.length;
+    }
+
+    private static int crc(ByteBuffer record) {
+        CRC32C crc = new CRC32C();
+        crc.update(record.slice(0, CRC_OFFSET));
+        return (int) crc.getValue();
+    }
+
+    private static long crc(long sequence) {
+        CRC32C crc = new CRC32C();
+        crc.update(ByteBuffer.allocate(8).putLong(sequence).flip());
+        return crc.getValue();
+    }
+
+    private static byte[] bytes(String value, int max, String field) {
+        if (value == null) {
+            return new byte[0];
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        if (bytes.length > max) {
+            throw new IllegalArgumentException(field + " is too long (max " + max + " bytes)");
+        }
+        return bytes;
+    }
+
+    private static String string(ByteBuffer record, int offset, int length) {
+        if (length < 0) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        record.get(offset, bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static long baseOf(Path file) {
+        String name = file.getFileName().toString();
+        return Long.parseLong(name.substring("segment-".length(), name.length() - ".log".length()));
+    }
+
+    public record JournaledWrite(long sequence, QueuedWrite write) {}
+}
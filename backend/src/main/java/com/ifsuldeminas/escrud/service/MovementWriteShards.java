@@ -0,0 +1,147 @@
+package com.ifsuldeminas.escrud.service;
+
+import com.ifsuldeminas.escrud.dto.StockMovementRequestDTO;
+import com.ifsuldeminas.escrud.dto.StockMovementResponseDTO;
+import com.ifsuldeminas.escrud.service.StockMovementService.QueuedWrite;
+import com.ifsuldeminas.escrud.service.StockMovementService.WriteResult;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.LinkedBlockingQueue;
+
+// Escrita por shard de produto: hash(productId) -> uma fila com um único worker. Como só um worker
+// escreve cada produto pelo POST unitário, as movimentações acumuladas do mesmo SKU viram um UPDATE e um
+// lote de INSERTs em vez de várias transações disputando o lock da linha.
+// O POST /batch não passa por aqui: o lote é tudo ou nada numa transação própria, o que não cabe em filas
+// de shards diferentes. Ele concorre com os workers pelo produto como duas criações no modo padrão.
+@Component
+@RequiredArgsConstructor
+public class MovementWriteShards {
+
+    private final StockMovementService movementService;
+
+    @Value("${movements.sharding.enabled:false}")
+    private boolean enabled;
+
+    @Value("${movements.sharding.shards:4}")
+    private int shardCount;
+
+    @Value("${movements.sharding.max-batch:256}")
+    private int maxBatch;
+
+    private final List<BlockingQueue<Pending>> queues = new ArrayList<>();
+    private final List<Thread> workers = new ArrayList<>();
+    private volatile boolean running;
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    @PostConstruct
+    public void start() {
+        if (!enabled) {
+            return;
+        }
+        running = true;
+        for (int i = 0; i < shardCount; i++) {
+            BlockingQueue<Pending> queue = new LinkedBlockingQueue<>();
+            Thread worker = new Thread(() -> runShard(queue), "movement-shard-" + i);
+            worker.setDaemon(true);
+            queues.add(queue);
+            workers.add(worker);
+            worker.start();
+        }
+    }
+
+    @PreDestroy
+    public void stop() {
+        running = false;
+        workers.forEach(Thread::interrupt);
+        IllegalStateException stopped = new IllegalStateException("Movement writer stopped");
+        for (BlockingQueue<Pending> queue : queues) {
+            Pending pending;
+            while ((pending = queue.poll()) != null) {
+                pending.future().completeExceptionally(stopped);
+            }
+        }
+    }
+
+    public CompletableFuture<StockMovementResponseDTO> submit(StockMovementRequestDTO dto, String idempotencyKey) {
+        if (!running) {
+            throw new IllegalStateException("Movement writer is not running");
+        }
+        if (dto.productId() == null) {
+            throw new IllegalArgumentException("Product is required");
+        }
+        // O worker não enxerga o SecurityContext da requisição: o usuário vai junto com a escrita
+        QueuedWrite write = new QueuedWrite(dto, idempotencyKey, movementService.currentUserId(), LocalDateTime.now());
+        Pending pending = new Pending(write, new CompletableFuture<>());
+        queues.get(shardOf(dto.productId())).add(pending);
+        return pending.future();
+    }
+
+    int shardOf(Long productId) {
+        return Math.floorMod(Long.hashCode(productId), shardCount);
+    }
+
+    private void runShard(BlockingQueue<Pending> queue) {
+        List<Pending> batch = new ArrayList<>(maxBatch);
+        while (running) {
+            try {
+                batch.add(queue.take());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+            queue.drainTo(batch, maxBatch - 1);
+            flush(batch);
+            batch.clear();
+        }
+    }
+
+    void flush(List<Pending> batch) {
+        Map<Long, List<Pending>> byProduct = new LinkedHashMap<>();
+        for (Pending pending : batch) {
+            byProduct.computeIfAbsent(pending.write().request().productId(), k -> new ArrayList<>()).add(pending);
+        }
+        byProduct.forEach(this::writeGroup);
+    }
+
+    private void writeGroup(Long productId, List<Pending> group) {
+        List<QueuedWrite> writes = group.stream().map(Pending::write).toList();
+        List<WriteResult> results;
+        try {
+            results = coalesce(productId, writes);
+        } catch (RuntimeException e) {
+            group.forEach(p -> p.future().completeExceptionally(e));
+            return;
+        }
+        for (int i = 0; i < group.size(); i++) {
+            WriteResult result = results.get(i);
+            if (result.error() != null) {
+                group.get(i).future().completeExceptionally(result.error());
+            } else {
+                group.get(i).future().complete(result.response());
+            }
+        }
+    }
+
+    private List<WriteResult> coalesce(Long productId, List<QueuedWrite> writes) {
+        try {
+            return movementService.createCoalesced(productId, writes);
+        } catch (DataIntegrityViolationException e) {
+            // Chave de idempotência confirmada por outra instância no meio do lote: a nova passada a reconhece
+            return movementService.createCoalesced(productId, writes);
+        }
+    }
+
+    record Pending(QueuedWrite write, CompletableFuture<StockMovementResponseDTO> future) {}
+}
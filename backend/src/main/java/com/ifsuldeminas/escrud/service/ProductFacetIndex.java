@@ -0,0 +1,291 @@
+package com.ifsuldeminas.escrud.service;
+
+import com.ifsuldeminas.escrud.dto.FacetCountDTO;
+import com.ifsuldeminas.escrud.dto.ProductFacetRowDTO;
+import com.ifsuldeminas.escrud.dto.ProductIndexRowDTO;
+import com.ifsuldeminas.escrud.entities.StockStatus;
+import com.ifsuldeminas.escrud.repositories.ProductRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+
+import java.util.*;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+// Índice de facetas do catálogo: um bitmap de ids de produto por valor de cada faceta. Filtrar é AND
+// entre bitmaps e cada contagem é a cardinalidade da interseção, sem GROUP BY no banco. Os ids vêm de
+// sequência e são quase densos (no máximo um bloco de alocação perdido por reinício), então BitSet cobre o
+// papel de um Roaring sem dependência nova. Atualizado pelo ProductRefresher a cada gravação.
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class ProductFacetIndex {
+
+    public static final String CATEGORY = "category";
+    public static final String SUPPLIER = "supplier";
+    public static final String LOCATION = "location";
+    public static final String STOCK_STATUS = "stockStatus";
+
+    private static final int LOAD_BATCH_SIZE = 10_000;
+
+    private final ProductRepository productRepository;
+
+    @Value("${products.facets.enabled:true}")
+    private boolean enabled;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Condition loadFinished = lock.writeLock().newCondition();
+    private final Map<Long, ProductFacetRowDTO> products = new HashMap<>();
+    private final Map<Integer, BitSet> byCategory = new HashMap<>();
+    private final Map<Long, BitSet> bySupplier = new HashMap<>();
+    private final Map<String, BitSet> byLocation = new HashMap<>();
+    private final Map<StockStatus, BitSet> byStatus = new EnumMap<>(StockStatus.class);
+    private final BitSet active = new BitSet();
+
+    // Produtos gravados enquanto a carga roda: o estado do afterCommit vale mais que a linha lida antes
+    private final Set<Long> updatedWhileLoading = new HashSet<>();
+    private boolean loading;
+    // Invalidado durante a carga: o que ela leu pode já estar velho, então carrega de novo ao terminar
+    private boolean stale;
+    private volatile boolean ready;
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    boolean isEnabled() {
+        return enabled;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        if (!enabled) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            if (ready || loading) {
+                return;
+            }
+            loading = true;
+            products.clear();
+            byCategory.clear();
+            bySupplier.clear();
+            byLocation.clear();
+            byStatus.clear();
+            active.clear();
+        } finally {
+            lock.writeLock().unlock();
+        }
+
+        boolean loaded = false;
+        boolean again;
+        try {
+            long lastId = 0;
+            List<ProductFacetRowDTO> rows;
+            do {
+                rows = productRepository.findFacetRowsAfter(lastId, PageRequest.of(0, LOAD_BATCH_SIZE));
+                lock.writeLock().lock();
+                try {
+                    for (ProductFacetRowDTO row : rows) {
+                        if (!updatedWhileLoading.contains(row.id())) {
+                            put(row);
+                        }
+                        lastId = row.id();
+                    }
+                } finally {
+                    lock.writeLock().unlock();
+                }
+            } while (rows.size() == LOAD_BATCH_SIZE);
+            loaded = true;
+        } finally {
+            // Se a carga falhar, quem esperava por ela acorda e tenta de novo
+            lock.writeLock().lock();
+            try {
+                updatedWhileLoading.clear();
+                loading = false;
+                again = loaded && stale;
+                stale = false;
+                ready = loaded && !again;
+                loadFinished.signalAll();
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+        if (again) {
+            load();
+        }
+    }
+
+    // Uma atualização falhou e o índice pode ter perdido gravações: sai de uso e recarrega em segundo plano
+    void invalidate() {
+        if (!enabled) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            ready = false;
+            if (loading) {
+                stale = true;
+                return;
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+        Thread.ofVirtual().name("facet-index-reload").start(() -> {
+            try {
+                load();
+            } catch (RuntimeException e) {
+                log.warn("Product facet index reload failed, next search retries it", e);
+            }
+        });
+    }
+
+    // Linha atual do produto (categoria, saldo) para quem já tem o id, como o top-N de relatórios
+    public ProductFacetRowDTO find(Long productId) {
+        lock.readLock().lock();
+        try {
+            return products.get(productId);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public Hits search(Integer categoryId, Long supplierId, String location, StockStatus status,
+                       int offset, int limit) {
+        if (!enabled) {
+            throw new IllegalStateException("Product facet index is disabled");
+        }
+        while (!ready) {
+            load();
+            awaitLoad();
+        }
+        lock.readLock().lock();
+        try {
+            BitSet category = (categoryId != null) ? bits(byCategory, categoryId) : null;
+            BitSet supplier = (supplierId != null) ? bits(bySupplier, supplierId) : null;
+            BitSet place = (location != null) ? bits(byLocation, location) : null;
+            BitSet stock = (status != null) ? bits(byStatus, status) : null;
+
+            BitSet result = intersect(category, supplier, place, stock);
+
+            // Contagem de cada faceta ignora o próprio filtro, para a tela mostrar as alternativas
+            Map<String, List<FacetCountDTO>> facets = new LinkedHashMap<>();
+            facets.put(CATEGORY, counts(byCategory, intersect(supplier, place, stock)));
+            facets.put(SUPPLIER, counts(bySupplier, intersect(category, place, stock)));
+            facets.put(LOCATION, counts(byLocation, intersect(category, supplier, stock)));
+            facets.put(STOCK_STATUS, counts(byStatus, intersect(category, supplier, place)));
+
+            List<Long> ids = new ArrayList<>(Math.min(limit, 1024));
+            int skipped = 0;
+            for (int id = result.nextSetBit(0); id >= 0 && ids.size() < limit; id = result.nextSetBit(id + 1)) {
+                if (skipped++ >= offset) {
+                    ids.add((long) id);
+                }
+            }
+            return new Hits(ids, result.cardinality(), facets);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Outra thread pode estar no meio da carga: buscar antes disso veria os bitmaps pela metade
+    private void awaitLoad() {
+        lock.writeLock().lock();
+        try {
+            while (loading) {
+                loadFinished.awaitUninterruptibly();
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // Linhas relidas depois do commit pelo ProductRefresher
+    void apply(List<ProductIndexRowDTO> rows) {
+        if (!enabled) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            for (ProductIndexRowDTO row : rows) {
+                if (loading) {
+                    updatedWhileLoading.add(row.id());
+                }
+                put(new ProductFacetRowDTO(row.id(), row.categoryId(), row.supplierId(), row.location(),
+                        row.quantityInStock(), row.minStock(), row.active()));
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void put(ProductFacetRowDTO row) {
+        int id = Math.toIntExact(row.id());
+        ProductFacetRowDTO previous = products.put(row.id(), row);
+        if (previous != null) {
+            clear(byCategory, previous.categoryId(), id);
+            clear(bySupplier, previous.supplierId(), id);
+            clear(byLocation, previous.location(), id);
+            clear(byStatus, StockStatus.of(previous.quantityInStock(), previous.minStock()), id);
+        }
+        active.set(id, row.active());
+        set(byCategory, row.categoryId(), id);
+        set(bySupplier, row.supplierId(), id);
+        set(byLocation, row.location(), id);
+        set(byStatus, StockStatus.of(row.quantityInStock(), row.minStock()), id);
+    }
+
+    private static <K> void set(Map<K, BitSet> facet, K value, int id) {
+        if (value != null) {
+            facet.computeIfAbsent(value, v -> new BitSet()).set(id);
+        }
+    }
+
+    private static <K> void clear(Map<K, BitSet> facet, K value, int id) {
+        BitSet bits = (value != null) ? facet.get(value) : null;
+        if (bits != null) {
+            bits.clear(id);
+            if (bits.isEmpty()) {
+                facet.remove(value);
+            }
+        }
+    }
+
+    private static <K> BitSet bits(Map<K, BitSet> facet, K value) {
+        return facet.getOrDefault(value, new BitSet());
+    }
+
+    // Só produtos ativos entram na busca; filtros nulos não restringem
+    private BitSet intersect(BitSet... filters) {
+        BitSet result = (BitSet) active.clone();
+        for (BitSet filter : filters) {
+            if (filter != null) {
+                result.and(filter);
+            }
+        }
+        return result;
+    }
+
+    private static <K> List<FacetCountDTO> counts(Map<K, BitSet> facet, BitSet selection) {
+        List<FacetCountDTO> counts = new ArrayList<>();
+        facet.forEach((value, bits) -> {
+            BitSet hits = (BitSet) bits.clone();
+            hits.and(selection);
+            int count = hits.cardinality();
+            if (count > 0) {
+                counts.add(new FacetCountDTO(String.valueOf(value), count));
+            }
+        });
+        counts.sort(Comparator.comparingLong(FacetCountDTO::count).reversed().thenComparing(FacetCountDTO::value));
+        return counts;
+    }
+
+    public record Hits(List<Long> ids, long total, Map<String, List<FacetCountDTO>> facets) {}
+}
@@ -0,0 +1,91 @@
+package com.ifsuldeminas.escrud.service;
+
+import com.ifsuldeminas.escrud.dto.ProductIndexRowDTO;
+import com.ifsuldeminas.escrud.entities.Product;
+import com.ifsuldeminas.escrud.repositories.ProductRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.*;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Stream;
+
+// Mantém ProductFacetIndex e LowStockIndex em dia: relê do banco os produtos gravados, depois do commit e
+// numa consulta só por transação para os dois índices. Reler e aplicar é atômico por produto: commits podem
+// terminar fora de ordem, mas o último afterCommit a rodar lê o banco depois de todos eles e deixa o estado
+// mais novo nos índices.
+@Slf4j
+@Component
+@RequiredArgsConstructor
+class ProductRefresher {
+
+    private static final int STRIPES = 64;
+
+    private final ProductRepository productRepository;
+    private final ProductFacetIndex facetIndex;
+    private final LowStockIndex lowStockIndex;
+
+    private final ReentrantLock[] stripes = Stream.generate(ReentrantLock::new).limit(STRIPES)
+            .toArray(ReentrantLock[]::new);
+
+    // Chamado por quem grava produto, saldo ou mínimo, antes do DataVersions.bump: os afterCommit rodam na
+    // ordem de registro, então a versão nova só aparece com os índices já atualizados
+    void saved(Product product) {
+        if (product.getId() == null || (!facetIndex.isEnabled() && !lowStockIndex.isEnabled())) {
+            return;
+        }
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            refresh(List.of(product.getId()));
+            return;
+        }
+        for (TransactionSynchronization synchronization : TransactionSynchronizationManager.getSynchronizations()) {
+            if (synchronization instanceof Pending pending && pending.owner() == this) {
+                pending.ids.add(product.getId());
+                return;
+            }
+        }
+        Pending pending = new Pending();
+        pending.ids.add(product.getId());
+        TransactionSynchronizationManager.registerSynchronization(pending);
+    }
+
+    // Trava as faixas em ordem crescente, então dois lotes com produtos em comum não se travam
+    void refresh(Collection<Long> ids) {
+        int[] held = ids.stream().mapToInt(id -> Math.floorMod(id, STRIPES)).distinct().sorted().toArray();
+        for (int stripe : held) {
+            stripes[stripe].lock();
+        }
+        try {
+            List<ProductIndexRowDTO> rows = productRepository.findIndexRows(ids);
+            facetIndex.apply(rows);
+            lowStockIndex.apply(ids, rows);
+        } catch (RuntimeException e) {
+            // O commit já aconteceu: o erro não volta para a requisição, senão um cliente sem chave de
+            // idempotência repetiria a movimentação. Os índices saem de uso e recarregam do banco
+            log.warn("Could not refresh product indexes for {} products, reloading them", ids.size(), e);
+            facetIndex.invalidate();
+            lowStockIndex.invalidate();
+        } finally {
+            for (int stripe : held) {
+                stripes[stripe].unlock();
+            }
+        }
+    }
+
+    private final class Pending implements TransactionSynchronization {
+
+        private final Set<Long> ids = new HashSet<>();
+
+        private ProductRefresher owner() {
+            return ProductRefresher.this;
+        }
+
+        @Override
+        public void afterCommit() {
+            refresh(ids);
+        }
+    }
+}
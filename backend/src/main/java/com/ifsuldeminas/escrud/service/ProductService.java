@@ -1,32 +1,67 @@
 package com.ifsuldeminas.escrud.service;
+import com.ifsuldeminas.escrud.dto.ProductFacetSearchDTO;
 import com.ifsuldeminas.escrud.dto.ProductMinDTO;
 import com.ifsuldeminas.escrud.dto.ProductRequestDTO;
 import com.ifsuldeminas.escrud.dto.ProductResponseDTO;
+import com.ifsuldeminas.escrud.dto.ProductScanDTO;
+import com.ifsuldeminas.escrud.entities.AbcClass;
 import com.ifsuldeminas.escrud.entities.Category;
 import com.ifsuldeminas.escrud.entities.Product;
+import com.ifsuldeminas.escrud.entities.StockStatus;
 import com.ifsuldeminas.escrud.entities.Supplier;
 import com.ifsuldeminas.escrud.repositories.CategoryRepository;
 import com.ifsuldeminas.escrud.repositories.ProductRepository;
 import com.ifsuldeminas.escrud.repositories.SupplierRepository;
+import com.ifsuldeminas.escrud.service.DataVersions.DataSet;
+import io.micrometer.observation.annotation.Observed;
 import jakarta.persistence.EntityNotFoundException;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+@Observed(name = "escrud.service")
 @Service
 @RequiredArgsConstructor
 public class ProductService {
     private final ProductRepository productRepository;
     private final CategoryRepository categoryRepository;
     private final SupplierRepository supplierRepository;
+    private final ReplenishmentService replenishmentService;
+    private final MovementColumnStore columnStore;
+    private final DataVersions dataVersions;
+    private final ProductFacetIndex facetIndex;
+    private final ProductRefresher productRefresher;
     public Page<ProductResponseDTO> findAll(Pageable pageable, String name, String sku,
-                                            Boolean active) {
+                                            Boolean active, AbcClass abcClass) {
 // Se active não for passado na URL, assume true (conforme doc)
         Boolean activeFilter = (active != null) ? active : true;
-        return productRepository.search(name, sku, activeFilter, pageable)
+        return productRepository.search(name, sku, activeFilter, abcClass, pageable)
                 .map(this::mapToDTO);
     }
+    // fields=: só as colunas (e os joins) que a grade pediu
+    public Page<Map<String, Object>> findFields(List<String> fields, Pageable pageable, String name, String sku,
+                                                Boolean active, AbcClass abcClass) {
+        Boolean activeFilter = (active != null) ? active : true;
+        return productRepository.searchFields(fields, name, sku, activeFilter, abcClass, pageable);
+    }
+    // Busca facetada: filtros e contagens saem dos bitmaps, o banco só carrega a página de produtos
+    public ProductFacetSearchDTO searchFacets(Integer categoryId, Long supplierId, String location,
+                                              StockStatus status, int page, int size) {
+        ProductFacetIndex.Hits hits = facetIndex.search(categoryId, supplierId, location, status, page * size, size);
+        Map<Long, Product> byId = productRepository.findAllById(hits.ids()).stream()
+                .collect(Collectors.toMap(Product::getId, Function.identity()));
+        List<ProductResponseDTO> content = hits.ids().stream()
+                .map(byId::get)
+                .filter(Objects::nonNull)
+                .map(this::mapToDTO)
+                .toList();
+        return new ProductFacetSearchDTO(content, page, size, hits.total(), hits.facets());
+    }
     public List<ProductMinDTO> findAllActiveList() {
         return productRepository.findByActiveTrue().stream()
                 .map(p -> new ProductMinDTO(p.getId(), p.getSku(), p.getName()))
@@ -37,6 +72,11 @@ public class ProductService {
                 .orElseThrow(() -> new EntityNotFoundException("Product not found"));
         return mapToDTO(product);
     }
+    // Leitura do coletor: só o que a tela mostra, por projeção
+    public ProductScanDTO findBySku(String sku) {
+        return productRepository.findScanBySku(sku)
+                .orElseThrow(() -> new EntityNotFoundException("Product not found"));
+    }
     public ProductResponseDTO create(ProductRequestDTO dto) {
         if (productRepository.existsBySku(dto.sku())) {
             throw new IllegalArgumentException("SKU already exists");
@@ -46,7 +86,11 @@ public class ProductService {
 // Regra de negócio: Estoque inicial é sempre 0
         product.setQuantityInStock(0);
         product.setActive(true);
-        return mapToDTO(productRepository.save(product));
+        Product saved = productRepository.save(product);
+        replenishmentService.markDirty(saved.getId());
+        productRefresher.saved(saved);
+        dataVersions.bump(DataSet.PRODUCTS);
+        return mapToDTO(saved);
     }
     public ProductResponseDTO update(Long id, ProductRequestDTO dto) {
         Product product = productRepository.findById(id)
@@ -57,7 +101,12 @@ public class ProductService {
             throw new IllegalArgumentException("SKU already exists");
         }
         updateProductData(product, dto);
-        return mapToDTO(productRepository.save(product));
+        Product saved = productRepository.save(product);
+        replenishmentService.markDirty(saved.getId());
+        productRefresher.saved(saved);
+        dataVersions.bump(DataSet.PRODUCTS);
+        columnStore.updateCost(saved.getId(), saved.getCostPrice());
+        return mapToDTO(saved);
     }
     public void delete(Long id) {
         Product product = productRepository.findById(id)
@@ -68,6 +117,9 @@ public class ProductService {
         }
         product.setActive(false);
         productRepository.save(product);
+        replenishmentService.markDirty(product.getId());
+        productRefresher.saved(product);
+        dataVersions.bump(DataSet.PRODUCTS);
     }
     // Método auxiliar para converter RequestDTO em Entidade
     private void updateProductData(Product entity, ProductRequestDTO dto) {
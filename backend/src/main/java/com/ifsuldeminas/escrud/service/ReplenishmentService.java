@@ -0,0 +1,173 @@
+package com.ifsuldeminas.escrud.service;
+
+import com.ifsuldeminas.escrud.dto.LowStockItemDTO;
+import com.ifsuldeminas.escrud.dto.ProductConsumptionDTO;
+import com.ifsuldeminas.escrud.dto.PurchaseOrderDraftDTO;
+import com.ifsuldeminas.escrud.dto.ReplenishmentSuggestionDTO;
+import com.ifsuldeminas.escrud.entities.MovementType;
+import com.ifsuldeminas.escrud.entities.Product;
+import com.ifsuldeminas.escrud.repositories.ProductRepository;
+import com.ifsuldeminas.escrud.repositories.StockMovementRepository;
+import io.micrometer.observation.annotation.Observed;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+@Observed(name = "escrud.service")
+@Service
+@RequiredArgsConstructor
+public class ReplenishmentService {
+
+    private static final int BATCH_SIZE = 1000;
+
+    private final ProductRepository productRepository;
+    private final StockMovementRepository movementRepository;
+    private final LowStockIndex lowStockIndex;
+
+    @Value("${replenishment.window-days:30}")
+    private int windowDays;
+
+    @Value("${replenishment.lead-time-days:7}")
+    private int leadTimeDays;
+
+    @Value("${replenishment.coverage-days:30}")
+    private int coverageDays;
+
+    // Movimentações do modo GROUP/ASYNC e dos shards levam a data da requisição mas só ficam visíveis no
+    // commit, que pode vir depois da consulta da execução anterior: cada execução relê essa margem de novo
+    @Value("${replenishment.overlap-seconds:300}")
+    private int overlapSeconds;
+
+    // Sugestões atuais por produto; cada execução recalcula os produtos tocados desde a anterior e os que já
+    // têm sugestão
+    private final Map<Long, Suggestion> suggestions = new ConcurrentHashMap<>();
+    private final Set<Long> dirtyProducts = ConcurrentHashMap.newKeySet();
+    private volatile LocalDateTime lastRun;
+
+    public void markDirty(Long productId) {
+        if (productId != null) {
+            dirtyProducts.add(productId);
+        }
+    }
+
+    @Scheduled(initialDelayString = "${replenishment.initial-delay-ms:60000}",
+            fixedDelayString = "${replenishment.interval-ms:300000}")
+    public synchronized void run() {
+        LocalDateTime now = LocalDateTime.now();
+        Set<Long> toEvaluate = new HashSet<>();
+
+        if (lastRun == null) {
+            // Primeira execução: produtos já abaixo do mínimo ou com consumo na janela
+            List<LowStockItemDTO> lowStock = lowStockIndex.isReady()
+                    ? lowStockIndex.all()
+                    : productRepository.findLowStockItems();
+            lowStock.stream()
+                    .map(LowStockItemDTO::id)
+                    .forEach(toEvaluate::add);
+            toEvaluate.addAll(movementRepository.findProductIdsMovedSince(now.minusDays(windowDays)));
+        } else {
+            toEvaluate.addAll(movementRepository.findProductIdsMovedSince(lastRun.minusSeconds(overlapSeconds)));
+        }
+
+        // Quem já tem sugestão é reavaliado sempre: o consumo da janela cai mesmo sem movimentação nova, e um
+        // produto que parou de sair perde a sugestão em vez de ficar com a antiga para sempre
+        toEvaluate.addAll(suggestions.keySet());
+
+        Iterator<Long> it = dirtyProducts.iterator();
+        while (it.hasNext()) {
+            toEvaluate.add(it.next());
+            it.remove();
+        }
+
+        List<Long> ids = new ArrayList<>(toEvaluate);
+        for (int i = 0; i < ids.size(); i += BATCH_SIZE) {
+            evaluate(ids.subList(i, Math.min(i + BATCH_SIZE, ids.size())), now);
+        }
+        lastRun = now;
+    }
+
+    public List<PurchaseOrderDraftDTO> getPurchaseOrderDrafts() {
+        Map<Long, List<Suggestion>> bySupplier = new HashMap<>();
+        for (Suggestion s : suggestions.values()) {
+            bySupplier.computeIfAbsent(s.supplierId(), k -> new ArrayList<>()).add(s);
+        }
+
+        return bySupplier.values().stream()
+                .map(this::toDraft)
+                .sorted(Comparator.comparing(PurchaseOrderDraftDTO::totalCost).reversed())
+                .toList();
+    }
+
+    private void evaluate(List<Long> productIds, LocalDateTime now) {
+        Map<Long, Long> consumption = new HashMap<>();
+        for (ProductConsumptionDTO c : movementRepository.getProductConsumption(
+                productIds, now.minusDays(windowDays), MovementType.SAIDA_REQUISICAO)) {
+            consumption.put(c.productId(), c.totalQuantity());
+        }
+
+        Set<Long> found = new HashSet<>();
+        for (Product product : productRepository.findAllById(productIds)) {
+            found.add(product.getId());
+            Suggestion suggestion = computeSuggestion(product, consumption.getOrDefault(product.getId(), 0L));
+            if (suggestion != null) {
+                suggestions.put(product.getId(), suggestion);
+            } else {
+                suggestions.remove(product.getId());
+            }
+        }
+        productIds.stream().filter(id -> !found.contains(id)).forEach(suggestions::remove);
+    }
+
+    private Suggestion computeSuggestion(Product product, long consumedInWindow) {
+        if (!product.isActive()) {
+            return null;
+        }
+
+        double dailyConsumption = windowDays > 0 ? (double) consumedInWindow / windowDays : 0;
+        int reorderPoint = product.getMinStock() + (int) Math.ceil(dailyConsumption * leadTimeDays);
+        if (product.getQuantityInStock() > reorderPoint) {
+            return null;
+        }
+
+        int targetStock = reorderPoint + (int) Math.ceil(dailyConsumption * coverageDays);
+        int suggestedQuantity = Math.max(targetStock - product.getQuantityInStock(), 1);
+        BigDecimal cost = product.getCostPrice() != null ? product.getCostPrice() : BigDecimal.ZERO;
+
+        ReplenishmentSuggestionDTO dto = new ReplenishmentSuggestionDTO(
+                product.getId(),
+                product.getSku(),
+                product.getName(),
+                product.getQuantityInStock(),
+                product.getMinStock(),
+                dailyConsumption,
+                reorderPoint,
+                suggestedQuantity,
+                cost.multiply(BigDecimal.valueOf(suggestedQuantity))
+        );
+
+        return product.getDefaultSupplier() != null
+                ? new Suggestion(product.getDefaultSupplier().getId(), product.getDefaultSupplier().getName(), dto)
+                : new Suggestion(null, null, dto);
+    }
+
+    private PurchaseOrderDraftDTO toDraft(List<Suggestion> group) {
+        List<ReplenishmentSuggestionDTO> items = group.stream()
+                .map(Suggestion::item)
+                .sorted(Comparator.comparing(ReplenishmentSuggestionDTO::sku))
+                .toList();
+        BigDecimal total = items.stream()
+                .map(ReplenishmentSuggestionDTO::estimatedCost)
+                .reduce(BigDecimal.ZERO, BigDecimal::add);
+
+        Suggestion first = group.get(0);
+        return new PurchaseOrderDraftDTO(first.supplierId(), first.supplierName(), items, total);
+    }
+
+    private record Suggestion(Long supplierId, String supplierName, ReplenishmentSuggestionDTO item) {}
+}
@@ -2,29 +2,59 @@ package com.ifsuldeminas.escrud.service;
 
 import com.ifsuldeminas.escrud.dto.*;
 import com.ifsuldeminas.escrud.entities.MovementType;
+import com.ifsuldeminas.escrud.entities.AbcClass;
+import com.ifsuldeminas.escrud.entities.Department;
+import com.ifsuldeminas.escrud.entities.Product;
 import com.ifsuldeminas.escrud.entities.StockMovement;
+import com.ifsuldeminas.escrud.repositories.DepartmentRepository;
+import com.ifsuldeminas.escrud.repositories.ProductAnalyticsRepository;
 import com.ifsuldeminas.escrud.repositories.ProductRepository;
 import com.ifsuldeminas.escrud.repositories.StockMovementRepository;
+import io.micrometer.observation.annotation.Observed;
+import jakarta.transaction.Transactional;
 import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 
 import java.math.BigDecimal;
+import java.math.RoundingMode;
 import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.stream.Collectors;
 
+@Observed(name = "escrud.service")
 @Service
 @RequiredArgsConstructor
 public class ReportService {
 
     private final ProductRepository productRepository;
     private final StockMovementRepository movementRepository;
+    private final DepartmentRepository departmentRepository;
+    private final MovementColumnStore columnStore;
+    private final LowStockIndex lowStockIndex;
+    private final ProductFacetIndex facetIndex;
+    private final ProductAnalyticsRepository analyticsRepository;
 
     public DashboardResponseDTO getDashboardData() {
+        return getDashboardData(null);
+    }
+
+    public DashboardResponseDTO getDashboardData(AbcClass abcClass) {
 
         BigDecimal totalValue = productRepository.getTotalStockValue();
         if (totalValue == null) totalValue = BigDecimal.ZERO;
 
-        List<LowStockItemDTO> lowStockItems = productRepository.findLowStockItems();
+        List<LowStockItemDTO> lowStockItems = getLowStockItems(abcClass);
 
         List<StockMovementResponseDTO> recentMovements = movementRepository.findTop10ByOrderByDateTimeDesc()
                 .stream()
@@ -34,20 +64,211 @@ public class ReportService {
         return new DashboardResponseDTO(totalValue, lowStockItems, recentMovements);
     }
 
+    // Mais crítico primeiro; com o índice carregado o custo acompanha a quantidade de itens baixos
+    public Page<LowStockItemDTO> getLowStock(int page, int size) {
+        Pageable pageable = PageRequest.of(page, size);
+        if (lowStockIndex.isReady()) {
+            return new PageImpl<>(lowStockIndex.page(page * size, size), pageable, lowStockIndex.size());
+        }
+        List<LowStockItemDTO> all = productRepository.findLowStockItems().stream()
+                .sorted(LowStockIndex.MOST_CRITICAL_FIRST)
+                .toList();
+        int from = Math.min(page * size, all.size());
+        return new PageImpl<>(all.subList(from, Math.min(from + size, all.size())), pageable, all.size());
+    }
+
+    private List<LowStockItemDTO> getLowStockItems(AbcClass abcClass) {
+        if (!lowStockIndex.isReady()) {
+            return (abcClass != null)
+                    ? productRepository.findLowStockItemsByAbcClass(abcClass)
+                    : productRepository.findLowStockItems();
+        }
+        List<LowStockItemDTO> items = lowStockIndex.all();
+        if (abcClass == null || items.isEmpty()) {
+            return items;
+        }
+        // A curva ABC só é consultada para os produtos que já estão baixos
+        Set<Long> inClass = new HashSet<>(analyticsRepository.findProductIdsByAbcClass(
+                items.stream().map(LowStockItemDTO::id).toList(), abcClass));
+        return items.stream().filter(i -> inClass.contains(i.id())).toList();
+    }
+
     public List<DepartmentConsumptionDTO.DepartmentConsumptionResponse> getConsumptionByDepartment(LocalDate start, LocalDate end) {
+        return getDepartmentConsumption(start, end)
+                .stream()
+                .map(DepartmentConsumptionDTO::toResponse)
+                .toList();
+    }
+
+    public List<DepartmentConsumptionDTO.DepartmentConsumptionResponse> getTopConsumers(LocalDate start, LocalDate end, int limit) {
+        return getDepartmentConsumption(start, end)
+                .stream()
+                .sorted(Comparator.comparing(DepartmentConsumptionDTO::totalValueConsumed).reversed())
+                .limit(limit)
+                .map(DepartmentConsumptionDTO::toResponse)
+                .toList();
+    }
+
+    public List<TrendPointDTO> getTrend(LocalDate start, LocalDate end, MovementType type, Long productId, Integer departmentId) {
+        MovementType movementType = (type != null) ? type : MovementType.SAIDA_REQUISICAO;
+        if (end.isBefore(start)) {
+            return List.of();
+        }
+
+        if (!columnStore.isReady()) {
+            return movementRepository.getDailyTrend(start.atStartOfDay(), end.atTime(23, 59, 59),
+                    movementType, productId, departmentId);
+        }
+
+        int days = (int) ChronoUnit.DAYS.between(start, end) + 1;
+        MovementColumnStore.Totals totals = columnStore.dailyTotals(start.atStartOfDay(), days, movementType, productId, departmentId);
+
+        List<TrendPointDTO> points = new ArrayList<>();
+        for (int d = 0; d < days; d++) {
+            if (totals.quantity()[d] > 0) {
+                points.add(new TrendPointDTO(start.plusDays(d), totals.quantity()[d], toMoney(totals.value()[d])));
+            }
+        }
+        return points;
+    }
+
+    // Com o armazenamento colunar e o índice de facetas carregados a soma por produto sai da memória
+    // (custo do armazenamento, categoria e saldo do índice). Sem eles, agregação em fluxo: o cursor vem
+    // ordenado por produto, então cada produto é fechado ao mudar o id. Nos dois casos cada produto disputa
+    // um heap mínimo de tamanho limite (memória O(limite)).
+    @Transactional
+    // Com colunas e facetas ligadas, o top-N espera a carga delas: no início da aplicação cada requisição cairia
+    // no GROUP BY sobre o período inteiro, disputando o banco com a própria carga
+    public boolean isTopProductsAvailable() {
+        return !columnStore.isEnabled() || !facetIndex.isEnabled() || (columnStore.isReady() && facetIndex.isReady());
+    }
+
+    public List<TopProductDTO> getTopProducts(LocalDate start, LocalDate end, TopProductMetric metric, int limit,
+                                              MovementType type, Integer departmentId, Integer categoryId) {
+        if (limit <= 0) {
+            return List.of();
+        }
+        TopProductMetric criterion = (metric != null) ? metric : TopProductMetric.QUANTIDADE;
+        Comparator<ProductAggregate> order = Comparator.comparingDouble(a -> a.score(criterion));
+        PriorityQueue<ProductAggregate> heap = new PriorityQueue<>(limit + 1, order);
+
+        if (columnStore.isReady() && facetIndex.isReady()) {
+            for (MovementColumnStore.ProductTotal total : columnStore.sumByProduct(
+                    start.atStartOfDay(), end.atTime(23, 59, 59), type, departmentId)) {
+                ProductFacetRowDTO row = facetIndex.find(total.productId());
+                if (categoryId != null && (row == null || !categoryId.equals(row.categoryId()))) {
+                    continue;
+                }
+                ProductAggregate aggregate = new ProductAggregate(total.productId(), toMoney(total.costPrice()),
+                        row != null ? row.quantityInStock() : 0);
+                aggregate.quantity = total.quantity();
+                offer(heap, aggregate, limit, order);
+            }
+        } else {
+            // Enquanto colunas e facetas carregam (início da aplicação) a soma sai do GROUP BY no banco
+            for (ProductMovementTotalDTO total : movementRepository.sumByProduct(
+                    start.atStartOfDay(), end.atTime(23, 59, 59), type, departmentId, categoryId)) {
+                ProductAggregate aggregate = new ProductAggregate(total.productId(), total.costPrice(),
+                        total.quantityInStock());
+                aggregate.quantity = total.quantity();
+                offer(heap, aggregate, limit, order);
+            }
+        }
+
+        List<ProductAggregate> winners = new ArrayList<>(heap);
+        winners.sort(order.reversed());
+        Map<Long, Product> products = productRepository.findAllById(
+                        winners.stream().map(a -> a.productId).toList())
+                .stream()
+                .collect(Collectors.toMap(Product::getId, p -> p));
+
+        return winners.stream()
+                .map(a -> new TopProductDTO(
+                        a.productId,
+                        products.containsKey(a.productId) ? products.get(a.productId).getSku() : null,
+                        products.containsKey(a.productId) ? products.get(a.productId).getName() : null,
+                        a.quantity,
+                        a.value(),
+                        a.turnover()))
+                .toList();
+    }
+
+    private void offer(PriorityQueue<ProductAggregate> heap, ProductAggregate candidate, int limit,
+                       Comparator<ProductAggregate> order) {
+        if (candidate == null) {
+            return;
+        }
+        if (heap.size() < limit) {
+            heap.add(candidate);
+        } else if (order.compare(candidate, heap.peek()) > 0) {
+            heap.poll();
+            heap.add(candidate);
+        }
+    }
+
+    // Usa o armazenamento colunar quando já carregado; senão cai na consulta agregada do banco
+    private List<DepartmentConsumptionDTO> getDepartmentConsumption(LocalDate start, LocalDate end) {
         var startDateTime = start.atStartOfDay();
         var endDateTime = end.atTime(23, 59, 59);
 
-        return movementRepository.getDepartmentConsumptionStats(
-                        startDateTime,
-                        endDateTime,
-                        MovementType.SAIDA_REQUISICAO
-                )
+        if (!columnStore.isReady()) {
+            return movementRepository.getDepartmentConsumptionStats(
+                    startDateTime,
+                    endDateTime,
+                    MovementType.SAIDA_REQUISICAO
+            );
+        }
+
+        List<MovementColumnStore.DepartmentTotal> totals =
+                columnStore.sumByDepartment(startDateTime, endDateTime, MovementType.SAIDA_REQUISICAO);
+        Map<Integer, String> names = departmentRepository.findAllById(
+                        totals.stream().map(MovementColumnStore.DepartmentTotal::departmentId).toList())
                 .stream()
-                .map(DepartmentConsumptionDTO::toResponse)
+                .collect(Collectors.toMap(Department::getId, Department::getName));
+
+        return totals.stream()
+                .map(t -> new DepartmentConsumptionDTO(
+                        t.departmentId(),
+                        names.get(t.departmentId()),
+                        toMoney(t.value()),
+                        t.quantity()))
                 .toList();
     }
 
+    private static final class ProductAggregate {
+        final Long productId;
+        final BigDecimal costPrice;
+        final int quantityInStock;
+        long quantity;
+
+        ProductAggregate(Long productId, BigDecimal costPrice, int quantityInStock) {
+            this.productId = productId;
+            this.costPrice = (costPrice != null) ? costPrice : BigDecimal.ZERO;
+            this.quantityInStock = quantityInStock;
+        }
+
+        BigDecimal value() {
+            return costPrice.multiply(BigDecimal.valueOf(quantity));
+        }
+
+        // Giro no período: quantidade movimentada sobre o estoque atual (mínimo 1)
+        double turnover() {
+            return (double) quantity / Math.max(quantityInStock, 1);
+        }
+
+        double score(TopProductMetric metric) {
+            return switch (metric) {
+                case QUANTIDADE -> quantity;
+                case VALOR -> value().doubleValue();
+                case GIRO -> turnover();
+            };
+        }
+    }
+
+    private BigDecimal toMoney(double value) {
+        return BigDecimal.valueOf(value).setScale(2, RoundingMode.HALF_UP);
+    }
+
     private StockMovementResponseDTO mapToMovementDTO(StockMovement entity) {
         return new StockMovementResponseDTO(
                 entity.getId(),
@@ -0,0 +1,81 @@
+package com.ifsuldeminas.escrud.service;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.YearMonth;
+import java.time.format.DateTimeFormatter;
+
+// Partições mensais de stock_movements no PostgreSQL (db/vendor/postgresql/V4). Os próximos meses são criados
+// antes de chegarem, para nada cair na partição DEFAULT, e o arquivamento solta um mês inteiro com DROP.
+// Em banco sem particionamento (H2) tudo aqui é no-op e o arquivamento usa DELETE.
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class StockMovementPartitions {
+
+    private static final DateTimeFormatter SUFFIX = DateTimeFormatter.ofPattern("yyyy_MM");
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Value("${movements.partitions.months-ahead:3}")
+    private int monthsAhead;
+
+    private volatile Boolean partitioned;
+
+    public boolean isPartitioned() {
+        if (partitioned == null) {
+            boolean postgres = Boolean.TRUE.equals(jdbcTemplate.execute((ConnectionCallback<Boolean>) connection ->
+                    "PostgreSQL".equals(connection.getMetaData().getDatabaseProductName())));
+            partitioned = postgres && Boolean.TRUE.equals(jdbcTemplate.queryForObject(
+                    "SELECT EXISTS (SELECT 1 FROM pg_partitioned_table p JOIN pg_class c ON c.oid = p.partrelid " +
+                            "WHERE c.relname = 'stock_movements')", Boolean.class));
+        }
+        return partitioned;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(cron = "${movements.partitions.cron:0 0 1 * * *}")
+    public void createAhead() {
+        if (!isPartitioned()) {
+            return;
+        }
+        YearMonth current = YearMonth.now();
+        for (int i = 0; i <= monthsAhead; i++) {
+            YearMonth month = current.plusMonths(i);
+            try {
+                jdbcTemplate.execute("CREATE TABLE IF NOT EXISTS " + name(month) + " PARTITION OF stock_movements " +
+                        "FOR VALUES FROM ('" + month.atDay(1) + "') TO ('" + month.plusMonths(1).atDay(1) + "')");
+            } catch (DataAccessException e) {
+                // Linhas do mês já na DEFAULT impedem a partição; ficam lá até o arquivamento levar o mês
+                log.warn("Could not create partition {}: {}", name(month), e.getMessage());
+            }
+        }
+    }
+
+    // Chamado na transação do arquivamento, depois de copiar o mês: DROP não deixa bloat para o VACUUM
+    public boolean dropMonth(YearMonth month) {
+        if (!isPartitioned()) {
+            return false;
+        }
+        String name = name(month);
+        if (!Boolean.TRUE.equals(jdbcTemplate.queryForObject("SELECT to_regclass(?) IS NOT NULL", Boolean.class, name))) {
+            return false;
+        }
+        jdbcTemplate.execute("ALTER TABLE stock_movements DETACH PARTITION " + name);
+        jdbcTemplate.execute("DROP TABLE " + name);
+        return true;
+    }
+
+    static String name(YearMonth month) {
+        return "stock_movements_" + month.format(SUFFIX);
+    }
+}
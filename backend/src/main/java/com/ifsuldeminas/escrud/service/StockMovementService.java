@@ -1,36 +1,227 @@
 package com.ifsuldeminas.escrud.service;
 
+import com.ifsuldeminas.escrud.dto.CursorPageDTO;
+import com.ifsuldeminas.escrud.dto.MovementHistoryStampDTO;
 import com.ifsuldeminas.escrud.dto.StockMovementRequestDTO;
 import com.ifsuldeminas.escrud.dto.StockMovementResponseDTO;
 import com.ifsuldeminas.escrud.entities.*;
 import com.ifsuldeminas.escrud.entities.MovementType;
 import com.ifsuldeminas.escrud.repositories.*;
+import com.ifsuldeminas.escrud.service.DataVersions.DataSet;
+import io.micrometer.observation.annotation.Observed;
 import jakarta.persistence.EntityNotFoundException;
 import jakarta.transaction.Transactional;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Service;
 
 import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
+@Observed(name = "escrud.service")
 @Service
 @RequiredArgsConstructor
 public class StockMovementService {
 
+    static final LocalDateTime NO_START = LocalDateTime.of(1900, 1, 1, 0, 0);
+    static final LocalDateTime NO_END = LocalDateTime.of(9999, 12, 31, 23, 59, 59);
+
     private final StockMovementRepository movementRepository;
     private final ProductRepository productRepository;
     private final DepartmentRepository departmentRepository;
     private final SupplierRepository supplierRepository;
     private final UserRepository userRepository;
+    private final MovementColumnStore columnStore;
+    private final IdempotencyStore idempotencyStore;
+    private final DataVersions dataVersions;
+    private final ProductRefresher productRefresher;
+    private final InventoryMetrics metrics;
+
+    private final Map<String, Integer> userIds = new ConcurrentHashMap<>();
 
     @Transactional
     public StockMovementResponseDTO create(StockMovementRequestDTO dto) {
+        return create(dto, null);
+    }
+
+    @Transactional
+    public StockMovementResponseDTO create(StockMovementRequestDTO dto, String idempotencyKey) {
+        StockMovementResponseDTO previous = findPrevious(idempotencyKey);
+        if (previous != null) {
+            return previous;
+        }
+        StockMovement saved = apply(dto, currentUser());
+        idempotencyStore.register(idempotencyKey, saved.getId());
+        return mapToDTO(saved);
+    }
+
+    // Lote numa única transação, com o usuário resolvido uma vez; a chave do lote vira "chave:índice" por item
+    @Transactional
+    public List<StockMovementResponseDTO> createBatch(List<StockMovementRequestDTO> dtos, String idempotencyKey) {
+        User user = currentUser();
+        List<StockMovementResponseDTO> responses = new ArrayList<>(dtos.size());
+        for (int i = 0; i < dtos.size(); i++) {
+            String itemKey = (idempotencyKey != null) ? idempotencyKey + ":" + i : null;
+            StockMovementResponseDTO previous = findPrevious(itemKey);
+            if (previous != null) {
+                responses.add(previous);
+                continue;
+            }
+            StockMovement saved = apply(dtos.get(i), user);
+            idempotencyStore.register(itemKey, saved.getId());
+            responses.add(mapToDTO(saved));
+        }
+        return responses;
+    }
+
+    // Reenvio já processado: devolve a movimentação original sem tocar no produto
+    private StockMovementResponseDTO findPrevious(String idempotencyKey) {
+        Long movementId = idempotencyStore.findMovementId(idempotencyKey);
+        if (movementId == null) {
+            return null;
+        }
+        return movementRepository.findResponseById(movementId)
+                .orElseThrow(() -> new EntityNotFoundException("Stock movement not found"));
+    }
+
+    // Modo fila por produto (MovementWriteShards): o grupo inteiro compartilha um SELECT e um UPDATE do
+    // produto e as movimentações vão num saveAll. Falhas de validação ficam no item, sem derrubar o grupo.
+    @Transactional
+    public List<WriteResult> createCoalesced(Long productId, List<QueuedWrite> writes) {
+        return coalesce(productId, writes);
+    }
+
+    // Group commit (MovementGroupCommitter): vários produtos numa transação só, um UPDATE por produto
+    @Transactional
+    public List<WriteResult> createGroup(List<QueuedWrite> writes) {
+        Map<Long, List<Integer>> byProduct = new LinkedHashMap<>();
+        for (int i = 0; i < writes.size(); i++) {
+            byProduct.computeIfAbsent(writes.get(i).request().productId(), k -> new ArrayList<>()).add(i);
+        }
+
+        WriteResult[] results = new WriteResult[writes.size()];
+        byProduct.forEach((productId, positions) -> {
+            List<WriteResult> group = coalesce(productId, positions.stream().map(writes::get).toList());
+            for (int j = 0; j < positions.size(); j++) {
+                results[positions.get(j)] = group.get(j);
+            }
+        });
+        return Arrays.asList(results);
+    }
+
+    private List<WriteResult> coalesce(Long productId, List<QueuedWrite> writes) {
+        Product product = (productId != null) ? productRepository.findById(productId).orElse(null) : null;
+        if (product == null) {
+            RuntimeException error = (productId != null)
+                    ? new EntityNotFoundException("Product not found")
+                    : new IllegalArgumentException("Product is required");
+            return writes.stream().map(w -> WriteResult.failed(error)).toList();
+        }
+
+        int n = writes.size();
+        StockMovementResponseDTO[] previous = new StockMovementResponseDTO[n];
+        StockMovement[] created = new StockMovement[n];
+        RuntimeException[] errors = new RuntimeException[n];
+        Map<String, Integer> keyOwners = new HashMap<>();
+        Map<Integer, User> users = new HashMap<>();
+        List<StockMovement> movements = new ArrayList<>(n);
+        int stock = product.getQuantityInStock();
+
+        for (int i = 0; i < n; i++) {
+            QueuedWrite write = writes.get(i);
+            String key = write.idempotencyKey();
+            Integer owner = (key != null) ? keyOwners.putIfAbsent(key, i) : null;
+            if (owner != null) {
+                // Mesma chave repetida dentro do grupo: responde igual ao primeiro
+                previous[i] = previous[owner];
+                created[i] = created[owner];
+                errors[i] = errors[owner];
+                continue;
+            }
+            try {
+                previous[i] = findPrevious(key);
+                if (previous[i] != null) {
+                    continue;
+                }
+                User user = (write.userId() != null)
+                        ? users.computeIfAbsent(write.userId(), id -> userRepository.findById(id).orElse(null))
+                        : null;
+                created[i] = prepare(write.request(), product, stock, user, write.acceptedAt());
+                stock += write.request().quantity();
+                movements.add(created[i]);
+            } catch (RuntimeException e) {
+                errors[i] = e;
+            }
+        }
+
+        if (!movements.isEmpty()) {
+            metrics.stockChanged(product.getQuantityInStock(), stock, product.getMinStock());
+            product.setQuantityInStock(stock);
+            productRepository.save(product);
+            movementRepository.saveAll(movements);
+            movements.forEach(m -> metrics.movementSaved(m.getType()));
+            productRefresher.saved(product);
+        }
+
+        List<WriteResult> results = new ArrayList<>(n);
+        for (int i = 0; i < n; i++) {
+            Integer owner = keyOwners.get(writes.get(i).idempotencyKey());
+            if (created[i] != null && (owner == null || owner == i)) {
+                idempotencyStore.register(writes.get(i).idempotencyKey(), created[i].getId());
+                columnStore.onMovementSaved(created[i]);
+            }
+            if (errors[i] != null) {
+                results.add(WriteResult.failed(errors[i]));
+            } else {
+                results.add(WriteResult.of(previous[i] != null ? previous[i] : mapToDTO(created[i])));
+            }
+        }
+        // Os afterCommit rodam na ordem de registro: a versão nova só aparece com índices e colunas já
+        // atualizados, senão o PayloadCache guardaria o relatório velho sob ela
+        if (!movements.isEmpty()) {
+            dataVersions.bump(DataSet.STOCK);
+        }
+        return results;
+    }
+
+    private StockMovement apply(StockMovementRequestDTO dto, User user) {
+        FlightRecorderEvents.StockMovementCreate event = new FlightRecorderEvents.StockMovementCreate();
+        event.begin();
         Product product = productRepository.findById(dto.productId())
                 .orElseThrow(() -> new EntityNotFoundException("Product not found"));
 
+        StockMovement movement = prepare(dto, product, product.getQuantityInStock(), user, LocalDateTime.now());
+
+        int before = product.getQuantityInStock();
+        product.setQuantityInStock(before + dto.quantity());
+        productRepository.save(product);
+        metrics.stockChanged(before, product.getQuantityInStock(), product.getMinStock());
+
+        StockMovement saved = movementRepository.save(movement);
+        metrics.movementSaved(saved.getType());
+        columnStore.onMovementSaved(saved);
+        productRefresher.saved(product);
+        dataVersions.bump(DataSet.STOCK);
+
+        if (event.shouldCommit()) {
+            event.productId = product.getId();
+            event.quantity = dto.quantity();
+            event.type = dto.type().name();
+            event.commit();
+        }
+        return saved;
+    }
+
+    // Valida contra o saldo informado e monta a movimentação, sem gravar nada
+    private StockMovement prepare(StockMovementRequestDTO dto, Product product, int stock, User user,
+                                  LocalDateTime dateTime) {
         if (dto.type() == MovementType.ENTRADA_COMPRA && dto.supplierId() == null) {
             throw new IllegalArgumentException("Supplier is required for Purchase Entry");
         }
@@ -41,15 +232,13 @@ public class StockMovementService {
             throw new IllegalArgumentException("Reason is required for Adjustment");
         }
 
-        if (dto.quantity() < 0 && (product.getQuantityInStock() + dto.quantity() < 0)) {
+        if (dto.quantity() < 0 && (stock + dto.quantity() < 0)) {
+            metrics.insufficientStock();
             throw new IllegalArgumentException("Insufficient stock for this operation.");
         }
 
-        product.setQuantityInStock(product.getQuantityInStock() + dto.quantity());
-        productRepository.save(product);
-
         StockMovement movement = new StockMovement();
-        movement.setDateTime(LocalDateTime.now());
+        movement.setDateTime(dateTime);
         movement.setType(dto.type());
         movement.setQuantity(dto.quantity());
         movement.setReason(dto.reason());
@@ -65,20 +254,38 @@ public class StockMovementService {
                     .orElseThrow(() -> new EntityNotFoundException("Supplier not found")));
         }
 
+        movement.setUser(user);
+        return movement;
+    }
+
+    private User currentUser() {
         String login = SecurityContextHolder.getContext().getAuthentication().getName();
-        userRepository.findByLogin(login).ifPresent(movement::setUser);
+        return userRepository.findByLogin(login).orElse(null);
+    }
 
-        return mapToDTO(movementRepository.save(movement));
+    // Login -> id não muda: os modos em fila resolvem na thread da requisição e o worker só recebe o id
+    public Integer currentUserId() {
+        String login = SecurityContextHolder.getContext().getAuthentication().getName();
+        Integer id = userIds.get(login);
+        if (id == null) {
+            id = userRepository.findByLogin(login).map(User::getId).orElse(null);
+            if (id != null) {
+                userIds.put(login, id);
+            }
+        }
+        return id;
     }
 
     public Page<StockMovementResponseDTO> findAll(Pageable pageable, Long productId, Integer deptId, MovementType type, LocalDate start, LocalDate end) {
-        LocalDateTime startDt = (start != null) ? start.atStartOfDay() : null;
-        LocalDateTime endDt = (end != null) ? end.atTime(23, 59, 59) : null;
-
-        return movementRepository.search(productId, deptId, type, startDt, endDt, pageable)
+        return movementRepository.search(productId, deptId, type, startOf(start), endOf(end), pageable)
                 .map(this::mapToDTO);
     }
 
+    public Page<Map<String, Object>> findFields(List<String> fields, Pageable pageable, Long productId, Integer deptId,
+                                                MovementType type, LocalDate start, LocalDate end) {
+        return movementRepository.searchFields(fields, productId, deptId, type, startOf(start), endOf(end), pageable);
+    }
+
     public Page<StockMovementResponseDTO> findByProduct(Long productId, Pageable pageable) {
         if (!productRepository.existsById(productId)) {
             throw new EntityNotFoundException("Product not found");
@@ -87,6 +294,42 @@ public class StockMovementService {
                 .map(this::mapToDTO);
     }
 
+    public CursorPageDTO<StockMovementResponseDTO> findByCursor(Long cursor, int size, Long productId, Integer deptId,
+                                                                MovementType type, LocalDate start, LocalDate end) {
+        List<StockMovementResponseDTO> rows = movementRepository.searchBefore(cursor, productId, deptId, type,
+                startOf(start), endOf(end), PageRequest.of(0, size + 1));
+
+        boolean hasNext = rows.size() > size;
+        List<StockMovementResponseDTO> content = hasNext ? rows.subList(0, size) : rows;
+        Long nextCursor = hasNext ? content.get(content.size() - 1).id() : null;
+        return new CursorPageDTO<>(content, nextCursor, hasNext);
+    }
+
+    @Transactional
+    public void stream(Long productId, Integer deptId, MovementType type, LocalDate start, LocalDate end,
+                       Consumer<StockMovementResponseDTO> consumer) {
+        try (Stream<StockMovementResponseDTO> rows = movementRepository.streamResponses(
+                productId, deptId, type, startOf(start), endOf(end))) {
+            rows.forEach(consumer);
+        }
+    }
+
+    public MovementHistoryStampDTO getHistoryStamp(Long productId) {
+        if (!productRepository.existsById(productId)) {
+            throw new EntityNotFoundException("Product not found");
+        }
+        return movementRepository.getHistoryStamp(productId);
+    }
+
+    // Sem data o filtro vira o intervalo todo, mas continua faixa em date_time (poda de partição no PostgreSQL)
+    private LocalDateTime startOf(LocalDate date) {
+        return (date != null) ? date.atStartOfDay() : NO_START;
+    }
+
+    private LocalDateTime endOf(LocalDate date) {
+        return (date != null) ? date.atTime(23, 59, 59) : NO_END;
+    }
+
     private StockMovementResponseDTO mapToDTO(StockMovement entity) {
         return new StockMovementResponseDTO(
                 entity.getId(),
@@ -100,4 +343,18 @@ public class StockMovementService {
                 entity.getUser() != null ? entity.getUser().getName() : "Unknown"
         );
     }
+
+    // acceptedAt: quando a escrita foi aceita, que vira a data da movimentação mesmo se aplicada depois
+    public record QueuedWrite(StockMovementRequestDTO request, String idempotencyKey, Integer userId,
+                              LocalDateTime acceptedAt) {}
+
+    public record WriteResult(StockMovementResponseDTO response, RuntimeException error) {
+        static WriteResult of(StockMovementResponseDTO response) {
+            return new WriteResult(response, null);
+        }
+
+        static WriteResult failed(RuntimeException error) {
+            return new WriteResult(null, error);
+        }
+    }
 }
\ No newline at end of file
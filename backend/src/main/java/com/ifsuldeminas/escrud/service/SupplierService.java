@@ -3,16 +3,20 @@ import com.ifsuldeminas.escrud.dto.SupplierRequestDTO;
 import com.ifsuldeminas.escrud.dto.SupplierResponseDTO;
 import com.ifsuldeminas.escrud.entities.Supplier;
 import com.ifsuldeminas.escrud.repositories.SupplierRepository;
+import com.ifsuldeminas.escrud.service.DataVersions.DataSet;
+import io.micrometer.observation.annotation.Observed;
 import jakarta.persistence.EntityNotFoundException;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import java.util.List;
+@Observed(name = "escrud.service")
 @Service
 @RequiredArgsConstructor
 public class SupplierService {
     private final SupplierRepository repository;
+    private final DataVersions dataVersions;
     public Page<SupplierResponseDTO> findAll(Pageable pageable, String name) {
         Page<Supplier> page;
         if (name != null && !name.isBlank()) {
@@ -42,7 +46,9 @@ public class SupplierService {
         entity.setName(dto.name());
         entity.setContactInfo(dto.contactInfo());
         entity.setActive(true);
-        return mapToDTO(repository.save(entity));
+        SupplierResponseDTO saved = mapToDTO(repository.save(entity));
+        dataVersions.bump(DataSet.SUPPLIERS);
+        return saved;
     }
     public SupplierResponseDTO update(Long id, SupplierRequestDTO dto) {
         Supplier entity = repository.findById(id)
@@ -53,13 +59,16 @@ public class SupplierService {
         }
         entity.setName(dto.name());
         entity.setContactInfo(dto.contactInfo());
-        return mapToDTO(repository.save(entity));
+        SupplierResponseDTO saved = mapToDTO(repository.save(entity));
+        dataVersions.bump(DataSet.SUPPLIERS);
+        return saved;
     }
     public void delete(Long id) {
         Supplier entity = repository.findById(id)
                 .orElseThrow(() -> new EntityNotFoundException("Supplier not found"));
         entity.setActive(false);
         repository.save(entity);
+        dataVersions.bump(DataSet.SUPPLIERS);
     }
     private SupplierResponseDTO mapToDTO(Supplier entity) {
         return new SupplierResponseDTO(
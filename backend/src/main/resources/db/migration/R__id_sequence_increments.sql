@@ -0,0 +1,12 @@
+-- Mantem o INCREMENT BY das sequencias igual ao bloco de ids do Hibernate (escrud.id.allocation_size).
+-- Repetivel: roda de novo sempre que o placeholder muda. Avancos ja feitos continuam valendo.
+ALTER SEQUENCE categories_seq INCREMENT BY ${id_allocation_size};
+ALTER SEQUENCE departments_seq INCREMENT BY ${id_allocation_size};
+ALTER SEQUENCE suppliers_seq INCREMENT BY ${id_allocation_size};
+ALTER SEQUENCE users_seq INCREMENT BY ${id_allocation_size};
+ALTER SEQUENCE products_seq INCREMENT BY ${id_allocation_size};
+ALTER SEQUENCE stock_movements_seq INCREMENT BY ${id_allocation_size};
+ALTER SEQUENCE product_analytics_seq INCREMENT BY ${id_allocation_size};
+ALTER SEQUENCE product_daily_consumption_seq INCREMENT BY ${id_allocation_size};
+ALTER SEQUENCE demand_forecasts_seq INCREMENT BY ${id_allocation_size};
+ALTER SEQUENCE stock_movement_archive_seq INCREMENT BY ${id_allocation_size};
@@ -0,0 +1,140 @@
+-- Esquema base, equivalente ao que o Hibernate gerava com ddl-auto=create. A partir daqui o Flyway e dono
+-- do esquema no perfil prod; mudancas de entidade entram como nova migracao (V2, V3, ...).
+-- SQL portavel entre PostgreSQL e H2 em MODE=PostgreSQL.
+
+-- Ids por sequencia com incremento 50: casa com o allocationSize das entidades, o Hibernate reserva um
+-- bloco por chamada e os INSERTs podem ir em lote
+CREATE SEQUENCE categories_seq START WITH 1 INCREMENT BY 50;
+CREATE SEQUENCE departments_seq START WITH 1 INCREMENT BY 50;
+CREATE SEQUENCE suppliers_seq START WITH 1 INCREMENT BY 50;
+CREATE SEQUENCE users_seq START WITH 1 INCREMENT BY 50;
+CREATE SEQUENCE products_seq START WITH 1 INCREMENT BY 50;
+CREATE SEQUENCE stock_movements_seq START WITH 1 INCREMENT BY 50;
+CREATE SEQUENCE product_analytics_seq START WITH 1 INCREMENT BY 50;
+CREATE SEQUENCE product_daily_consumption_seq START WITH 1 INCREMENT BY 50;
+CREATE SEQUENCE demand_forecasts_seq START WITH 1 INCREMENT BY 50;
+
+CREATE TABLE categories (
+    id     INTEGER      NOT NULL,
+    name   VARCHAR(255) NOT NULL,
+    active BOOLEAN      NOT NULL,
+    CONSTRAINT pk_categories PRIMARY KEY (id),
+    CONSTRAINT uk_categories_name UNIQUE (name)
+);
+
+CREATE TABLE departments (
+    id     INTEGER      NOT NULL,
+    name   VARCHAR(255) NOT NULL,
+    active BOOLEAN      NOT NULL,
+    CONSTRAINT pk_departments PRIMARY KEY (id),
+    CONSTRAINT uk_departments_name UNIQUE (name)
+);
+
+CREATE TABLE suppliers (
+    id           BIGINT       NOT NULL,
+    name         VARCHAR(255) NOT NULL,
+    contact_info VARCHAR(255),
+    active       BOOLEAN      NOT NULL,
+    CONSTRAINT pk_suppliers PRIMARY KEY (id)
+);
+
+CREATE TABLE users (
+    id            INTEGER      NOT NULL,
+    name          VARCHAR(255) NOT NULL,
+    login         VARCHAR(255) NOT NULL,
+    password_hash VARCHAR(255) NOT NULL,
+    role          VARCHAR(255) NOT NULL,
+    active        BOOLEAN      NOT NULL,
+    CONSTRAINT pk_users PRIMARY KEY (id),
+    CONSTRAINT uk_users_login UNIQUE (login)
+);
+
+CREATE TABLE products (
+    id                  BIGINT         NOT NULL,
+    sku                 VARCHAR(255)   NOT NULL,
+    name                VARCHAR(255)   NOT NULL,
+    description         VARCHAR(255),
+    quantity_in_stock   INTEGER        NOT NULL,
+    min_stock           INTEGER        NOT NULL,
+    cost_price          NUMERIC(19, 2) NOT NULL,
+    location            VARCHAR(255),
+    active              BOOLEAN        NOT NULL,
+    category_id         INTEGER        NOT NULL,
+    default_supplier_id BIGINT,
+    CONSTRAINT pk_products PRIMARY KEY (id),
+    CONSTRAINT uk_products_sku UNIQUE (sku),
+    CONSTRAINT fk_products_category FOREIGN KEY (category_id) REFERENCES categories (id),
+    CONSTRAINT fk_products_default_supplier FOREIGN KEY (default_supplier_id) REFERENCES suppliers (id)
+);
+
+CREATE TABLE stock_movements (
+    id            BIGINT       NOT NULL,
+    date_time     TIMESTAMP(6) NOT NULL,
+    type          VARCHAR(255) NOT NULL,
+    quantity      INTEGER      NOT NULL,
+    reason        VARCHAR(255),
+    product_id    BIGINT       NOT NULL,
+    department_id INTEGER,
+    supplier_id   BIGINT,
+    user_id       INTEGER,
+    CONSTRAINT pk_stock_movements PRIMARY KEY (id),
+    CONSTRAINT ck_stock_movements_type
+        CHECK (type IN ('ENTRADA_COMPRA', 'SAIDA_REQUISICAO', 'AJUSTE', 'DEVOLUCAO')),
+    CONSTRAINT fk_stock_movements_product FOREIGN KEY (product_id) REFERENCES products (id),
+    CONSTRAINT fk_stock_movements_department FOREIGN KEY (department_id) REFERENCES departments (id),
+    CONSTRAINT fk_stock_movements_supplier FOREIGN KEY (supplier_id) REFERENCES suppliers (id),
+    CONSTRAINT fk_stock_movements_user FOREIGN KEY (user_id) REFERENCES users (id)
+);
+
+CREATE TABLE idempotency_keys (
+    idempotency_key VARCHAR(128) NOT NULL,
+    movement_id     BIGINT       NOT NULL,
+    created_at      TIMESTAMP(6) NOT NULL,
+    expires_at      TIMESTAMP(6) NOT NULL,
+    CONSTRAINT pk_idempotency_keys PRIMARY KEY (idempotency_key)
+);
+
+CREATE TABLE product_analytics (
+    id                   BIGINT           NOT NULL,
+    product_id           BIGINT           NOT NULL,
+    abc_class            VARCHAR(255)     NOT NULL,
+    consumption_value    NUMERIC(19, 2)   NOT NULL,
+    consumption_quantity BIGINT           NOT NULL,
+    turnover             DOUBLE PRECISION NOT NULL,
+    days_of_supply       DOUBLE PRECISION,
+    calculated_on        DATE             NOT NULL,
+    CONSTRAINT pk_product_analytics PRIMARY KEY (id),
+    CONSTRAINT uk_product_analytics_product UNIQUE (product_id),
+    CONSTRAINT ck_product_analytics_abc_class CHECK (abc_class IN ('A', 'B', 'C')),
+    CONSTRAINT fk_product_analytics_product FOREIGN KEY (product_id) REFERENCES products (id)
+);
+
+CREATE TABLE product_daily_consumption (
+    id              BIGINT         NOT NULL,
+    product_id      BIGINT         NOT NULL,
+    consumption_day DATE           NOT NULL,
+    quantity        BIGINT         NOT NULL,
+    consumed_value  NUMERIC(19, 2) NOT NULL,
+    CONSTRAINT pk_product_daily_consumption PRIMARY KEY (id)
+);
+
+CREATE TABLE demand_forecasts (
+    id                  BIGINT           NOT NULL,
+    product_id          BIGINT           NOT NULL,
+    department_id       INTEGER,
+    model               VARCHAR(255)     NOT NULL,
+    daily_forecast      DOUBLE PRECISION NOT NULL,
+    horizon_days        INTEGER          NOT NULL,
+    horizon_total       DOUBLE PRECISION NOT NULL,
+    mean_absolute_error DOUBLE PRECISION NOT NULL,
+    generated_at        TIMESTAMP(6)     NOT NULL,
+    CONSTRAINT pk_demand_forecasts PRIMARY KEY (id),
+    CONSTRAINT ck_demand_forecasts_model CHECK (model IN ('EXPONENTIAL_SMOOTHING', 'SEASONAL_NAIVE')),
+    CONSTRAINT fk_demand_forecasts_product FOREIGN KEY (product_id) REFERENCES products (id),
+    CONSTRAINT fk_demand_forecasts_department FOREIGN KEY (department_id) REFERENCES departments (id)
+);
+
+-- Indices que ja existiam via @Index nas entidades
+CREATE INDEX idx_idempotency_expires_at ON idempotency_keys (expires_at);
+CREATE INDEX idx_product_analytics_class ON product_analytics (abc_class);
+CREATE INDEX idx_daily_consumption_day ON product_daily_consumption (consumption_day);
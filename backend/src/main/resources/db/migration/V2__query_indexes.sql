@@ -0,0 +1,14 @@
+-- Indices para os caminhos de consulta do StockMovementRepository e dos relatorios. O PostgreSQL nao
+-- indexa FK sozinho; sem estes, filtro por produto/setor e periodo viram varredura da tabela inteira.
+
+-- Historico do produto, filtro por produto + periodo e carimbo de historico (MAX por produto)
+CREATE INDEX idx_stock_movements_product_date ON stock_movements (product_id, date_time);
+-- Top 10 recentes, tendencia, "movidos desde" da reposicao e filtros so por periodo
+CREATE INDEX idx_stock_movements_date ON stock_movements (date_time);
+-- Consumo por departamento no periodo
+CREATE INDEX idx_stock_movements_department_date ON stock_movements (department_id, date_time);
+
+CREATE INDEX idx_products_category ON products (category_id);
+CREATE INDEX idx_products_default_supplier ON products (default_supplier_id);
+CREATE INDEX idx_daily_consumption_product_day ON product_daily_consumption (product_id, consumption_day);
+CREATE INDEX idx_demand_forecasts_product ON demand_forecasts (product_id);
@@ -0,0 +1,15 @@
+-- Arquivo das movimentacoes fora da retencao (MovementArchiveService): blocos GZIP, cada um de um unico mes.
+-- O intervalo de data/hora do bloco fica em colunas para a consulta ao arquivo descartar blocos sem abrir.
+CREATE SEQUENCE stock_movement_archive_seq START WITH 1 INCREMENT BY 50;
+
+CREATE TABLE stock_movement_archive (
+    id              BIGINT       NOT NULL,
+    month_start     DATE         NOT NULL,
+    first_date_time TIMESTAMP(6) NOT NULL,
+    last_date_time  TIMESTAMP(6) NOT NULL,
+    row_count       INTEGER      NOT NULL,
+    payload         BYTEA        NOT NULL,
+    CONSTRAINT pk_stock_movement_archive PRIMARY KEY (id)
+);
+
+CREATE INDEX idx_stock_movement_archive_range ON stock_movement_archive (first_date_time, last_date_time);
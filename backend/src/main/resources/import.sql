@@ -1 +1 @@
-INSERT INTO suppliers (name, contact_info, active) VALUES ('Alpha Distribuidora', 'Carlos Silva', true);
\ No newline at end of file
+INSERT INTO suppliers (id, name, contact_info, active) VALUES (NEXT VALUE FOR suppliers_seq, 'Alpha Distribuidora', 'Carlos Silva', true);
\ No newline at end of file
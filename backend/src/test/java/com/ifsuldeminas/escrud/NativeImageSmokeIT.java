@@ -0,0 +1,153 @@
+package com.ifsuldeminas.escrud;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+// Sobe o executável nativo (mvn -Pnative verify) com o perfil prod num H2 em modo PostgreSQL e passa pelo
+// caminho principal: cadastro e login (JWT), CRUD de produto e uma movimentação de estoque.
+// Fora do mvn test; o binário vem de -Dnative.binary (padrão target/escrud).
+@Slf4j
+class NativeImageSmokeIT {
+
+    private static final Path BINARY = Path.of(System.getProperty("native.binary", "target/escrud"));
+    private static final Duration STARTUP_TIMEOUT = Duration.ofSeconds(Long.getLong("native.startup-timeout", 30));
+    private static final ObjectMapper JSON = new ObjectMapper();
+    private static final HttpClient HTTP = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(1)).build();
+
+    private static Process process;
+    private static String baseUrl;
+    private static String managementUrl;
+    private static long startupMillis;
+
+    @BeforeAll
+    static void start() throws Exception {
+        assumeTrue(Files.isExecutable(BINARY), "executável nativo ausente: mvn -Pnative package");
+        int port = freePort();
+        int managementPort = freePort();
+        baseUrl = "http://localhost:" + port;
+        managementUrl = "http://localhost:" + managementPort;
+        long start = System.nanoTime();
+        process = new ProcessBuilder(BINARY.toString(),
+                "--server.port=" + port,
+                "--management.server.port=" + managementPort,
+                "--spring.datasource.url=jdbc:h2:mem:native;MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE;DEFAULT_NULL_ORDERING=HIGH",
+                "--spring.datasource.username=sa",
+                "--spring.datasource.password=")
+                .redirectErrorStream(true)
+                .redirectOutput(Path.of("target", "native-smoke.log").toFile())
+                .start();
+        while (!healthy()) {
+            assertTrue(process.isAlive(), "o executável encerrou na subida, ver target/native-smoke.log");
+            assertTrue(System.nanoTime() - start < STARTUP_TIMEOUT.toNanos(), "sem resposta em " + STARTUP_TIMEOUT);
+            Thread.sleep(10);
+        }
+        startupMillis = (System.nanoTime() - start) / 1_000_000;
+    }
+
+    @AfterAll
+    static void stop() throws InterruptedException {
+        if (process != null) {
+            process.destroy();
+            process.waitFor();
+        }
+    }
+
+    @Test
+    void loginProductCrudAndStockMovement() throws Exception {
+        String login = "smoke" + System.nanoTime();
+        assertEquals(200, send("POST", "/auth/register", null,
+                Map.of("name", "Smoke", "login", login, "password", "senha123", "role", "USER")).statusCode());
+        HttpResponse<String> auth = send("POST", "/auth/login", null, Map.of("login", login, "password", "senha123"));
+        assertEquals(200, auth.statusCode());
+        String token = JSON.readTree(auth.body()).get("token").asText();
+
+        assertEquals(403, send("GET", "/api/products/all", null, null).statusCode());
+
+        JsonNode category = created(send("POST", "/api/categories", token, Map.of("name", "Nativo")));
+        JsonNode product = created(send("POST", "/api/products", token, Map.of(
+                "sku", "NAT-1", "name", "Papel A4", "minStock", 1, "costPrice", 12.5,
+                "categoryId", category.get("id").asInt())));
+        long productId = product.get("id").asLong();
+
+        HttpResponse<String> updated = send("PUT", "/api/products/" + productId, token, Map.of(
+                "sku", "NAT-1", "name", "Papel A4 75g", "minStock", 2, "costPrice", 13,
+                "categoryId", category.get("id").asInt()));
+        assertEquals(200, updated.statusCode(), updated.body());
+        assertEquals("Papel A4 75g", JSON.readTree(updated.body()).get("name").asText());
+
+        created(send("POST", "/api/stock-movements", token, Map.of(
+                "productId", productId, "quantity", 5, "type", "AJUSTE", "reason", "Inventário")));
+        HttpResponse<String> stocked = send("GET", "/api/products/" + productId, token, null);
+        assertEquals(5, JSON.readTree(stocked.body()).get("quantityInStock").asInt());
+
+        created(send("POST", "/api/stock-movements", token, Map.of(
+                "productId", productId, "quantity", -5, "type", "AJUSTE", "reason", "Baixa")));
+        assertEquals(204, send("DELETE", "/api/products/" + productId, token, null).statusCode());
+        HttpResponse<String> deleted = send("GET", "/api/products/" + productId, token, null);
+        assertFalse(JSON.readTree(deleted.body()).get("active").asBoolean());
+
+        log.info("Executável respondeu em {} ms, RSS {}", startupMillis, residentMemory());
+    }
+
+    private static JsonNode created(HttpResponse<String> response) throws IOException {
+        assertEquals(201, response.statusCode(), response.body());
+        return JSON.readTree(response.body());
+    }
+
+    private static HttpResponse<String> send(String method, String path, String token, Object body) throws Exception {
+        HttpRequest.Builder request = HttpRequest.newBuilder(URI.create(baseUrl + path))
+                .timeout(Duration.ofSeconds(10))
+                .header("Content-Type", "application/json")
+                .method(method, body == null ? HttpRequest.BodyPublishers.noBody()
+                        : HttpRequest.BodyPublishers.ofString(JSON.writeValueAsString(body)));
+        if (token != null) {
+            request.header("Authorization", "Bearer " + token);
+        }
+        return HTTP.send(request.build(), HttpResponse.BodyHandlers.ofString());
+    }
+
+    private static boolean healthy() {
+        try {
+            HttpRequest health = HttpRequest.newBuilder(URI.create(managementUrl + "/actuator/health")).build();
+            return HTTP.send(health, HttpResponse.BodyHandlers.discarding()).statusCode() == 200;
+        } catch (Exception e) {
+            return false;
+        }
+    }
+
+    // Só em Linux; informativo
+    private static String residentMemory() {
+        try {
+            List<String> status = Files.readAllLines(Path.of("/proc", String.valueOf(process.pid()), "status"));
+            return status.stream().filter(line -> line.startsWith("VmRSS")).findFirst()
+                    .map(line -> line.substring(6).trim()).orElse("?");
+        } catch (IOException e) {
+            return "?";
+        }
+    }
+
+    private static int freePort() throws IOException {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        }
+    }
+}
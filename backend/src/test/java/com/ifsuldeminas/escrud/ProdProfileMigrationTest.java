@@ -0,0 +1,79 @@
+package com.ifsuldeminas.escrud;
+
+import com.ifsuldeminas.escrud.entities.Category;
+import com.ifsuldeminas.escrud.entities.Product;
+import com.ifsuldeminas.escrud.repositories.CategoryRepository;
+import com.ifsuldeminas.escrud.repositories.ProductRepository;
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Perfil prod contra H2 em modo PostgreSQL: o Flyway cria o esquema e o Hibernate (ddl-auto=validate)
+// confere as entidades contra ele. Para rodar contra um Postgres local, troque a URL por DB_URL.
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:prodprofile;MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE;DEFAULT_NULL_ORDERING=HIGH",
+        "spring.datasource.username=sa"
+})
+@ActiveProfiles("prod")
+class ProdProfileMigrationTest {
+
+    @Autowired
+    private Flyway flyway;
+
+    @Autowired
+    private CategoryRepository categoryRepository;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Test
+    void migrations_ShouldOwnTheSchema_AndEntitiesShouldMatchIt() throws SQLException {
+        assertEquals("3", flyway.info().current().getVersion().getVersion());
+        assertEquals(0, flyway.info().pending().length);
+        assertEquals(50, increment(flyway, "stock_movements_seq"));
+        assertEquals(0, flyway.info().pending().length);
+
+        Category category = categoryRepository.save(Category.builder().name("Papelaria").active(true).build());
+        Product first = productRepository.save(Product.builder().sku("PAP-1").name("Papel A4")
+                .quantityInStock(10).minStock(2).costPrice(new BigDecimal("25.90")).active(true)
+                .category(category).build());
+        Product second = productRepository.save(Product.builder().sku("PAP-2").name("Envelope")
+                .quantityInStock(5).minStock(1).costPrice(BigDecimal.ONE).active(true)
+                .category(category).build());
+
+        // Mesmo bloco da sequência: o segundo id sai da memória, sem ir ao banco
+        assertEquals(first.getId() + 1, second.getId());
+        assertEquals(new BigDecimal("25.90"), productRepository.findById(first.getId()).orElseThrow().getCostPrice());
+    }
+
+    // Trocar escrud.id.allocation_size reaplica a migração repetível com o novo INCREMENT BY
+    @Test
+    void allocationSizeChange_ShouldRealignSequenceIncrements() throws SQLException {
+        String url = "jdbc:h2:mem:allocation;MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1";
+        Flyway.configure().dataSource(url, "sa", "").placeholders(Map.of("id_allocation_size", "50")).load().migrate();
+        Flyway resized = Flyway.configure().dataSource(url, "sa", "")
+                .placeholders(Map.of("id_allocation_size", "200")).load();
+
+        assertEquals(1, resized.migrate().migrationsExecuted);
+        assertEquals(200, increment(resized, "stock_movements_seq"));
+    }
+
+    private static long increment(Flyway flyway, String sequence) throws SQLException {
+        try (Connection connection = flyway.getConfiguration().getDataSource().getConnection();
+             ResultSet rs = connection.createStatement().executeQuery(
+                     "SELECT increment FROM information_schema.sequences WHERE sequence_name = '" + sequence + "'")) {
+            assertTrue(rs.next());
+            return rs.getLong(1);
+        }
+    }
+}
@@ -0,0 +1,39 @@
+package com.ifsuldeminas.escrud;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.scheduling.config.ScheduledTaskHolder;
+import org.springframework.test.context.ActiveProfiles;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Perfil startup sobre o prod (H2 em modo PostgreSQL): sobe sem DDL do Hibernate e só cria no boot os beans
+// que trabalham sozinhos. O tempo até a primeira requisição é medido no StartupTimeBenchmark.
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:startupprofile;MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE;DEFAULT_NULL_ORDERING=HIGH",
+        "spring.datasource.username=sa"
+})
+@ActiveProfiles({"prod", "startup"})
+class StartupProfileTest {
+
+    @Autowired
+    private ConfigurableApplicationContext context;
+
+    @Autowired
+    private ScheduledTaskHolder scheduledTasks;
+
+    @Test
+    void startupProfile_ShouldDeferOnlyBeansThatDoNotStartOnTheirOwn() {
+        var beanFactory = context.getBeanFactory();
+        assertTrue(beanFactory.getBeanDefinition("reportService").isLazyInit());
+        assertFalse(beanFactory.containsSingleton("reportService"));
+
+        // Agendados e modos em fila sobem no boot mesmo com lazy-initialization
+        assertTrue(beanFactory.containsSingleton("demandForecastService"));
+        assertTrue(beanFactory.containsSingleton("movementGroupCommitter"));
+        assertTrue(scheduledTasks.getScheduledTasks().stream()
+                .anyMatch(task -> task.toString().contains("DemandForecastService")));
+    }
+}
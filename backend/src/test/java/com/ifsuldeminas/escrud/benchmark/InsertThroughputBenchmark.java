@@ -0,0 +1,164 @@
+package com.ifsuldeminas.escrud.benchmark;
+
+import com.ifsuldeminas.escrud.dto.StockMovementRequestDTO;
+import com.ifsuldeminas.escrud.entities.Category;
+import com.ifsuldeminas.escrud.entities.MovementType;
+import com.ifsuldeminas.escrud.entities.Product;
+import com.ifsuldeminas.escrud.repositories.CategoryRepository;
+import com.ifsuldeminas.escrud.repositories.ProductRepository;
+import com.ifsuldeminas.escrud.service.StockMovementService;
+import jakarta.persistence.EntityManagerFactory;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.h2.tools.Server;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.math.BigDecimal;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+// Vazão de INSERT nos dois caminhos de escrita em massa: lote de movimentações (POST /api/stock-movements/batch)
+// e carga de produtos (saveAll). "Linha a linha" é um nextval e um INSERT por registro, o custo que o IDENTITY
+// tinha; "pooled" é o padrão (ids em bloco de 50 e batch JDBC). Cada cenário tem seu próprio banco H2, acessado
+// por TCP para que cada statement pague uma ida e volta de rede (bem menor que a de um Postgres de verdade).
+// Fora do mvn test; rode com: mvn test -Pbenchmark
+@Slf4j
+class InsertThroughputBenchmark {
+
+    private static final int ROWS = 2_000;
+    private static final int PRODUCTS = 50;
+    private static final int ROUNDS = 5;
+    private static final String PORT = "9137";
+
+    private static final Map<String, String> RESULTS = new TreeMap<>();
+    private static final AtomicInteger SEQUENCE = new AtomicInteger();
+
+    // Daemon: os contextos em cache ainda fecham as conexões no shutdown da JVM
+    @BeforeAll
+    static void startServer() throws SQLException {
+        Server.createTcpServer("-tcpPort", PORT, "-tcpDaemon", "-ifNotExists").start();
+    }
+
+    @AfterAll
+    static void report() {
+        RESULTS.forEach((scenario, result) -> log.info("{} -> {}", scenario, result));
+    }
+
+    @Nested
+    @SpringBootTest(properties = {
+            "spring.datasource.url=jdbc:h2:tcp://localhost:" + PORT + "/mem:bench-row-by-row",
+            "spring.jpa.hibernate.ddl-auto=create-drop",
+            "spring.jpa.properties.escrud.id.allocation_size=1",
+            "spring.jpa.properties.hibernate.jdbc.batch_size=0",
+            "spring.jpa.properties.hibernate.generate_statistics=true"
+    })
+    class RowByRow extends Workload {
+        RowByRow() {
+            super("linha a linha");
+        }
+    }
+
+    @Nested
+    @SpringBootTest(properties = {
+            "spring.datasource.url=jdbc:h2:tcp://localhost:" + PORT + "/mem:bench-pooled",
+            "spring.jpa.hibernate.ddl-auto=create-drop",
+            "spring.jpa.properties.hibernate.generate_statistics=true"
+    })
+    class Pooled extends Workload {
+        Pooled() {
+            super("pooled");
+        }
+    }
+
+    abstract static class Workload {
+
+        private final String scenario;
+
+        @Autowired
+        private StockMovementService movementService;
+
+        @Autowired
+        private ProductRepository productRepository;
+
+        @Autowired
+        private CategoryRepository categoryRepository;
+
+        @Autowired
+        private EntityManagerFactory entityManagerFactory;
+
+        private Category category;
+
+        Workload(String scenario) {
+            this.scenario = scenario;
+        }
+
+        @BeforeEach
+        void setUp() {
+            SecurityContextHolder.getContext().setAuthentication(
+                    new UsernamePasswordAuthenticationToken("benchmark", null, List.of()));
+            category = categoryRepository.save(Category.builder()
+                    .name("Benchmark " + SEQUENCE.incrementAndGet()).active(true).build());
+        }
+
+        @Test
+        void movementBatch() {
+            List<Product> products = productRepository.saveAll(newProducts(PRODUCTS));
+            List<StockMovementRequestDTO> dtos = new ArrayList<>(ROWS);
+            for (int i = 0; i < ROWS; i++) {
+                dtos.add(new StockMovementRequestDTO(products.get(i % PRODUCTS).getId(), 1, MovementType.AJUSTE,
+                        null, null, "Inventario"));
+            }
+            measure("movimentacoes (createBatch)", () -> movementService.createBatch(dtos, null));
+        }
+
+        @Test
+        void productImport() {
+            measure("produtos (saveAll)", () -> productRepository.saveAll(newProducts(ROWS)));
+        }
+
+        // Uma rodada de aquecimento; vale a melhor das seguintes
+        private void measure(String path, Supplier<?> round) {
+            Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+            round.get();
+            long best = Long.MAX_VALUE;
+            long statements = 0;
+            for (int i = 0; i < ROUNDS; i++) {
+                statistics.clear();
+                long start = System.nanoTime();
+                round.get();
+                long elapsed = System.nanoTime() - start;
+                if (elapsed < best) {
+                    best = elapsed;
+                    statements = statistics.getPrepareStatementCount();
+                }
+            }
+            RESULTS.put(path + " / " + scenario, String.format("%,d linhas em %d ms = %,.0f linhas/s, %d statements",
+                    ROWS, best / 1_000_000, ROWS * 1e9 / best, statements));
+        }
+
+        private List<Product> newProducts(int count) {
+            List<Product> products = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                int n = SEQUENCE.incrementAndGet();
+                products.add(Product.builder().sku("BENCH-" + n).name("Produto " + n)
+                        .quantityInStock(ROWS).minStock(0).costPrice(BigDecimal.ONE).active(true)
+                        .category(category).build());
+            }
+            return products;
+        }
+    }
+}
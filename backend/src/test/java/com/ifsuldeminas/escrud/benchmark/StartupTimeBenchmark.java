@@ -0,0 +1,117 @@
+package com.ifsuldeminas.escrud.benchmark;
+
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+// Tempo do processo até a primeira resposta 200 em /actuator/health, com o jar extraído em target/cds.
+// "padrão" é o prod como está; "startup" soma o perfil startup, o contexto AOT e o arquivo CDS.
+// Precisa do build do profile startup antes: mvn -Pstartup package -DskipTests && mvn test -Pbenchmark
+// Por padrão só relata os tempos: o alvo de 1 s não foi atingido (ver o perfil startup no pom). Para falhar
+// acima de um limite, passar -Dstartup.target-ms (ex.: a linha de base da máquina com margem)
+@Slf4j
+class StartupTimeBenchmark {
+
+    private static final Path CDS_DIR = Path.of("target", "cds");
+    private static final String JAR = "escrud-0.0.1-SNAPSHOT.jar";
+    private static final int ROUNDS = 3;
+    private static final long GOAL_MS = 1000;
+    private static final long TARGET_MS = Long.getLong("startup.target-ms", 0);
+
+    private static final Map<String, Long> RESULTS = new TreeMap<>();
+    private static final HttpClient HTTP = HttpClient.newBuilder().connectTimeout(Duration.ofMillis(200)).build();
+
+    @AfterAll
+    static void report() {
+        RESULTS.forEach((scenario, ms) -> log.info("{} -> {} ms até a primeira requisição{}", scenario, ms,
+                ms > GOAL_MS ? " (acima do objetivo de " + GOAL_MS + " ms)" : ""));
+    }
+
+    @Test
+    void defaultProd() throws Exception {
+        measure("padrão", List.of(), "prod");
+    }
+
+    @Test
+    void startupProfile() throws Exception {
+        assumeTrue(Files.exists(CDS_DIR.resolve("application.jsa")), "arquivo CDS ausente: mvn -Pstartup package");
+        long best = measure("startup (AOT + CDS)",
+                List.of("-XX:SharedArchiveFile=application.jsa", "-Xlog:cds=off", "-Dspring.aot.enabled=true"),
+                "prod,startup");
+        if (TARGET_MS > 0) {
+            assertTrue(best < TARGET_MS, "primeira requisição em " + best + " ms, alvo " + TARGET_MS + " ms");
+        }
+    }
+
+    // Vale a melhor de algumas subidas; cada uma num banco H2 em memória novo
+    private long measure(String scenario, List<String> jvmArgs, String profiles) throws Exception {
+        assumeTrue(Files.exists(CDS_DIR.resolve(JAR)), "jar extraído ausente: mvn -Pstartup package");
+        long best = Long.MAX_VALUE;
+        for (int i = 0; i < ROUNDS; i++) {
+            best = Math.min(best, firstRequestMillis(jvmArgs, profiles));
+        }
+        RESULTS.put(scenario, best);
+        return best;
+    }
+
+    private long firstRequestMillis(List<String> jvmArgs, String profiles) throws Exception {
+        int port = freePort();
+        int managementPort = freePort();
+        List<String> command = new ArrayList<>();
+        command.add(Path.of(System.getProperty("java.home"), "bin", "java").toString());
+        command.addAll(jvmArgs);
+        command.addAll(List.of("-jar", JAR,
+                "--spring.profiles.active=" + profiles,
+                "--server.port=" + port,
+                "--management.server.port=" + managementPort,
+                "--spring.datasource.url=jdbc:h2:mem:startup;MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE;DEFAULT_NULL_ORDERING=HIGH",
+                "--spring.datasource.username=sa",
+                "--spring.datasource.password="));
+        HttpRequest health = HttpRequest.newBuilder(URI.create("http://localhost:" + managementPort + "/actuator/health"))
+                .timeout(Duration.ofSeconds(1)).build();
+
+        long start = System.nanoTime();
+        Process process = new ProcessBuilder(command).directory(CDS_DIR.toFile())
+                .redirectErrorStream(true).redirectOutput(ProcessBuilder.Redirect.DISCARD).start();
+        try {
+            while (System.nanoTime() - start < Duration.ofSeconds(60).toNanos()) {
+                assertTrue(process.isAlive(), "a aplicação encerrou antes de responder");
+                try {
+                    if (HTTP.send(health, HttpResponse.BodyHandlers.discarding()).statusCode() == 200) {
+                        return (System.nanoTime() - start) / 1_000_000;
+                    }
+                } catch (IOException e) {
+                    // Porta ainda fechada
+                }
+                Thread.sleep(10);
+            }
+            throw new AssertionError("sem resposta em 60 s");
+        } finally {
+            process.destroy();
+            process.waitFor();
+        }
+    }
+
+    private static int freePort() throws IOException {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        }
+    }
+}
@@ -0,0 +1,63 @@
+package com.ifsuldeminas.escrud.config;
+
+import com.ifsuldeminas.escrud.service.JwtService;
+import io.micrometer.observation.ObservationRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsService;
+import org.springframework.security.web.context.RequestAttributeSecurityContextRepository;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class JwtAuthenticationFilterTest {
+
+    @Mock
+    private JwtService jwtService;
+
+    @Mock
+    private UserDetailsService userDetailsService;
+
+    @Mock
+    private ObjectProvider<ObservationRegistry> observationRegistry;
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void validToken_ShouldKeepAuthenticationForTheAsyncDispatch() throws Exception {
+        UserDetails user = User.withUsername("ana").password("x").authorities("ADMIN").build();
+        when(observationRegistry.getIfAvailable(any())).thenReturn(ObservationRegistry.NOOP);
+        when(jwtService.extractUsername("token")).thenReturn("ana");
+        when(userDetailsService.loadUserByUsername("ana")).thenReturn(user);
+        when(jwtService.isTokenValid("token", user)).thenReturn(true);
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/api/stock-movements");
+        request.addHeader("Authorization", "Bearer token");
+
+        new JwtAuthenticationFilter(jwtService, userDetailsService, observationRegistry)
+                .doFilter(request, new MockHttpServletResponse(), new MockFilterChain());
+
+        assertEquals("ana", SecurityContextHolder.getContext().getAuthentication().getName());
+        // O dispatch ASYNC recarrega o contexto a partir da requisição
+        SecurityContextHolder.clearContext();
+        var saved = new RequestAttributeSecurityContextRepository().loadDeferredContext(request).get();
+        assertEquals(List.of("ADMIN"), saved.getAuthentication().getAuthorities().stream()
+                .map(Object::toString).toList());
+    }
+}
@@ -0,0 +1,52 @@
+package com.ifsuldeminas.escrud.config;
+
+import com.ifsuldeminas.escrud.dto.ArchivedMovementDTO;
+import com.ifsuldeminas.escrud.dto.LoginRequestDTO;
+import com.ifsuldeminas.escrud.entities.PooledSequenceGenerator;
+import net.ttddyy.dsproxy.proxy.ProxyJdbcObject;
+import org.junit.jupiter.api.Test;
+import org.springframework.aot.hint.MemberCategory;
+import org.springframework.aot.hint.RuntimeHints;
+import org.springframework.aot.hint.TypeReference;
+import org.springframework.aot.hint.predicate.RuntimeHintsPredicates;
+
+import java.sql.Connection;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class NativeConfigTest {
+
+    private final RuntimeHints hints = new RuntimeHints();
+
+    NativeConfigTest() {
+        new NativeConfig.Hints().registerHints(hints, getClass().getClassLoader());
+    }
+
+    @Test
+    void hints_ShouldCoverJjwtImplementationLookups() {
+        assertTrue(RuntimeHintsPredicates.reflection()
+                .onType(TypeReference.of("io.jsonwebtoken.impl.DefaultJwtBuilder"))
+                .withMemberCategory(MemberCategory.INVOKE_DECLARED_CONSTRUCTORS).test(hints));
+        assertTrue(RuntimeHintsPredicates.reflection()
+                .onType(TypeReference.of("io.jsonwebtoken.impl.security.StandardSecureDigestAlgorithms"))
+                .test(hints));
+    }
+
+    @Test
+    void hints_ShouldCoverDtoConstructorsAndGenerators() {
+        assertTrue(RuntimeHintsPredicates.reflection()
+                .onConstructor(ArchivedMovementDTO.class.getConstructors()[0]).test(hints));
+        assertTrue(RuntimeHintsPredicates.reflection().onMethod(LoginRequestDTO.class, "login").test(hints));
+        assertTrue(RuntimeHintsPredicates.reflection()
+                .onType(PooledSequenceGenerator.class)
+                .withMemberCategory(MemberCategory.INVOKE_PUBLIC_CONSTRUCTORS).test(hints));
+        assertTrue(NativeConfig.Hints.dtoTypes(getClass().getClassLoader()).size() > 30);
+    }
+
+    @Test
+    void hints_ShouldCoverJdbcProxiesAndVendorMigrations() {
+        assertTrue(RuntimeHintsPredicates.proxies().forInterfaces(ProxyJdbcObject.class, Connection.class).test(hints));
+        assertTrue(RuntimeHintsPredicates.resource()
+                .forResource("db/vendor/postgresql/V4__partition_stock_movements.sql").test(hints));
+    }
+}
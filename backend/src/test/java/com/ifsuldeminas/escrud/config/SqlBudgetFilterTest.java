@@ -0,0 +1,52 @@
+package com.ifsuldeminas.escrud.config;
+
+import jakarta.servlet.FilterChain;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerMapping;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SqlBudgetFilterTest {
+
+    private final SqlBudgetFilter filter = new SqlBudgetFilter();
+
+    static class Endpoints {
+        @SqlBudget(2)
+        public void list() {
+        }
+    }
+
+    private MockHttpServletRequest request() throws NoSuchMethodException {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/products");
+        request.setAttribute(HandlerMapping.BEST_MATCHING_HANDLER_ATTRIBUTE,
+                new HandlerMethod(new Endpoints(), Endpoints.class.getMethod("list")));
+        return request;
+    }
+
+    private FilterChain statements(int count) {
+        return (req, res) -> {
+            for (int i = 0; i < count; i++) {
+                SqlStats.record(1);
+            }
+        };
+    }
+
+    @Test
+    void doFilter_ShouldFailOverBudget_WhenEnforced() throws Exception {
+        ReflectionTestUtils.setField(filter, "enforce", true);
+
+        filter.doFilter(request(), new MockHttpServletResponse(), statements(2));
+        IllegalStateException error = assertThrows(IllegalStateException.class,
+                () -> filter.doFilter(request(), new MockHttpServletResponse(), statements(3)));
+        assertEquals("GET /api/products ran 3 SQL statements, budget is 2", error.getMessage());
+    }
+
+    @Test
+    void doFilter_ShouldOnlyWarn_WhenNotEnforced() throws Exception {
+        assertDoesNotThrow(() -> filter.doFilter(request(), new MockHttpServletResponse(), statements(5)));
+    }
+}
@@ -0,0 +1,64 @@
+package com.ifsuldeminas.escrud.config;
+
+import io.micrometer.observation.Observation;
+import io.micrometer.observation.ObservationHandler;
+import io.micrometer.observation.ObservationRegistry;
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class SqlTracingTest {
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void proxiedDataSource_ShouldObserveEachStatement_AndCountItInTheRequest() throws Exception {
+        List<Observation.Context> stopped = new ArrayList<>();
+        ObservationRegistry registry = ObservationRegistry.create();
+        registry.observationConfig().observationHandler(new ObservationHandler<>() {
+            @Override
+            public void onStop(Observation.Context context) {
+                stopped.add(context);
+            }
+
+            @Override
+            public boolean supportsContext(Observation.Context context) {
+                return true;
+            }
+        });
+        ObjectProvider<ObservationRegistry> provider = mock(ObjectProvider.class);
+        when(provider.getIfAvailable(any())).thenReturn(registry);
+
+        SqlTracing tracing = new SqlTracing(provider);
+        ReflectionTestUtils.setField(tracing, "enabled", true);
+        ReflectionTestUtils.setField(tracing, "slowQueryMs", 200L);
+
+        JdbcDataSource h2 = new JdbcDataSource();
+        h2.setURL("jdbc:h2:mem:sqltracing");
+        DataSource dataSource = (DataSource) tracing.postProcessAfterInitialization(h2, "dataSource");
+
+        SqlStats stats = SqlStats.open();
+        try (Connection connection = dataSource.getConnection(); Statement statement = connection.createStatement()) {
+            statement.execute("SELECT 1");
+            statement.execute("SELECT 2");
+        } finally {
+            SqlStats.close();
+        }
+
+        assertEquals(2, stats.statements());
+        assertEquals(2, stopped.size());
+        assertEquals("escrud.jdbc", stopped.get(0).getName());
+        assertEquals("SELECT 1", stopped.get(0).getHighCardinalityKeyValue("db.statement").getValue());
+    }
+}
@@ -6,6 +6,7 @@ import com.ifsuldeminas.escrud.dto.RegisterRequestDTO;
 import com.ifsuldeminas.escrud.entities.User;
 import com.ifsuldeminas.escrud.repositories.UserRepository;
 import com.ifsuldeminas.escrud.service.JwtService;
+import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
@@ -14,12 +15,18 @@ import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.test.context.bean.override.mockito.MockitoBean;
 import org.springframework.http.MediaType;
 import org.springframework.security.authentication.AuthenticationManager;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.test.web.servlet.MockMvc;
 
+import java.util.List;
 import java.util.Optional;
 
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
@@ -38,6 +45,16 @@ class AuthControllerTest {
     @MockitoBean private UserRepository userRepository;
     @MockitoBean private PasswordEncoder passwordEncoder;
 
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    private static void authenticateAs(String role) {
+        SecurityContextHolder.getContext().setAuthentication(new UsernamePasswordAuthenticationToken(
+                role.toLowerCase(), null, List.of(new SimpleGrantedAuthority(role))));
+    }
+
     @Test
     void login_ShouldReturnToken_WhenCredentialsAreValid() throws Exception {
         LoginRequestDTO loginReq = new LoginRequestDTO("admin", "123456");
@@ -76,4 +93,36 @@ class AuthControllerTest {
                 .andExpect(status().isOk())
                 .andExpect(jsonPath("$.token").value("new-token"));
     }
+
+    @Test
+    void register_ShouldRefuseAdminRole_WhenCallerIsNotAdmin() throws Exception {
+        RegisterRequestDTO registerReq = new RegisterRequestDTO("Intruso", "intruso", "123", "ADMIN");
+        when(userRepository.findByLogin("intruso")).thenReturn(Optional.empty());
+
+        mockMvc.perform(post("/auth/register")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(registerReq)))
+                .andExpect(status().isForbidden());
+
+        authenticateAs("CAIXA");
+        mockMvc.perform(post("/auth/register")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(registerReq)))
+                .andExpect(status().isForbidden());
+        verify(userRepository, never()).save(any(User.class));
+    }
+
+    @Test
+    void register_ShouldCreateAdmin_WhenCallerIsAdmin() throws Exception {
+        RegisterRequestDTO registerReq = new RegisterRequestDTO("Gestor", "gestor", "123", "ADMIN");
+        when(userRepository.findByLogin("gestor")).thenReturn(Optional.empty());
+        when(jwtService.generateToken(any(User.class))).thenReturn("admin-token");
+        authenticateAs("ADMIN");
+
+        mockMvc.perform(post("/auth/register")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(registerReq)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.role").value("ADMIN"));
+    }
 }
\ No newline at end of file
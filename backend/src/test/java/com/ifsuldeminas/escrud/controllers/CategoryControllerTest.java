@@ -1,14 +1,17 @@
 package com.ifsuldeminas.escrud.controllers;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.ifsuldeminas.escrud.config.PayloadCache;
 import com.ifsuldeminas.escrud.dto.CategoryRequestDTO;
 import com.ifsuldeminas.escrud.dto.CategoryResponseDTO;
+import com.ifsuldeminas.escrud.service.DataVersions;
 import com.ifsuldeminas.escrud.service.CategoryService;
 import com.ifsuldeminas.escrud.service.JwtService; // Import necessário
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.context.annotation.Import;
 import org.springframework.test.context.bean.override.mockito.MockitoBean;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
@@ -20,6 +23,7 @@ import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 @WebMvcTest(CategoryController.class)
+@Import({PayloadCache.class, DataVersions.class})
 @AutoConfigureMockMvc(addFilters = false)
 class CategoryControllerTest {
 
@@ -1,48 +1,113 @@
 package com.ifsuldeminas.escrud.controllers;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.databind.CBORMapper;
+import com.ifsuldeminas.escrud.config.PayloadCache;
+import com.ifsuldeminas.escrud.dto.ProductMinDTO;
 import com.ifsuldeminas.escrud.dto.ProductRequestDTO;
 import com.ifsuldeminas.escrud.dto.ProductResponseDTO;
+import com.ifsuldeminas.escrud.dto.ProductScanDTO;
+import com.ifsuldeminas.escrud.service.DataVersions;
 import com.ifsuldeminas.escrud.service.JwtService;
 import com.ifsuldeminas.escrud.service.ProductService;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.context.annotation.Import;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.Pageable;
 import org.springframework.http.MediaType;
 import org.springframework.test.context.bean.override.mockito.MockitoBean;
 import org.springframework.test.web.servlet.MockMvc;
 
+import java.io.ByteArrayInputStream;
 import java.math.BigDecimal;
 import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.IntStream;
+import java.util.zip.GZIPInputStream;
 
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.doNothing;
+import static org.hamcrest.Matchers.hasItem;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 @WebMvcTest(ProductController.class)
+@Import({PayloadCache.class, DataVersions.class})
 @AutoConfigureMockMvc(addFilters = false)
 class ProductControllerTest {
 
     @Autowired private MockMvc mockMvc;
     @Autowired private ObjectMapper objectMapper;
+    @Autowired private DataVersions dataVersions;
 
     @MockitoBean private ProductService service;
     @MockitoBean private JwtService jwtService;
 
     @Test
     void findAll_ShouldReturnPage() throws Exception {
-        when(service.findAll(any(Pageable.class), any(), any(), any()))
+        when(service.findAll(any(Pageable.class), any(), any(), any(), any()))
                 .thenReturn(new PageImpl<>(Collections.emptyList()));
 
         mockMvc.perform(get("/api/products"))
                 .andExpect(status().isOk());
     }
 
+    @Test
+    void findAll_ShouldUseSparseProjection_WhenFieldsAreGiven() throws Exception {
+        when(service.findFields(eq(List.of("sku", "quantityInStock")), any(Pageable.class), any(), any(), any(), any()))
+                .thenReturn(new PageImpl<>(List.of(Map.of("id", 1L, "sku", "SKU-123", "quantityInStock", 4))));
+
+        mockMvc.perform(get("/api/products").param("fields", "sku,quantityInStock"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content[0].sku").value("SKU-123"))
+                .andExpect(jsonPath("$.content[0].categoryName").doesNotExist());
+        verify(service, never()).findAll(any(), any(), any(), any(), any());
+    }
+
+    @Test
+    void findAllActiveList_ShouldServeCachedGzipBytes_UntilProductsChange() throws Exception {
+        List<ProductMinDTO> products = IntStream.range(0, 100)
+                .mapToObj(i -> new ProductMinDTO((long) i, "SKU-" + i, "Produto " + i))
+                .toList();
+        when(service.findAllActiveList()).thenReturn(products);
+
+        for (int i = 0; i < 2; i++) {
+            byte[] body = mockMvc.perform(get("/api/products/all").header("Accept-Encoding", "gzip, br"))
+                    .andExpect(status().isOk())
+                    .andExpect(header().string("Content-Encoding", "gzip"))
+                    .andExpect(header().stringValues("Vary", hasItem("Accept-Encoding")))
+                    .andReturn().getResponse().getContentAsByteArray();
+            try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(body))) {
+                assertEquals(products, List.of(objectMapper.readValue(in.readAllBytes(), ProductMinDTO[].class)));
+            }
+        }
+        verify(service, times(1)).findAllActiveList();
+
+        String etag = mockMvc.perform(get("/api/products/all"))
+                .andExpect(header().doesNotExist("Content-Encoding"))
+                .andReturn().getResponse().getHeader("ETag");
+        mockMvc.perform(get("/api/products/all").header("If-None-Match", etag))
+                .andExpect(status().isNotModified());
+
+        dataVersions.bump(DataVersions.DataSet.PRODUCTS);
+        mockMvc.perform(get("/api/products/all").header("If-None-Match", etag))
+                .andExpect(status().isOk());
+        verify(service, times(2)).findAllActiveList();
+    }
+
     @Test
     void findById_ShouldReturnProduct() throws Exception {
         // CORREÇÃO: Preenchendo os 11 argumentos do ProductResponseDTO
@@ -94,6 +159,20 @@ class ProductControllerTest {
                 .andExpect(status().isCreated());
     }
 
+    @Test
+    void findBySku_ShouldNegotiateCbor() throws Exception {
+        ProductScanDTO scan = new ProductScanDTO(1L, "SKU-123", "Papel A4", 40, true);
+        when(service.findBySku("SKU-123")).thenReturn(scan);
+
+        byte[] body = mockMvc.perform(get("/api/products/sku/SKU-123")
+                        .accept("application/cbor"))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType("application/cbor"))
+                .andReturn().getResponse().getContentAsByteArray();
+
+        assertEquals(scan, new CBORMapper().readValue(body, ProductScanDTO.class));
+    }
+
     @Test
     void delete_ShouldReturnNoContent() throws Exception {
         doNothing().when(service).delete(1L);
@@ -0,0 +1,53 @@
+package com.ifsuldeminas.escrud.controllers;
+
+import com.ifsuldeminas.escrud.service.FlightRecorderService;
+import com.ifsuldeminas.escrud.service.JwtService;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@WebMvcTest(ProfilingController.class)
+@AutoConfigureMockMvc(addFilters = false)
+class ProfilingControllerTest {
+
+    @Autowired private MockMvc mockMvc;
+
+    @MockitoBean private FlightRecorderService service;
+    @MockitoBean private JwtService jwtService;
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void start_ShouldAccept_AndPointToTheRecordingFile() throws Exception {
+        when(service.start(30)).thenReturn("escrud-on-demand-20250301-083000.jfr");
+
+        mockMvc.perform(post("/api/admin/profiling/recordings").param("durationSeconds", "30"))
+                .andExpect(status().isAccepted())
+                .andExpect(header().string("Location",
+                        "http://localhost/api/admin/profiling/recordings/escrud-on-demand-20250301-083000.jfr"));
+    }
+
+    @Test
+    void download_ShouldStreamTheFileAsAttachment() throws Exception {
+        Path file = Files.write(dir.resolve("escrud-continuous.jfr"), new byte[]{1, 2, 3});
+        when(service.resolve("escrud-continuous.jfr")).thenReturn(file);
+
+        mockMvc.perform(get("/api/admin/profiling/recordings/escrud-continuous.jfr"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("Content-Disposition", "attachment; filename=\"escrud-continuous.jfr\""))
+                .andExpect(content().bytes(new byte[]{1, 2, 3}));
+    }
+}
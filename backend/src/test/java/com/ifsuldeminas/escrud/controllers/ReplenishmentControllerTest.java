@@ -0,0 +1,46 @@
+package com.ifsuldeminas.escrud.controllers;
+
+import com.ifsuldeminas.escrud.service.JwtService;
+import com.ifsuldeminas.escrud.service.ReplenishmentService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.Collections;
+
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@WebMvcTest(ReplenishmentController.class)
+@AutoConfigureMockMvc(addFilters = false)
+class ReplenishmentControllerTest {
+
+    @Autowired private MockMvc mockMvc;
+
+    @MockitoBean private ReplenishmentService service;
+    @MockitoBean private JwtService jwtService;
+
+    @Test
+    void getPurchaseOrderDrafts_ShouldReturnOk() throws Exception {
+        when(service.getPurchaseOrderDrafts()).thenReturn(Collections.emptyList());
+
+        mockMvc.perform(get("/api/reposicao/pedidos"))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    void run_ShouldTriggerEvaluation() throws Exception {
+        when(service.getPurchaseOrderDrafts()).thenReturn(Collections.emptyList());
+
+        mockMvc.perform(post("/api/reposicao/executar"))
+                .andExpect(status().isOk());
+
+        verify(service).run();
+    }
+}
@@ -0,0 +1,50 @@
+package com.ifsuldeminas.escrud.controllers;
+
+import com.ifsuldeminas.escrud.service.DemandForecastService;
+import com.ifsuldeminas.escrud.service.InventoryAnalyticsService;
+import com.ifsuldeminas.escrud.service.JwtService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@WebMvcTest(ReportAdminController.class)
+@AutoConfigureMockMvc(addFilters = false)
+class ReportAdminControllerTest {
+
+    @Autowired private MockMvc mockMvc;
+
+    @MockitoBean private DemandForecastService forecastService;
+    @MockitoBean private InventoryAnalyticsService analyticsService;
+    @MockitoBean private JwtService jwtService;
+
+    @Test
+    void refreshDemandForecast_ShouldAcceptAndRunInBackground() throws Exception {
+        when(forecastService.refreshInBackground()).thenReturn(true);
+
+        mockMvc.perform(post("/api/admin/relatorios/previsao-demanda/atualizar"))
+                .andExpect(status().isAccepted());
+    }
+
+    @Test
+    void refreshDemandForecast_ShouldConflict_WhileAnotherRunIsInFlight() throws Exception {
+        when(forecastService.refreshInBackground()).thenReturn(false);
+
+        mockMvc.perform(post("/api/admin/relatorios/previsao-demanda/atualizar"))
+                .andExpect(status().isConflict());
+    }
+
+    @Test
+    void refreshAbcAnalysis_ShouldAcceptAndRunInBackground() throws Exception {
+        when(analyticsService.refreshInBackground()).thenReturn(true);
+
+        mockMvc.perform(post("/api/admin/relatorios/curva-abc/atualizar"))
+                .andExpect(status().isAccepted());
+    }
+}
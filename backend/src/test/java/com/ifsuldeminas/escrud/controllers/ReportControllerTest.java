@@ -1,14 +1,23 @@
 package com.ifsuldeminas.escrud.controllers;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.ifsuldeminas.escrud.config.PayloadCache;
 import com.ifsuldeminas.escrud.dto.DashboardResponseDTO;
 import com.ifsuldeminas.escrud.dto.DepartmentConsumptionDTO;
+import com.ifsuldeminas.escrud.dto.TopProductMetric;
+import com.ifsuldeminas.escrud.entities.AbcClass;
+import com.ifsuldeminas.escrud.service.DataVersions;
+import com.ifsuldeminas.escrud.service.DemandForecastService;
+import com.ifsuldeminas.escrud.service.InventoryAnalyticsService;
 import com.ifsuldeminas.escrud.service.JwtService;
 import com.ifsuldeminas.escrud.service.ReportService;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
 import org.springframework.test.context.bean.override.mockito.MockitoBean;
 import org.springframework.test.web.servlet.MockMvc;
 
@@ -18,17 +27,25 @@ import java.util.Collections;
 import java.util.List;
 
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 @WebMvcTest(ReportController.class)
+@Import({PayloadCache.class, DataVersions.class})
 @AutoConfigureMockMvc(addFilters = false)
 class ReportControllerTest {
 
     @Autowired private MockMvc mockMvc;
 
     @MockitoBean private ReportService service;
+    @MockitoBean private DemandForecastService forecastService;
+    @MockitoBean private InventoryAnalyticsService analyticsService;
     @MockitoBean private JwtService jwtService;
 
     @Test
@@ -41,7 +58,7 @@ class ReportControllerTest {
                 Collections.emptyList()
         );
 
-        when(service.getDashboardData()).thenReturn(response);
+        when(service.getDashboardData(null)).thenReturn(response);
 
         mockMvc.perform(get("/api/relatorios/dashboard"))
                 .andExpect(status().isOk());
@@ -66,4 +83,99 @@ class ReportControllerTest {
                         .param("dataFim", "2025-01-31"))
                 .andExpect(status().isOk());
     }
-}
\ No newline at end of file
+
+    @Test
+    void getDemandForecast_ShouldReturnOk() throws Exception {
+        when(forecastService.findForecasts(1L, null)).thenReturn(Collections.emptyList());
+
+        mockMvc.perform(get("/api/relatorios/previsao-demanda")
+                        .param("produtoId", "1"))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    void getTopConsumers_ShouldReturnOk() throws Exception {
+        when(service.getTopConsumers(any(LocalDate.class), any(LocalDate.class), eq(5)))
+                .thenReturn(Collections.emptyList());
+
+        mockMvc.perform(get("/api/relatorios/maiores-consumidores")
+                        .param("dataInicio", "2025-01-01")
+                        .param("dataFim", "2025-01-31")
+                        .param("limite", "5"))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    void getTrend_ShouldReturnOk() throws Exception {
+        when(service.getTrend(any(LocalDate.class), any(LocalDate.class), any(), any(), any()))
+                .thenReturn(Collections.emptyList());
+
+        mockMvc.perform(get("/api/relatorios/tendencia")
+                        .param("dataInicio", "2025-01-01")
+                        .param("dataFim", "2025-01-31")
+                        .param("tipo", "SAIDA_REQUISICAO"))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    void getTopProducts_ShouldReturnOk() throws Exception {
+        when(service.isTopProductsAvailable()).thenReturn(true);
+        when(service.getTopProducts(any(LocalDate.class), any(LocalDate.class), eq(TopProductMetric.GIRO), eq(5),
+                any(), any(), any()))
+                .thenReturn(Collections.emptyList());
+
+        mockMvc.perform(get("/api/relatorios/top-produtos")
+                        .param("dataInicio", "2025-01-01")
+                        .param("dataFim", "2025-01-31")
+                        .param("criterio", "GIRO")
+                        .param("limite", "5")
+                        .param("categoriaId", "1"))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    void getTopProducts_ShouldClampLimit() throws Exception {
+        when(service.isTopProductsAvailable()).thenReturn(true);
+        mockMvc.perform(get("/api/relatorios/top-produtos")
+                        .param("dataInicio", "2025-01-01")
+                        .param("dataFim", "2025-01-31")
+                        .param("limite", "2147483647"))
+                .andExpect(status().isOk());
+
+        verify(service).getTopProducts(LocalDate.of(2025, 1, 1), LocalDate.of(2025, 1, 31),
+                TopProductMetric.QUANTIDADE, 200, null, null, null);
+    }
+
+    @Test
+    void getTopProducts_ShouldAskToRetry_WhileIndexesLoad() throws Exception {
+        mockMvc.perform(get("/api/relatorios/top-produtos")
+                        .param("dataInicio", "2025-01-01")
+                        .param("dataFim", "2025-01-31"))
+                .andExpect(status().isServiceUnavailable())
+                .andExpect(header().string("Retry-After", "5"));
+
+        verify(service, never()).getTopProducts(any(), any(), any(), anyInt(), any(), any(), any());
+    }
+
+    @Test
+    void getAbcAnalysis_ShouldReturnPage() throws Exception {
+        when(analyticsService.findAll(eq(AbcClass.A), any(Pageable.class)))
+                .thenReturn(new PageImpl<>(Collections.emptyList()));
+
+        mockMvc.perform(get("/api/relatorios/curva-abc")
+                        .param("classe", "A"))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    void getDashboard_ShouldFilterByAbcClass() throws Exception {
+        when(service.getDashboardData(AbcClass.B))
+                .thenReturn(new DashboardResponseDTO(BigDecimal.ZERO, Collections.emptyList(), Collections.emptyList()));
+
+        mockMvc.perform(get("/api/relatorios/dashboard")
+                        .param("classeAbc", "B"))
+                .andExpect(status().isOk());
+
+        verify(service).getDashboardData(AbcClass.B);
+    }
+}
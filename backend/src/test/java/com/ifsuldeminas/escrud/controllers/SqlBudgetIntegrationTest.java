@@ -0,0 +1,92 @@
+package com.ifsuldeminas.escrud.controllers;
+
+import com.ifsuldeminas.escrud.config.SqlBudgetFilter;
+import com.ifsuldeminas.escrud.entities.*;
+import com.ifsuldeminas.escrud.repositories.*;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.context.WebApplicationContext;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// Banco real e orçamento de SQL valendo: se um mapToDTO voltar a fazer N+1, o @SqlBudget do endpoint estoura.
+// Só o SqlBudgetFilter entra na cadeia; a segurança fica de fora como nos demais testes de controller.
+@SpringBootTest(properties = "sql.budget.enforce=true")
+class SqlBudgetIntegrationTest {
+
+    @Autowired
+    private WebApplicationContext context;
+
+    @Autowired
+    private SqlBudgetFilter sqlBudgetFilter;
+
+    @Autowired
+    private CategoryRepository categoryRepository;
+
+    @Autowired
+    private SupplierRepository supplierRepository;
+
+    @Autowired
+    private DepartmentRepository departmentRepository;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private StockMovementRepository movementRepository;
+
+    private MockMvc mockMvc;
+
+    @BeforeEach
+    void setUp() {
+        mockMvc = MockMvcBuilders.webAppContextSetup(context).addFilters(sqlBudgetFilter).build();
+
+        for (int c = 0; c < 3; c++) {
+            Category category = categoryRepository.save(Category.builder().name("Categoria " + c).active(true).build());
+            Supplier supplier = supplierRepository.save(Supplier.builder().name("Fornecedor " + c).active(true).build());
+            Department department = departmentRepository.save(Department.builder().name("Setor " + c).active(true).build());
+            for (int p = 0; p < 3; p++) {
+                Product product = productRepository.save(Product.builder()
+                        .sku("SKU-" + c + "-" + p).name("Produto " + c + "-" + p)
+                        .quantityInStock(10).minStock(2).costPrice(BigDecimal.ONE).active(true)
+                        .category(category).defaultSupplier(supplier).build());
+                movementRepository.save(StockMovement.builder()
+                        .dateTime(LocalDateTime.now()).type(MovementType.SAIDA_REQUISICAO).quantity(-1)
+                        .product(product).department(department).build());
+            }
+        }
+    }
+
+    @AfterEach
+    void tearDown() {
+        movementRepository.deleteAll();
+        productRepository.deleteAll();
+        departmentRepository.deleteAll();
+        categoryRepository.deleteAll();
+        supplierRepository.deleteAll();
+    }
+
+    @Test
+    void listProducts_ShouldStayWithinSqlBudget() throws Exception {
+        mockMvc.perform(get("/api/products"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content.length()").value(9));
+    }
+
+    @Test
+    void listMovements_ShouldStayWithinSqlBudget() throws Exception {
+        mockMvc.perform(get("/api/stock-movements"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content.length()").value(9));
+    }
+}
@@ -0,0 +1,296 @@
+package com.ifsuldeminas.escrud.controllers;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.databind.CBORMapper;
+import com.ifsuldeminas.escrud.dto.CursorPageDTO;
+import com.ifsuldeminas.escrud.dto.MovementAckDTO;
+import com.ifsuldeminas.escrud.dto.MovementHistoryStampDTO;
+import com.ifsuldeminas.escrud.dto.StockMovementRequestDTO;
+import com.ifsuldeminas.escrud.dto.StockMovementResponseDTO;
+import com.ifsuldeminas.escrud.entities.MovementType;
+import com.ifsuldeminas.escrud.service.JwtService;
+import com.ifsuldeminas.escrud.service.MovementArchiveService;
+import com.ifsuldeminas.escrud.service.MovementDurability;
+import com.ifsuldeminas.escrud.service.MovementGroupCommitter;
+import com.ifsuldeminas.escrud.service.MovementWriteShards;
+import com.ifsuldeminas.escrud.service.StockMovementService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
+
+import static org.hamcrest.Matchers.containsString;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@WebMvcTest(StockMovementController.class)
+@AutoConfigureMockMvc(addFilters = false)
+class StockMovementControllerTest {
+
+    @Autowired private MockMvc mockMvc;
+    @Autowired private ObjectMapper objectMapper;
+
+    @MockitoBean private StockMovementService service;
+    @MockitoBean private MovementWriteShards writeShards;
+    @MockitoBean private MovementGroupCommitter groupCommitter;
+    @MockitoBean private MovementArchiveService archiveService;
+    @MockitoBean private JwtService jwtService;
+
+    private final StockMovementResponseDTO response = new StockMovementResponseDTO(
+            7L, LocalDateTime.of(2025, 1, 10, 9, 0), MovementType.SAIDA_REQUISICAO, -2, null,
+            "Papel A4", "TI", null, "Admin");
+
+    private final StockMovementRequestDTO request = new StockMovementRequestDTO(
+            1L, -2, MovementType.SAIDA_REQUISICAO, 1, null, null);
+
+    @Test
+    void findAll_ShouldReturnPage() throws Exception {
+        when(service.findAll(any(Pageable.class), eq(1L), any(), eq(MovementType.AJUSTE), any(), any()))
+                .thenReturn(new PageImpl<>(Collections.emptyList()));
+
+        mockMvc.perform(get("/api/stock-movements")
+                        .param("productId", "1")
+                        .param("type", "AJUSTE"))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    void findAll_ShouldUseSparseProjection_WhenFieldsAreGiven() throws Exception {
+        when(service.findFields(eq(List.of("quantity", "productName")), any(Pageable.class), any(), any(), any(), any(), any()))
+                .thenReturn(new PageImpl<>(List.of(Map.of("id", 7L, "quantity", -2, "productName", "Papel A4"))));
+
+        mockMvc.perform(get("/api/stock-movements").param("fields", "quantity,productName"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content[0].productName").value("Papel A4"))
+                .andExpect(jsonPath("$.content[0].userName").doesNotExist());
+        verify(service, never()).findAll(any(), any(), any(), any(), any(), any());
+    }
+
+    @Test
+    void findArchived_ShouldQueryTheArchive() throws Exception {
+        when(archiveService.search(eq(1L), any(), any(), eq(LocalDate.of(2023, 1, 1)), eq(LocalDate.of(2023, 3, 31)),
+                any(Pageable.class)))
+                .thenReturn(new PageImpl<>(List.of(response)));
+
+        mockMvc.perform(get("/api/stock-movements/archive")
+                        .param("productId", "1")
+                        .param("startDate", "2023-01-01")
+                        .param("endDate", "2023-03-31"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content[0].id").value(7));
+        verify(service, never()).findAll(any(), any(), any(), any(), any(), any());
+    }
+
+    @Test
+    void findArchived_ShouldRejectOpenOrTooLongRanges() throws Exception {
+        mockMvc.perform(get("/api/stock-movements/archive").param("startDate", "2023-01-01"))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(get("/api/stock-movements/archive")
+                        .param("startDate", "2020-01-01")
+                        .param("endDate", "2023-01-01"))
+                .andExpect(status().isBadRequest());
+        verify(archiveService, never()).search(any(), any(), any(), any(), any(), any());
+    }
+
+    @Test
+    void findByCursor_ShouldClampPageSize() throws Exception {
+        when(service.findByCursor(eq(100L), eq(500), any(), any(), any(), any(), any()))
+                .thenReturn(new CursorPageDTO<>(List.of(response), 7L, true));
+
+        mockMvc.perform(get("/api/stock-movements/cursor")
+                        .param("cursor", "100")
+                        .param("size", "10000"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.nextCursor").value(7));
+    }
+
+    @Test
+    void create_ShouldPassIdempotencyKey() throws Exception {
+        when(service.create(any(StockMovementRequestDTO.class), eq("scan-123"))).thenReturn(response);
+
+        MvcResult pending = mockMvc.perform(post("/api/stock-movements")
+                        .header("Idempotency-Key", "scan-123")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(request)))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(pending))
+                .andExpect(status().isCreated())
+                .andExpect(header().string("Location", containsString("/api/stock-movements/7")))
+                .andExpect(jsonPath("$.id").value(7));
+    }
+
+    @Test
+    void create_ShouldRejectKeysLongerThanTheColumn_InEveryMode() throws Exception {
+        MvcResult pending = mockMvc.perform(post("/api/stock-movements")
+                        .header("Idempotency-Key", "k".repeat(129))
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(request)))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(pending))
+                .andExpect(status().isBadRequest());
+        verifyNoInteractions(service);
+    }
+
+    @Test
+    void create_ShouldRetryOnce_WhenConcurrentDuplicateKeyConflicts() throws Exception {
+        when(service.create(any(StockMovementRequestDTO.class), eq("scan-123")))
+                .thenThrow(new DataIntegrityViolationException("duplicate key"))
+                .thenReturn(response);
+
+        MvcResult pending = mockMvc.perform(post("/api/stock-movements")
+                        .header("Idempotency-Key", "scan-123")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(request)))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(pending))
+                .andExpect(status().isCreated())
+                .andExpect(header().string("Location", containsString("/api/stock-movements/7")))
+                .andExpect(jsonPath("$.id").value(7));
+
+        verify(service, times(2)).create(any(StockMovementRequestDTO.class), eq("scan-123"));
+    }
+
+    @Test
+    void create_ShouldGoThroughShardQueue_WhenShardingEnabled() throws Exception {
+        when(writeShards.isEnabled()).thenReturn(true);
+        when(writeShards.submit(any(StockMovementRequestDTO.class), eq(null)))
+                .thenReturn(CompletableFuture.completedFuture(response));
+
+        MvcResult pending = mockMvc.perform(post("/api/stock-movements")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(request)))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(pending))
+                .andExpect(status().isCreated())
+                .andExpect(jsonPath("$.id").value(7));
+        verify(service, never()).create(any(), any());
+    }
+
+    @Test
+    void create_ShouldAcceptOnJournalAppend_WhenDurabilityIsAsync() throws Exception {
+        when(groupCommitter.getDurability()).thenReturn(MovementDurability.ASYNC);
+        when(groupCommitter.enqueue(any(StockMovementRequestDTO.class), eq("scan-9")))
+                .thenReturn(new MovementAckDTO("scan-9", 42));
+
+        MvcResult pending = mockMvc.perform(post("/api/stock-movements")
+                        .header("Idempotency-Key", "scan-9")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(request)))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(pending))
+                .andExpect(status().isAccepted())
+                .andExpect(jsonPath("$.journalSequence").value(42));
+        verify(service, never()).create(any(), any());
+    }
+
+    @Test
+    void createBatch_ShouldReturnCreated() throws Exception {
+        when(service.createBatch(anyList(), eq(null))).thenReturn(List.of(response, response));
+
+        mockMvc.perform(post("/api/stock-movements/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(List.of(request, request))))
+                .andExpect(status().isCreated())
+                .andExpect(jsonPath("$.length()").value(2));
+    }
+
+    @Test
+    void create_ShouldAcceptCborAndReturnNoBody_WhenReturnMinimalIsPreferred() throws Exception {
+        when(service.create(any(StockMovementRequestDTO.class), eq("scan-5"))).thenReturn(response);
+
+        MvcResult pending = mockMvc.perform(post("/api/stock-movements")
+                        .header("Idempotency-Key", "scan-5")
+                        .header("Prefer", "return=minimal")
+                        .contentType("application/cbor")
+                        .content(new CBORMapper().writeValueAsBytes(request)))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(pending))
+                .andExpect(status().isCreated())
+                .andExpect(header().string("Location", containsString("/api/stock-movements/7")))
+                .andExpect(header().string("Preference-Applied", "return=minimal"))
+                .andExpect(content().string(""));
+    }
+
+    @Test
+    void createBatch_ShouldReturnOnlyIds_WhenReturnMinimalIsPreferred() throws Exception {
+        when(service.createBatch(anyList(), eq(null))).thenReturn(List.of(response, response));
+
+        mockMvc.perform(post("/api/stock-movements/batch")
+                        .header("Prefer", "return=minimal")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(List.of(request, request))))
+                .andExpect(status().isCreated())
+                .andExpect(jsonPath("$[0]").value(7))
+                .andExpect(jsonPath("$[1]").value(7));
+    }
+
+    @Test
+    void findByProduct_ShouldReturnNotModified_WhenEtagMatches() throws Exception {
+        when(service.getHistoryStamp(1L))
+                .thenReturn(new MovementHistoryStampDTO(3L, 7L, LocalDateTime.of(2025, 1, 10, 9, 0)));
+        when(service.findByProduct(eq(1L), any(Pageable.class)))
+                .thenReturn(new PageImpl<>(List.of(response)));
+
+        MvcResult first = mockMvc.perform(get("/api/stock-movements/product/1"))
+                .andExpect(status().isOk())
+                .andExpect(header().exists("ETag"))
+                .andReturn();
+
+        mockMvc.perform(get("/api/stock-movements/product/1")
+                        .header("If-None-Match", first.getResponse().getHeader("ETag")))
+                .andExpect(status().isNotModified());
+
+        verify(service, times(1)).findByProduct(eq(1L), any(Pageable.class));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void stream_ShouldWriteOneJsonPerLine() throws Exception {
+        doAnswer(i -> {
+            Consumer<StockMovementResponseDTO> consumer = i.getArgument(5);
+            consumer.accept(response);
+            consumer.accept(response);
+            return null;
+        }).when(service).stream(any(), any(), any(), any(), any(), any(Consumer.class));
+
+        MvcResult result = mockMvc.perform(get("/api/stock-movements/stream"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType("application/x-ndjson"))
+                .andExpect(content().string(containsString("\"userName\":\"Admin\"}\n{\"id\":7")));
+    }
+}
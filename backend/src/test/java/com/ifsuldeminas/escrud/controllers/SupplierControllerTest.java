@@ -1,14 +1,17 @@
 package com.ifsuldeminas.escrud.controllers;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.ifsuldeminas.escrud.config.PayloadCache;
 import com.ifsuldeminas.escrud.dto.SupplierRequestDTO;
 import com.ifsuldeminas.escrud.dto.SupplierResponseDTO;
+import com.ifsuldeminas.escrud.service.DataVersions;
 import com.ifsuldeminas.escrud.service.JwtService;
 import com.ifsuldeminas.escrud.service.SupplierService;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.context.annotation.Import;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.Pageable;
@@ -28,6 +31,7 @@ import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 @WebMvcTest(SupplierController.class)
+@Import({PayloadCache.class, DataVersions.class})
 @AutoConfigureMockMvc(addFilters = false)
 class SupplierControllerTest {
 
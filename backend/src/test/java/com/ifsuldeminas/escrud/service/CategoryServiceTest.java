@@ -33,6 +33,9 @@ class CategoryServiceTest {
     @Mock
     private CategoryRepository repository;
 
+    @Mock
+    private DataVersions dataVersions;
+
     private Category category;
     private CategoryRequestDTO requestDTO;
 
@@ -109,6 +112,7 @@ class CategoryServiceTest {
         assertNotNull(result);
         assertEquals(category.getName(), result.name());
         verify(repository, times(1)).save(any(Category.class));
+        verify(dataVersions).bump(DataVersions.DataSet.CATEGORIES);
     }
 
     @Test
@@ -0,0 +1,147 @@
+package com.ifsuldeminas.escrud.service;
+
+import com.ifsuldeminas.escrud.dto.DailyConsumptionDTO;
+import com.ifsuldeminas.escrud.entities.DemandForecast;
+import com.ifsuldeminas.escrud.entities.ForecastModel;
+import com.ifsuldeminas.escrud.entities.MovementType;
+import com.ifsuldeminas.escrud.repositories.DemandForecastRepository;
+import com.ifsuldeminas.escrud.repositories.DepartmentRepository;
+import com.ifsuldeminas.escrud.repositories.ProductRepository;
+import com.ifsuldeminas.escrud.repositories.StockMovementRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.stream.LongStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class DemandForecastServiceTest {
+
+    @InjectMocks
+    private DemandForecastService service;
+
+    @Mock
+    private StockMovementRepository movementRepository;
+
+    @Mock
+    private DemandForecastRepository forecastRepository;
+
+    @Mock
+    private ProductRepository productRepository;
+
+    @Mock
+    private DepartmentRepository departmentRepository;
+
+    @Mock
+    private TransactionTemplate transactionTemplate;
+
+    private final DemandForecastService.SeriesKey key = new DemandForecastService.SeriesKey(1L, 1);
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(service, "historyDays", 28);
+        ReflectionTestUtils.setField(service, "horizonDays", 7);
+        ReflectionTestUtils.setField(service, "alpha", 0.5);
+        ReflectionTestUtils.setField(service, "parallelism", 2);
+        lenient().doAnswer(invocation -> {
+            invocation.<Consumer<TransactionStatus>>getArgument(0).accept(null);
+            return null;
+        }).when(transactionTemplate).executeWithoutResult(any());
+    }
+
+    @Test
+    void fit_ShouldChooseSeasonalNaive_WhenSeriesIsWeekly() {
+        double[] y = new double[28];
+        for (int t = 0; t < y.length; t++) {
+            y[t] = (t % 7 == 0) ? 70 : 0;
+        }
+
+        DemandForecastService.Fit fit = service.fit(key, y);
+
+        assertEquals(ForecastModel.SEASONAL_NAIVE, fit.model());
+        assertEquals(70, fit.horizonTotal());
+        assertEquals(0, fit.meanAbsoluteError());
+    }
+
+    @Test
+    void fit_ShouldChooseSmoothing_WhenSeriesIsConstant() {
+        double[] y = new double[5];
+        Arrays.fill(y, 4);
+
+        DemandForecastService.Fit fit = service.fit(key, y);
+
+        assertEquals(ForecastModel.EXPONENTIAL_SMOOTHING, fit.model());
+        assertEquals(4, fit.dailyForecast());
+        assertEquals(28, fit.horizonTotal());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void refresh_ShouldReplaceForecastsOfMovedProducts() {
+        LocalDate yesterday = LocalDate.now().minusDays(1);
+        when(movementRepository.findProductIdsMovedSince(any())).thenReturn(List.of(1L));
+        when(movementRepository.getDailyConsumption(anyCollection(), any(), any(), eq(MovementType.SAIDA_REQUISICAO)))
+                .thenReturn(List.of(new DailyConsumptionDTO(1L, 1, yesterday, 10L)));
+
+        service.refresh();
+
+        ArgumentCaptor<List<DemandForecast>> captor = ArgumentCaptor.forClass(List.class);
+        verify(forecastRepository).deleteByProductIds(List.of(1L));
+        verify(forecastRepository).saveAll(captor.capture());
+        assertEquals(1, captor.getValue().size());
+        assertEquals(7, captor.getValue().get(0).getHorizonDays());
+    }
+
+    @Test
+    void refresh_ShouldSkipWork_WhenNothingMoved() {
+        when(movementRepository.findProductIdsMovedSince(any())).thenReturn(Collections.emptyList());
+
+        service.refresh();
+
+        verify(movementRepository, never()).getDailyConsumption(any(), any(), any(), any());
+        verify(forecastRepository, never()).saveAll(any());
+    }
+
+    @Test
+    void refresh_ShouldDropForecast_WhenProductStoppedMoving() {
+        when(movementRepository.findProductIdsMovedSince(any())).thenReturn(Collections.emptyList());
+        when(forecastRepository.findForecastedProductIds()).thenReturn(List.of(2L));
+        when(movementRepository.getDailyConsumption(anyCollection(), any(), any(), eq(MovementType.SAIDA_REQUISICAO)))
+                .thenReturn(Collections.emptyList());
+
+        service.refresh();
+
+        verify(forecastRepository).deleteByProductIds(List.of(2L));
+        verify(forecastRepository).saveAll(List.of());
+    }
+
+    @Test
+    void refresh_ShouldCommitEachBatchInItsOwnTransaction() {
+        List<Long> moved = LongStream.rangeClosed(1, 1500).boxed().toList();
+        when(movementRepository.findProductIdsMovedSince(any())).thenReturn(moved);
+        when(movementRepository.getDailyConsumption(anyCollection(), any(), any(), eq(MovementType.SAIDA_REQUISICAO)))
+                .thenReturn(Collections.emptyList());
+
+        service.refresh();
+
+        verify(transactionTemplate, times(2)).executeWithoutResult(any());
+        verify(forecastRepository).deleteByProductIds(moved.subList(0, 1000));
+        verify(forecastRepository).deleteByProductIds(moved.subList(1000, 1500));
+    }
+}
@@ -34,6 +34,9 @@ class DepartmentServiceTest {
     @Mock
     private DepartmentRepository repository;
 
+    @Mock
+    private DataVersions dataVersions;
+
     private Department department;
     private DepartmentRequestDTO requestDTO;
 
@@ -0,0 +1,76 @@
+package com.ifsuldeminas.escrud.service;
+
+import com.ifsuldeminas.escrud.dto.RecordingFileDTO;
+import io.micrometer.observation.Observation;
+import io.micrometer.observation.ObservationRegistry;
+import jakarta.persistence.EntityNotFoundException;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FlightRecorderServiceTest {
+
+    @TempDir
+    Path dir;
+
+    private final FlightRecorderService service = new FlightRecorderService();
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(service, "directory", dir.toString());
+        ReflectionTestUtils.setField(service, "maxFiles", 10);
+        ReflectionTestUtils.setField(service, "maxDurationSeconds", 600L);
+    }
+
+    @AfterEach
+    void tearDown() {
+        service.close();
+    }
+
+    @Test
+    void startAndStop_ShouldWriteReportEventsFromObservations() throws Exception {
+        ObservationRegistry registry = ObservationRegistry.create();
+        registry.observationConfig().observationHandler(new FlightRecorderObservationHandler());
+
+        String name = service.start(60);
+        assertThrows(IllegalStateException.class, () -> service.start(60));
+        assertThrows(EntityNotFoundException.class, () -> service.resolve(name));
+
+        Observation.createNotStarted("escrud.service", registry)
+                .lowCardinalityKeyValue("class", ReportService.class.getName())
+                .lowCardinalityKeyValue("method", "getDashboardData")
+                .observe(() -> { });
+        RecordingFileDTO file = service.stop();
+
+        assertEquals(name, file.name());
+        List<RecordedEvent> events = RecordingFile.readAllEvents(service.resolve(name));
+        RecordedEvent report = events.stream()
+                .filter(e -> e.getEventType().getName().equals("escrud.ReportQuery"))
+                .findFirst().orElseThrow();
+        assertEquals("getDashboardData", report.getString("report"));
+        assertFalse(report.getBoolean("failed"));
+        assertTrue(events.stream().map(e -> e.getEventType().getName())
+                .noneMatch(type -> type.equals("jdk.InitialEnvironmentVariable") || type.equals("jdk.InitialSystemProperty")));
+    }
+
+    @Test
+    void start_ShouldRejectDurationOutsideLimits() {
+        assertThrows(IllegalArgumentException.class, () -> service.start(0));
+        assertThrows(IllegalArgumentException.class, () -> service.start(601));
+    }
+
+    @Test
+    void resolve_ShouldRejectPathsOutsideTheDirectory() {
+        assertThrows(EntityNotFoundException.class, () -> service.resolve("../escrud.jfr"));
+        assertThrows(EntityNotFoundException.class, () -> service.resolve("missing.jfr"));
+    }
+}
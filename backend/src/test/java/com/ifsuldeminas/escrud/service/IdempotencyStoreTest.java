@@ -0,0 +1,79 @@
+package com.ifsuldeminas.escrud.service;
+
+import com.ifsuldeminas.escrud.dto.IdempotencyEntryDTO;
+import com.ifsuldeminas.escrud.entities.IdempotencyRecord;
+import com.ifsuldeminas.escrud.repositories.IdempotencyRecordRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class IdempotencyStoreTest {
+
+    @InjectMocks
+    private IdempotencyStore store;
+
+    @Mock
+    private IdempotencyRecordRepository repository;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(store, "ttlHours", 24L);
+        ReflectionTestUtils.setField(store, "maxCachedKeys", 100);
+    }
+
+    @Test
+    void register_ShouldInsertKeyWithTtl_AndServeLaterLookupsFromMemory() {
+        store.register("scan-1", 42L);
+
+        ArgumentCaptor<IdempotencyRecord> captor = ArgumentCaptor.forClass(IdempotencyRecord.class);
+        verify(repository).deleteExpiredKey(eq("scan-1"), any());
+        verify(repository).saveAndFlush(captor.capture());
+        IdempotencyRecord saved = captor.getValue();
+        assertTrue(saved.isNew());
+        assertEquals(42L, saved.getMovementId());
+        assertEquals(24, Duration.between(saved.getCreatedAt(), saved.getExpiresAt()).toHours());
+
+        assertEquals(42L, store.findMovementId("scan-1"));
+        verify(repository, never()).findActive(any(), any());
+    }
+
+    @Test
+    void findMovementId_ShouldFallBackToTable_AndCacheResult() {
+        when(repository.findActive(eq("scan-2"), any()))
+                .thenReturn(Optional.of(new IdempotencyEntryDTO(7L, LocalDateTime.now().plusHours(1))));
+
+        assertEquals(7L, store.findMovementId("scan-2"));
+        assertEquals(7L, store.findMovementId("scan-2"));
+        verify(repository, times(1)).findActive(eq("scan-2"), any());
+    }
+
+    @Test
+    void findMovementId_ShouldIgnoreExpiredCachedEntry() {
+        ReflectionTestUtils.setField(store, "ttlHours", 0L);
+        store.register("scan-3", 9L);
+
+        assertNull(store.findMovementId("scan-3"));
+        verify(repository).findActive(eq("scan-3"), any());
+    }
+
+    @Test
+    void findMovementId_ShouldReturnNull_WithoutKey() {
+        assertNull(store.findMovementId(null));
+        verifyNoInteractions(repository);
+    }
+}
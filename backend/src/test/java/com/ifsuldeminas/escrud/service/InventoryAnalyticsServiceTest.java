@@ -0,0 +1,167 @@
+package com.ifsuldeminas.escrud.service;
+
+import com.ifsuldeminas.escrud.dto.ProductDailyTotalDTO;
+import com.ifsuldeminas.escrud.dto.ProductStockDTO;
+import com.ifsuldeminas.escrud.dto.ProductWindowTotalDTO;
+import com.ifsuldeminas.escrud.entities.AbcClass;
+import com.ifsuldeminas.escrud.entities.MovementType;
+import com.ifsuldeminas.escrud.entities.Product;
+import com.ifsuldeminas.escrud.entities.ProductAnalytics;
+import com.ifsuldeminas.escrud.repositories.ProductAnalyticsRepository;
+import com.ifsuldeminas.escrud.repositories.ProductDailyConsumptionRepository;
+import com.ifsuldeminas.escrud.repositories.ProductRepository;
+import com.ifsuldeminas.escrud.repositories.StockMovementRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class InventoryAnalyticsServiceTest {
+
+    @InjectMocks
+    private InventoryAnalyticsService service;
+
+    @Mock
+    private StockMovementRepository movementRepository;
+
+    @Mock
+    private ProductRepository productRepository;
+
+    @Mock
+    private ProductDailyConsumptionRepository dailyRepository;
+
+    @Mock
+    private ProductAnalyticsRepository analyticsRepository;
+
+    @Mock
+    private DataVersions dataVersions;
+
+    @Mock
+    private TransactionTemplate transactionTemplate;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(service, "windowDays", 10);
+        ReflectionTestUtils.setField(service, "aShare", 0.8);
+        ReflectionTestUtils.setField(service, "bShare", 0.95);
+        ReflectionTestUtils.setField(service, "recomputeDays", 2);
+        lenient().when(transactionTemplate.execute(any())).thenAnswer(
+                i -> i.<TransactionCallback<?>>getArgument(0).doInTransaction(null));
+        lenient().doAnswer(i -> {
+            i.<Consumer<Object>>getArgument(0).accept(null);
+            return null;
+        }).when(transactionTemplate).executeWithoutResult(any());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void refresh_ShouldClassifyProductsByConsumptionValue() {
+        when(dailyRepository.findLastDay()).thenReturn(LocalDate.now().minusDays(1));
+        when(dailyRepository.sumSince(any())).thenReturn(List.of(
+                new ProductWindowTotalDTO(1L, 100L, new BigDecimal("800")),
+                new ProductWindowTotalDTO(2L, 10L, new BigDecimal("150")),
+                new ProductWindowTotalDTO(3L, 5L, new BigDecimal("50"))));
+        when(productRepository.findActiveStock()).thenReturn(List.of(
+                new ProductStockDTO(1L, 50),
+                new ProductStockDTO(2L, 0),
+                new ProductStockDTO(3L, 10),
+                new ProductStockDTO(4L, 7)));
+        when(productRepository.getReferenceById(anyLong())).thenAnswer(i -> {
+            Product p = new Product();
+            p.setId(i.getArgument(0));
+            return p;
+        });
+
+        service.refresh();
+
+        ArgumentCaptor<List<ProductAnalytics>> captor = ArgumentCaptor.forClass(List.class);
+        verify(analyticsRepository, never()).deleteAllInBatch();
+        verify(analyticsRepository).saveAll(captor.capture());
+        verify(analyticsRepository).deleteForInactiveProducts();
+        Map<Long, ProductAnalytics> byProduct = captor.getValue().stream()
+                .collect(Collectors.toMap(a -> a.getProduct().getId(), a -> a));
+
+        assertEquals(AbcClass.A, byProduct.get(1L).getAbcClass());
+        assertEquals(AbcClass.B, byProduct.get(2L).getAbcClass());
+        assertEquals(AbcClass.C, byProduct.get(3L).getAbcClass());
+        assertEquals(AbcClass.C, byProduct.get(4L).getAbcClass());
+        // 100 unidades em 10 dias com 50 em estoque: giro 2, 5 dias de cobertura
+        assertEquals(2.0, byProduct.get(1L).getTurnover());
+        assertEquals(5.0, byProduct.get(1L).getDaysOfSupply());
+        assertNull(byProduct.get(4L).getDaysOfSupply());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void refresh_ShouldUpdateExistingRowsInPlace() {
+        when(dailyRepository.findLastDay()).thenReturn(LocalDate.now().minusDays(1));
+        when(dailyRepository.sumSince(any())).thenReturn(List.of(new ProductWindowTotalDTO(1L, 10L, BigDecimal.TEN)));
+        when(productRepository.findActiveStock()).thenReturn(List.of(new ProductStockDTO(1L, 5)));
+        Product product = new Product();
+        product.setId(1L);
+        ProductAnalytics existing = ProductAnalytics.builder().id(40L).product(product).abcClass(AbcClass.C)
+                .consumptionValue(BigDecimal.ZERO).calculatedOn(LocalDate.now().minusDays(1)).build();
+        when(analyticsRepository.findByProductIdIn(List.of(1L))).thenReturn(List.of(existing));
+
+        service.refresh();
+
+        ArgumentCaptor<List<ProductAnalytics>> captor = ArgumentCaptor.forClass(List.class);
+        verify(analyticsRepository).saveAll(captor.capture());
+        assertSame(existing, captor.getValue().get(0));
+        assertEquals(AbcClass.A, existing.getAbcClass());
+        assertEquals(LocalDate.now(), existing.getCalculatedOn());
+        verify(productRepository, never()).getReferenceById(anyLong());
+    }
+
+    @Test
+    void refresh_ShouldRollUpOnlyMissingDays() {
+        LocalDate today = LocalDate.now();
+        when(dailyRepository.findLastDay()).thenReturn(today.minusDays(3));
+        when(movementRepository.getProductDailyTotals(any(), any(), eq(MovementType.SAIDA_REQUISICAO)))
+                .thenReturn(List.of(new ProductDailyTotalDTO(1L, today.minusDays(1), 4L, BigDecimal.TEN)));
+        when(dailyRepository.sumSince(any())).thenReturn(Collections.emptyList());
+        when(productRepository.findActiveStock()).thenReturn(Collections.emptyList());
+
+        service.refresh();
+
+        verify(movementRepository).getProductDailyTotals(
+                today.minusDays(2).atStartOfDay(), today.atStartOfDay(), MovementType.SAIDA_REQUISICAO);
+        verify(dailyRepository).saveAll(anyList());
+        verify(dailyRepository).deleteOlderThan(today.minusDays(10));
+    }
+
+    @Test
+    void refresh_ShouldReaggregateTrailingDays_ForLateMovements() {
+        LocalDate today = LocalDate.now();
+        when(dailyRepository.findLastDay()).thenReturn(today.minusDays(1));
+        when(dailyRepository.sumSince(any())).thenReturn(Collections.emptyList());
+        when(productRepository.findActiveStock()).thenReturn(Collections.emptyList());
+
+        service.refresh();
+
+        verify(dailyRepository).deleteFrom(today.minusDays(2));
+        verify(movementRepository).getProductDailyTotals(
+                today.minusDays(2).atStartOfDay(), today.atStartOfDay(), MovementType.SAIDA_REQUISICAO);
+    }
+}
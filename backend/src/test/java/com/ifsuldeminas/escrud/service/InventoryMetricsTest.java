@@ -0,0 +1,41 @@
+package com.ifsuldeminas.escrud.service;
+
+import com.ifsuldeminas.escrud.entities.MovementType;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class InventoryMetricsTest {
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final InventoryMetrics metrics = new InventoryMetrics(registry);
+
+    private double count(String name, String tag, String value) {
+        return registry.get(name).tag(tag, value).counter().count();
+    }
+
+    @Test
+    void movementSaved_ShouldCountByType() {
+        metrics.movementSaved(MovementType.SAIDA_REQUISICAO);
+        metrics.movementSaved(MovementType.SAIDA_REQUISICAO);
+        metrics.movementSaved(MovementType.ENTRADA_COMPRA);
+        metrics.insufficientStock();
+
+        assertEquals(2, count("escrud.stock.movements", "type", "SAIDA_REQUISICAO"));
+        assertEquals(1, count("escrud.stock.movements", "type", "ENTRADA_COMPRA"));
+        assertEquals(0, count("escrud.stock.movements", "type", "AJUSTE"));
+        assertEquals(1, count("escrud.stock.rejections", "reason", "insufficient_stock"));
+    }
+
+    @Test
+    void stockChanged_ShouldCountOnlyCrossingsOfTheMinimum() {
+        metrics.stockChanged(10, 5, 5);
+        metrics.stockChanged(5, 2, 5);
+        metrics.stockChanged(2, 8, 5);
+        metrics.stockChanged(8, 9, 5);
+
+        assertEquals(1, count("escrud.stock.low_stock_crossings", "direction", "entered"));
+        assertEquals(1, count("escrud.stock.low_stock_crossings", "direction", "left"));
+    }
+}
@@ -0,0 +1,94 @@
+package com.ifsuldeminas.escrud.service;
+
+import com.ifsuldeminas.escrud.dto.LowStockItemDTO;
+import com.ifsuldeminas.escrud.dto.ProductIndexRowDTO;
+import com.ifsuldeminas.escrud.repositories.ProductRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class LowStockIndexTest {
+
+    @InjectMocks
+    private LowStockIndex index;
+
+    @Mock
+    private ProductRepository productRepository;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(index, "enabled", true);
+        when(productRepository.findLowStockItems()).thenReturn(List.of(
+                new LowStockItemDTO(1L, "SKU-1", "Papel A4", 4, 5),
+                new LowStockItemDTO(2L, "SKU-2", "Toner", 0, 5),
+                new LowStockItemDTO(3L, "SKU-3", "Caneta", 1, 10)));
+        index.load();
+    }
+
+    private static ProductIndexRowDTO row(long id, int quantity, int minStock, boolean active) {
+        return new ProductIndexRowDTO(id, "SKU-" + id, "Produto " + id, null, null, null, quantity, minStock, active);
+    }
+
+    private List<Long> ids() {
+        return index.all().stream().map(LowStockItemDTO::id).toList();
+    }
+
+    @Test
+    void load_ShouldOrderByDeficitMostCriticalFirst() {
+        assertTrue(index.isReady());
+        assertEquals(List.of(3L, 2L, 1L), ids());
+        assertEquals(List.of(2L), index.page(1, 1).stream().map(LowStockItemDTO::id).toList());
+    }
+
+    @Test
+    void apply_ShouldAddReorderAndRemoveItems() {
+        index.apply(List.of(1L, 4L, 3L, 2L), List.of(
+                row(1L, 0, 20, true), row(4L, 2, 2, true), row(3L, 11, 10, true), row(2L, 0, 5, false)));
+
+        assertEquals(List.of(1L, 4L), ids());
+        assertEquals(2, index.size());
+    }
+
+    @Test
+    void apply_ShouldRemoveProductsMissingFromTheRows() {
+        // Excluído depois do commit: a releitura não traz mais a linha
+        index.apply(List.of(2L), List.of());
+
+        assertEquals(List.of(3L, 1L), ids());
+    }
+
+    @Test
+    void invalidate_ShouldLeaveTheIndexOutOfUseUntilItReloads() throws Exception {
+        CountDownLatch reloading = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        when(productRepository.findLowStockItems()).thenAnswer(invocation -> {
+            reloading.countDown();
+            release.await();
+            return List.of(new LowStockItemDTO(1L, "SKU-1", "Papel A4", 4, 5));
+        });
+
+        index.invalidate();
+
+        assertTrue(reloading.await(5, TimeUnit.SECONDS));
+        assertFalse(index.isReady());
+        release.countDown();
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (!index.isReady() && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        assertTrue(index.isReady());
+        assertEquals(List.of(1L), ids());
+    }
+}
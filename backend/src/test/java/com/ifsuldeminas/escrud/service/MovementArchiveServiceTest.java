@@ -0,0 +1,134 @@
+package com.ifsuldeminas.escrud.service;
+
+import com.ifsuldeminas.escrud.dto.ArchivedMovementDTO;
+import com.ifsuldeminas.escrud.dto.StockMovementResponseDTO;
+import com.ifsuldeminas.escrud.entities.*;
+import com.ifsuldeminas.escrud.repositories.*;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Caminho de arquivamento do H2 (sem partições): DELETE do mês depois da cópia compactada.
+// Banco próprio e blocos de 2 linhas para o mês sair em mais de um bloco.
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:archive",
+        "movements.archive.chunk-size=2"
+})
+class MovementArchiveServiceTest {
+
+    @Autowired
+    private MovementArchiveService archiveService;
+
+    @Autowired
+    private StockMovementRepository movementRepository;
+
+    @Autowired
+    private StockMovementArchiveRepository archiveRepository;
+
+    @Autowired
+    private CategoryRepository categoryRepository;
+
+    @Autowired
+    private DepartmentRepository departmentRepository;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    private Product paper;
+    private Product pen;
+    private Department department;
+
+    @BeforeEach
+    void setUp() {
+        movementRepository.deleteAll();
+        archiveRepository.deleteAll();
+        Category category = categoryRepository.save(Category.builder()
+                .name("Arquivo " + System.nanoTime()).active(true).build());
+        department = departmentRepository.save(Department.builder()
+                .name("Setor " + System.nanoTime()).active(true).build());
+        paper = productRepository.save(Product.builder().sku("ARQ-" + System.nanoTime()).name("Papel A4")
+                .quantityInStock(100).minStock(1).costPrice(BigDecimal.ONE).active(true).category(category).build());
+        pen = productRepository.save(Product.builder().sku("ARQ-" + System.nanoTime()).name("Caneta")
+                .quantityInStock(100).minStock(1).costPrice(BigDecimal.ONE).active(true).category(category).build());
+    }
+
+    @Test
+    void archiveBefore_ShouldMoveWholeOldMonthsToTheArchive() {
+        LocalDateTime old = YearMonth.now().minusMonths(14).atDay(3).atTime(10, 0);
+        save(paper, old, -1, department);
+        save(paper, old.plusDays(1), -2, department);
+        save(pen, old.plusDays(2), 5, null);
+        save(paper, old.plusMonths(1), -3, department);
+        StockMovement recent = save(paper, LocalDateTime.now(), -4, department);
+
+        int archived = archiveService.archiveBefore(YearMonth.now().minusMonths(12));
+
+        assertEquals(4, archived);
+        assertEquals(List.of(recent.getId()), movementRepository.findAll().stream().map(StockMovement::getId).toList());
+        assertEquals(3, archiveRepository.count()); // 2 + 1 no primeiro mês, 1 no segundo
+        assertEquals(0, archiveService.archiveBefore(YearMonth.now().minusMonths(12)));
+
+        LocalDate from = old.toLocalDate();
+        LocalDate to = old.plusMonths(1).toLocalDate();
+        Page<StockMovementResponseDTO> page = archiveService.search(paper.getId(), null, null, from, to,
+                PageRequest.of(0, 2));
+        assertEquals(3, page.getTotalElements());
+        assertEquals(List.of(-3, -2), page.getContent().stream().map(StockMovementResponseDTO::quantity).toList());
+        assertEquals("Papel A4", page.getContent().get(0).productName());
+        assertEquals(department.getName(), page.getContent().get(0).departmentName());
+        Page<StockMovementResponseDTO> second = archiveService.search(paper.getId(), null, null, from, to,
+                PageRequest.of(1, 2));
+        assertEquals(3, second.getTotalElements());
+        assertEquals(List.of(-1), second.getContent().stream().map(StockMovementResponseDTO::quantity).toList());
+
+        Page<StockMovementResponseDTO> inPeriod = archiveService.search(null, null, MovementType.AJUSTE,
+                old.toLocalDate().plusDays(2), old.toLocalDate().plusDays(2), PageRequest.of(0, 10));
+        assertEquals(1, inPeriod.getTotalElements());
+        assertNull(inPeriod.getContent().get(0).departmentName());
+        assertEquals("Unknown", inPeriod.getContent().get(0).userName());
+    }
+
+    @Test
+    void search_ShouldRequireAClosedBoundedRange() {
+        LocalDate today = LocalDate.now();
+        assertThrows(IllegalArgumentException.class,
+                () -> archiveService.search(null, null, null, null, today, PageRequest.of(0, 10)));
+        assertThrows(IllegalArgumentException.class,
+                () -> archiveService.search(null, null, null, today, today.minusDays(1), PageRequest.of(0, 10)));
+        assertThrows(IllegalArgumentException.class, () -> archiveService.search(null, null, null,
+                today.minusDays(MovementArchiveService.MAX_SEARCH_DAYS), today, PageRequest.of(0, 10)));
+        assertEquals(0, archiveService.search(null, null, null,
+                today.minusDays(MovementArchiveService.MAX_SEARCH_DAYS - 1), today, PageRequest.of(0, 10))
+                .getTotalElements());
+    }
+
+    @Test
+    void encode_ShouldRoundTripRows() {
+        List<ArchivedMovementDTO> rows = List.of(
+                new ArchivedMovementDTO(1L, LocalDateTime.of(2024, 2, 29, 23, 59, 59, 123_456_000),
+                        MovementType.ENTRADA_COMPRA, 10, null, 5L, null, 9L, 3, "Papel", null, "Alpha", "Ana"),
+                new ArchivedMovementDTO(2L, LocalDateTime.of(2024, 2, 1, 0, 0), MovementType.AJUSTE, -1,
+                        "Inventário çã", 5L, 2, null, null, "Papel", "TI", null, null));
+
+        assertEquals(rows, MovementArchiveService.decode(MovementArchiveService.encode(rows)));
+    }
+
+    private StockMovement save(Product product, LocalDateTime dateTime, int quantity, Department department) {
+        return movementRepository.save(StockMovement.builder()
+                .dateTime(dateTime)
+                .type(department != null ? MovementType.SAIDA_REQUISICAO : MovementType.AJUSTE)
+                .quantity(quantity).reason(department != null ? null : "Contagem")
+                .product(product).department(department).build());
+    }
+}
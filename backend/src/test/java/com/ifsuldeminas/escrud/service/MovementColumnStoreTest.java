@@ -0,0 +1,153 @@
+package com.ifsuldeminas.escrud.service;
+
+import com.ifsuldeminas.escrud.dto.MovementRowDTO;
+import com.ifsuldeminas.escrud.entities.Department;
+import com.ifsuldeminas.escrud.entities.MovementType;
+import com.ifsuldeminas.escrud.entities.Product;
+import com.ifsuldeminas.escrud.entities.StockMovement;
+import com.ifsuldeminas.escrud.repositories.StockMovementRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class MovementColumnStoreTest {
+
+    @InjectMocks
+    private MovementColumnStore store;
+
+    @Mock
+    private StockMovementRepository movementRepository;
+
+    private final LocalDateTime day = LocalDateTime.of(2024, 3, 10, 10, 0);
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(store, "enabled", true);
+        ReflectionTestUtils.setField(store, "overlapSeconds", 600);
+    }
+
+    @Test
+    void load_ShouldAggregateConsumptionByDepartment() {
+        when(movementRepository.findRowsAfter(eq(0L), any())).thenReturn(List.of(
+                new MovementRowDTO(1L, day, 10L, new BigDecimal("2.00"), 1, MovementType.SAIDA_REQUISICAO, -3),
+                new MovementRowDTO(2L, day, 11L, new BigDecimal("5.00"), 1, MovementType.SAIDA_REQUISICAO, -1),
+                new MovementRowDTO(3L, day, 10L, new BigDecimal("2.00"), 2, MovementType.SAIDA_REQUISICAO, -4),
+                new MovementRowDTO(4L, day, 10L, new BigDecimal("2.00"), null, MovementType.ENTRADA_COMPRA, 50),
+                new MovementRowDTO(5L, day.plusYears(1), 10L, new BigDecimal("2.00"), 1, MovementType.SAIDA_REQUISICAO, -9)));
+
+        store.load();
+
+        assertTrue(store.isReady());
+        List<MovementColumnStore.DepartmentTotal> totals =
+                store.sumByDepartment(day.minusDays(1), day.plusDays(1), MovementType.SAIDA_REQUISICAO);
+        assertEquals(2, totals.size());
+        MovementColumnStore.DepartmentTotal first = totals.stream().filter(t -> t.departmentId() == 1).findFirst().orElseThrow();
+        assertEquals(4, first.quantity());
+        assertEquals(11.0, first.value(), 0.0001);
+    }
+
+    @Test
+    void load_ShouldPickUpLowerIdCommittedAfterKeysetPassedIt() {
+        LocalDateTime recent = LocalDateTime.now().minusSeconds(5);
+        MovementRowDTO loaded = new MovementRowDTO(5L, recent, 10L, BigDecimal.ONE, 1, MovementType.SAIDA_REQUISICAO, -2);
+        MovementRowDTO late = new MovementRowDTO(3L, recent, 10L, BigDecimal.ONE, 1, MovementType.SAIDA_REQUISICAO, -7);
+        when(movementRepository.findRowsAfter(eq(0L), any())).thenReturn(List.of(loaded));
+        when(movementRepository.findRowsSince(any())).thenReturn(List.of(late, loaded));
+
+        store.load();
+
+        List<MovementColumnStore.DepartmentTotal> totals = store.sumByDepartment(
+                recent.minusMinutes(1), recent.plusMinutes(1), MovementType.SAIDA_REQUISICAO);
+        assertEquals(9, totals.get(0).quantity());
+    }
+
+    @Test
+    void evictBefore_ShouldDropArchivedMonthsFromTheAggregates() {
+        LocalDateTime archived = day.minusMonths(2);
+        when(movementRepository.findRowsAfter(eq(0L), any())).thenReturn(List.of(
+                new MovementRowDTO(1L, archived, 10L, new BigDecimal("2.00"), 1, MovementType.SAIDA_REQUISICAO, -3),
+                new MovementRowDTO(2L, day, 10L, new BigDecimal("2.00"), 1, MovementType.SAIDA_REQUISICAO, -1),
+                // Gravada depois com data antiga: fica no meio do segmento e também sai
+                new MovementRowDTO(3L, archived.plusDays(1), 11L, new BigDecimal("5.00"), 1, MovementType.SAIDA_REQUISICAO, -4)));
+        store.load();
+
+        assertEquals(2, store.evictBefore(day.withDayOfMonth(1)));
+
+        assertEquals(List.of(new MovementColumnStore.ProductTotal(10L, 1, 2.0)),
+                store.sumByProduct(archived.minusDays(1), day.plusDays(1), null, null));
+        assertEquals(0, store.evictBefore(day.withDayOfMonth(1)));
+        assertEquals(1, store.sumByDepartment(day.minusDays(1), day.plusDays(1), MovementType.SAIDA_REQUISICAO)
+                .get(0).quantity());
+    }
+
+    @Test
+    void sumByProduct_ShouldFilterByTypeAndDepartment() {
+        when(movementRepository.findRowsAfter(eq(0L), any())).thenReturn(List.of(
+                new MovementRowDTO(1L, day, 10L, new BigDecimal("2.00"), 1, MovementType.SAIDA_REQUISICAO, -3),
+                new MovementRowDTO(2L, day, 11L, new BigDecimal("5.00"), 1, MovementType.SAIDA_REQUISICAO, -1),
+                new MovementRowDTO(3L, day, 10L, new BigDecimal("2.00"), 2, MovementType.SAIDA_REQUISICAO, -4),
+                new MovementRowDTO(4L, day, 10L, new BigDecimal("2.00"), null, MovementType.ENTRADA_COMPRA, 50)));
+        store.load();
+
+        List<MovementColumnStore.ProductTotal> exits =
+                store.sumByProduct(day.minusDays(1), day.plusDays(1), MovementType.SAIDA_REQUISICAO, 1);
+        List<MovementColumnStore.ProductTotal> all = store.sumByProduct(day.minusDays(1), day.plusDays(1), null, null);
+
+        assertEquals(List.of(new MovementColumnStore.ProductTotal(10L, 3, 2.0),
+                new MovementColumnStore.ProductTotal(11L, 1, 5.0)), exits);
+        assertEquals(57, all.get(0).quantity());
+    }
+
+    @Test
+    void onMovementSaved_ShouldAppendAfterLoad_AndUseUpdatedCost() {
+        when(movementRepository.findRowsAfter(any(), any())).thenReturn(Collections.emptyList());
+        store.load();
+
+        Product product = new Product();
+        product.setId(7L);
+        product.setCostPrice(new BigDecimal("3.00"));
+        Department department = new Department();
+        department.setId(4);
+        StockMovement movement = new StockMovement();
+        movement.setId(100L);
+        movement.setDateTime(day);
+        movement.setType(MovementType.SAIDA_REQUISICAO);
+        movement.setQuantity(-2);
+        movement.setProduct(product);
+        movement.setDepartment(department);
+
+        store.onMovementSaved(movement);
+        store.updateCost(7L, new BigDecimal("10.00"));
+
+        MovementColumnStore.Totals totals =
+                store.dailyTotals(day.toLocalDate().atStartOfDay(), 1, MovementType.SAIDA_REQUISICAO, 7L, 4);
+        assertEquals(2, totals.quantity()[0]);
+        assertEquals(20.0, totals.value()[0], 0.0001);
+    }
+
+    @Test
+    void dailyTotals_ShouldReturnEmpty_ForUnknownProduct() {
+        when(movementRepository.findRowsAfter(any(), any())).thenReturn(Collections.emptyList());
+        store.load();
+
+        MovementColumnStore.Totals totals =
+                store.dailyTotals(day, 3, MovementType.SAIDA_REQUISICAO, 99L, null);
+
+        assertArrayEquals(new long[3], totals.quantity());
+    }
+}
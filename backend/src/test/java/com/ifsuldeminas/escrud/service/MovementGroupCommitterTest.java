@@ -0,0 +1,238 @@
+package com.ifsuldeminas.escrud.service;
+
+import com.ifsuldeminas.escrud.dto.MovementAckDTO;
+import com.ifsuldeminas.escrud.dto.StockMovementRequestDTO;
+import com.ifsuldeminas.escrud.dto.StockMovementResponseDTO;
+import com.ifsuldeminas.escrud.entities.MovementType;
+import com.ifsuldeminas.escrud.service.MovementJournal.JournaledWrite;
+import com.ifsuldeminas.escrud.service.StockMovementService.QueuedWrite;
+import com.ifsuldeminas.escrud.service.StockMovementService.WriteResult;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingDeque;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class MovementGroupCommitterTest {
+
+    @InjectMocks
+    private MovementGroupCommitter committer;
+
+    @Mock
+    private StockMovementService movementService;
+
+    @Mock
+    private MovementJournal journal;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(committer, "durability", MovementDurability.GROUP);
+        ReflectionTestUtils.setField(committer, "windowMs", 50L);
+        ReflectionTestUtils.setField(committer, "maxBatch", 128);
+        ReflectionTestUtils.setField(committer, "retryBackoffMs", 0L);
+        lenient().when(movementService.currentUserId()).thenReturn(5);
+    }
+
+    @AfterEach
+    void tearDown() {
+        committer.stop();
+    }
+
+    private static StockMovementRequestDTO request() {
+        return new StockMovementRequestDTO(1L, -1, MovementType.SAIDA_REQUISICAO, 1, null, null);
+    }
+
+    private static List<WriteResult> echo(List<QueuedWrite> writes) {
+        List<WriteResult> results = new ArrayList<>();
+        long id = 1;
+        for (QueuedWrite w : writes) {
+            results.add(new WriteResult(new StockMovementResponseDTO(id++, LocalDateTime.now(),
+                    w.request().type(), w.request().quantity(), null, "P", "TI", null, "user-" + w.userId()), null));
+        }
+        return results;
+    }
+
+    // markCommitted é synchronized: verify(timeout) seguraria o monitor do mock e travaria o flusher
+    private CountDownLatch markCommittedLatch(long sequence) {
+        CountDownLatch latch = new CountDownLatch(1);
+        doAnswer(i -> {
+            latch.countDown();
+            return null;
+        }).when(journal).markCommitted(sequence);
+        return latch;
+    }
+
+    @Test
+    void submit_ShouldShareOneCommitAcrossConcurrentWriters() throws Exception {
+        when(movementService.createGroup(anyList())).thenAnswer(i -> echo(i.getArgument(0)));
+        committer.start();
+
+        List<CompletableFuture<StockMovementResponseDTO>> futures = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            futures.add(committer.submit(request(), null));
+        }
+        for (CompletableFuture<StockMovementResponseDTO> f : futures) {
+            assertEquals("user-5", f.get(5, TimeUnit.SECONDS).userName());
+        }
+        verify(movementService, atMost(2)).createGroup(anyList());
+        verify(journal, never()).markCommitted(anyLong());
+    }
+
+    @Test
+    void enqueue_ShouldJournalWithGeneratedKey_AndMarkCommittedAfterGroup() throws Exception {
+        ReflectionTestUtils.setField(committer, "durability", MovementDurability.ASYNC);
+        when(journal.append(any())).thenReturn(7L);
+        when(movementService.createGroup(anyList())).thenAnswer(i -> echo(i.getArgument(0)));
+        CountDownLatch committed = markCommittedLatch(7L);
+        committer.start();
+
+        MovementAckDTO ack = committer.enqueue(request(), null);
+
+        assertTrue(ack.idempotencyKey().startsWith("journal-"));
+        assertEquals(7L, ack.journalSequence());
+        assertTrue(committed.await(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    void start_ShouldReplayJournaledWrites() throws Exception {
+        ReflectionTestUtils.setField(committer, "durability", MovementDurability.ASYNC);
+        QueuedWrite write = new QueuedWrite(request(), "journal-1", 5, LocalDateTime.now());
+        when(journal.recover()).thenReturn(List.of(new JournaledWrite(3L, write)));
+        when(movementService.createGroup(anyList())).thenAnswer(i -> echo(i.getArgument(0)));
+        CountDownLatch committed = markCommittedLatch(3L);
+
+        committer.start();
+
+        assertTrue(committed.await(5, TimeUnit.SECONDS));
+        verify(movementService).createGroup(List.of(write));
+    }
+
+    @Test
+    void start_ShouldReplayJournal_EvenWhenBackToSync() throws Exception {
+        ReflectionTestUtils.setField(committer, "durability", MovementDurability.SYNC);
+        QueuedWrite write = new QueuedWrite(request(), "journal-1", 5, LocalDateTime.now());
+        when(journal.exists()).thenReturn(true);
+        when(journal.recover()).thenReturn(List.of(new JournaledWrite(3L, write)));
+        when(movementService.createGroup(anyList())).thenAnswer(i -> echo(i.getArgument(0)));
+
+        committer.start();
+
+        verify(movementService).createGroup(List.of(write));
+        verify(journal).markCommitted(3L);
+    }
+
+    @Test
+    void start_ShouldRefuseToStartInSync_WhenJournalCannotBeReplayed() {
+        ReflectionTestUtils.setField(committer, "durability", MovementDurability.SYNC);
+        QueuedWrite write = new QueuedWrite(request(), "journal-1", 5, LocalDateTime.now());
+        when(journal.exists()).thenReturn(true);
+        when(journal.recover()).thenReturn(List.of(new JournaledWrite(3L, write)));
+        when(movementService.createGroup(anyList())).thenThrow(new IllegalStateException("db down"));
+
+        assertThrows(IllegalStateException.class, committer::start);
+        verify(journal, never()).markCommitted(anyLong());
+    }
+
+    @Test
+    void enqueue_ShouldKeepQueueInJournalOrder_UnderConcurrentWriters() throws Exception {
+        ReflectionTestUtils.setField(committer, "durability", MovementDurability.ASYNC);
+        ReflectionTestUtils.setField(committer, "running", true);
+        CountDownLatch secondAppending = new CountDownLatch(1);
+        AtomicLong sequences = new AtomicLong(4);
+        when(journal.append(any())).thenAnswer(i -> {
+            long sequence = sequences.incrementAndGet();
+            if (sequence == 5) {
+                // Sem o lock o segundo escritor pegaria a 6 e entraria na fila antes da 5
+                secondAppending.await(200, TimeUnit.MILLISECONDS);
+            } else {
+                secondAppending.countDown();
+            }
+            return sequence;
+        });
+
+        Thread first = new Thread(() -> committer.enqueue(request(), null));
+        first.start();
+        Thread.sleep(50);
+        committer.enqueue(request(), null);
+        first.join();
+
+        @SuppressWarnings("unchecked")
+        BlockingDeque<MovementGroupCommitter.Pending> queue =
+                (BlockingDeque<MovementGroupCommitter.Pending>) ReflectionTestUtils.getField(committer, "queue");
+        assertEquals(List.of(5L, 6L), queue.stream().map(MovementGroupCommitter.Pending::sequence).toList());
+    }
+
+    @Test
+    void commit_ShouldIsolateItems_WhenGroupHitsDuplicateKey() throws Exception {
+        QueuedWrite a = new QueuedWrite(request(), "k", 5, LocalDateTime.now());
+        QueuedWrite b = new QueuedWrite(request(), null, 5, LocalDateTime.now());
+        when(movementService.createGroup(List.of(a, b))).thenThrow(new DataIntegrityViolationException("dup"));
+        when(movementService.createGroup(List.of(a))).thenAnswer(i -> echo(i.getArgument(0)));
+        when(movementService.createGroup(List.of(b))).thenAnswer(i -> echo(i.getArgument(0)));
+
+        MovementGroupCommitter.Pending pa = new MovementGroupCommitter.Pending(a, new CompletableFuture<>(), 0);
+        MovementGroupCommitter.Pending pb = new MovementGroupCommitter.Pending(b, new CompletableFuture<>(), 0);
+        committer.commit(List.of(pa, pb));
+
+        assertNotNull(pa.future().join());
+        assertNotNull(pb.future().join());
+    }
+
+    @Test
+    void commit_ShouldCheckpointOnlyResolvedItems_WhenDatabaseFailsWhileIsolating() throws Exception {
+        QueuedWrite a = new QueuedWrite(request(), "a", 5, LocalDateTime.now());
+        QueuedWrite b = new QueuedWrite(request(), "b", 5, LocalDateTime.now());
+        QueuedWrite c = new QueuedWrite(request(), "c", 5, LocalDateTime.now());
+        when(movementService.createGroup(List.of(a, b, c))).thenThrow(new DataIntegrityViolationException("dup"));
+        when(movementService.createGroup(List.of(a))).thenAnswer(i -> echo(i.getArgument(0)));
+        when(movementService.createGroup(List.of(b))).thenThrow(new IllegalStateException("connection lost"));
+
+        MovementGroupCommitter.Pending pa = new MovementGroupCommitter.Pending(a, null, 7);
+        MovementGroupCommitter.Pending pb = new MovementGroupCommitter.Pending(b, null, 8);
+        MovementGroupCommitter.Pending pc = new MovementGroupCommitter.Pending(c, null, 9);
+        committer.commit(List.of(pa, pb, pc));
+
+        verify(journal).markCommitted(7L);
+        verify(journal, never()).markCommitted(9L);
+        @SuppressWarnings("unchecked")
+        BlockingDeque<MovementGroupCommitter.Pending> queue =
+                (BlockingDeque<MovementGroupCommitter.Pending>) ReflectionTestUtils.getField(committer, "queue");
+        assertEquals(List.of(pb, pc), List.copyOf(queue));
+    }
+
+    @Test
+    void commit_ShouldRequeueJournaledWrites_WhenDatabaseFails() throws Exception {
+        QueuedWrite a = new QueuedWrite(request(), "k", 5, LocalDateTime.now());
+        when(movementService.createGroup(anyList())).thenThrow(new IllegalStateException("db down"));
+
+        MovementGroupCommitter.Pending journaled = new MovementGroupCommitter.Pending(a, null, 5);
+        MovementGroupCommitter.Pending waiting = new MovementGroupCommitter.Pending(a, new CompletableFuture<>(), 0);
+        committer.commit(List.of(journaled, waiting));
+
+        assertTrue(waiting.future().isCompletedExceptionally());
+        verify(journal, never()).markCommitted(anyLong());
+        @SuppressWarnings("unchecked")
+        BlockingDeque<MovementGroupCommitter.Pending> queue =
+                (BlockingDeque<MovementGroupCommitter.Pending>) ReflectionTestUtils.getField(committer, "queue");
+        assertSame(journaled, queue.peekFirst());
+    }
+}
@@ -0,0 +1,133 @@
+package com.ifsuldeminas.escrud.service;
+
+import com.ifsuldeminas.escrud.dto.StockMovementRequestDTO;
+import com.ifsuldeminas.escrud.entities.MovementType;
+import com.ifsuldeminas.escrud.service.MovementJournal.JournaledWrite;
+import com.ifsuldeminas.escrud.service.StockMovementService.QueuedWrite;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.RandomAccessFile;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MovementJournalTest {
+
+    private static final LocalDateTime ACCEPTED_AT = LocalDateTime.of(2025, 3, 1, 8, 30, 15);
+
+    @TempDir
+    Path dir;
+
+    private MovementJournal journal;
+
+    @AfterEach
+    void tearDown() throws Exception {
+        if (journal != null) {
+            journal.close();
+        }
+    }
+
+    private MovementJournal open() throws Exception {
+        if (journal != null) {
+            journal.close();
+        }
+        journal = new MovementJournal();
+        ReflectionTestUtils.setField(journal, "dir", dir.toString());
+        ReflectionTestUtils.setField(journal, "segmentRecords", 4);
+        ReflectionTestUtils.setField(journal, "fsync", false);
+        return journal;
+    }
+
+    private static QueuedWrite write(String key) {
+        return new QueuedWrite(new StockMovementRequestDTO(1L, -1, MovementType.SAIDA_REQUISICAO, 3, null, null),
+                key, 5, ACCEPTED_AT);
+    }
+
+    private List<String> segmentFiles() throws Exception {
+        try (Stream<Path> files = Files.list(dir)) {
+            return files.map(f -> f.getFileName().toString()).filter(n -> n.startsWith("segment-")).sorted().toList();
+        }
+    }
+
+    @Test
+    void encode_ShouldRoundTripEveryField() {
+        QueuedWrite original = new QueuedWrite(
+                new StockMovementRequestDTO(42L, 7, MovementType.AJUSTE, null, 9L, "Inventário"),
+                "scan-1", null, ACCEPTED_AT);
+
+        QueuedWrite decoded = MovementJournal.decode(MovementJournal.encode(1, original));
+
+        assertEquals(original, decoded);
+    }
+
+    @Test
+    void encode_ShouldFitTheLargestAcceptedKey() {
+        QueuedWrite original = new QueuedWrite(
+                new StockMovementRequestDTO(42L, -1, MovementType.SAIDA_REQUISICAO, 3, null, "m".repeat(255)),
+                "k".repeat(IdempotencyStore.MAX_KEY_BYTES), 5, ACCEPTED_AT);
+
+        assertEquals(original, MovementJournal.decode(MovementJournal.encode(1, original)));
+    }
+
+    @Test
+    void encode_ShouldRejectKeysThatDoNotFitTheRecord() {
+        assertThrows(IllegalArgumentException.class,
+                () -> MovementJournal.encode(1, write("k".repeat(MovementJournal.MAX_KEY_BYTES + 1))));
+    }
+
+    @Test
+    void recover_ShouldReplayOnlyWritesAfterCheckpoint_AcrossSegments() throws Exception {
+        open().recover();
+        for (int i = 1; i <= 6; i++) {
+            journal.append(write("k" + i));
+        }
+        journal.markCommitted(2);
+
+        List<JournaledWrite> pending = open().recover();
+
+        assertEquals(List.of(3L, 4L, 5L, 6L), pending.stream().map(JournaledWrite::sequence).toList());
+        assertEquals("k3", pending.get(0).write().idempotencyKey());
+        assertEquals(ACCEPTED_AT, pending.get(0).write().acceptedAt());
+        assertEquals(7L, journal.append(write("k7")));
+    }
+
+    @Test
+    void markCommitted_ShouldDeleteFullyAppliedSegments() throws Exception {
+        open().recover();
+        for (int i = 1; i <= 9; i++) {
+            journal.append(write("k" + i));
+        }
+        assertEquals(3, segmentFiles().size());
+
+        journal.markCommitted(8);
+
+        assertEquals(List.of("segment-00000000000000000009.log"), segmentFiles());
+        assertEquals(List.of(9L), open().recover().stream().map(JournaledWrite::sequence).toList());
+    }
+
+    @Test
+    void recover_ShouldSkipCorruptedRecord() throws Exception {
+        open().recover();
+        journal.append(write("a"));
+        journal.append(write("b"));
+        journal.append(write("c"));
+        journal.close();
+
+        try (RandomAccessFile file = new RandomAccessFile(dir.resolve(segmentFiles().get(0)).toFile(), "rw")) {
+            file.seek(MovementJournal.RECORD_SIZE + 20);
+            file.write(0x7f);
+        }
+
+        List<JournaledWrite> pending = open().recover();
+
+        assertEquals(List.of("a", "c"), pending.stream().map(w -> w.write().idempotencyKey()).toList());
+        assertEquals(4L, journal.append(write("d")));
+    }
+}
@@ -0,0 +1,122 @@
+package com.ifsuldeminas.escrud.service;
+
+import com.ifsuldeminas.escrud.dto.StockMovementRequestDTO;
+import com.ifsuldeminas.escrud.dto.StockMovementResponseDTO;
+import com.ifsuldeminas.escrud.entities.MovementType;
+import com.ifsuldeminas.escrud.service.StockMovementService.QueuedWrite;
+import com.ifsuldeminas.escrud.service.StockMovementService.WriteResult;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class MovementWriteShardsTest {
+
+    @InjectMocks
+    private MovementWriteShards shards;
+
+    @Mock
+    private StockMovementService movementService;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(shards, "enabled", true);
+        ReflectionTestUtils.setField(shards, "shardCount", 2);
+        ReflectionTestUtils.setField(shards, "maxBatch", 64);
+        lenient().when(movementService.currentUserId()).thenReturn(5);
+    }
+
+    @AfterEach
+    void tearDown() {
+        shards.stop();
+    }
+
+    private static StockMovementRequestDTO request(long productId) {
+        return new StockMovementRequestDTO(productId, -1, MovementType.SAIDA_REQUISICAO, 1, null, null);
+    }
+
+    private static List<WriteResult> echo(List<QueuedWrite> writes) {
+        List<WriteResult> results = new ArrayList<>();
+        for (QueuedWrite w : writes) {
+            results.add(new WriteResult(new StockMovementResponseDTO(w.request().productId(), LocalDateTime.now(),
+                    w.request().type(), w.request().quantity(), null, "P", "TI", null, "user-" + w.userId()), null));
+        }
+        return results;
+    }
+
+    @Test
+    void submit_ShouldCompleteEveryCaller_WithProductGroupsOnTheirShard() throws Exception {
+        when(movementService.createCoalesced(anyLong(), anyList())).thenAnswer(i -> {
+            Long productId = i.getArgument(0);
+            List<QueuedWrite> writes = i.getArgument(1);
+            assertTrue(writes.stream().allMatch(w -> w.request().productId().equals(productId)));
+            assertEquals("movement-shard-" + shards.shardOf(productId), Thread.currentThread().getName());
+            return echo(writes);
+        });
+        shards.start();
+
+        List<CompletableFuture<StockMovementResponseDTO>> futures = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            futures.add(shards.submit(request(1 + i % 3), null));
+        }
+
+        for (int i = 0; i < futures.size(); i++) {
+            StockMovementResponseDTO response = futures.get(i).get(5, TimeUnit.SECONDS);
+            assertEquals(1L + i % 3, response.id());
+            assertEquals("user-5", response.userName());
+        }
+    }
+
+    @Test
+    void flush_ShouldFailOnlyTheRejectedItem() {
+        IllegalArgumentException rejected = new IllegalArgumentException("Insufficient stock for this operation.");
+        when(movementService.createCoalesced(eq(1L), anyList())).thenAnswer(i -> {
+            List<WriteResult> results = new ArrayList<>(echo(i.getArgument(1)));
+            results.set(1, new WriteResult(null, rejected));
+            return results;
+        });
+
+        MovementWriteShards.Pending ok = pending(1L);
+        MovementWriteShards.Pending failed = pending(1L);
+        shards.flush(List.of(ok, failed));
+
+        assertTrue(ok.future().isDone() && !ok.future().isCompletedExceptionally());
+        ExecutionException e = assertThrows(ExecutionException.class, () -> failed.future().get());
+        assertSame(rejected, e.getCause());
+    }
+
+    @Test
+    void flush_ShouldRetryGroupOnce_WhenIdempotencyKeyConflicts() {
+        when(movementService.createCoalesced(eq(2L), anyList()))
+                .thenThrow(new DataIntegrityViolationException("duplicate key"))
+                .thenAnswer(i -> echo(i.getArgument(1)));
+
+        MovementWriteShards.Pending pending = pending(2L);
+        shards.flush(List.of(pending));
+
+        assertEquals(2L, pending.future().join().id());
+        verify(movementService, times(2)).createCoalesced(eq(2L), anyList());
+    }
+
+    private static MovementWriteShards.Pending pending(long productId) {
+        return new MovementWriteShards.Pending(new QueuedWrite(request(productId), null, 5, LocalDateTime.now()), new CompletableFuture<>());
+    }
+}
@@ -0,0 +1,114 @@
+package com.ifsuldeminas.escrud.service;
+
+import com.ifsuldeminas.escrud.dto.FacetCountDTO;
+import com.ifsuldeminas.escrud.dto.ProductFacetRowDTO;
+import com.ifsuldeminas.escrud.dto.ProductIndexRowDTO;
+import com.ifsuldeminas.escrud.entities.StockStatus;
+import com.ifsuldeminas.escrud.repositories.ProductRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class ProductFacetIndexTest {
+
+    @InjectMocks
+    private ProductFacetIndex index;
+
+    @Mock
+    private ProductRepository productRepository;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(index, "enabled", true);
+        when(productRepository.findFacetRowsAfter(eq(0L), any())).thenReturn(List.of(
+                new ProductFacetRowDTO(1L, 1, 10L, "A1", 0, 5, true),
+                new ProductFacetRowDTO(2L, 1, 10L, "A1", 3, 5, true),
+                new ProductFacetRowDTO(3L, 1, null, "B2", 50, 5, true),
+                new ProductFacetRowDTO(4L, 2, 11L, "B2", 4, 5, true),
+                new ProductFacetRowDTO(5L, 2, 11L, "B2", 1, 5, false)));
+        index.load();
+    }
+
+    @Test
+    void search_ShouldIntersectFiltersAndCountEachFacetWithoutItsOwnFilter() {
+        ProductFacetIndex.Hits hits = index.search(1, null, null, StockStatus.BELOW_MIN, 0, 20);
+
+        assertEquals(List.of(2L), hits.ids());
+        assertEquals(1, hits.total());
+        // Categoria conta sem o próprio filtro: os dois BELOW_MIN ativos, um em cada categoria
+        assertEquals(List.of(new FacetCountDTO("1", 1), new FacetCountDTO("2", 1)),
+                hits.facets().get(ProductFacetIndex.CATEGORY));
+        assertEquals(List.of(new FacetCountDTO("BELOW_MIN", 1), new FacetCountDTO("OK", 1), new FacetCountDTO("ZERO", 1)),
+                hits.facets().get(ProductFacetIndex.STOCK_STATUS));
+    }
+
+    @Test
+    void search_ShouldPageOverMatchingIds_AndIgnoreInactiveProducts() {
+        ProductFacetIndex.Hits hits = index.search(null, null, "B2", null, 1, 5);
+
+        assertEquals(List.of(4L), hits.ids());
+        assertEquals(2, hits.total());
+    }
+
+    @Test
+    void apply_ShouldMoveProductBetweenFacetValues() {
+        index.apply(List.of(new ProductIndexRowDTO(2L, "SKU-2", "Produto 2", 2, null, "C3", 30, 5, true)));
+
+        assertEquals(List.of(4L), index.search(2, null, null, StockStatus.BELOW_MIN, 0, 20).ids());
+        assertEquals(List.of(2L), index.search(null, null, "C3", StockStatus.OK, 0, 20).ids());
+        assertTrue(index.search(null, 10L, null, null, 0, 20).ids().contains(1L));
+        assertFalse(index.search(null, 10L, null, null, 0, 20).ids().contains(2L));
+    }
+
+    @Test
+    void invalidate_ShouldReloadFromTheDatabase() throws Exception {
+        when(productRepository.findFacetRowsAfter(eq(0L), any())).thenReturn(List.of(
+                new ProductFacetRowDTO(1L, 1, 10L, "A1", 40, 5, true)));
+
+        index.invalidate();
+
+        // search espera a recarga em segundo plano; o que só existia no índice antigo sumiu
+        assertEquals(List.of(1L), index.search(null, null, null, null, 0, 20).ids());
+        assertTrue(index.isReady());
+    }
+
+    @Test
+    void search_ShouldWaitForTheLoadInFlight() throws Exception {
+        ProductFacetIndex fresh = new ProductFacetIndex(productRepository);
+        ReflectionTestUtils.setField(fresh, "enabled", true);
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        when(productRepository.findFacetRowsAfter(eq(0L), any())).thenAnswer(invocation -> {
+            started.countDown();
+            release.await();
+            return List.of(new ProductFacetRowDTO(1L, 1, 10L, "A1", 0, 5, true));
+        });
+        Thread loader = new Thread(fresh::load);
+        loader.start();
+        started.await();
+
+        CompletableFuture<ProductFacetIndex.Hits> search =
+                CompletableFuture.supplyAsync(() -> fresh.search(1, null, null, null, 0, 20));
+        assertThrows(TimeoutException.class, () -> search.get(200, TimeUnit.MILLISECONDS));
+
+        release.countDown();
+        assertEquals(List.of(1L), search.get(5, TimeUnit.SECONDS).ids());
+        loader.join();
+    }
+}
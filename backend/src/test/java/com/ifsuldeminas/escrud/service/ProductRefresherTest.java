@@ -0,0 +1,103 @@
+package com.ifsuldeminas.escrud.service;
+
+import com.ifsuldeminas.escrud.dto.ProductIndexRowDTO;
+import com.ifsuldeminas.escrud.entities.Product;
+import com.ifsuldeminas.escrud.repositories.ProductRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ProductRefresherTest {
+
+    @InjectMocks
+    private ProductRefresher refresher;
+
+    @Mock
+    private ProductRepository productRepository;
+
+    @Mock
+    private ProductFacetIndex facetIndex;
+
+    @Mock
+    private LowStockIndex lowStockIndex;
+
+    @BeforeEach
+    void setUp() {
+        lenient().when(facetIndex.isEnabled()).thenReturn(true);
+        lenient().when(lowStockIndex.isEnabled()).thenReturn(true);
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    private static Product product(long id) {
+        return Product.builder().id(id).quantityInStock(0).minStock(5).active(true).build();
+    }
+
+    @Test
+    void saved_ShouldReadOnceAfterCommit_AndApplyTheRowsToBothIndexes() {
+        // A entidade em mãos pode ser de uma transação mais antiga: vale a linha relida do banco
+        List<ProductIndexRowDTO> rows = List.of(
+                new ProductIndexRowDTO(1L, "SKU-1", "Papel A4", 1, 10L, "A1", 40, 5, true),
+                new ProductIndexRowDTO(2L, "SKU-2", "Toner", 1, 10L, "A1", 0, 5, true));
+        when(productRepository.findIndexRows(Set.of(1L, 2L))).thenReturn(rows);
+        TransactionSynchronizationManager.initSynchronization();
+
+        refresher.saved(product(1L));
+        refresher.saved(product(2L));
+        refresher.saved(product(1L));
+        verifyNoInteractions(productRepository);
+
+        List<TransactionSynchronization> synchronizations = TransactionSynchronizationManager.getSynchronizations();
+        assertEquals(1, synchronizations.size());
+        synchronizations.forEach(TransactionSynchronization::afterCommit);
+
+        verify(productRepository).findIndexRows(Set.of(1L, 2L));
+        verify(facetIndex).apply(rows);
+        verify(lowStockIndex).apply(Set.of(1L, 2L), rows);
+    }
+
+    @Test
+    void refresh_ShouldInvalidateBothIndexes_InsteadOfFailingTheCommittedRequest() {
+        when(productRepository.findIndexRows(anyCollection()))
+                .thenThrow(new DataAccessResourceFailureException("connection lost"));
+
+        assertDoesNotThrow(() -> refresher.saved(product(1L)));
+
+        verify(facetIndex).invalidate();
+        verify(lowStockIndex).invalidate();
+        verify(facetIndex, never()).apply(anyList());
+        verify(lowStockIndex, never()).apply(any(), anyList());
+    }
+
+    @Test
+    void saved_ShouldSkipTheRead_WhenBothIndexesAreDisabled() {
+        when(facetIndex.isEnabled()).thenReturn(false);
+        when(lowStockIndex.isEnabled()).thenReturn(false);
+
+        refresher.saved(product(1L));
+
+        verifyNoInteractions(productRepository);
+    }
+}
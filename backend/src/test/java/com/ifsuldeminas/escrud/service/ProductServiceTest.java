@@ -24,6 +24,7 @@ import org.springframework.data.domain.Pageable;
 
 import java.math.BigDecimal;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -45,6 +46,21 @@ class ProductServiceTest {
     @Mock
     private SupplierRepository supplierRepository;
 
+    @Mock
+    private ReplenishmentService replenishmentService;
+
+    @Mock
+    private MovementColumnStore columnStore;
+
+    @Mock
+    private DataVersions dataVersions;
+
+    @Mock
+    private ProductFacetIndex facetIndex;
+
+    @Mock
+    private ProductRefresher productRefresher;
+
     private Product product;
     private Category category;
     private Supplier supplier;
@@ -91,13 +107,13 @@ class ProductServiceTest {
         Pageable pageable = PageRequest.of(0, 10);
         Page<Product> page = new PageImpl<>(List.of(product));
 
-        when(productRepository.search(null, null, true, pageable)).thenReturn(page);
+        when(productRepository.search(null, null, true, null, pageable)).thenReturn(page);
 
-        Page<ProductResponseDTO> result = service.findAll(pageable, null, null, null);
+        Page<ProductResponseDTO> result = service.findAll(pageable, null, null, null, null);
 
         assertNotNull(result);
         assertEquals(1, result.getTotalElements());
-        verify(productRepository).search(null, null, true, pageable);
+        verify(productRepository).search(null, null, true, null, pageable);
     }
 
     @Test
@@ -111,6 +127,17 @@ class ProductServiceTest {
         assertEquals("SKU-123", result.get(0).sku());
     }
 
+    @Test
+    @DisplayName("findFields deve repassar os campos e filtrar ativos por padrão")
+    void findFields_ShouldDefaultToActiveProducts() {
+        Pageable pageable = PageRequest.of(0, 20);
+        List<String> fields = List.of("sku", "quantityInStock");
+        Page<Map<String, Object>> page = new PageImpl<>(List.of(Map.of("id", 1L, "sku", "SKU-123")));
+        when(productRepository.searchFields(fields, null, null, true, null, pageable)).thenReturn(page);
+
+        assertEquals(page, service.findFields(fields, pageable, null, null, null, null));
+    }
+
     @Test
     @DisplayName("findById deve retornar DTO completo")
     void findById_ShouldReturnDTO() {
@@ -129,6 +156,13 @@ class ProductServiceTest {
         assertThrows(EntityNotFoundException.class, () -> service.findById(99L));
     }
 
+    @Test
+    @DisplayName("findBySku deve lançar EntityNotFoundException se o SKU não existir")
+    void findBySku_ShouldThrowException() {
+        when(productRepository.findScanBySku("NAO-EXISTE")).thenReturn(Optional.empty());
+        assertThrows(EntityNotFoundException.class, () -> service.findBySku("NAO-EXISTE"));
+    }
+
     @Test
     @DisplayName("create deve criar produto com estoque zero e ativo")
     void create_ShouldCreateProduct_WhenValid() {
@@ -0,0 +1,152 @@
+package com.ifsuldeminas.escrud.service;
+
+import com.ifsuldeminas.escrud.dto.LowStockItemDTO;
+import com.ifsuldeminas.escrud.dto.ProductConsumptionDTO;
+import com.ifsuldeminas.escrud.dto.PurchaseOrderDraftDTO;
+import com.ifsuldeminas.escrud.entities.MovementType;
+import com.ifsuldeminas.escrud.entities.Product;
+import com.ifsuldeminas.escrud.entities.Supplier;
+import com.ifsuldeminas.escrud.repositories.ProductRepository;
+import com.ifsuldeminas.escrud.repositories.StockMovementRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ReplenishmentServiceTest {
+
+    @InjectMocks
+    private ReplenishmentService service;
+
+    @Mock
+    private ProductRepository productRepository;
+
+    @Mock
+    private StockMovementRepository movementRepository;
+
+    @Mock
+    private LowStockIndex lowStockIndex;
+
+    private Product product;
+    private Supplier supplier;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(service, "windowDays", 30);
+        ReflectionTestUtils.setField(service, "leadTimeDays", 7);
+        ReflectionTestUtils.setField(service, "coverageDays", 30);
+        ReflectionTestUtils.setField(service, "overlapSeconds", 300);
+
+        supplier = new Supplier();
+        supplier.setId(1L);
+        supplier.setName("Alpha Distribuidora");
+
+        product = new Product();
+        product.setId(1L);
+        product.setSku("SKU-1");
+        product.setName("Papel A4");
+        product.setQuantityInStock(5);
+        product.setMinStock(10);
+        product.setCostPrice(new BigDecimal("20.00"));
+        product.setActive(true);
+        product.setDefaultSupplier(supplier);
+    }
+
+    @Test
+    void run_ShouldGroupSuggestionsBySupplier_OnFirstRun() {
+        when(productRepository.findLowStockItems())
+                .thenReturn(List.of(new LowStockItemDTO(1L, "SKU-1", "Papel A4", 5, 10)));
+        when(movementRepository.findProductIdsMovedSince(any())).thenReturn(Collections.emptyList());
+        when(movementRepository.getProductConsumption(anyCollection(), any(), eq(MovementType.SAIDA_REQUISICAO)))
+                .thenReturn(List.of(new ProductConsumptionDTO(1L, 30L)));
+        when(productRepository.findAllById(anyCollection())).thenReturn(List.of(product));
+
+        service.run();
+        List<PurchaseOrderDraftDTO> drafts = service.getPurchaseOrderDrafts();
+
+        assertEquals(1, drafts.size());
+        PurchaseOrderDraftDTO draft = drafts.get(0);
+        assertEquals(1L, draft.supplierId());
+        assertEquals(1, draft.items().size());
+        // 1 unidade/dia: ponto de pedido = 10 + 7, alvo = 17 + 30, sugerido = 47 - 5
+        assertEquals(17, draft.items().get(0).reorderPoint());
+        assertEquals(42, draft.items().get(0).suggestedQuantity());
+        assertEquals(new BigDecimal("840.00"), draft.totalCost());
+    }
+
+    @Test
+    void run_ShouldOnlyEvaluateTouchedProducts_AfterFirstRun() {
+        when(productRepository.findLowStockItems()).thenReturn(Collections.emptyList());
+        when(movementRepository.findProductIdsMovedSince(any())).thenReturn(Collections.emptyList());
+        service.run();
+
+        service.run();
+
+        verify(productRepository, times(1)).findLowStockItems();
+        verify(productRepository, never()).findAllById(anyCollection());
+    }
+
+    @Test
+    void run_ShouldRereadOverlapWindow_ForMovementsCommittedLate() {
+        when(productRepository.findLowStockItems()).thenReturn(Collections.emptyList());
+        when(movementRepository.findProductIdsMovedSince(any())).thenReturn(Collections.emptyList());
+        service.run();
+        LocalDateTime firstRun = (LocalDateTime) ReflectionTestUtils.getField(service, "lastRun");
+
+        service.run();
+
+        verify(movementRepository).findProductIdsMovedSince(firstRun.minusSeconds(300));
+    }
+
+    @Test
+    void run_ShouldDropSuggestion_WhenProductIsRestocked() {
+        when(productRepository.findLowStockItems()).thenReturn(Collections.emptyList());
+        when(movementRepository.findProductIdsMovedSince(any())).thenReturn(List.of(1L));
+        when(movementRepository.getProductConsumption(anyCollection(), any(), any())).thenReturn(Collections.emptyList());
+        when(productRepository.findAllById(anyCollection())).thenReturn(List.of(product));
+        service.run();
+        assertEquals(1, service.getPurchaseOrderDrafts().size());
+
+        product.setQuantityInStock(100);
+        service.markDirty(1L);
+        service.run();
+
+        assertTrue(service.getPurchaseOrderDrafts().isEmpty());
+    }
+
+    @Test
+    void run_ShouldDropSuggestion_WhenProductStopsMoving() {
+        product.setQuantityInStock(12);
+        when(productRepository.findLowStockItems()).thenReturn(Collections.emptyList());
+        when(movementRepository.findProductIdsMovedSince(any()))
+                .thenReturn(List.of(1L))
+                .thenReturn(Collections.emptyList());
+        // Na segunda execução o consumo saiu da janela: o ponto de pedido volta ao mínimo (10) e 12 basta
+        when(movementRepository.getProductConsumption(anyCollection(), any(), any()))
+                .thenReturn(List.of(new ProductConsumptionDTO(1L, 30L)))
+                .thenReturn(Collections.emptyList());
+        when(productRepository.findAllById(anyCollection())).thenReturn(List.of(product));
+        service.run();
+        assertEquals(1, service.getPurchaseOrderDrafts().size());
+
+        service.run();
+
+        verify(productRepository, times(2)).findAllById(List.of(1L));
+        assertTrue(service.getPurchaseOrderDrafts().isEmpty());
+    }
+}
@@ -2,6 +2,8 @@ package com.ifsuldeminas.escrud.service;
 
 import com.ifsuldeminas.escrud.dto.*;
 import com.ifsuldeminas.escrud.entities.*;
+import com.ifsuldeminas.escrud.repositories.DepartmentRepository;
+import com.ifsuldeminas.escrud.repositories.ProductAnalyticsRepository;
 import com.ifsuldeminas.escrud.repositories.ProductRepository;
 import com.ifsuldeminas.escrud.repositories.StockMovementRepository;
 import org.junit.jupiter.api.BeforeEach;
@@ -10,6 +12,7 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Page;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
@@ -34,6 +37,21 @@ class ReportServiceTest {
     @Mock
     private StockMovementRepository movementRepository;
 
+    @Mock
+    private DepartmentRepository departmentRepository;
+
+    @Mock
+    private MovementColumnStore columnStore;
+
+    @Mock
+    private LowStockIndex lowStockIndex;
+
+    @Mock
+    private ProductFacetIndex facetIndex;
+
+    @Mock
+    private ProductAnalyticsRepository analyticsRepository;
+
     private StockMovement stockMovement;
     private Product product;
     private Department department;
@@ -91,6 +109,35 @@ class ReportServiceTest {
         assertEquals("Admin User", movementDTO.userName());
     }
 
+    @Test
+    void getDashboardData_ShouldReadLowStockFromIndex_AndFilterAbcClassOnlyOverLowItems() {
+        LowStockItemDTO critical = new LowStockItemDTO(2L, "SKU-2", "Toner", 0, 5);
+        LowStockItemDTO low = new LowStockItemDTO(1L, "SKU-1", "Papel A4", 4, 5);
+        when(lowStockIndex.isReady()).thenReturn(true);
+        when(lowStockIndex.all()).thenReturn(List.of(critical, low));
+        when(analyticsRepository.findProductIdsByAbcClass(List.of(2L, 1L), AbcClass.A)).thenReturn(List.of(1L));
+        when(movementRepository.findTop10ByOrderByDateTimeDesc()).thenReturn(Collections.emptyList());
+
+        DashboardResponseDTO result = service.getDashboardData(AbcClass.A);
+
+        assertEquals(List.of(low), result.lowStockItems());
+        verify(productRepository, never()).findLowStockItems();
+        verify(productRepository, never()).findLowStockItemsByAbcClass(any());
+    }
+
+    @Test
+    void getLowStock_ShouldPageByMostCritical_WhenIndexIsNotLoaded() {
+        when(productRepository.findLowStockItems()).thenReturn(List.of(
+                new LowStockItemDTO(1L, "SKU-1", "Papel A4", 4, 5),
+                new LowStockItemDTO(2L, "SKU-2", "Toner", 0, 5),
+                new LowStockItemDTO(3L, "SKU-3", "Caneta", 1, 10)));
+
+        Page<LowStockItemDTO> page = service.getLowStock(0, 2);
+
+        assertEquals(List.of(3L, 2L), page.getContent().stream().map(LowStockItemDTO::id).toList());
+        assertEquals(3, page.getTotalElements());
+    }
+
     @Test
     void getDashboardData_ShouldReturnZeroValue_WhenTotalIsNull() {
         when(productRepository.getTotalStockValue()).thenReturn(null);
@@ -147,4 +194,135 @@ class ReportServiceTest {
                 eq(MovementType.SAIDA_REQUISICAO)
         );
     }
-}
\ No newline at end of file
+
+    @Test
+    void getConsumptionByDepartment_ShouldUseColumnStore_WhenReady() {
+        department.setId(3);
+        when(columnStore.isReady()).thenReturn(true);
+        when(columnStore.sumByDepartment(any(), any(), eq(MovementType.SAIDA_REQUISICAO)))
+                .thenReturn(List.of(new MovementColumnStore.DepartmentTotal(3, 12, 150.5)));
+        when(departmentRepository.findAllById(List.of(3))).thenReturn(List.of(department));
+
+        List<DepartmentConsumptionDTO.DepartmentConsumptionResponse> result =
+                service.getConsumptionByDepartment(LocalDate.of(2023, 1, 1), LocalDate.of(2023, 1, 31));
+
+        assertEquals(1, result.size());
+        assertEquals("IT Dept", result.get(0).department().name());
+        assertEquals(new BigDecimal("150.50"), result.get(0).totalValueConsumed());
+        assertEquals(12L, result.get(0).itemsConsumed());
+        verify(movementRepository, never()).getDepartmentConsumptionStats(any(), any(), any());
+    }
+
+    @Test
+    void getTopConsumers_ShouldSortByValueAndLimit() {
+        when(movementRepository.getDepartmentConsumptionStats(any(), any(), any())).thenReturn(List.of(
+                new DepartmentConsumptionDTO(1, "A", new BigDecimal("10"), 1L),
+                new DepartmentConsumptionDTO(2, "B", new BigDecimal("30"), 1L),
+                new DepartmentConsumptionDTO(3, "C", new BigDecimal("20"), 1L)));
+
+        var result = service.getTopConsumers(LocalDate.of(2023, 1, 1), LocalDate.of(2023, 1, 31), 2);
+
+        assertEquals(2, result.size());
+        assertEquals("B", result.get(0).department().name());
+        assertEquals("C", result.get(1).department().name());
+    }
+
+    @Test
+    void getTrend_ShouldReturnOnlyDaysWithMovement_WhenColumnStoreReady() {
+        LocalDate start = LocalDate.of(2023, 1, 1);
+        MovementColumnStore.Totals totals = mock(MovementColumnStore.Totals.class);
+        when(totals.quantity()).thenReturn(new long[]{0, 5, 0});
+        when(totals.value()).thenReturn(new double[]{0, 50, 0});
+        when(columnStore.isReady()).thenReturn(true);
+        when(columnStore.dailyTotals(start.atStartOfDay(), 3, MovementType.SAIDA_REQUISICAO, null, null))
+                .thenReturn(totals);
+
+        List<TrendPointDTO> result = service.getTrend(start, start.plusDays(2), null, null, null);
+
+        assertEquals(1, result.size());
+        assertEquals(start.plusDays(1), result.get(0).date());
+        assertEquals(5L, result.get(0).quantity());
+    }
+
+    @Test
+    void getTrend_ShouldReturnEmpty_WhenRangeIsInverted() {
+        LocalDate start = LocalDate.of(2023, 1, 10);
+
+        List<TrendPointDTO> result = service.getTrend(start, start.minusDays(3), null, null, null);
+
+        assertTrue(result.isEmpty());
+        verifyNoInteractions(columnStore, movementRepository);
+    }
+
+    @Test
+    void getTopProducts_ShouldKeepOnlyTopN_ByQuantity() {
+        Product other = new Product();
+        other.setId(2L);
+        other.setSku("SKU-2");
+        other.setName("Product B");
+        when(movementRepository.sumByProduct(any(), any(), eq(MovementType.SAIDA_REQUISICAO), eq(null), eq(null)))
+                .thenReturn(List.of(
+                        new ProductMovementTotalDTO(1L, 5, BigDecimal.TEN, 5),
+                        new ProductMovementTotalDTO(2L, 8, BigDecimal.ONE, 4),
+                        new ProductMovementTotalDTO(3L, 1, BigDecimal.ONE, 0)));
+        when(productRepository.findAllById(List.of(2L, 1L))).thenReturn(List.of(product, other));
+
+        List<TopProductDTO> result = service.getTopProducts(LocalDate.of(2023, 1, 1), LocalDate.of(2023, 1, 31),
+                TopProductMetric.QUANTIDADE, 2, MovementType.SAIDA_REQUISICAO, null, null);
+
+        assertEquals(2, result.size());
+        assertEquals(2L, result.get(0).productId());
+        assertEquals(8, result.get(0).quantityMoved());
+        assertEquals(2.0, result.get(0).turnover());
+        assertEquals("Product A", result.get(1).name());
+        assertEquals(new BigDecimal("50"), result.get(1).valueMoved());
+    }
+
+    @Test
+    void getTopProducts_ShouldRankByValue() {
+        when(movementRepository.sumByProduct(any(), any(), any(), any(), any()))
+                .thenReturn(List.of(
+                        new ProductMovementTotalDTO(1L, 5, BigDecimal.TEN, 5),
+                        new ProductMovementTotalDTO(2L, 8, BigDecimal.ONE, 4)));
+        when(productRepository.findAllById(List.of(1L))).thenReturn(List.of(product));
+
+        List<TopProductDTO> result = service.getTopProducts(LocalDate.of(2023, 1, 1), LocalDate.of(2023, 1, 31),
+                TopProductMetric.VALOR, 1, null, null, null);
+
+        assertEquals(1, result.size());
+        assertEquals(1L, result.get(0).productId());
+    }
+
+    @Test
+    void isTopProductsAvailable_ShouldWaitForBothIndexes_UnlessOneIsDisabled() {
+        when(columnStore.isEnabled()).thenReturn(true);
+        when(facetIndex.isEnabled()).thenReturn(true);
+        when(columnStore.isReady()).thenReturn(true);
+        assertFalse(service.isTopProductsAvailable());
+
+        when(facetIndex.isEnabled()).thenReturn(false);
+        assertTrue(service.isTopProductsAvailable());
+    }
+
+    @Test
+    void getTopProducts_ShouldUseColumnStore_WhenIndexesReady() {
+        when(columnStore.isReady()).thenReturn(true);
+        when(facetIndex.isReady()).thenReturn(true);
+        when(columnStore.sumByProduct(any(), any(), eq(MovementType.SAIDA_REQUISICAO), eq(null))).thenReturn(List.of(
+                new MovementColumnStore.ProductTotal(1L, 5, 10.0),
+                new MovementColumnStore.ProductTotal(2L, 8, 1.0),
+                new MovementColumnStore.ProductTotal(3L, 30, 1.0)));
+        when(facetIndex.find(1L)).thenReturn(new ProductFacetRowDTO(1L, 7, null, null, 5, 1, true));
+        when(facetIndex.find(2L)).thenReturn(new ProductFacetRowDTO(2L, 7, null, null, 4, 1, true));
+        when(facetIndex.find(3L)).thenReturn(new ProductFacetRowDTO(3L, 9, null, null, 0, 1, true));
+        when(productRepository.findAllById(List.of(2L, 1L))).thenReturn(List.of(product));
+
+        List<TopProductDTO> result = service.getTopProducts(LocalDate.of(2023, 1, 1), LocalDate.of(2023, 1, 31),
+                TopProductMetric.QUANTIDADE, 2, MovementType.SAIDA_REQUISICAO, null, 7);
+
+        assertEquals(List.of(2L, 1L), result.stream().map(TopProductDTO::productId).toList());
+        assertEquals(2.0, result.get(0).turnover());
+        assertEquals(new BigDecimal("50.00"), result.get(1).valueMoved());
+        verify(movementRepository, never()).sumByProduct(any(), any(), any(), any(), any());
+    }
+}
@@ -0,0 +1,93 @@
+package com.ifsuldeminas.escrud.service;
+
+import com.ifsuldeminas.escrud.dto.StockMovementRequestDTO;
+import com.ifsuldeminas.escrud.dto.StockMovementResponseDTO;
+import com.ifsuldeminas.escrud.entities.*;
+import com.ifsuldeminas.escrud.repositories.*;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Com ids em bloco o lote não vai ao banco a cada persist: 120 movimentações viram poucos nextval e
+// poucos executeBatch no flush. Com IDENTITY seriam 120 INSERTs avulsos.
+@SpringBootTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+class StockMovementBatchInsertTest {
+
+    private static final int MOVEMENTS = 120;
+
+    @Autowired
+    private StockMovementService service;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private CategoryRepository categoryRepository;
+
+    @Autowired
+    private DepartmentRepository departmentRepository;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private StockMovementRepository movementRepository;
+
+    private Category category;
+    private Department department;
+    private Product product;
+
+    @BeforeEach
+    void setUp() {
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken("batch-test", null, List.of()));
+        category = categoryRepository.save(Category.builder().name("Lote").active(true).build());
+        department = departmentRepository.save(Department.builder().name("Setor Lote").active(true).build());
+        product = productRepository.save(Product.builder().sku("LOTE-1").name("Parafuso")
+                .quantityInStock(MOVEMENTS).minStock(0).costPrice(BigDecimal.ONE).active(true)
+                .category(category).build());
+    }
+
+    @AfterEach
+    void tearDown() {
+        movementRepository.deleteAll(movementRepository.findByProductId(product.getId(), Pageable.unpaged()));
+        productRepository.delete(product);
+        departmentRepository.delete(department);
+        categoryRepository.delete(category);
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void createBatch_ShouldGroupInsertsIntoJdbcBatches() {
+        List<StockMovementRequestDTO> dtos = new ArrayList<>(MOVEMENTS);
+        for (int i = 0; i < MOVEMENTS; i++) {
+            dtos.add(new StockMovementRequestDTO(product.getId(), -1, MovementType.SAIDA_REQUISICAO,
+                    department.getId(), null, null));
+        }
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        List<StockMovementResponseDTO> saved = service.createBatch(dtos, null);
+
+        assertEquals(MOVEMENTS, saved.stream().map(StockMovementResponseDTO::id).distinct().count());
+        assertEquals(MOVEMENTS, statistics.getEntityInsertCount());
+        assertEquals(0, productRepository.findById(product.getId()).orElseThrow().getQuantityInStock());
+        // Leituras de usuário/produto/setor, 3 nextval, 3 lotes de INSERT e 1 UPDATE do produto
+        assertTrue(statistics.getPrepareStatementCount() < 20,
+                "prepared statements: " + statistics.getPrepareStatementCount());
+    }
+}
@@ -0,0 +1,269 @@
+package com.ifsuldeminas.escrud.service;
+
+import com.ifsuldeminas.escrud.dto.CursorPageDTO;
+import com.ifsuldeminas.escrud.dto.StockMovementRequestDTO;
+import com.ifsuldeminas.escrud.dto.StockMovementResponseDTO;
+import com.ifsuldeminas.escrud.entities.*;
+import com.ifsuldeminas.escrud.repositories.*;
+import com.ifsuldeminas.escrud.service.DataVersions.DataSet;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class StockMovementServiceTest {
+
+    @InjectMocks
+    private StockMovementService service;
+
+    @Mock
+    private StockMovementRepository movementRepository;
+
+    @Mock
+    private ProductRepository productRepository;
+
+    @Mock
+    private DepartmentRepository departmentRepository;
+
+    @Mock
+    private SupplierRepository supplierRepository;
+
+    @Mock
+    private UserRepository userRepository;
+
+    @Mock
+    private MovementColumnStore columnStore;
+
+    @Mock
+    private IdempotencyStore idempotencyStore;
+
+    @Mock
+    private DataVersions dataVersions;
+
+    @Mock
+    private ProductRefresher productRefresher;
+
+    @Mock
+    private InventoryMetrics metrics;
+
+    private static final LocalDateTime ACCEPTED_AT = LocalDateTime.of(2025, 3, 1, 8, 30);
+
+    private Product product;
+    private Department department;
+    private User user;
+
+    @BeforeEach
+    void setUp() {
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken("admin", null, List.of()));
+
+        product = new Product();
+        product.setId(1L);
+        product.setName("Papel A4");
+        product.setQuantityInStock(10);
+        product.setCostPrice(BigDecimal.TEN);
+
+        department = new Department();
+        department.setId(1);
+        department.setName("TI");
+
+        user = new User();
+        user.setName("Admin");
+
+        lenient().when(idempotencyStore.findMovementId(any())).thenReturn(null);
+    }
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    private void stubWrite() {
+        when(productRepository.findById(1L)).thenReturn(Optional.of(product));
+        when(departmentRepository.findById(1)).thenReturn(Optional.of(department));
+        when(userRepository.findByLogin("admin")).thenReturn(Optional.of(user));
+        when(movementRepository.save(any(StockMovement.class))).thenAnswer(i -> {
+            StockMovement m = i.getArgument(0);
+            m.setId(99L);
+            return m;
+        });
+    }
+
+    @Test
+    void create_ShouldDecrementStockAndRememberKey() {
+        stubWrite();
+        StockMovementRequestDTO dto = new StockMovementRequestDTO(1L, -3, MovementType.SAIDA_REQUISICAO, 1, null, null);
+
+        StockMovementResponseDTO result = service.create(dto, "scan-1");
+
+        assertEquals(7, product.getQuantityInStock());
+        assertEquals("Admin", result.userName());
+        verify(columnStore).onMovementSaved(any(StockMovement.class));
+        verify(idempotencyStore).register("scan-1", 99L);
+        // A versão nova só aparece depois que índices e colunas viram a gravação
+        InOrder afterCommit = inOrder(columnStore, productRefresher, dataVersions);
+        afterCommit.verify(columnStore).onMovementSaved(any(StockMovement.class));
+        afterCommit.verify(productRefresher).saved(product);
+        afterCommit.verify(dataVersions).bump(DataSet.STOCK);
+    }
+
+    @Test
+    void create_ShouldReturnPreviousResponse_WhenKeyAlreadyProcessed() {
+        StockMovementResponseDTO previous = new StockMovementResponseDTO(
+                5L, LocalDateTime.now(), MovementType.SAIDA_REQUISICAO, -3, null, "Papel A4", "TI", null, "Admin");
+        when(idempotencyStore.findMovementId("scan-1")).thenReturn(5L);
+        when(movementRepository.findResponseById(5L)).thenReturn(Optional.of(previous));
+
+        StockMovementResponseDTO result = service.create(
+                new StockMovementRequestDTO(1L, -3, MovementType.SAIDA_REQUISICAO, 1, null, null), "scan-1");
+
+        assertSame(previous, result);
+        verify(productRepository, never()).save(any());
+        verify(movementRepository, never()).save(any());
+        verify(idempotencyStore, never()).register(any(), any());
+    }
+
+    @Test
+    void create_ShouldRejectInsufficientStock() {
+        when(productRepository.findById(1L)).thenReturn(Optional.of(product));
+        when(userRepository.findByLogin("admin")).thenReturn(Optional.of(user));
+
+        assertThrows(IllegalArgumentException.class, () -> service.create(
+                new StockMovementRequestDTO(1L, -30, MovementType.SAIDA_REQUISICAO, 1, null, null), null));
+        verify(movementRepository, never()).save(any());
+        verify(metrics).insufficientStock();
+        verify(metrics, never()).movementSaved(any());
+    }
+
+    @Test
+    void createBatch_ShouldResolveUserOnce_AndKeyEachItem() {
+        stubWrite();
+        StockMovementRequestDTO dto = new StockMovementRequestDTO(1L, -1, MovementType.SAIDA_REQUISICAO, 1, null, null);
+
+        List<StockMovementResponseDTO> result = service.createBatch(List.of(dto, dto, dto), "lote-9");
+
+        assertEquals(3, result.size());
+        assertEquals(7, product.getQuantityInStock());
+        verify(userRepository, times(1)).findByLogin("admin");
+        verify(idempotencyStore).findMovementId("lote-9:2");
+        verify(idempotencyStore).register("lote-9:2", 99L);
+    }
+
+    @Test
+    void createCoalesced_ShouldUpdateProductOnce_AndFailOnlyOverdrawnItems() {
+        when(productRepository.findById(1L)).thenReturn(Optional.of(product));
+        when(departmentRepository.findById(1)).thenReturn(Optional.of(department));
+        when(userRepository.findById(5)).thenReturn(Optional.of(user));
+        when(movementRepository.saveAll(anyList())).thenAnswer(i -> {
+            List<StockMovement> movements = i.getArgument(0);
+            long id = 100;
+            for (StockMovement m : movements) {
+                m.setId(id++);
+            }
+            return movements;
+        });
+
+        List<StockMovementService.QueuedWrite> writes = List.of(
+                new StockMovementService.QueuedWrite(
+                        new StockMovementRequestDTO(1L, -6, MovementType.SAIDA_REQUISICAO, 1, null, null), "a", 5, ACCEPTED_AT),
+                new StockMovementService.QueuedWrite(
+                        new StockMovementRequestDTO(1L, -6, MovementType.SAIDA_REQUISICAO, 1, null, null), "b", 5, ACCEPTED_AT),
+                new StockMovementService.QueuedWrite(
+                        new StockMovementRequestDTO(1L, -6, MovementType.SAIDA_REQUISICAO, 1, null, null), "a", 5, ACCEPTED_AT),
+                new StockMovementService.QueuedWrite(
+                        new StockMovementRequestDTO(1L, -4, MovementType.SAIDA_REQUISICAO, 1, null, null), null, 5, ACCEPTED_AT));
+
+        List<StockMovementService.WriteResult> results = service.createCoalesced(1L, writes);
+
+        assertEquals(100L, results.get(0).response().id());
+        assertInstanceOf(IllegalArgumentException.class, results.get(1).error());
+        assertEquals(100L, results.get(2).response().id());
+        assertEquals(101L, results.get(3).response().id());
+        assertEquals(0, product.getQuantityInStock());
+        verify(productRepository, times(1)).save(product);
+        verify(movementRepository, never()).save(any());
+        verify(userRepository, times(1)).findById(5);
+        verify(idempotencyStore, times(1)).register("a", 100L);
+        verify(idempotencyStore, never()).register(eq("b"), any());
+        InOrder afterCommit = inOrder(productRefresher, columnStore, dataVersions);
+        afterCommit.verify(productRefresher).saved(product);
+        afterCommit.verify(columnStore, times(2)).onMovementSaved(any(StockMovement.class));
+        afterCommit.verify(dataVersions).bump(DataSet.STOCK);
+    }
+
+    @Test
+    void createGroup_ShouldKeepResultsInRequestOrder_AcrossProducts() {
+        Product other = new Product();
+        other.setId(2L);
+        other.setName("Caneta");
+        other.setQuantityInStock(5);
+        when(productRepository.findById(1L)).thenReturn(Optional.of(product));
+        when(productRepository.findById(2L)).thenReturn(Optional.of(other));
+        when(departmentRepository.findById(1)).thenReturn(Optional.of(department));
+
+        List<StockMovementService.QueuedWrite> writes = List.of(
+                new StockMovementService.QueuedWrite(
+                        new StockMovementRequestDTO(1L, -1, MovementType.SAIDA_REQUISICAO, 1, null, null), null, 5, ACCEPTED_AT),
+                new StockMovementService.QueuedWrite(
+                        new StockMovementRequestDTO(2L, -1, MovementType.SAIDA_REQUISICAO, 1, null, null), null, 5, ACCEPTED_AT),
+                new StockMovementService.QueuedWrite(
+                        new StockMovementRequestDTO(null, -1, MovementType.SAIDA_REQUISICAO, 1, null, null), null, 5, ACCEPTED_AT),
+                new StockMovementService.QueuedWrite(
+                        new StockMovementRequestDTO(1L, -2, MovementType.SAIDA_REQUISICAO, 1, null, null), null, 5, ACCEPTED_AT));
+
+        List<StockMovementService.WriteResult> results = service.createGroup(writes);
+
+        assertEquals("Papel A4", results.get(0).response().productName());
+        assertEquals("Caneta", results.get(1).response().productName());
+        assertInstanceOf(IllegalArgumentException.class, results.get(2).error());
+        assertEquals(-2, results.get(3).response().quantity());
+        assertEquals(ACCEPTED_AT, results.get(3).response().dateTime());
+        assertEquals(7, product.getQuantityInStock());
+        assertEquals(4, other.getQuantityInStock());
+        verify(movementRepository, times(2)).saveAll(anyList());
+    }
+
+    @Test
+    void currentUserId_ShouldResolveLoginOnce() {
+        user.setId(5);
+        when(userRepository.findByLogin("admin")).thenReturn(Optional.of(user));
+
+        assertEquals(5, service.currentUserId());
+        assertEquals(5, service.currentUserId());
+        verify(userRepository, times(1)).findByLogin("admin");
+    }
+
+    @Test
+    void findByCursor_ShouldFetchOneExtraRowToDetectNextPage() {
+        StockMovementResponseDTO a = new StockMovementResponseDTO(
+                9L, LocalDateTime.now(), MovementType.AJUSTE, 1, "x", "P", null, null, "Admin");
+        StockMovementResponseDTO b = new StockMovementResponseDTO(
+                8L, LocalDateTime.now(), MovementType.AJUSTE, 1, "x", "P", null, null, "Admin");
+        when(movementRepository.searchBefore(eq(10L), any(), any(), any(), any(), any(), any()))
+                .thenReturn(List.of(a, b));
+
+        CursorPageDTO<StockMovementResponseDTO> page = service.findByCursor(10L, 1, null, null, null, null, null);
+
+        assertEquals(1, page.content().size());
+        assertTrue(page.hasNext());
+        assertEquals(9L, page.nextCursor());
+    }
+}
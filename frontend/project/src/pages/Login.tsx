@@ -89,7 +89,6 @@ export function Login() {
                 className="w-full px-3 py-2 border border-gray-300 rounded-lg focus:ring-2 focus:ring-blue-500 focus:border-transparent"
               >
                 <option value="USER">Usuário</option>
-                <option value="ADMIN">Administrador</option>
               </select>
             </div>
           )}
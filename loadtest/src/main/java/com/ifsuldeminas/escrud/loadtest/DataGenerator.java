@@ -0,0 +1,305 @@
+package com.ifsuldeminas.escrud.loadtest;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Random;
+
+// Popula o banco do backend (esquema do Flyway, perfil prod) com um almoxarifado de tamanho real:
+// categorias, setores, fornecedores, produtos e milhões de movimentações, a maior parte concentrada em
+// poucos SKUs quentes, como no uso real. Os ids começam depois do maior existente e as sequências são
+// reposicionadas no fim, então dá para rodar sobre uma base com dados. Com o backend parado: os blocos de
+// ids que ele tem em memória e os índices carregados na subida ficariam desatualizados.
+//
+// Gera também os feeders do WarehouseSimulation em seed.output (produtos, SKUs quentes, setores,
+// fornecedores e termos de busca). Mesma seed.random-seed, mesma base.
+// No PostgreSQL, use reWriteBatchedInserts=true na URL: os lotes viram INSERTs de várias linhas.
+@Slf4j
+public class DataGenerator {
+
+    static final List<String> NOUNS = List.of("Papel", "Caneta", "Toner", "Grampeador", "Pasta", "Envelope",
+            "Cabo", "Mouse", "Teclado", "Pilha", "Lampada", "Fita", "Luva", "Mascara", "Detergente", "Copo",
+            "Cafe", "Acucar", "Parafuso", "Broca", "Tinta", "Pincel", "Etiqueta", "Caderno", "Clips");
+    static final List<String> VARIANTS = List.of("A4", "Azul", "Preto", "Branco", "Grande", "Pequeno", "Premium",
+            "Economico", "USB", "Reciclado", "Inox", "Kit", "Refil", "Profissional");
+
+    private static final int BATCH_SIZE = 5_000;
+    private static final int COMMIT_EVERY = 100_000;
+    private static final String[] SEQUENCES = {"categories_seq", "departments_seq", "suppliers_seq", "users_seq",
+            "products_seq", "stock_movements_seq"};
+
+    private final Connection connection;
+    private final Settings settings;
+    private final Random random;
+
+    DataGenerator(Connection connection, Settings settings) {
+        this.connection = connection;
+        this.settings = settings;
+        this.random = new Random(settings.randomSeed());
+    }
+
+    public static void main(String[] args) throws Exception {
+        Settings settings = Settings.fromSystemProperties();
+        try (Connection connection = DriverManager.getConnection(settings.url(), settings.user(), settings.password())) {
+            connection.setAutoCommit(false);
+            new DataGenerator(connection, settings).run();
+        }
+    }
+
+    void run() throws SQLException, IOException {
+        long start = System.nanoTime();
+        Path output = Files.createDirectories(Path.of(settings.output()));
+
+        long[] categories = insertNamed("categories", "Categoria", settings.categories());
+        long[] departments = insertNamed("departments", "Setor", settings.departments());
+        long[] suppliers = insertSuppliers();
+        long[] users = insertUsers();
+        long[] products = insertProducts(categories, suppliers, output);
+        connection.commit();
+        log.info("{} produtos, {} setores, {} fornecedores", products.length, departments.length, suppliers.length);
+
+        insertMovements(products, departments, suppliers, users);
+        realignSequences();
+        connection.commit();
+
+        writeIds(output.resolve("departments.csv"), "departmentId", departments);
+        writeIds(output.resolve("suppliers.csv"), "supplierId", suppliers);
+        try (PrintWriter out = new PrintWriter(Files.newBufferedWriter(output.resolve("terms.csv")))) {
+            out.println("term");
+            NOUNS.forEach(out::println);
+        }
+        log.info("Concluído em {} s; feeders em {}", (System.nanoTime() - start) / 1_000_000_000, output.toAbsolutePath());
+    }
+
+    private long[] insertNamed(String table, String prefix, int count) throws SQLException {
+        long first = nextId(table);
+        long[] ids = new long[count];
+        try (PreparedStatement insert = connection.prepareStatement(
+                "INSERT INTO " + table + " (id, name, active) VALUES (?, ?, TRUE)")) {
+            for (int i = 0; i < count; i++) {
+                ids[i] = first + i;
+                insert.setLong(1, ids[i]);
+                insert.setString(2, prefix + " " + ids[i]);
+                insert.addBatch();
+            }
+            insert.executeBatch();
+        }
+        return ids;
+    }
+
+    private long[] insertSuppliers() throws SQLException {
+        long first = nextId("suppliers");
+        long[] ids = new long[settings.suppliers()];
+        try (PreparedStatement insert = connection.prepareStatement(
+                "INSERT INTO suppliers (id, name, contact_info, active) VALUES (?, ?, ?, TRUE)")) {
+            for (int i = 0; i < ids.length; i++) {
+                ids[i] = first + i;
+                insert.setLong(1, ids[i]);
+                insert.setString(2, "Fornecedor " + ids[i]);
+                insert.setString(3, "compras" + ids[i] + "@fornecedor.example");
+                insert.addBatch();
+            }
+            insert.executeBatch();
+        }
+        return ids;
+    }
+
+    // Operadores que assinam as movimentações históricas; não fazem login (hash inválido de propósito)
+    private long[] insertUsers() throws SQLException {
+        long first = nextId("users");
+        long[] ids = new long[settings.operators()];
+        try (PreparedStatement insert = connection.prepareStatement(
+                "INSERT INTO users (id, name, login, password_hash, role, active) VALUES (?, ?, ?, '!', 'USER', TRUE)")) {
+            for (int i = 0; i < ids.length; i++) {
+                ids[i] = first + i;
+                insert.setLong(1, ids[i]);
+                insert.setString(2, "Operador " + ids[i]);
+                insert.setString(3, "operador-" + ids[i]);
+                insert.addBatch();
+            }
+            insert.executeBatch();
+        }
+        return ids;
+    }
+
+    // Estoque alto para a simulação não esbarrar em saldo insuficiente; uma fração fica abaixo do mínimo
+    // para o relatório de estoque baixo ter o que listar (e fica de fora dos feeders de movimentação)
+    private long[] insertProducts(long[] categories, long[] suppliers, Path output) throws SQLException, IOException {
+        long first = nextId("products");
+        long[] ids = new long[settings.products()];
+        try (PreparedStatement insert = connection.prepareStatement(
+                "INSERT INTO products (id, sku, name, description, quantity_in_stock, min_stock, cost_price, "
+                        + "location, active, category_id, default_supplier_id) VALUES (?, ?, ?, ?, ?, ?, ?, ?, TRUE, ?, ?)");
+             PrintWriter all = new PrintWriter(Files.newBufferedWriter(output.resolve("products.csv")));
+             PrintWriter hot = new PrintWriter(Files.newBufferedWriter(output.resolve("hot-products.csv")));
+             PrintWriter stocked = new PrintWriter(Files.newBufferedWriter(output.resolve("stocked-products.csv")))) {
+            all.println("productId,sku");
+            hot.println("productId,sku");
+            stocked.println("productId,sku");
+            for (int i = 0; i < ids.length; i++) {
+                ids[i] = first + i;
+                String sku = "LT-" + ids[i];
+                int minStock = 5 + random.nextInt(46);
+                boolean low = i >= settings.hotProducts() && random.nextDouble() < 0.03;
+                insert.setLong(1, ids[i]);
+                insert.setString(2, sku);
+                insert.setString(3, NOUNS.get(random.nextInt(NOUNS.size())) + " "
+                        + VARIANTS.get(random.nextInt(VARIANTS.size())) + " " + ids[i]);
+                insert.setString(4, null);
+                insert.setInt(5, low ? random.nextInt(minStock) : 1_000_000);
+                insert.setInt(6, minStock);
+                insert.setBigDecimal(7, BigDecimal.valueOf(50 + random.nextInt(50_000), 2));
+                insert.setString(8, "A" + (1 + random.nextInt(20)) + "-P" + (1 + random.nextInt(10)));
+                insert.setLong(9, categories[random.nextInt(categories.length)]);
+                insert.setLong(10, suppliers[random.nextInt(suppliers.length)]);
+                insert.addBatch();
+                if ((i + 1) % BATCH_SIZE == 0) {
+                    insert.executeBatch();
+                }
+
+                all.println(ids[i] + "," + sku);
+                if (i < settings.hotProducts()) {
+                    hot.println(ids[i] + "," + sku);
+                }
+                if (!low) {
+                    stocked.println(ids[i] + "," + sku);
+                }
+            }
+            insert.executeBatch();
+        }
+        return ids;
+    }
+
+    // Datas espalhadas em seed.days dias até agora; seed.hot-share das linhas cai nos SKUs quentes
+    private void insertMovements(long[] products, long[] departments, long[] suppliers, long[] users)
+            throws SQLException {
+        long first = nextId("stock_movements");
+        long total = settings.movements();
+        long windowSeconds = settings.days() * 86_400L;
+        LocalDateTime now = LocalDateTime.now();
+        try (PreparedStatement insert = connection.prepareStatement(
+                "INSERT INTO stock_movements (id, date_time, type, quantity, reason, product_id, department_id, "
+                        + "supplier_id, user_id) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)")) {
+            for (long i = 0; i < total; i++) {
+                long product = random.nextDouble() < settings.hotShare()
+                        ? products[random.nextInt(Math.min(settings.hotProducts(), products.length))]
+                        : products[random.nextInt(products.length)];
+                insert.setLong(1, first + i);
+                insert.setTimestamp(2, Timestamp.valueOf(now.minusSeconds((long) (random.nextDouble() * windowSeconds))));
+                insert.setLong(6, product);
+                insert.setLong(9, users[random.nextInt(users.length)]);
+
+                double kind = random.nextDouble();
+                if (kind < 0.70) {
+                    movement(insert, "SAIDA_REQUISICAO", -(1 + random.nextInt(10)), null,
+                            departments[random.nextInt(departments.length)], null);
+                } else if (kind < 0.90) {
+                    movement(insert, "ENTRADA_COMPRA", 10 + random.nextInt(191), null,
+                            null, suppliers[random.nextInt(suppliers.length)]);
+                } else if (kind < 0.98) {
+                    movement(insert, "DEVOLUCAO", 1 + random.nextInt(5), null,
+                            departments[random.nextInt(departments.length)], null);
+                } else {
+                    movement(insert, "AJUSTE", random.nextInt(11) - 5, "Inventario", null, null);
+                }
+                insert.addBatch();
+
+                if ((i + 1) % BATCH_SIZE == 0) {
+                    insert.executeBatch();
+                }
+                if ((i + 1) % COMMIT_EVERY == 0) {
+                    connection.commit();
+                    if ((i + 1) % (COMMIT_EVERY * 10) == 0) {
+                        log.info("{} de {} movimentações", i + 1, total);
+                    }
+                }
+            }
+            insert.executeBatch();
+        }
+        log.info("{} movimentações", total);
+    }
+
+    private static void movement(PreparedStatement insert, String type, int quantity, String reason,
+                                 Long department, Long supplier) throws SQLException {
+        insert.setString(3, type);
+        insert.setInt(4, quantity);
+        insert.setString(5, reason);
+        insert.setObject(7, department);
+        insert.setObject(8, supplier);
+    }
+
+    private long nextId(String table) throws SQLException {
+        try (Statement statement = connection.createStatement();
+             ResultSet rs = statement.executeQuery("SELECT COALESCE(MAX(id), 0) FROM " + table)) {
+            rs.next();
+            return rs.getLong(1) + 1;
+        }
+    }
+
+    // O próximo nextval tem de ficar acima de tudo que foi inserido tanto no otimizador pooled (o valor é o
+    // topo do bloco) quanto no pooled-lo (o valor é a base): maior id + incremento + 1
+    private void realignSequences() throws SQLException {
+        for (String sequence : SEQUENCES) {
+            String table = sequence.substring(0, sequence.length() - "_seq".length());
+            long restart = nextId(table) + increment(sequence);
+            try (Statement statement = connection.createStatement()) {
+                statement.execute("ALTER SEQUENCE " + sequence + " RESTART WITH " + restart);
+            }
+        }
+    }
+
+    private long increment(String sequence) throws SQLException {
+        try (PreparedStatement query = connection.prepareStatement(
+                "SELECT increment FROM information_schema.sequences WHERE LOWER(sequence_name) = ?")) {
+            query.setString(1, sequence);
+            try (ResultSet rs = query.executeQuery()) {
+                return rs.next() ? Long.parseLong(rs.getString(1)) : 50;
+            }
+        }
+    }
+
+    private static void writeIds(Path file, String header, long[] ids) throws IOException {
+        try (PrintWriter out = new PrintWriter(Files.newBufferedWriter(file))) {
+            out.println(header);
+            for (long id : ids) {
+                out.println(id);
+            }
+        }
+    }
+
+    record Settings(String url, String user, String password, int categories, int departments, int suppliers,
+                    int operators, int products, int hotProducts, double hotShare, long movements, int days,
+                    long randomSeed, String output) {
+
+        static Settings fromSystemProperties() {
+            return new Settings(
+                    System.getProperty("seed.url", "jdbc:postgresql://localhost:5432/escrud?reWriteBatchedInserts=true"),
+                    System.getProperty("seed.user", "escrud"),
+                    System.getProperty("seed.password", ""),
+                    Integer.getInteger("seed.categories", 30),
+                    Integer.getInteger("seed.departments", 40),
+                    Integer.getInteger("seed.suppliers", 200),
+                    Integer.getInteger("seed.operators", 25),
+                    Integer.getInteger("seed.products", 20_000),
+                    Integer.getInteger("seed.hot-products", 50),
+                    Double.parseDouble(System.getProperty("seed.hot-share", "0.8")),
+                    Long.getLong("seed.movements", 5_000_000L),
+                    Integer.getInteger("seed.days", 365),
+                    Long.getLong("seed.random-seed", 42L),
+                    System.getProperty("seed.output", "target/seed"));
+        }
+    }
+}
@@ -0,0 +1,66 @@
+package com.ifsuldeminas.escrud.loadtest;
+
+import org.h2.tools.RunScript;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.Reader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Esquema do backend (V1 do Flyway) num H2 em modo PostgreSQL, base pequena
+class DataGeneratorTest {
+
+    private static final Path BASELINE = Path.of("../backend/src/main/resources/db/migration/V1__baseline_schema.sql");
+
+    @TempDir
+    Path output;
+
+    @Test
+    void run_ShouldSeedSkewedMovementsAndRealignSequences() throws Exception {
+        try (Connection connection = DriverManager.getConnection(
+                "jdbc:h2:mem:seed;MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE;DEFAULT_NULL_ORDERING=HIGH", "sa", "");
+             Reader baseline = Files.newBufferedReader(BASELINE)) {
+            RunScript.execute(connection, baseline);
+            connection.setAutoCommit(false);
+
+            new DataGenerator(connection, settings(1_000, 20_000)).run();
+            // Segunda rodada sobre a base existente: ids seguem depois dos atuais
+            new DataGenerator(connection, settings(100, 1_000)).run();
+
+            assertEquals(1_100, count(connection, "SELECT COUNT(*) FROM products"));
+            assertEquals(21_000, count(connection, "SELECT COUNT(*) FROM stock_movements"));
+            long hot = count(connection, "SELECT COUNT(*) FROM stock_movements WHERE product_id <= 10");
+            assertTrue(hot > 20_000 * 0.75, "movimentações nos SKUs quentes: " + hot);
+
+            // Próximo bloco do Hibernate (pooled: topo do bloco) não colide com os ids semeados
+            long maxId = count(connection, "SELECT MAX(id) FROM stock_movements");
+            long next = count(connection, "SELECT NEXT VALUE FOR stock_movements_seq");
+            assertTrue(next - 50 >= maxId, "nextval " + next + ", maior id " + maxId);
+        }
+
+        List<String> hotSkus = Files.readAllLines(output.resolve("hot-products.csv"));
+        assertEquals(List.of("productId,sku", "1001,LT-1001"), hotSkus.subList(0, 2));
+        assertEquals(11, hotSkus.size());
+        assertEquals("departmentId", Files.readAllLines(output.resolve("departments.csv")).get(0));
+    }
+
+    private DataGenerator.Settings settings(int products, long movements) {
+        return new DataGenerator.Settings(null, null, null, 3, 4, 5, 2, products, 10, 0.8, movements, 30, 7L,
+                output.toString());
+    }
+
+    private static long count(Connection connection, String sql) throws Exception {
+        try (Statement statement = connection.createStatement(); ResultSet rs = statement.executeQuery(sql)) {
+            rs.next();
+            return rs.getLong(1);
+        }
+    }
+}
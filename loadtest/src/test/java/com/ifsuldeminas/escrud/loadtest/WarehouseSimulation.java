@@ -0,0 +1,132 @@
+package com.ifsuldeminas.escrud.loadtest;
+
+import io.gatling.javaapi.core.ChainBuilder;
+import io.gatling.javaapi.core.FeederBuilder;
+import io.gatling.javaapi.core.ScenarioBuilder;
+import io.gatling.javaapi.core.Simulation;
+import io.gatling.javaapi.http.HttpProtocolBuilder;
+import io.gatling.javaapi.http.HttpRequestActionBuilder;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.time.LocalDate;
+
+import static io.gatling.javaapi.core.CoreDsl.*;
+import static io.gatling.javaapi.http.HttpDsl.*;
+
+// Tráfego de um dia de almoxarifado sobre a base do DataGenerator: 70% consultas de produto, 20%
+// movimentações (80% nos SKUs quentes) e 10% relatórios, todos com JWT do POST /auth/login. Cada usuário
+// virtual faz login uma vez e repete o mix por durationSeconds, com pausa de pensar entre as requisições.
+// O relatório (target/gatling) traz percentis e vazão por requisição, uma linha por endpoint; as asserções
+// falham o build se a taxa de erro ou o p95/p99 de qualquer endpoint passar do limite.
+//
+// mvn gatling:test -DbaseUrl=http://localhost:8080 -Dusers=50 -DrampSeconds=30 -DdurationSeconds=300
+//                  -Dp95Millis=500 -Dp99Millis=2000 -DseedDir=target/seed
+public class WarehouseSimulation extends Simulation {
+
+    private static final String BASE_URL = System.getProperty("baseUrl", "http://localhost:8080");
+    private static final int USERS = Integer.getInteger("users", 50);
+    private static final Duration RAMP = Duration.ofSeconds(Integer.getInteger("rampSeconds", 30));
+    private static final Duration DURATION = Duration.ofSeconds(Integer.getInteger("durationSeconds", 300));
+    private static final int P95_MILLIS = Integer.getInteger("p95Millis", 500);
+    private static final int P99_MILLIS = Integer.getInteger("p99Millis", 2000);
+    private static final String SEED_DIR = System.getProperty("seedDir", "target/seed");
+    private static final String LOGIN = System.getProperty("login", "carga");
+    private static final String PASSWORD = System.getProperty("password", "carga123");
+
+    private static final String TODAY = LocalDate.now().toString();
+    private static final String LAST_30_DAYS = LocalDate.now().minusDays(30).toString();
+    private static final String LAST_90_DAYS = LocalDate.now().minusDays(90).toString();
+
+    private final FeederBuilder<String> products = csv(SEED_DIR + "/products.csv").random();
+    private final FeederBuilder<String> stockedProducts = csv(SEED_DIR + "/stocked-products.csv").random();
+    private final FeederBuilder<String> hotProducts = csv(SEED_DIR + "/hot-products.csv").random();
+    private final FeederBuilder<String> departments = csv(SEED_DIR + "/departments.csv").random();
+    private final FeederBuilder<String> suppliers = csv(SEED_DIR + "/suppliers.csv").random();
+    private final FeederBuilder<String> terms = csv(SEED_DIR + "/terms.csv").random();
+
+    private final HttpProtocolBuilder protocol = http
+            .baseUrl(BASE_URL)
+            .acceptHeader("application/json")
+            .contentTypeHeader("application/json")
+            .acceptEncodingHeader("gzip");
+
+    private final ChainBuilder login = exec(http("login")
+            .post("/auth/login")
+            .body(StringBody("{\"login\":\"" + LOGIN + "\",\"password\":\"" + PASSWORD + "\"}"))
+            .check(status().is(200), jmesPath("token").saveAs("token")));
+
+    private final ChainBuilder lookups = randomSwitch().on(
+            percent(40.0).then(feed(products).exec(authed(http("produto por id")
+                    .get("/api/products/#{productId}")))),
+            percent(20.0).then(feed(products).exec(authed(http("produto por sku")
+                    .get("/api/products/sku/#{sku}")))),
+            percent(25.0).then(feed(terms).exec(authed(http("busca de produtos")
+                    .get("/api/products").queryParam("name", "#{term}").queryParam("page", "0")))),
+            percent(15.0).then(exec(authed(http("facetas de produtos")
+                    .get("/api/products/facets").queryParam("stockStatus", "BELOW_MIN")))));
+
+    // Saídas concentradas nos SKUs quentes; entradas de compra espalhadas pelo catálogo
+    private final ChainBuilder movements = randomSwitch().on(
+            percent(80.0).then(feed(hotProducts).feed(departments).exec(authed(http("saida de SKU quente")
+                    .post("/api/stock-movements")
+                    .body(StringBody("{\"productId\":#{productId},\"quantity\":-1,\"type\":\"SAIDA_REQUISICAO\","
+                            + "\"departmentId\":#{departmentId}}"))
+                    .check(status().in(201, 202))))),
+            percent(20.0).then(feed(stockedProducts).feed(suppliers).exec(authed(http("entrada de compra")
+                    .post("/api/stock-movements")
+                    .body(StringBody("{\"productId\":#{productId},\"quantity\":20,\"type\":\"ENTRADA_COMPRA\","
+                            + "\"supplierId\":#{supplierId}}"))
+                    .check(status().in(201, 202))))));
+
+    private final ChainBuilder reports = randomSwitch().on(
+            percent(35.0).then(exec(authed(http("dashboard").get("/api/relatorios/dashboard")))),
+            percent(20.0).then(exec(authed(http("estoque baixo").get("/api/relatorios/estoque-baixo")))),
+            percent(20.0).then(exec(authed(http("top produtos 30 dias").get("/api/relatorios/top-produtos")
+                    .queryParam("dataInicio", LAST_30_DAYS).queryParam("dataFim", TODAY)))),
+            percent(15.0).then(exec(authed(http("tendencia 90 dias").get("/api/relatorios/tendencia")
+                    .queryParam("dataInicio", LAST_90_DAYS).queryParam("dataFim", TODAY)))),
+            percent(10.0).then(exec(authed(http("consumo por setor").get("/api/relatorios/consumo-departamento")
+                    .queryParam("dataInicio", LAST_30_DAYS).queryParam("dataFim", TODAY)))));
+
+    private final ScenarioBuilder warehouse = scenario("almoxarifado")
+            .exec(login)
+            .during(DURATION).on(
+                    randomSwitch().on(
+                            percent(70.0).then(lookups),
+                            percent(20.0).then(movements),
+                            percent(10.0).then(reports)),
+                    pause(Duration.ofMillis(100), Duration.ofMillis(500)));
+
+    {
+        setUp(warehouse.injectOpen(rampUsers(USERS).during(RAMP)))
+                .protocols(protocol)
+                .assertions(
+                        global().failedRequests().percent().lt(1.0),
+                        forAll().responseTime().percentile(95.0).lt(P95_MILLIS),
+                        forAll().responseTime().percentile(99.0).lt(P99_MILLIS));
+    }
+
+    private static HttpRequestActionBuilder authed(HttpRequestActionBuilder request) {
+        return request.header("Authorization", "Bearer #{token}");
+    }
+
+    // Usuário da carga: cadastrado na primeira execução (400 se já existir). Papel comum: o cadastro é
+    // público e nada do mix passa por /api/admin
+    @Override
+    public void before() {
+        String body = "{\"name\":\"Teste de carga\",\"login\":\"" + LOGIN + "\",\"password\":\"" + PASSWORD
+                + "\",\"role\":\"USER\"}";
+        try {
+            HttpClient.newHttpClient().send(HttpRequest.newBuilder(URI.create(BASE_URL + "/auth/register"))
+                            .header("Content-Type", "application/json")
+                            .POST(HttpRequest.BodyPublishers.ofString(body)).build(),
+                    HttpResponse.BodyHandlers.discarding());
+        } catch (Exception e) {
+            throw new IllegalStateException("Backend fora do ar em " + BASE_URL, e);
+        }
+    }
+}